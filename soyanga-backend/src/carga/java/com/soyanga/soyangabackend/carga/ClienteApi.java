@@ -0,0 +1,86 @@
+package com.soyanga.soyangabackend.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/** Cliente HTTP mínimo contra la API (JWT compartido; se renueva con un login ante un 401). */
+final class ClienteApi {
+
+    record Respuesta(int status, String cuerpo) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final ConfigCarga cfg;
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile String token;
+
+    ClienteApi(ConfigCarga cfg) {
+        this.cfg = cfg;
+    }
+
+    void login() throws IOException, InterruptedException {
+        var body = json.createObjectNode()
+                .put("usuarioOEmail", cfg.usuario())
+                .put("password", cfg.password());
+        var r = enviar("POST", "/api/v1/auth/login", json.writeValueAsString(body), false);
+        if (!r.ok()) throw new IllegalStateException("Login falló (" + r.status() + "): " + r.cuerpo());
+        token = json.readTree(r.cuerpo()).path("accessToken").asText();
+    }
+
+    Respuesta get(String ruta) throws IOException, InterruptedException {
+        return conReintentoDeLogin("GET", ruta, null);
+    }
+
+    Respuesta post(String ruta, Object cuerpo) throws IOException, InterruptedException {
+        return conReintentoDeLogin("POST", ruta, json.writeValueAsString(cuerpo));
+    }
+
+    JsonNode leer(Respuesta r) throws IOException {
+        return json.readTree(r.cuerpo());
+    }
+
+    ObjectMapper json() {
+        return json;
+    }
+
+    private Respuesta conReintentoDeLogin(String metodo, String ruta, String cuerpo)
+            throws IOException, InterruptedException {
+        var r = enviar(metodo, ruta, cuerpo, true);
+        if (r.status() == 401) {
+            synchronized (this) {
+                login();
+            }
+            r = enviar(metodo, ruta, cuerpo, true);
+        }
+        return r;
+    }
+
+    private Respuesta enviar(String metodo, String ruta, String cuerpo, boolean autenticado)
+            throws IOException, InterruptedException {
+        var b = HttpRequest.newBuilder(URI.create(cfg.url() + ruta))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (autenticado && token != null) b.header("Authorization", "Bearer " + token);
+        if (cuerpo != null) {
+            b.header("Content-Type", "application/json").method(metodo, HttpRequest.BodyPublishers.ofString(cuerpo));
+        } else {
+            b.method(metodo, HttpRequest.BodyPublishers.noBody());
+        }
+        var r = http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+        return new Respuesta(r.statusCode(), r.body());
+    }
+}
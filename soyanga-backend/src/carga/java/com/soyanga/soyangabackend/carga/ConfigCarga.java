@@ -0,0 +1,75 @@
+package com.soyanga.soyangabackend.carga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga (propiedades de sistema {@code -Dcarga.*}).
+ *
+ * @param productos     presentaciones sembradas (una por producto)
+ * @param lotes         lotes por presentación
+ * @param almacenes     almacenes; cada lote tiene existencia en todos
+ * @param stockPorLote  cantidad disponible inicial por (almacén, lote)
+ * @param mezcla        peso relativo de cada operación
+ */
+record ConfigCarga(
+        String url,
+        String usuario,
+        String password,
+        String dbUrl,
+        String dbUsuario,
+        String dbPassword,
+        int productos,
+        int lotes,
+        int almacenes,
+        int stockPorLote,
+        boolean reutilizarSemilla,
+        int hilos,
+        int calentamientoSeg,
+        int duracionSeg,
+        Map<Operacion, Integer> mezcla,
+        String salida) {
+
+    enum Operacion { VENTA, RESERVA, TRANSFERENCIA, CATALOGO }
+
+    static ConfigCarga desdeSistema() {
+        return new ConfigCarga(
+                prop("carga.url", "http://localhost:8084"),
+                prop("carga.usuario", "admin"),
+                prop("carga.password", "Admin12345"),
+                prop("carga.db.url", "jdbc:postgresql://localhost:5432/soyanga"),
+                prop("carga.db.usuario", "postgres"),
+                prop("carga.db.password", "1234"),
+                entero("carga.productos", 200),
+                entero("carga.lotes", 5),
+                entero("carga.almacenes", 4),
+                entero("carga.stock-por-lote", 100_000),
+                Boolean.parseBoolean(prop("carga.reutilizar-semilla", "true")),
+                entero("carga.hilos", 16),
+                entero("carga.calentamiento-s", 10),
+                entero("carga.duracion-s", 60),
+                mezcla(prop("carga.mezcla", "venta:40,reserva:20,transferencia:10,catalogo:30")),
+                prop("carga.salida", "target/carga-resultado.json"));
+    }
+
+    /** "venta:40,reserva:20,..." → pesos (las operaciones con peso 0 no se ejecutan) */
+    private static Map<Operacion, Integer> mezcla(String s) {
+        Map<Operacion, Integer> m = new LinkedHashMap<>();
+        for (String parte : s.split(",")) {
+            String[] kv = parte.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("carga.mezcla inválida: " + s);
+            int peso = Integer.parseInt(kv[1].trim());
+            if (peso > 0) m.put(Operacion.valueOf(kv[0].trim().toUpperCase()), peso);
+        }
+        if (m.isEmpty()) throw new IllegalArgumentException("carga.mezcla sin operaciones");
+        return m;
+    }
+
+    private static String prop(String k, String def) {
+        return System.getProperty(k, def);
+    }
+
+    private static int entero(String k, int def) {
+        return Integer.parseInt(prop(k, String.valueOf(def)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.soyanga.soyangabackend.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (HdrHistogram, µs) y resultados por operación. Solo cuenta lo ocurrido con
+ * {@code midiendo = true} (el calentamiento se descarta).
+ */
+final class EstadisticasCarga {
+
+    private static final long MAX_US = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<ConfigCarga.Operacion, Medida> medidas = new ConcurrentHashMap<>();
+    volatile boolean midiendo;
+
+    static final class Medida {
+        final Histogram latencias = new ConcurrentHistogram(MAX_US, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final LongAdder deadlocks = new LongAdder();
+        final ConcurrentHashMap<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+    }
+
+    void registrar(ConfigCarga.Operacion op, long nanos, int status, String cuerpo) {
+        if (!midiendo) return;
+        var m = medidas.computeIfAbsent(op, k -> new Medida());
+        m.latencias.recordValue(Math.min(MAX_US, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        m.porStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+        if (status >= 200 && status < 300) {
+            m.ok.increment();
+        } else {
+            m.errores.increment();
+            if (esDeadlock(cuerpo)) m.deadlocks.increment();
+        }
+    }
+
+    /** El handler global devuelve 500 con el detalle SQL; 40P01 = deadlock_detected. */
+    private static boolean esDeadlock(String cuerpo) {
+        if (cuerpo == null) return false;
+        String c = cuerpo.toLowerCase();
+        return c.contains("40p01") || c.contains("deadlock");
+    }
+
+    /** Imprime la tabla y escribe el JSON en {@code salida}. */
+    void reportar(ConfigCarga cfg, double segundos, long deadlocksBd) throws IOException {
+        var om = new ObjectMapper();
+        ObjectNode raiz = om.createObjectNode();
+        raiz.put("url", cfg.url());
+        raiz.put("productos", cfg.productos());
+        raiz.put("lotesPorProducto", cfg.lotes());
+        raiz.put("almacenes", cfg.almacenes());
+        raiz.put("hilos", cfg.hilos());
+        raiz.put("duracionSeg", segundos);
+        raiz.put("deadlocksBd", deadlocksBd);
+        var ops = raiz.putObject("operaciones");
+
+        System.out.printf("%n%-14s %9s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "operación", "ok", "errores", "deadlk", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "media ms");
+        new TreeMap<>(medidas).forEach((op, m) -> {
+            var h = m.latencias;
+            double tput = m.ok.sum() / segundos;
+            System.out.printf("%-14s %9d %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    op.name().toLowerCase(), m.ok.sum(), m.errores.sum(), m.deadlocks.sum(), tput,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(95)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getMaxValue()), h.getMean() / 1000.0);
+
+            var n = ops.putObject(op.name().toLowerCase());
+            n.put("ok", m.ok.sum());
+            n.put("errores", m.errores.sum());
+            n.put("deadlocks", m.deadlocks.sum());
+            n.put("opsPorSeg", tput);
+            n.put("p50Ms", ms(h.getValueAtPercentile(50)));
+            n.put("p95Ms", ms(h.getValueAtPercentile(95)));
+            n.put("p99Ms", ms(h.getValueAtPercentile(99)));
+            n.put("maxMs", ms(h.getMaxValue()));
+            n.put("mediaMs", h.getMean() / 1000.0);
+            var st = n.putObject("porStatus");
+            new TreeMap<>(m.porStatus).forEach((s, c) -> st.put(String.valueOf(s), c.sum()));
+        });
+        System.out.printf("%nDeadlocks detectados por PostgreSQL durante la medición: %d%n", deadlocksBd);
+
+        Path salida = Path.of(cfg.salida());
+        if (salida.getParent() != null) Files.createDirectories(salida.getParent());
+        om.writerWithDefaultPrettyPrinter().writeValue(salida.toFile(), raiz);
+        System.out.printf("Resultado: %s%n", salida.toAbsolutePath());
+    }
+
+    private static double ms(long us) {
+        return us / 1000.0;
+    }
+}
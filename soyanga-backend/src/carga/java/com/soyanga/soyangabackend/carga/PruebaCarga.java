@@ -0,0 +1,170 @@
+package com.soyanga.soyangabackend.carga;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Prueba de carga de los flujos de venta, reserva de anticipo, transferencia y lectura de catálogo
+ * contra un backend ya levantado y su PostgreSQL local.
+ * <p>
+ * 1) Siembra N productos × M lotes × K almacenes ({@link SemillaCarga}); 2) inicia sesión y crea un
+ * anticipo por hilo; 3) cada hilo ejecuta operaciones según {@code carga.mezcla} durante el
+ * calentamiento (descartado) y la medición; 4) reporta ops/s, p50/p95/p99 y deadlocks, tanto los que
+ * llegan como error a la API como el delta de {@code pg_stat_database.deadlocks}.
+ * <pre>
+ * mvn -Pcarga test-compile exec:java -Dcarga.hilos=32 -Dcarga.duracion-s=120 \
+ *     -Dcarga.productos=500 -Dcarga.lotes=8 -Dcarga.almacenes=6
+ * </pre>
+ * El usuario ({@code carga.usuario}) necesita permisos de ventas, anticipos e inventario.
+ */
+public final class PruebaCarga {
+
+    private final ConfigCarga cfg;
+    private final ClienteApi api;
+    private final EstadisticasCarga stats = new EstadisticasCarga();
+    private SemillaCarga.Datos datos;
+
+    private PruebaCarga(ConfigCarga cfg) {
+        this.cfg = cfg;
+        this.api = new ClienteApi(cfg);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var cfg = ConfigCarga.desdeSistema();
+        System.out.printf("[Carga] %s | %d productos x %d lotes x %d almacenes | %d hilos | %ds (+%ds calentamiento) | %s%n",
+                cfg.url(), cfg.productos(), cfg.lotes(), cfg.almacenes(), cfg.hilos(),
+                cfg.duracionSeg(), cfg.calentamientoSeg(), cfg.mezcla());
+        new PruebaCarga(cfg).correr();
+    }
+
+    private void correr() throws Exception {
+        datos = SemillaCarga.preparar(cfg);
+        api.login();
+        List<Long> anticipos = crearAnticipos();
+
+        var pool = Executors.newFixedThreadPool(cfg.hilos());
+        long calentamientoHasta = System.nanoTime() + TimeUnit.SECONDS.toNanos(cfg.calentamientoSeg());
+        long fin = calentamientoHasta + TimeUnit.SECONDS.toNanos(cfg.duracionSeg());
+
+        List<Future<?>> hilos = new ArrayList<>();
+        for (int i = 0; i < cfg.hilos(); i++) {
+            long idAnticipo = anticipos.get(i % anticipos.size());
+            hilos.add(pool.submit(() -> trabajar(idAnticipo, fin)));
+        }
+
+        Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(calentamientoHasta - System.nanoTime())));
+        long deadlocksInicio = SemillaCarga.deadlocks(cfg);
+        long t0 = System.nanoTime();
+        stats.midiendo = true;
+
+        for (var h : hilos) h.get();
+        stats.midiendo = false;
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        pool.shutdown();
+
+        Thread.sleep(1_500); // pg_stat_* se publica con retraso
+        long deadlocksBd = SemillaCarga.deadlocks(cfg) - deadlocksInicio;
+        stats.reportar(cfg, segundos, deadlocksBd);
+    }
+
+    private List<Long> crearAnticipos() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (Long idCliente : datos.clientes()) {
+            var r = api.post("/api/v1/anticipos", Map.of(
+                    "idCliente", idCliente,
+                    "montoBob", 100_000,
+                    "observaciones", "prueba de carga"));
+            if (!r.ok()) throw new IllegalStateException("No se pudo crear anticipo (" + r.status() + "): " + r.cuerpo());
+            ids.add(api.leer(r).path("idAnticipo").asLong());
+        }
+        return ids;
+    }
+
+    /* ===================== escenarios ===================== */
+
+    private void trabajar(long idAnticipo, long fin) {
+        var rnd = ThreadLocalRandom.current();
+        int pesoTotal = cfg.mezcla().values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < fin) {
+            var op = elegir(rnd.nextInt(pesoTotal));
+            long t = System.nanoTime();
+            try {
+                var r = switch (op) {
+                    case VENTA -> venta(rnd);
+                    case RESERVA -> reserva(rnd, idAnticipo);
+                    case TRANSFERENCIA -> transferencia(rnd);
+                    case CATALOGO -> catalogo(rnd);
+                };
+                stats.registrar(op, System.nanoTime() - t, r.status(), r.ok() ? null : r.cuerpo());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                stats.registrar(op, System.nanoTime() - t, -1, e.toString());
+            }
+        }
+    }
+
+    private ConfigCarga.Operacion elegir(int x) {
+        for (var e : cfg.mezcla().entrySet()) {
+            x -= e.getValue();
+            if (x < 0) return e.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    /** Venta contado de 1–3 líneas por FEFO en un almacén al azar. */
+    private ClienteApi.Respuesta venta(ThreadLocalRandom rnd) throws Exception {
+        int lineas = rnd.nextInt(1, 4);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < lineas; i++) {
+            items.add(Map.of("idPresentacion", alAzar(rnd, datos.presentaciones()), "cantidad", 1));
+        }
+        return api.post("/api/v1/ventas", Map.of(
+                "tipoDocumentoTributario", "boleta",
+                "condicionDePago", "contado",
+                "metodoDePago", "efectivo",
+                "idAlmacenDespacho", alAzar(rnd, datos.almacenes()),
+                "items", items));
+    }
+
+    private ClienteApi.Respuesta reserva(ThreadLocalRandom rnd, long idAnticipo) throws Exception {
+        return api.post("/api/v1/anticipos/" + idAnticipo + "/reservas", Map.of(
+                "items", List.of(Map.of(
+                        "idPresentacion", alAzar(rnd, datos.presentaciones()),
+                        "idAlmacen", alAzar(rnd, datos.almacenes()),
+                        "cantidad", 1))));
+    }
+
+    /** Transferencia en un paso de un lote entre dos almacenes distintos. */
+    private ClienteApi.Respuesta transferencia(ThreadLocalRandom rnd) throws Exception {
+        var almacenes = datos.almacenes();
+        int o = rnd.nextInt(almacenes.size());
+        int d = (o + rnd.nextInt(1, almacenes.size())) % almacenes.size();
+        long idPresentacion = alAzar(rnd, datos.presentaciones());
+        return api.post("/api/v1/inventario/transferencias", Map.of(
+                "idAlmacenOrigen", almacenes.get(o),
+                "idAlmacenDestino", almacenes.get(d),
+                "observaciones", "prueba de carga",
+                "items", List.of(Map.of(
+                        "idLote", alAzar(rnd, datos.lotesPorPresentacion().get(idPresentacion)),
+                        "cantidad", 1))));
+    }
+
+    /** Mitad listado del catálogo público, mitad lookup de caja por SKU. */
+    private ClienteApi.Respuesta catalogo(ThreadLocalRandom rnd) throws Exception {
+        if (rnd.nextBoolean()) {
+            int paginas = Math.max(1, datos.presentaciones().size() / 24);
+            return api.get("/api/v1/catalogo/publico/productos?q=CARGA&size=24&page=" + rnd.nextInt(paginas));
+        }
+        String sku = datos.skus().get(rnd.nextInt(datos.skus().size()));
+        return api.get("/api/v1/catalogo/presentaciones/lookup?sku=" + URLEncoder.encode(sku, StandardCharsets.UTF_8));
+    }
+
+    private static <T> T alAzar(ThreadLocalRandom rnd, List<T> lista) {
+        return lista.get(rnd.nextInt(lista.size()));
+    }
+}
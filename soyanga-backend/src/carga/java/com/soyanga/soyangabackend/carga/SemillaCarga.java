@@ -0,0 +1,240 @@
+package com.soyanga.soyangabackend.carga;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Siembra (o reutiliza) el juego de datos de la prueba directamente por JDBC, en una transacción.
+ * <p>
+ * Todo lo sembrado cuelga de la sucursal {@code CARGA <productos>x<lotes>x<almacenes>}: si ya existe
+ * y {@code carga.reutilizar-semilla=true} se reutiliza tal cual (el stock consumido por corridas
+ * anteriores no se repone). Cada existencia nace con su ingreso_compra en el kárdex.
+ */
+final class SemillaCarga {
+
+    /** Ids sembrados que usan los escenarios. */
+    record Datos(List<Long> almacenes, List<Long> presentaciones, List<String> skus,
+                 Map<Long, List<Long>> lotesPorPresentacion, List<Long> clientes) {
+    }
+
+    private SemillaCarga() {
+    }
+
+    static Datos preparar(ConfigCarga cfg) throws SQLException {
+        String nombre = "CARGA " + cfg.productos() + "x" + cfg.lotes() + "x" + cfg.almacenes();
+        try (Connection con = DriverManager.getConnection(cfg.dbUrl(), cfg.dbUsuario(), cfg.dbPassword())) {
+            con.setAutoCommit(false);
+            Long idSucursal = unLong(con, "SELECT id_sucursal FROM sucursales WHERE nombre_sucursal = ?", nombre);
+
+            if (idSucursal != null && cfg.reutilizarSemilla()) {
+                System.out.printf("[Carga] Reutilizando semilla '%s'%n", nombre);
+            } else {
+                long t0 = System.currentTimeMillis();
+                idSucursal = sembrar(con, cfg, nombre);
+                con.commit();
+                System.out.printf("[Carga] Semilla '%s' creada en %d ms%n", nombre, System.currentTimeMillis() - t0);
+            }
+            var datos = leer(con, idSucursal, cfg.hilos());
+            con.commit();
+            return datos;
+        }
+    }
+
+    private static long sembrar(Connection con, ConfigCarga cfg, String nombre) throws SQLException {
+        String sufijo = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+
+        long idSucursal = unLong(con, """
+                INSERT INTO sucursales (nombre_sucursal, direccion, ciudad)
+                VALUES (?, 'prueba de carga', 'prueba de carga') RETURNING id_sucursal
+                """, nombre);
+        long idCategoria = unLong(con, """
+                INSERT INTO categorias_de_productos (nombre_categoria, descripcion)
+                VALUES (?, 'prueba de carga') RETURNING id_categoria
+                """, nombre);
+        long idUnidad = unLong(con, """
+                INSERT INTO unidades_de_medida (nombre_unidad, simbolo_unidad)
+                VALUES ('Unidad carga', 'u') RETURNING id_unidad
+                """);
+        long idProveedor = unLong(con, """
+                INSERT INTO proveedores (razon_social) VALUES (?) RETURNING id_proveedor
+                """, nombre);
+        long idMoneda = unLong(con, """
+                SELECT id_moneda FROM monedas WHERE lower(codigo_moneda) = 'usd'
+                """);
+
+        actualizar(con, """
+                INSERT INTO almacenes (id_sucursal, nombre_almacen, descripcion)
+                SELECT ?, 'CARGA almacén ' || g, 'prueba de carga' FROM generate_series(1, ?) g
+                """, idSucursal, cfg.almacenes());
+        long idAlmacenRecepcion = unLong(con,
+                "SELECT min(id_almacen) FROM almacenes WHERE id_sucursal = ?", idSucursal);
+
+        // Productos → presentaciones (SKU único por semilla) → precio vigente
+        actualizar(con, """
+                WITH p AS (
+                    INSERT INTO productos (nombre_producto, descripcion, id_categoria)
+                    SELECT 'CARGA producto ' || g, 'prueba de carga', ? FROM generate_series(1, ?) g
+                    RETURNING id_producto
+                )
+                INSERT INTO presentaciones_de_productos
+                    (id_producto, id_unidad, contenido_por_unidad, codigo_sku,
+                     costo_base_usd, margen_venta_porcentaje, precio_venta_bob)
+                SELECT p.id_producto, ?, 1, 'CARGA-' || ? || '-' || p.id_producto, 1.5, 30, 13.57
+                FROM p
+                """, idCategoria, cfg.productos(), idUnidad, sufijo);
+        actualizar(con, """
+                INSERT INTO precios_de_venta_historicos (id_presentacion, precio_venta_bob, fecha_inicio_vigencia, motivo_cambio)
+                SELECT pp.id_presentacion, pp.precio_venta_bob, now() - INTERVAL '1 day', 'prueba de carga'
+                FROM presentaciones_de_productos pp
+                JOIN productos pr ON pr.id_producto = pp.id_producto
+                WHERE pr.id_categoria = ?
+                """, idCategoria);
+
+        // Compra → recepción → un detalle por presentación → lotes
+        long idCompra = unLong(con, """
+                INSERT INTO compras (id_proveedor, fecha_compra, id_moneda, tipo_cambio_usado, estado_compra, observaciones)
+                VALUES (?, now(), ?, 6.96, 'recibida', 'prueba de carga') RETURNING id_compra
+                """, idProveedor, idMoneda);
+        actualizar(con, """
+                INSERT INTO compras_detalle (id_compra, id_presentacion, cantidad, costo_unitario_moneda)
+                SELECT ?, pp.id_presentacion, 1000000, 1.5
+                FROM presentaciones_de_productos pp
+                JOIN productos pr ON pr.id_producto = pp.id_producto
+                WHERE pr.id_categoria = ?
+                """, idCompra, idCategoria);
+        long idRecepcion = unLong(con, """
+                INSERT INTO recepciones_de_pedido (id_compra, fecha_recepcion, id_almacen, estado_recepcion, observaciones)
+                VALUES (?, now(), ?, 'cerrada', 'prueba de carga') RETURNING id_recepcion
+                """, idCompra, idAlmacenRecepcion);
+        actualizar(con, """
+                INSERT INTO recepciones_detalle (id_recepcion, id_compra_detalle, id_presentacion, cantidad_recibida, costo_unitario_moneda)
+                SELECT ?, cd.id_compra_detalle, cd.id_presentacion, cd.cantidad, cd.costo_unitario_moneda
+                FROM compras_detalle cd WHERE cd.id_compra = ?
+                """, idRecepcion, idCompra);
+        // Vencimientos escalonados: el FEFO recorre los lotes en orden
+        actualizar(con, """
+                INSERT INTO lotes (id_recepcion_detalle, id_presentacion, numero_lote, fecha_fabricacion, fecha_vencimiento, observaciones)
+                SELECT rd.id_recepcion_detalle, rd.id_presentacion, 'CARGA-L' || g, current_date,
+                       current_date + (g * 30), 'prueba de carga'
+                FROM recepciones_detalle rd CROSS JOIN generate_series(1, ?) g
+                WHERE rd.id_recepcion = ?
+                """, cfg.lotes(), idRecepcion);
+
+        // Existencias (almacén × lote) y su ingreso en el kárdex
+        actualizar(con, """
+                INSERT INTO existencias_por_lote (id_almacen, id_lote, cantidad_disponible, cantidad_reservada, stock_minimo)
+                SELECT a.id_almacen, l.id_lote, ?, 0, 0
+                FROM almacenes a
+                CROSS JOIN lotes l
+                JOIN recepciones_detalle rd ON rd.id_recepcion_detalle = l.id_recepcion_detalle
+                WHERE a.id_sucursal = ? AND rd.id_recepcion = ?
+                """, cfg.stockPorLote(), idSucursal, idRecepcion);
+        actualizar(con, """
+                INSERT INTO movimientos_de_inventario
+                    (fecha_movimiento, tipo_movimiento, id_almacen_origen, id_almacen_destino, id_lote,
+                     cantidad, referencia_modulo, id_referencia, observaciones)
+                SELECT now(), 'ingreso_compra', NULL, e.id_almacen, e.id_lote,
+                       e.cantidad_disponible, 'recepcion', ?, 'Semilla prueba de carga'
+                FROM existencias_por_lote e
+                JOIN almacenes a ON a.id_almacen = e.id_almacen
+                WHERE a.id_sucursal = ?
+                """, idRecepcion, idSucursal);
+
+        // Un cliente por hilo (cada hilo reserva sobre su propio anticipo)
+        actualizar(con, """
+                INSERT INTO clientes (razon_social_o_nombre, ciudad, condicion_de_pago)
+                SELECT ? || ' cliente ' || g, 'prueba de carga', 'contado' FROM generate_series(1, ?) g
+                """, nombre, Math.max(1, cfg.hilos()));
+        return idSucursal;
+    }
+
+    private static Datos leer(Connection con, long idSucursal, int hilos) throws SQLException {
+        List<Long> almacenes = new ArrayList<>();
+        try (var ps = con.prepareStatement(
+                "SELECT id_almacen FROM almacenes WHERE id_sucursal = ? ORDER BY id_almacen")) {
+            ps.setLong(1, idSucursal);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) almacenes.add(rs.getLong(1));
+            }
+        }
+        String nombre = unString(con, "SELECT nombre_sucursal FROM sucursales WHERE id_sucursal = ?", idSucursal);
+
+        List<Long> presentaciones = new ArrayList<>();
+        List<String> skus = new ArrayList<>();
+        Map<Long, List<Long>> lotes = new LinkedHashMap<>();
+        try (var ps = con.prepareStatement("""
+                SELECT l.id_presentacion, pp.codigo_sku, l.id_lote
+                FROM lotes l
+                JOIN presentaciones_de_productos pp ON pp.id_presentacion = l.id_presentacion
+                WHERE EXISTS (SELECT 1 FROM existencias_por_lote e
+                              WHERE e.id_lote = l.id_lote AND e.id_almacen = ?)
+                ORDER BY l.id_presentacion, l.fecha_vencimiento, l.id_lote
+                """)) {
+            ps.setLong(1, almacenes.get(0));
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    if (!lotes.containsKey(id)) {
+                        presentaciones.add(id);
+                        skus.add(rs.getString(2));
+                    }
+                    lotes.computeIfAbsent(id, k -> new ArrayList<>()).add(rs.getLong(3));
+                }
+            }
+        }
+
+        List<Long> clientes = new ArrayList<>();
+        try (var ps = con.prepareStatement("""
+                SELECT id_cliente FROM clientes WHERE razon_social_o_nombre LIKE ? ORDER BY id_cliente LIMIT ?
+                """)) {
+            ps.setString(1, nombre + " cliente %");
+            ps.setInt(2, Math.max(1, hilos));
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) clientes.add(rs.getLong(1));
+            }
+        }
+        if (presentaciones.isEmpty() || almacenes.size() < 2 || clientes.isEmpty()) {
+            throw new IllegalStateException("Semilla incompleta para '" + nombre
+                    + "' (se necesitan presentaciones, 2+ almacenes y clientes); use -Dcarga.reutilizar-semilla=false");
+        }
+        return new Datos(almacenes, presentaciones, skus, lotes, clientes);
+    }
+
+    /** Deadlocks acumulados de la base (pg_stat_database). */
+    static long deadlocks(ConfigCarga cfg) throws SQLException {
+        try (Connection con = DriverManager.getConnection(cfg.dbUrl(), cfg.dbUsuario(), cfg.dbPassword())) {
+            return unLong(con, "SELECT deadlocks FROM pg_stat_database WHERE datname = current_database()");
+        }
+    }
+
+    /* ===================== helpers ===================== */
+
+    private static Long unLong(Connection con, String sql, Object... args) throws SQLException {
+        try (var ps = con.prepareStatement(sql)) {
+            bind(ps, args);
+            try (var rs = ps.executeQuery()) {
+                return rs.next() ? (Long) rs.getObject(1, Long.class) : null;
+            }
+        }
+    }
+
+    private static String unString(Connection con, String sql, Object... args) throws SQLException {
+        try (var ps = con.prepareStatement(sql)) {
+            bind(ps, args);
+            try (var rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static void actualizar(Connection con, String sql, Object... args) throws SQLException {
+        try (var ps = con.prepareStatement(sql)) {
+            bind(ps, args);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Object... args) throws SQLException {
+        for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+    }
+}
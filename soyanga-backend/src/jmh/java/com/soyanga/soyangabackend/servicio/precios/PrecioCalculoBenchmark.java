@@ -0,0 +1,56 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
+import com.soyanga.soyangabackend.dto.precios.ResumenRecalculoDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucle de cálculo de precios de {@link ReglasPreciosServicio#calcularBloque} sobre filas sintéticas:
+ * 5 % sin costo (omitidas) y 20 % cuyo precio actual ya coincide (iguales).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrecioCalculoBenchmark {
+
+    @Param({"500", "5000"})
+    public int filas;
+
+    @Param({"ENTERO", "MULTIPLO"})
+    public String modo;
+
+    private final BigDecimal tasa = new BigDecimal("6.96");
+    private ReglaRedondeo regla;
+    private List<ReglasPreciosServicio.FilaPrecio> bloque;
+
+    @Setup
+    public void preparar() {
+        regla = ReglaRedondeo.de(new ConfigRedondeoDTO(modo, new BigDecimal("0.50"), null), 1);
+
+        var rnd = new SplittableRandom(7);
+        bloque = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            BigDecimal costo = rnd.nextInt(100) < 5 ? null : BigDecimal.valueOf(rnd.nextInt(50, 500_000), 2);
+            BigDecimal margen = BigDecimal.valueOf(rnd.nextInt(0, 80));
+            BigDecimal actual = BigDecimal.valueOf(rnd.nextInt(1, 50_000));
+            if (costo != null && rnd.nextInt(100) < 20) {
+                actual = ReglasPreciosServicio.precioCalculado(costo, margen, tasa, regla);
+            }
+            bloque.add(new ReglasPreciosServicio.FilaPrecio((long) i, "SKU-" + i, costo, margen, actual));
+        }
+    }
+
+    @Benchmark
+    public ResumenRecalculoDTO calcularBloque() {
+        return ReglasPreciosServicio.calcularBloque(1, bloque, tasa, regla);
+    }
+}
@@ -0,0 +1,62 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PoliticaRedondeo#aplicar} por modo, con valores de la forma costoUsd × tasa × (1 + margen/100)
+ * (escala 6, como llegan desde el recálculo). La regla se siembra por el evento, sin BD.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedondeoBenchmark {
+
+    private static final int N = 1024;
+
+    @Param({"ENTERO", "MULTIPLO", "DECIMALES", "NINGUNO"})
+    public String modo;
+
+    private PoliticaRedondeo politica;
+    private BigDecimal[] valores;
+
+    @Setup
+    public void preparar() {
+        politica = new PoliticaRedondeo(null);
+        politica.alCambiarConfig(new ConfigRedondeoCambiadaEvent(
+                new ConfigRedondeoDTO(modo, new BigDecimal("0.50"), 1)));
+
+        var rnd = new SplittableRandom(42);
+        var tasa = new BigDecimal("6.96");
+        valores = new BigDecimal[N];
+        for (int i = 0; i < N; i++) {
+            var costo = BigDecimal.valueOf(rnd.nextInt(50, 500_000), 2);
+            var margen = BigDecimal.ONE.add(BigDecimal.valueOf(rnd.nextInt(0, 8_000), 2).divide(new BigDecimal("100")));
+            valores[i] = costo.multiply(tasa).multiply(margen).setScale(6, RoundingMode.HALF_UP);
+        }
+    }
+
+    /** Camino de un precio suelto: lee la regla vigente en cada llamada. */
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void aplicar(Blackhole bh) {
+        for (var v : valores) bh.consume(politica.aplicar(v));
+    }
+
+    /** Camino masivo: la regla se fija una vez para todo el lote. */
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void fijadaEnLote(Blackhole bh) {
+        var regla = politica.fijar();
+        for (var v : valores) bh.consume(regla.apply(v));
+    }
+}
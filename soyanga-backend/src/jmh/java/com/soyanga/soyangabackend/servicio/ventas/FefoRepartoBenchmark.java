@@ -0,0 +1,88 @@
+package com.soyanga.soyangabackend.servicio.ventas;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reparto FEFO en memoria sobre listas sintéticas de lotes (ya ordenadas por vencimiento) con
+ * {@link VentaServicio#parteFefo}, el mismo cálculo por lote de los bucles con bloqueo, sin BD:
+ * <ul>
+ *   <li>{@code soloDisponible}: camino 2 de {@link VentaServicio#crear}, solo el disponible.</li>
+ *   <li>{@code reservadoLuegoDisponible}: {@link DespachoVentaServicio}, primero la reserva y luego el disponible.</li>
+ * </ul>
+ * El pedido cubre el 60 % del stock, así que recorre la mayoría de los lotes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FefoRepartoBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int lotes;
+
+    private long[] idLote;
+    private BigDecimal[] disponible, reservada;
+    private BigDecimal pedido;
+
+    public record Parte(long idLote, BigDecimal cantidad) {
+    }
+
+    @Setup
+    public void preparar() {
+        var rnd = new SplittableRandom(3);
+        idLote = new long[lotes];
+        disponible = new BigDecimal[lotes];
+        reservada = new BigDecimal[lotes];
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lotes; i++) {
+            idLote[i] = 1_000 + i;
+            disponible[i] = rnd.nextInt(10) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(rnd.nextInt(1, 200_000), 3);
+            reservada[i] = BigDecimal.valueOf(rnd.nextInt(0, 20_000), 3);
+            total = total.add(disponible[i]).add(reservada[i]);
+        }
+        pedido = total.multiply(new BigDecimal("0.6")).setScale(3, java.math.RoundingMode.DOWN);
+    }
+
+    @Benchmark
+    public List<Parte> soloDisponible() {
+        List<Parte> partes = new ArrayList<>();
+        BigDecimal porDespachar = pedido;
+        for (int i = 0; i < lotes; i++) {
+            if (porDespachar.compareTo(BigDecimal.ZERO) <= 0) break;
+            var mover = VentaServicio.parteFefo(disponible[i], porDespachar);
+            if (mover.compareTo(BigDecimal.ZERO) <= 0) continue;
+            partes.add(new Parte(idLote[i], mover));
+            porDespachar = porDespachar.subtract(mover);
+        }
+        return partes;
+    }
+
+    @Benchmark
+    public List<Parte> reservadoLuegoDisponible() {
+        List<Parte> partes = new ArrayList<>();
+        BigDecimal restante = pedido;
+        for (int i = 0; i < lotes; i++) {
+            if (restante.signum() == 0) break;
+            BigDecimal usarReserva = VentaServicio.parteFefo(reservada[i], restante);
+            if (usarReserva.signum() > 0) {
+                partes.add(new Parte(idLote[i], usarReserva));
+                restante = restante.subtract(usarReserva);
+            }
+            if (restante.signum() == 0) break;
+            BigDecimal usarDisp = VentaServicio.parteFefo(disponible[i], restante);
+            if (usarDisp.signum() > 0) {
+                partes.add(new Parte(idLote[i], usarDisp));
+                restante = restante.subtract(usarDisp);
+            }
+        }
+        return partes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.soyanga.soyangabackend.servicio.ventas;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmética de línea de {@link VentaServicio#crear}: neto por parte (lote) con
+ * {@link VentaServicio#netoParte} y descuento de la línea con {@link VentaServicio#descuentoLinea}.
+ * {@code partes} = lotes en los que se reparte cada línea.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VentaLineaBenchmark {
+
+    private static final int LINEAS = 256;
+
+    @Param({"1", "5", "20"})
+    public int partes;
+
+    private BigDecimal[] precio, descPct, descMonto, cantidadLinea;
+    private BigDecimal[][] cantidadParte;
+
+    @Setup
+    public void preparar() {
+        var rnd = new SplittableRandom(11);
+        precio = new BigDecimal[LINEAS];
+        descPct = new BigDecimal[LINEAS];
+        descMonto = new BigDecimal[LINEAS];
+        cantidadLinea = new BigDecimal[LINEAS];
+        cantidadParte = new BigDecimal[LINEAS][partes];
+        for (int i = 0; i < LINEAS; i++) {
+            precio[i] = BigDecimal.valueOf(rnd.nextInt(100, 100_000), 2);
+            descPct[i] = rnd.nextBoolean() ? BigDecimal.ZERO : BigDecimal.valueOf(rnd.nextInt(1, 2_500), 2);
+            descMonto[i] = rnd.nextInt(4) == 0 ? BigDecimal.valueOf(rnd.nextInt(1, 500), 1) : BigDecimal.ZERO;
+            BigDecimal total = BigDecimal.ZERO;
+            for (int p = 0; p < partes; p++) {
+                cantidadParte[i][p] = BigDecimal.valueOf(rnd.nextInt(1, 5_000), 3);
+                total = total.add(cantidadParte[i][p]);
+            }
+            cantidadLinea[i] = total;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINEAS)
+    public BigDecimal linea() {
+        BigDecimal totalBruto = BigDecimal.ZERO;
+        BigDecimal totalDesc = BigDecimal.ZERO;
+        BigDecimal subtotales = BigDecimal.ZERO;
+        for (int i = 0; i < LINEAS; i++) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (var cantidad : cantidadParte[i]) {
+                subtotal = subtotal.add(VentaServicio.netoParte(cantidad, precio[i], descPct[i], descMonto[i]));
+            }
+            subtotales = subtotales.add(subtotal);
+            totalBruto = totalBruto.add(cantidadLinea[i].multiply(precio[i]));
+            totalDesc = totalDesc.add(VentaServicio.descuentoLinea(cantidadLinea[i], precio[i], descPct[i], descMonto[i]));
+        }
+        return totalBruto.subtract(totalDesc).add(subtotales);
+    }
+}
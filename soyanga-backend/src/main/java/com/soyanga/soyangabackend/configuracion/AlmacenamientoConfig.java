@@ -0,0 +1,82 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import com.soyanga.soyangabackend.servicio.archivos.AlmacenArchivosLocal;
+import com.soyanga.soyangabackend.servicio.archivos.AlmacenArchivosS3;
+import com.soyanga.soyangabackend.web.archivos.ArchivosLocalServlet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Backend de archivos subidos: {@code app.almacenamiento.tipo=local} (disco, por defecto) o
+ * {@code s3} (bucket S3 compatible compartido entre nodos; con MinIO: endpoint + path-style).
+ */
+@Configuration
+public class AlmacenamientoConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "local", matchIfMissing = true)
+    public AlmacenArchivosLocal almacenArchivosLocal(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        return new AlmacenArchivosLocal(Path.of(uploadDir));
+    }
+
+    /** {@code /uploads/*} con sendfile, Range, precomprimidos y ETag (ver {@link ArchivosLocalServlet}). */
+    @Bean
+    @ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "local", matchIfMissing = true)
+    public ServletRegistrationBean<ArchivosLocalServlet> archivosLocalServlet(
+            AlmacenArchivosLocal almacen,
+            MeterRegistry registry,
+            @Value("${app.uploads.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        var reg = new ServletRegistrationBean<>(
+                new ArchivosLocalServlet(almacen, registry, sendfileMinBytes), "/uploads/*");
+        reg.setName("archivosLocal");
+        reg.setLoadOnStartup(1);
+        return reg;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "s3")
+    public S3Client s3Client(
+            @Value("${app.almacenamiento.s3.endpoint:}") String endpoint,
+            @Value("${app.almacenamiento.s3.region:us-east-1}") String region,
+            @Value("${app.almacenamiento.s3.access-key:}") String accessKey,
+            @Value("${app.almacenamiento.s3.secret-key:}") String secretKey,
+            @Value("${app.almacenamiento.s3.path-style:true}") boolean pathStyle) {
+        S3ClientBuilder b = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyle)
+                // Los checksums CRC por defecto del SDK no los aceptan todos los compatibles con S3
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .credentialsProvider(accessKey.isBlank()
+                        ? DefaultCredentialsProvider.builder().build()
+                        : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        if (!endpoint.isBlank()) {
+            b.endpointOverride(URI.create(endpoint));
+        }
+        return b.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "s3")
+    public AlmacenArchivosS3 almacenArchivosS3(
+            S3Client s3,
+            @Value("${app.almacenamiento.s3.bucket:soyanga}") String bucket,
+            @Value("${app.almacenamiento.s3.url-publica:}") String urlPublica) {
+        return new AlmacenArchivosS3(s3, bucket, urlPublica);
+    }
+}
@@ -0,0 +1,42 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import com.soyanga.soyangabackend.servicio.diagnostico.DiagnosticoSql;
+import com.soyanga.soyangabackend.servicio.diagnostico.DiagnosticoSqlInterceptor;
+import com.soyanga.soyangabackend.servicio.diagnostico.GanchosHibernate;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Engancha {@link DiagnosticoSql} a Hibernate y a las peticiones /api/**.
+ * Las estadísticas globales de Hibernate se activan por propiedades (hibernate.generate_statistics).
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.diagnostico.sql.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DiagnosticoSqlConfig implements WebMvcConfigurer {
+
+    private final DiagnosticoSql diagnostico;
+
+    /** static: se necesita antes de crear el EntityManagerFactory (del que depende DiagnosticoSql) */
+    @Bean
+    static HibernatePropertiesCustomizer diagnosticoSqlHibernate() {
+        return props -> {
+            props.put(AvailableSettings.STATEMENT_INSPECTOR, new GanchosHibernate.Inspector());
+            props.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, GanchosHibernate.EventosSesion.class.getName());
+            props.put(JpaSettings.INTEGRATOR_PROVIDER, new GanchosHibernate.CargaEntidades());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DiagnosticoSqlInterceptor(diagnostico))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,83 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import com.soyanga.soyangabackend.servicio.metricas.MonitorPinning;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Modo hilos virtuales (opt-in con spring.threads.virtual.enabled=true, Java 21+).
+ * <p>
+ * Spring Boot ya lo aplica a Tomcat (un hilo virtual por petición), al applicationTaskExecutor
+ * (@Async y respuestas MVC asíncronas) y al scheduler de @Scheduled. Aquí se agrega lo propio del
+ * modo: el pool de Hikari pasa a ser el único límite de concurrencia hacia la BD (ya no hay 200
+ * hilos de Tomcat delante), así que se dimensiona aparte y las peticiones /api se admiten en
+ * orden ({@link LimitePeticionesFiltro}); además se vigila el pinning por JFR.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+
+    /** static: debe registrarse antes de crear el DataSource */
+    @Bean
+    static BeanPostProcessor poolConexionesHilosVirtuales(Environment env) {
+        int max = env.getProperty("app.hilos-virtuales.db-pool-max", Integer.class, 0);
+        long esperaMs = env.getProperty("app.hilos-virtuales.db-connection-timeout-ms", Long.class, 0L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource ds) {
+                    if (max > 0) {
+                        // pool fijo: con hilos virtuales casi siempre hay demanda para todas
+                        ds.setMaximumPoolSize(max);
+                        ds.setMinimumIdle(max);
+                    }
+                    if (esperaMs > 0) ds.setConnectionTimeout(esperaMs);
+                    log.info("[HilosVirtuales] Hikari '{}': maximumPoolSize={}, connectionTimeout={} ms",
+                            beanName, ds.getMaximumPoolSize(), ds.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** Antes de Spring Security: el filtro JWT ya consulta la BD. */
+    @Bean
+    FilterRegistrationBean<LimitePeticionesFiltro> limitePeticiones(
+            DataSource dataSource,
+            @Value("${app.hilos-virtuales.max-peticiones:0}") int maxPeticiones,
+            @Value("${app.hilos-virtuales.espera-turno-ms:0}") long esperaMs) {
+        // Con réplica de lectura el DataSource es un proxy sobre el pool de la primaria
+        var hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        int max = maxPeticiones > 0 ? maxPeticiones : hikari != null ? hikari.getMaximumPoolSize() : 10;
+        long espera = esperaMs > 0 ? esperaMs : hikari != null ? hikari.getConnectionTimeout() : 30_000;
+
+        var reg = new FilterRegistrationBean<>(new LimitePeticionesFiltro(max, espera));
+        reg.addUrlPatterns("/api/*");
+        reg.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        log.info("[HilosVirtuales] Peticiones /api concurrentes: {} (espera máx. {} ms)", max, espera);
+        return reg;
+    }
+
+    @Bean(initMethod = "iniciar", destroyMethod = "cerrar")
+    @ConditionalOnProperty(value = "app.hilos-virtuales.pinning.monitor", havingValue = "true", matchIfMissing = true)
+    MonitorPinning monitorPinning(MeterRegistry registry,
+                                  @Value("${app.hilos-virtuales.pinning.umbral-ms:20}") long umbralMs) {
+        return new MonitorPinning(registry, Duration.ofMillis(umbralMs));
+    }
+}
@@ -0,0 +1,61 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admisión FIFO de peticiones /api en modo hilos virtuales.
+ * <p>
+ * Sin el tope de hilos de Tomcat, todas las peticiones llegan a la vez al pool de Hikari, cuyo
+ * reparto no es justo: quien recién llega puede tomar la conexión que otro lleva esperando, y bajo
+ * carga algunas peticiones agotan el connectionTimeout. Un semáforo justo del tamaño del pool hace
+ * la cola aquí (la espera de un hilo virtual en el semáforo no ocupa carrier). Si no se obtiene
+ * turno en {@code esperaMaxMs} se responde 503.
+ */
+@Slf4j
+class LimitePeticionesFiltro extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final long esperaMaxMs;
+
+    LimitePeticionesFiltro(int maxConcurrentes, long esperaMaxMs) {
+        this.permisos = new Semaphore(maxConcurrentes, true);
+        this.esperaMaxMs = esperaMaxMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = permisos.tryAcquire(esperaMaxMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Petición interrumpida esperando turno", e);
+        }
+        if (!admitida) {
+            log.warn("[HilosVirtuales] {} {} rechazada: sin turno en {} ms", req.getMethod(), req.getRequestURI(), esperaMaxMs);
+            res.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, reintente");
+            return;
+        }
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            permisos.release();
+        }
+    }
+}
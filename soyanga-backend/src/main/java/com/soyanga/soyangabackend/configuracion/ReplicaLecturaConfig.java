@@ -0,0 +1,89 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de lectura (opt-in con {@code app.replica.enabled=true}): las transacciones
+ * {@code @Transactional(readOnly = true)} toman su conexión de la réplica y el resto de la primaria.
+ * <p>
+ * El DataSource de la aplicación es un {@link LazyConnectionDataSourceProxy}: la conexión física
+ * se pide recién en la primera sentencia, cuando JpaTransactionManager ya marcó la conexión como
+ * read-only, y eso elige el pool. Una transacción de lectura que se une a una de escritura sigue
+ * en la primaria. Cuál es "la réplica" en cada momento lo decide {@link ReplicaLecturaDataSource}
+ * según el retraso medido.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.replica.enabled", havingValue = "true")
+public class ReplicaLecturaConfig {
+
+    /** El pool que Spring Boot crearía por su cuenta (spring.datasource.*); Flyway y Hibernate arrancan sobre él */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties props) {
+        HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primaria");
+        return ds;
+    }
+
+    /**
+     * El pool de la réplica no se publica como bean: lo cierra {@link ReplicaLecturaDataSource} y así
+     * no entra al health de la BD (caída la réplica, las lecturas siguen en la primaria).
+     * URL/usuario vacíos = los de la primaria: dos pools sobre una instancia, para probar el enrutamiento.
+     */
+    @Bean(destroyMethod = "cerrar")
+    public ReplicaLecturaDataSource replicaLecturaDataSource(
+            HikariDataSource primariaDataSource,
+            DataSourceProperties props,
+            MeterRegistry registry,
+            @Value("${app.replica.url:}") String url,
+            @Value("${app.replica.username:}") String usuario,
+            @Value("${app.replica.password:}") String clave,
+            @Value("${app.replica.pool-max:10}") int poolMax,
+            @Value("${app.replica.timeout-conexion-ms:2000}") long timeoutMs,
+            @Value("${app.replica.max-retraso-s:5}") long maxRetrasoS,
+            @Value("${app.replica.verificacion-ms:5000}") long verificacionMs) {
+        boolean mismaCuenta = usuario.isBlank();
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(props.determineDriverClassName())
+                .url(url.isBlank() ? props.determineUrl() : url)
+                .username(mismaCuenta ? props.determineUsername() : usuario)
+                .password(mismaCuenta ? props.determinePassword() : clave)
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(poolMax);
+        replica.setReadOnly(true);
+        // Corto: con la réplica caída, una lectura no debe esperar el connectionTimeout entero antes de ir a la primaria
+        replica.setConnectionTimeout(timeoutMs);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        log.info("[Replica] Pool de lectura en {} (máx. {} conexiones, retraso tolerado {} s)",
+                replica.getJdbcUrl(), poolMax, maxRetrasoS);
+        var ds = new ReplicaLecturaDataSource(primariaDataSource, replica, Duration.ofSeconds(maxRetrasoS), registry);
+        ds.iniciar(Duration.ofMillis(verificacionMs));
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primariaDataSource, ReplicaLecturaDataSource replicaLecturaDataSource) {
+        var proxy = new LazyConnectionDataSourceProxy(primariaDataSource);
+        proxy.setReadOnlyDataSource(replicaLecturaDataSource);
+        return proxy;
+    }
+}
@@ -0,0 +1,154 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Origen de las conexiones de solo lectura: la réplica mientras esté al día, si no la primaria.
+ * <p>
+ * Cada {@code verificacion-ms} mide el retraso de replay de la réplica; si supera
+ * {@code max-retraso-s} o no responde, las lecturas vuelven a la primaria hasta la próxima
+ * verificación que la encuentre bien. Arranca en la primaria: la réplica se habilita recién
+ * con la primera verificación exitosa (una al iniciar).
+ * <p>
+ * La verificación corre en un hilo propio y no como @Scheduled: con {@code app.jobs.enabled=false}
+ * (nodos solo-lectura, justo los que más usan la réplica) la réplica nunca se habilitaría.
+ */
+@Slf4j
+public class ReplicaLecturaDataSource extends AbstractDataSource {
+
+    /**
+     * Segundos de atraso del replay. Sin WAL pendiente y con el receptor en streaming es 0 (si no,
+     * una primaria sin escrituras haría crecer la diferencia con el último commit aplicado); fuera
+     * de recuperación (misma instancia con otro pool) también.
+     */
+    private static final String SQL_RETRASO = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                          AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()), 'Infinity')
+                   END
+            """;
+
+    private final DataSource primaria;
+    private final HikariDataSource replica;
+    private final Duration maxRetraso;
+    private final ScheduledExecutorService verificador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-verificacion").daemon(true).factory());
+
+    private final Counter aReplica;
+    private final Counter aPrimaria;
+
+    private volatile boolean enUso = false;
+    private volatile double retrasoSegundos = Double.NaN;
+    /** Para avisar también si la réplica ya falla en la primera verificación */
+    private volatile boolean verificada = false;
+
+    public ReplicaLecturaDataSource(DataSource primaria, HikariDataSource replica, Duration maxRetraso, MeterRegistry registry) {
+        this.primaria = primaria;
+        this.replica = replica;
+        this.maxRetraso = maxRetraso;
+
+        this.aReplica = conexiones(registry, "replica");
+        this.aPrimaria = conexiones(registry, "primaria");
+        Gauge.builder("soyanga.replica.retraso", this, r -> r.retrasoSegundos)
+                .description("Retraso de replay de la réplica de lectura (NaN = sin respuesta)")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("soyanga.replica.en.uso", this, r -> r.enUso ? 1 : 0)
+                .description("1 si las transacciones de solo lectura van a la réplica")
+                .register(registry);
+    }
+
+    private static Counter conexiones(MeterRegistry registry, String destino) {
+        return Counter.builder("soyanga.replica.conexiones")
+                .description("Conexiones de solo lectura entregadas, por destino")
+                .tag("destino", destino)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (enUso) {
+            try {
+                Connection c = replica.getConnection();
+                aReplica.increment();
+                return c;
+            } catch (SQLException e) {
+                retirar("no entrega conexiones: " + e.getMessage());
+            }
+        }
+        aPrimaria.increment();
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Sólo con las credenciales de cada pool");
+    }
+
+    /** Primera verificación en el hilo que llama; las siguientes cada {@code cada} */
+    public void iniciar(Duration cada) {
+        verificar();
+        verificador.scheduleWithFixedDelay(() -> {
+            try {
+                verificar();
+            } catch (RuntimeException e) {
+                // Una excepción cancelaría las verificaciones siguientes
+                retrasoSegundos = Double.NaN;
+                retirar("falló la verificación: " + e.getMessage());
+            }
+        }, cada.toMillis(), cada.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void verificar() {
+        double retraso;
+        try (Connection c = replica.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(SQL_RETRASO)) {
+            rs.next();
+            retraso = rs.getDouble(1);
+        } catch (SQLException e) {
+            retrasoSegundos = Double.NaN;
+            retirar("no responde: " + e.getMessage());
+            verificada = true;
+            return;
+        }
+        retrasoSegundos = retraso;
+        if (retraso > maxRetraso.toMillis() / 1000.0) {
+            retirar("retraso %.1f s > %d s".formatted(retraso, maxRetraso.toSeconds()));
+        } else if (!enUso) {
+            enUso = true;
+            log.info("[Replica] Lecturas hacia la réplica (retraso {} s)", "%.1f".formatted(retraso));
+        }
+        verificada = true;
+    }
+
+    private void retirar(String motivo) {
+        if (enUso || !verificada) {
+            enUso = false;
+            log.warn("[Replica] Lecturas de vuelta a la primaria: la réplica {}", motivo);
+        }
+    }
+
+    public void cerrar() {
+        verificador.shutdownNow();
+        replica.close();
+    }
+}
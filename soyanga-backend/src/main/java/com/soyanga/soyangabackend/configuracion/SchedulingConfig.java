@@ -0,0 +1,15 @@
+package com.soyanga.soyangabackend.configuracion;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita los jobs programados (@Scheduled).
+ * app.jobs.enabled=false los desactiva todos (útil en tests o en nodos solo-lectura).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
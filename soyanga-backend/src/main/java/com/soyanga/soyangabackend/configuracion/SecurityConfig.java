@@ -2,6 +2,7 @@ package com.soyanga.soyangabackend.configuracion;
 
 import com.soyanga.soyangabackend.seguridad.jwt.JwtAuthFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,6 +11,7 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.annotation.AnnotationTemplateExpressionDefaults;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
@@ -28,6 +30,12 @@ public class SecurityConfig {
     private final JwtAuthFilter jwtFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    // Meta-anotaciones con plantilla: @RequiereVer(valor = "x") → '{valor}:ver'
+    @Bean
+    static AnnotationTemplateExpressionDefaults templateExpressionDefaults() {
+        return new AnnotationTemplateExpressionDefaults();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -58,6 +66,10 @@ public class SecurityConfig {
                         // Catálogo PÚBLICO (solo lectura)
                         .requestMatchers(HttpMethod.GET, "/api/v1/catalogo/publico/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/uploads/**").permitAll()
+
+                        // Actuator: health y scrape Prometheus (puerto de gestión, solo localhost por defecto)
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
 
                         // ---- Todo lo demás requiere token ------------------------------
                         .anyRequest().authenticated()
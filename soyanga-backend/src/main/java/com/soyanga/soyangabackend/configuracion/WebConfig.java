@@ -31,10 +31,7 @@ public class WebConfig implements WebMvcConfigurer {
         public void addResourceHandlers(ResourceHandlerRegistry registry) {
                 String absolute = Paths.get(uploadDir).toAbsolutePath().normalize().toString().replace("\\", "/");
 
-                // NUEVO: sirve /uploads/** desde el filesystem
-                registry.addResourceHandler("/uploads/**")
-                                .addResourceLocations("file:" + absolute + "/")
-                                .setCacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic());
+                // /uploads/** lo atiende ArchivosLocalServlet (local) o ArchivosS3Controlador (s3)
 
                 // (Opcional) sigue sirviendo /static/** si aún hay datos viejos con esa URL
                 registry.addResourceHandler("/static/**")
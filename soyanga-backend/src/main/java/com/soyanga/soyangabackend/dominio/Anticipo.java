@@ -46,4 +46,12 @@ public class Anticipo {
 
     @Column(name = "observaciones", columnDefinition = "text")
     private String observaciones;
+
+    /** Horas que se retienen las reservas (null = valor por defecto de la aplicación). */
+    @Column(name = "horas_reserva")
+    private Integer horasReserva;
+
+    /** Momento en que las reservas vigentes se liberan automáticamente (null = sin reservas pendientes). */
+    @Column(name = "reserva_vence_en")
+    private LocalDateTime reservaVenceEn;
 }
@@ -40,6 +40,13 @@ public class PresentacionProducto {
         @Column(name = "imagen_url")
         private String imagenUrl; // NUEVO
 
+        /** Anchos de miniatura/tarjeta/completa; null hasta que se generan las variantes */
+        @Column(name = "imagen_anchos")
+        private Integer[] imagenAnchos;
+
+        @Column(name = "imagen_formatos")
+        private String[] imagenFormatos;
+
         @Column(name = "costo_base_usd", nullable = false, precision = 18, scale = 6)
         @Builder.Default
         private BigDecimal costoBaseUsd = BigDecimal.ZERO;
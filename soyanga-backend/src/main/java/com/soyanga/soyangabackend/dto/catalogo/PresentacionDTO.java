@@ -19,4 +19,9 @@ public class PresentacionDTO {
     private BigDecimal precioVentaBob;
     private Boolean estadoActivo;
     private String imagenUrl;
+
+    // Variantes redimensionadas (null mientras se generan: usar imagenUrl)
+    private String imagenMiniaturaUrl;
+    private String imagenSrcsetWebp;
+    private String imagenSrcsetJpeg;
 }
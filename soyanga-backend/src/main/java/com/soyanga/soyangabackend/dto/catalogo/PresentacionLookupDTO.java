@@ -4,17 +4,18 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+/** Inmutable: las mismas instancias se comparten desde el índice de lookup en memoria. */
+@Getter @AllArgsConstructor @Builder
 public class PresentacionLookupDTO {
-    private Long idPresentacion;
-    private String codigoSku;
-    private Long idProducto;
-    private String nombreProducto;
-    private Long idUnidad;
-    private String simboloUnidad;
-    private BigDecimal contenidoPorUnidad;
+    private final Long idPresentacion;
+    private final String codigoSku;
+    private final Long idProducto;
+    private final String nombreProducto;
+    private final Long idUnidad;
+    private final String simboloUnidad;
+    private final BigDecimal contenidoPorUnidad;
 
     // precio vigente (si existe)
-    private BigDecimal precioVigenteBob;
-    private LocalDateTime precioVigenteInicio;
+    private final BigDecimal precioVigenteBob;
+    private final LocalDateTime precioVigenteInicio;
 }
@@ -0,0 +1,19 @@
+package com.soyanga.soyangabackend.dto.catalogo;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/** Lookup de muchos códigos (SKU o código de barras) en una llamada. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PresentacionLookupLoteDTO {
+
+    @NotEmpty(message = "codigos es requerido")
+    @Size(max = 1000, message = "máximo 1000 códigos por llamada")
+    private List<String> codigos;
+
+    // Si viene, cada resultado trae el stock de la presentación en ese almacén
+    private Long idAlmacen;
+}
@@ -0,0 +1,27 @@
+package com.soyanga.soyangabackend.dto.catalogo;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Resultados en el mismo orden que los códigos recibidos. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PresentacionLookupLoteRespuestaDTO {
+
+    private Long idAlmacen;
+    private int total;
+    private int encontrados;
+    private List<String> noEncontrados;
+    private List<Resultado> resultados;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Resultado {
+        private String codigo;
+        private boolean encontrado;
+        private String coincidencia;              // SKU | CODIGO_BARRAS | null si no se encontró
+        private PresentacionLookupDTO presentacion;
+        private BigDecimal stockDisponible;       // solo si se pidió idAlmacen
+        private BigDecimal stockReservado;
+    }
+}
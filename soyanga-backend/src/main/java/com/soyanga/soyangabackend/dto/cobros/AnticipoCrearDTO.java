@@ -1,6 +1,7 @@
 package com.soyanga.soyangabackend.dto.cobros;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
@@ -17,4 +18,7 @@ public class AnticipoCrearDTO {
 
     private String observaciones;
 
+    /** Horas de retención de las reservas; si es null se usa el valor por defecto. */
+    @Min(value = 1, message = "horasReserva debe ser >= 1")
+    private Integer horasReserva;
 }
@@ -0,0 +1,18 @@
+package com.soyanga.soyangabackend.dto.cobros;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Resumen de una corrida del job de vencimiento de reservas de anticipo. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class LiberacionReservasVencidasDTO {
+    private LocalDateTime corte;           // reservas con vencimiento <= corte
+    private int bloques;                   // bloques (transacciones) ejecutados
+    private int anticiposProcesados;
+    private int lotesLiberados;            // filas de existencias_por_lote tocadas
+    private int movimientosRegistrados;    // liberacion_reserva insertados
+    private BigDecimal unidadesLiberadas;
+    private long duracionMs;
+}
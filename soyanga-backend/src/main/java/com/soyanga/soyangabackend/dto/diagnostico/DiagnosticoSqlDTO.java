@@ -0,0 +1,75 @@
+package com.soyanga.soyangabackend.dto.diagnostico;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/** Diagnóstico de acceso a datos desde {@code desde} (arranque o último reinicio). */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiagnosticoSqlDTO {
+
+    private LocalDateTime desde;
+    private long lentoMs;
+    private int maxSentenciasPorPeticion;
+    private Hibernate hibernate;
+    private List<Endpoint> endpoints;              // orden: más sentencias promedio primero
+    private List<SentenciaLenta> sentenciasLentas; // más recientes primero
+
+    /** Contadores globales de org.hibernate.stat.Statistics */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Hibernate {
+        private boolean habilitadas;
+        private long sesionesAbiertas;
+        private long transacciones;
+        private long sentenciasPreparadas;
+        private long consultasEjecutadas;      // HQL/JPQL/nativas
+        private long consultaMasLentaMs;
+        private String consultaMasLenta;
+        private long entidadesCargadas;        // materializadas desde un ResultSet
+        private long entidadesObtenidas;       // fetch por id/lazy (síntoma típico de N+1)
+        private long coleccionesCargadas;
+        private long coleccionesObtenidas;
+        private long flushes;
+        private Map<String, Long> consultasLentas; // sql → ms (hibernate.log_slow_query)
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Endpoint {
+        private String endpoint;               // "GET /api/v1/..." (patrón de ruta)
+        private long peticiones;
+        private long sentencias;
+        private double sentenciasPromedio;
+        private long maxSentencias;
+        private long entidadesCargadas;
+        private long maxEntidadesCargadas;
+        private long tiempoSqlMs;
+        private long peticionesExcedidas;      // >= maxSentenciasPorPeticion
+        private Map<String, Long> cargasPorEntidad;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SentenciaLenta {
+        private LocalDateTime fecha;
+        private String endpoint;
+        private long duracionMs;
+        private String sql;
+    }
+}
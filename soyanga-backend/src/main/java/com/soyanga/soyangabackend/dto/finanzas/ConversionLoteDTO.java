@@ -0,0 +1,42 @@
+package com.soyanga.soyangabackend.dto.finanzas;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/** Conversión de muchos montos en una sola llamada (p. ej. líneas de compra con costo en USD). */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversionLoteDTO {
+
+    @NotEmpty(message = "items es requerido")
+    @Size(max = 5000, message = "máximo 5000 items por llamada")
+    private List<@Valid @NotNull(message = "el item no puede ser nulo") Item> items;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        @NotNull(message = "idMonedaOrigen es requerido")
+        private Long idMonedaOrigen;
+
+        @NotNull(message = "idMonedaDestino es requerido")
+        private Long idMonedaDestino;
+
+        private LocalDate fecha; // null = hoy
+
+        @NotNull(message = "monto es requerido")
+        private BigDecimal monto;
+    }
+}
@@ -0,0 +1,39 @@
+package com.soyanga.soyangabackend.dto.finanzas;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/** Resultados en el mismo orden que los items recibidos. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversionLoteRespuestaDTO {
+
+    private int total;
+    private int convertidos;
+    private int sinTasa;
+    private List<Resultado> resultados;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Resultado {
+        private int indice;
+        private Long idMonedaOrigen;
+        private Long idMonedaDestino;
+        private LocalDate fecha;
+        private BigDecimal montoOrigen;
+        private Long idTipoCambio;          // null si origen = destino o no hay tasa
+        private LocalDate fechaVigenciaTasa;
+        private BigDecimal tasaUsada;       // null si no hay tipo de cambio vigente
+        private BigDecimal montoDestino;
+        private String error;
+    }
+}
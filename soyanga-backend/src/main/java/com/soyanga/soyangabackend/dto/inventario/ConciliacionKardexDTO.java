@@ -0,0 +1,22 @@
+package com.soyanga.soyangabackend.dto.inventario;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Una corrida de la conciliación kárdex vs existencias (tabla conciliaciones_kardex). */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ConciliacionKardexDTO {
+    private Long idConciliacion;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private String estado;              // en_curso | completada | fallida
+    private boolean corregir;
+    private String origen;              // job | manual
+    private int bloques;
+    private long paresRevisados;        // (almacén, lote) con existencia o movimientos
+    private long movimientosLeidos;
+    private int discrepancias;
+    private int ajustes;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.soyanga.soyangabackend.dto.inventario;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Par (almacén, lote) cuyo stock no coincide con el saldo del kárdex. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DiscrepanciaKardexDTO {
+    private Long idAlmacen;
+    private Long idLote;
+    private BigDecimal saldoKardex;
+    private BigDecimal cantidadDisponible;
+    private BigDecimal cantidadReservada;
+    private BigDecimal diferencia;      // (disponible + reservada) - saldoKardex
+    private long movimientos;
+    private LocalDateTime ultimoMovimiento;
+    private Long idMovimientoAjuste;    // corrección registrada en el kárdex (si se pidió corregir)
+}
@@ -0,0 +1,14 @@
+package com.soyanga.soyangabackend.dto.inventario;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/** Stock de una presentación en un almacén (desde v_stock_por_presentacion). */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class StockPresentacionDTO {
+    private Long idAlmacen;
+    private Long idPresentacion;
+    private BigDecimal disponible;
+    private BigDecimal reservado;
+}
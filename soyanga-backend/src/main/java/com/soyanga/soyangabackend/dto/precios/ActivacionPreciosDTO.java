@@ -0,0 +1,16 @@
+package com.soyanga.soyangabackend.dto.precios;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Resumen de una corrida de activación de precios programados. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivacionPreciosDTO {
+    private LocalDateTime desde;           // inicio de vigencia > desde
+    private LocalDateTime corte;           // inicio de vigencia <= corte
+    private int bloques;                   // bloques (transacciones) ejecutados
+    private int presentacionesRevisadas;   // con algún precio que empezó en la ventana
+    private int presentacionesActualizadas; // precio_venta_bob cambiado
+    private long duracionMs;
+}
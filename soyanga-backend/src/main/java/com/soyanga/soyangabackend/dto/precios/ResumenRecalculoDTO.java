@@ -14,4 +14,9 @@ public class ResumenRecalculoDTO {
     private int iguales;
     private int omitidos;
     private List<ItemCambioDTO> items;
+
+    /** Solo en la simulación por streaming: nº de bloque (null en el resumen final) */
+    private Integer bloque;
+    /** Solo en la simulación por streaming: true en la última línea (totales) */
+    private Boolean finalizado;
 }
@@ -0,0 +1,24 @@
+package com.soyanga.soyangabackend.dto.reportes;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Margen de una presentación contra su costo_base_usd congelado al vender (convertido con el TC
+ * de la fecha de venta). Las líneas vendidas sin TC para su fecha no tienen costo: quedan en
+ * ingresoNetoBob pero no en ingresoCosteadoBob, que es la base del margen.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MargenProductoDTO {
+    private Long idPresentacion;
+    private String sku;
+    private String producto;
+    private BigDecimal cantidad;
+    private BigDecimal ingresoNetoBob;
+    private BigDecimal ingresoCosteadoBob;
+    private BigDecimal costoUsd;
+    private BigDecimal costoBob;
+    private BigDecimal margenBob;
+    private BigDecimal margenPorcentaje; // null si no hay ingreso costeado
+}
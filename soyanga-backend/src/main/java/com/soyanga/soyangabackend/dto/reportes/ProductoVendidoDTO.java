@@ -0,0 +1,16 @@
+package com.soyanga.soyangabackend.dto.reportes;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/** Una presentación en el ranking de más vendidos (desde ventas_diarias). */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ProductoVendidoDTO {
+    private Long idPresentacion;
+    private String sku;
+    private String producto;
+    private Integer ventas;              // ventas distintas que la incluyen
+    private BigDecimal cantidad;
+    private BigDecimal ingresoNetoBob;
+}
@@ -0,0 +1,18 @@
+package com.soyanga.soyangabackend.dto.reportes;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/** Ingresos de una sucursal en el rango (desde ventas_diarias). */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class VentasSucursalDTO {
+    private Long idSucursal;             // null = ventas sin almacén de despacho
+    private String sucursal;
+    private BigDecimal cantidad;
+    private BigDecimal ingresoBrutoBob;
+    private BigDecimal descuentoBob;
+    private BigDecimal ingresoNetoBob;
+    private BigDecimal costoBob;
+    private BigDecimal margenBob;        // solo sobre las líneas con costo (ver MargenProductoDTO)
+}
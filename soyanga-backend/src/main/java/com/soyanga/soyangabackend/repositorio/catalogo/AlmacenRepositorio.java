@@ -105,6 +105,8 @@ public interface AlmacenRepositorio extends BaseRepository<Almacen, Long> {
   // ========================
   // Presentaciones por almacén (paginado)
   // ========================
+  // Stock desde v_stock_por_presentacion (V20261019_03); los datos de lote sólo se buscan para
+  // las presentaciones con disponible en el almacén.
   @Query(
           value = """
         SELECT
@@ -113,20 +115,31 @@ public interface AlmacenRepositorio extends BaseRepository<Almacen, Long> {
           pr.nombre_producto                                   AS producto,
           (p.contenido_por_unidad::TEXT || ' ' || COALESCE(u.nombre_unidad, u.simbolo_unidad, '')) AS presentacion,
           COALESCE(u.nombre_unidad, u.simbolo_unidad, '')      AS unidad,
-          COALESCE(SUM(e.cantidad_disponible), 0)              AS stockDisponible,
-          COALESCE(SUM(e.cantidad_reservada), 0)               AS reservado,
+          COALESCE(s.cantidad_disponible, 0)                   AS stockDisponible,
+          COALESCE(s.cantidad_reservada, 0)                    AS reservado,
           p.precio_venta_bob                                   AS precioBob,
-          MIN(l.numero_lote) FILTER (WHERE COALESCE(e.cantidad_disponible,0) > 0)          AS loteNumero,
-          TO_CHAR(MIN(l.fecha_vencimiento) FILTER (WHERE COALESCE(e.cantidad_disponible,0) > 0), 'YYYY-MM-DD') AS loteVencimiento,
-          MIN(e.cantidad_disponible) FILTER (WHERE COALESCE(e.cantidad_disponible,0) > 0)   AS loteDisponible,
+          lt.lote_numero                                       AS loteNumero,
+          TO_CHAR(lt.lote_vencimiento, 'YYYY-MM-DD')           AS loteVencimiento,
+          lt.lote_disponible                                   AS loteDisponible,
           p.imagen_url                                         AS imagenUrl
         FROM presentaciones_de_productos p
         JOIN productos  pr ON pr.id_producto = p.id_producto
         LEFT JOIN unidades_de_medida u ON u.id_unidad = p.id_unidad
-        LEFT JOIN lotes l ON l.id_presentacion = p.id_presentacion
-        LEFT JOIN existencias_por_lote e
-               ON e.id_lote = l.id_lote
-              AND e.id_almacen = :idAlmacen
+        LEFT JOIN v_stock_por_presentacion s
+               ON s.id_presentacion = p.id_presentacion
+              AND s.id_almacen = :idAlmacen
+        LEFT JOIN LATERAL (
+          SELECT MIN(l.numero_lote)         AS lote_numero,
+                 MIN(l.fecha_vencimiento)   AS lote_vencimiento,
+                 MIN(e.cantidad_disponible) AS lote_disponible
+          FROM lotes l
+          JOIN existencias_por_lote e
+            ON e.id_lote = l.id_lote
+           AND e.id_almacen = :idAlmacen
+          WHERE l.id_presentacion = p.id_presentacion
+            AND e.cantidad_disponible > 0
+            AND s.cantidad_disponible > 0
+        ) lt ON TRUE
         WHERE p.estado_activo = TRUE
           AND pr.estado_activo = TRUE
           AND (:q IS NULL OR (
@@ -134,32 +147,24 @@ public interface AlmacenRepositorio extends BaseRepository<Almacen, Long> {
               OR p.codigo_sku       ILIKE CONCAT('%', CAST(:q AS TEXT), '%')
           ))
           AND (:categoriaId IS NULL OR pr.id_categoria = :categoriaId)
-        GROUP BY
-          p.id_presentacion, p.codigo_sku, pr.nombre_producto,
-          p.contenido_por_unidad, u.nombre_unidad, u.simbolo_unidad,
-          p.precio_venta_bob, p.imagen_url
-        HAVING (:soloConStock = FALSE OR COALESCE(SUM(e.cantidad_disponible),0) > 0)
+          AND (:soloConStock = FALSE OR COALESCE(s.cantidad_disponible, 0) > 0)
         ORDER BY pr.nombre_producto ASC, p.codigo_sku ASC
         """,
           countQuery = """
-        SELECT COUNT(*) FROM (
-          SELECT p.id_presentacion
-          FROM presentaciones_de_productos p
-          JOIN productos pr ON pr.id_producto = p.id_producto
-          LEFT JOIN lotes l ON l.id_presentacion = p.id_presentacion
-          LEFT JOIN existencias_por_lote e
-                 ON e.id_lote = l.id_lote
-                AND e.id_almacen = :idAlmacen
-          WHERE p.estado_activo = TRUE
-            AND pr.estado_activo = TRUE
-            AND (:q IS NULL OR (
-                   pr.nombre_producto ILIKE CONCAT('%', CAST(:q AS TEXT), '%')
-                OR p.codigo_sku       ILIKE CONCAT('%', CAST(:q AS TEXT), '%')
-            ))
-            AND (:categoriaId IS NULL OR pr.id_categoria = :categoriaId)
-          GROUP BY p.id_presentacion
-          HAVING (:soloConStock = FALSE OR COALESCE(SUM(e.cantidad_disponible),0) > 0)
-        ) x
+        SELECT COUNT(*)
+        FROM presentaciones_de_productos p
+        JOIN productos pr ON pr.id_producto = p.id_producto
+        LEFT JOIN v_stock_por_presentacion s
+               ON s.id_presentacion = p.id_presentacion
+              AND s.id_almacen = :idAlmacen
+        WHERE p.estado_activo = TRUE
+          AND pr.estado_activo = TRUE
+          AND (:q IS NULL OR (
+                 pr.nombre_producto ILIKE CONCAT('%', CAST(:q AS TEXT), '%')
+              OR p.codigo_sku       ILIKE CONCAT('%', CAST(:q AS TEXT), '%')
+          ))
+          AND (:categoriaId IS NULL OR pr.id_categoria = :categoriaId)
+          AND (:soloConStock = FALSE OR COALESCE(s.cantidad_disponible, 0) > 0)
         """,
           nativeQuery = true
   )
@@ -15,6 +15,9 @@ public interface CodigoBarrasRepositorio extends BaseRepository<CodigoBarras, Lo
     // Exacto (suficiente para EAN/UPC que son numéricos)
     Optional<CodigoBarras> findFirstByCodigoBarras(String codigoBarras);
 
+    // Lookup en lote (IN)
+    List<CodigoBarras> findByCodigoBarrasInOrderByIdCodigoBarras(java.util.Collection<String> codigos);
+
     // (Opcional) si algún día quieres ignorar mayúsc/minúsculas:
     @Query("SELECT c FROM CodigoBarras c WHERE UPPER(c.codigoBarras) = UPPER(:codigo)")
     Optional<CodigoBarras> findFirstIgnoreCase(@Param("codigo") String codigo);
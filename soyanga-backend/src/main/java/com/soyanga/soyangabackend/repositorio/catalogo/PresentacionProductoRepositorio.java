@@ -4,14 +4,18 @@ import com.soyanga.soyangabackend.dominio.PresentacionProducto;
 import com.soyanga.soyangabackend.repositorio.BaseRepository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio unificado de Presentación de Producto.
@@ -24,6 +28,9 @@ public interface PresentacionProductoRepositorio extends BaseRepository<Presenta
   // ========================
   Optional<PresentacionProducto> findByCodigoSku(String codigoSku);
 
+  // Lookup en lote (IN)
+  List<PresentacionProducto> findByCodigoSkuIn(java.util.Collection<String> codigosSku);
+
   // ========================
   // Agregados / validaciones por producto
   // ========================
@@ -61,6 +68,31 @@ public interface PresentacionProductoRepositorio extends BaseRepository<Presenta
   @Query("select p from PresentacionProducto p where p.estadoActivo = true")
   List<PresentacionProducto> findActivas();
 
+  /**
+   * Solo las columnas del cálculo de precio, en streaming (cursor con fetch size).
+   * Debe consumirse dentro de una transacción y cerrarse (try-with-resources).
+   */
+  @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+  @Query("""
+      select p.idPresentacion        as idPresentacion,
+             p.codigoSku             as codigoSku,
+             p.costoBaseUsd          as costoBaseUsd,
+             p.margenVentaPorcentaje as margenVentaPorcentaje,
+             p.precioVentaBob        as precioVentaBob
+      from PresentacionProducto p
+      where p.estadoActivo = true
+      order by p.idPresentacion
+      """)
+  Stream<PrecioBaseRow> streamActivasParaPrecio();
+
+  interface PrecioBaseRow {
+    Long getIdPresentacion();
+    String getCodigoSku();
+    BigDecimal getCostoBaseUsd();
+    BigDecimal getMargenVentaPorcentaje();
+    BigDecimal getPrecioVentaBob();
+  }
+
   // ========================
   // Concurrencia
   // ========================
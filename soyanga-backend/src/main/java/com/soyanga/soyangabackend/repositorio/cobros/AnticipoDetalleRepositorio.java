@@ -16,6 +16,10 @@ public interface AnticipoDetalleRepositorio extends BaseRepository<AnticipoDetal
     /** Todas las filas de un anticipo (se usa para poner reservada=0 al consumir a venta) */
     List<AnticipoDetalle> findByIdAnticipo(Long idAnticipo);
 
+    /** Filas con reserva viva de un bloque de anticipos (tope por par al liberar vencidas) */
+    List<AnticipoDetalle> findByIdAnticipoInAndCantidadReservadaGreaterThan(java.util.Collection<Long> idsAnticipo,
+                                                                           BigDecimal minimo);
+
     /** Para upsert/merge por la UNIQUE (id_anticipo, id_presentacion, id_almacen) */
     Optional<AnticipoDetalle> findByIdAnticipoAndIdPresentacionAndIdAlmacen(Long idAnticipo,
                                                                             Long idPresentacion,
@@ -54,6 +58,10 @@ public interface AnticipoDetalleRepositorio extends BaseRepository<AnticipoDetal
     @Query("update AnticipoDetalle d set d.cantidadReservada = 0 where d.idAnticipo = :idAnticipo")
     int clearReservadoPorAnticipo(@Param("idAnticipo") Long idAnticipo);
 
+    @Modifying
+    @Query("update AnticipoDetalle d set d.cantidadReservada = 0 where d.idAnticipo in :ids")
+    int clearReservadoPorAnticipos(@Param("ids") java.util.Collection<Long> ids);
+
     @Modifying
     @Query("""
            update AnticipoDetalle d
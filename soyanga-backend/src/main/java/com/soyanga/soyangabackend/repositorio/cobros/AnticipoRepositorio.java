@@ -2,6 +2,7 @@
 package com.soyanga.soyangabackend.repositorio.cobros;
 
 import com.soyanga.soyangabackend.dominio.Anticipo;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -83,4 +84,35 @@ public interface AnticipoRepositorio extends JpaRepository<Anticipo, Long> {
     """, nativeQuery = true)
     java.util.List<ReservaVigenteRowMin> reservasVigentesMin(@Param("idAnticipo") Long idAnticipo);
 
+    // ===== Concurrencia: reservar/liberar vs. job de vencimiento =====
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Anticipo a where a.idAnticipo = :id")
+    java.util.Optional<Anticipo> lockById(@Param("id") Long idAnticipo);
+
+    // ===== Vencimiento de reservas: toma un bloque de anticipos vencidos (SKIP LOCKED => seguro entre nodos) =====
+    @Query(value = """
+        SELECT a.id_anticipo
+        FROM anticipos a
+        WHERE a.reserva_vence_en IS NOT NULL
+          AND a.reserva_vence_en <= :ahora
+          AND EXISTS (
+              SELECT 1 FROM anticipos_detalle d
+              WHERE d.id_anticipo = a.id_anticipo
+                AND d.cantidad_reservada > 0
+          )
+        ORDER BY a.id_anticipo
+        LIMIT :lim
+        FOR UPDATE OF a SKIP LOCKED
+        """, nativeQuery = true)
+    java.util.List<Long> lockReservasVencidas(@Param("ahora") LocalDateTime ahora,
+                                              @Param("lim") int limit);
+
+    /**
+     * Sólo quita el vencimiento: el estado del anticipo refleja aplicaciones/anulación (no hay estado
+     * "reservado") y aplicar no limpia reserva_vence_en, así que aquí no se toca.
+     */
+    @Modifying
+    @Query("update Anticipo a set a.reservaVenceEn = null where a.idAnticipo in :ids")
+    int limpiarVencimientoReserva(@Param("ids") java.util.Collection<Long> ids);
+
 }
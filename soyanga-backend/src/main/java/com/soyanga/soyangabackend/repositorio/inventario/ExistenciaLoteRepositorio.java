@@ -104,14 +104,63 @@ public interface ExistenciaLoteRepositorio extends BaseRepository<ExistenciaPorL
     String getNumeroLote();
   }
 
-  // ======= NUEVO: total reservable (suma de cantidad_disponible) para validaciones rápidas =======
+  // ======= NUEVO: total reservable (cantidad_disponible) para validaciones rápidas =======
+  // Lee v_stock_por_presentacion (agregado + deltas del trigger, incluidos los de esta transacción)
   @Query(value = """
-            SELECT COALESCE(SUM(e.cantidad_disponible), 0)
-            FROM existencias_por_lote e
-            JOIN lotes l ON l.id_lote = e.id_lote
-            WHERE e.id_almacen = :idAlmacen
-              AND l.id_presentacion = :idPresentacion
+            SELECT COALESCE((
+                SELECT s.cantidad_disponible
+                FROM v_stock_por_presentacion s
+                WHERE s.id_almacen = :idAlmacen
+                  AND s.id_presentacion = :idPresentacion
+            ), 0)
             """, nativeQuery = true)
   java.math.BigDecimal totalReservablePorPresentacion(@Param("idAlmacen") Long idAlmacen,
                                                       @Param("idPresentacion") Long idPresentacion);
+
+  // ======= Vencimiento de reservas: bloquea (en orden almacén/lote, evita deadlocks) las existencias reservadas por un bloque de anticipos =======
+  @Query(value = """
+            SELECT
+                e.id_existencia_lote  AS idExistenciaLote,
+                e.id_almacen          AS idAlmacen,
+                e.id_lote             AS idLote,
+                e.cantidad_reservada  AS cantidadReservada
+            FROM existencias_por_lote e
+            WHERE e.cantidad_reservada > 0
+              AND EXISTS (
+                  SELECT 1 FROM movimientos_de_inventario m
+                  WHERE m.referencia_modulo = 'anticipo'
+                    AND m.tipo_movimiento = 'reserva_anticipo'
+                    AND m.id_referencia IN (:ids)
+                    AND m.id_almacen_origen = e.id_almacen
+                    AND m.id_lote = e.id_lote
+              )
+            ORDER BY e.id_almacen, e.id_lote
+            FOR UPDATE OF e
+            """, nativeQuery = true)
+  List<ExistenciaReservadaRow> lockReservadasDeAnticipos(@Param("ids") java.util.Collection<Long> idsAnticipo);
+
+  interface ExistenciaReservadaRow {
+    Long getIdExistenciaLote();
+    Long getIdAlmacen();
+    Long getIdLote();
+    java.math.BigDecimal getCantidadReservada();
+  }
+
+  // ======= Stock por presentación en un almacén (v_stock_por_presentacion) =======
+  @Query(value = """
+            SELECT s.id_presentacion     AS idPresentacion,
+                   s.cantidad_disponible AS disponible,
+                   s.cantidad_reservada  AS reservado
+            FROM v_stock_por_presentacion s
+            WHERE s.id_almacen = :idAlmacen
+              AND s.id_presentacion IN (:ids)
+            """, nativeQuery = true)
+  List<StockPresentacionRow> stockPorPresentaciones(@Param("idAlmacen") Long idAlmacen,
+                                                    @Param("ids") java.util.Collection<Long> idsPresentacion);
+
+  interface StockPresentacionRow {
+    Long getIdPresentacion();
+    java.math.BigDecimal getDisponible();
+    java.math.BigDecimal getReservado();
+  }
 }
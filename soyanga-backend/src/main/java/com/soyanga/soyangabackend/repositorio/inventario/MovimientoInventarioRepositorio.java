@@ -57,14 +57,14 @@ public interface MovimientoInventarioRepositorio extends BaseRepository<Movimien
         """, nativeQuery = true)
     List<MovimientoInventario> reservasDeAnticipo(@Param("idAnticipo") Long idAnticipo);
 
+    // Saldo físico (disponible + reservada) del par según el kárdex; ver v_kardex_efecto (V20261019_09)
     @Query(value = """
-        SELECT *
-        FROM movimientos_de_inventario
-        WHERE referencia_modulo = 'venta'
-          AND id_referencia = :idVenta
-        ORDER BY fecha_movimiento, id_movimiento
+        SELECT COALESCE(SUM(k.delta), 0)
+        FROM v_kardex_efecto k
+        WHERE k.id_lote = :idLote
+          AND k.id_almacen = :idAlmacen
         """, nativeQuery = true)
-    List<MovimientoInventario> porVenta(@Param("idVenta") Long idVenta);
+    BigDecimal saldoKardex(@Param("idAlmacen") Long idAlmacen, @Param("idLote") Long idLote);
 
     // ===== Proyección simple (solo IDs) =====
     interface MovimientoRow {
@@ -206,4 +206,33 @@ public interface MovimientoInventarioRepositorio extends BaseRepository<Movimien
         ORDER BY l.fecha_vencimiento ASC, vig.id_lote ASC
         """, nativeQuery = true)
     List<ReservaVigenteRow> reservasVigentesPorAnticipo(@Param("idAnticipo") Long idAnticipo);
+
+    // ======== Reserva neta por (anticipo, almacén, lote) para un bloque de anticipos (job de vencimiento) ========
+    interface ReservaNetaRow {
+        Long getIdAnticipo();
+        Long getIdAlmacen();
+        Long getIdPresentacion();
+        Long getIdLote();
+        BigDecimal getCantidad();
+    }
+
+    @Query(value = """
+        SELECT
+            m.id_referencia      AS idAnticipo,
+            m.id_almacen_origen  AS idAlmacen,
+            l.id_presentacion    AS idPresentacion,
+            m.id_lote            AS idLote,
+            SUM(CASE WHEN m.tipo_movimiento = 'reserva_anticipo'   THEN m.cantidad ELSE 0 END) -
+            SUM(CASE WHEN m.tipo_movimiento = 'liberacion_reserva' THEN m.cantidad ELSE 0 END) AS cantidad
+        FROM movimientos_de_inventario m
+        JOIN lotes l ON l.id_lote = m.id_lote
+        WHERE m.referencia_modulo = 'anticipo'
+          AND m.id_referencia IN (:ids)
+          AND m.tipo_movimiento IN ('reserva_anticipo', 'liberacion_reserva')
+        GROUP BY m.id_referencia, m.id_almacen_origen, l.id_presentacion, m.id_lote, l.fecha_vencimiento
+        HAVING SUM(CASE WHEN m.tipo_movimiento = 'reserva_anticipo'   THEN m.cantidad ELSE 0 END) -
+               SUM(CASE WHEN m.tipo_movimiento = 'liberacion_reserva' THEN m.cantidad ELSE 0 END) > 0
+        ORDER BY m.id_referencia, l.fecha_vencimiento DESC NULLS FIRST, m.id_lote DESC
+        """, nativeQuery = true)
+    List<ReservaNetaRow> reservasNetasPorAnticipos(@Param("ids") java.util.Collection<Long> idsAnticipo);
 }
@@ -78,48 +78,4 @@ public interface VentaRepositorio extends BaseRepository<Venta, Long> {
             org.springframework.data.domain.Pageable pageable
     );
 
-    public interface VentaHeaderProjection {
-        Long getIdVenta();
-        LocalDateTime getFechaVenta();
-        String getEstadoVenta();
-        String getTipoDocumentoTributario();
-        String getNumeroDocumento();
-        Long getIdCliente();
-        String getCliente();
-        Long getIdMoneda();
-        java.math.BigDecimal getTotalBrutoBob();
-        java.math.BigDecimal getDescuentoTotalBob();
-        java.math.BigDecimal getTotalNetoBob();
-        String getMetodoDePago();
-        String getCondicionDePago();
-        java.math.BigDecimal getInteresCredito();
-        java.time.LocalDate getFechaVencimientoCredito();
-        Long getIdAlmacenDespacho();
-        String getObservaciones();
-    }
-
-    @Query(value = """
-        SELECT
-          v.id_venta                  AS idVenta,
-          v.fecha_venta               AS fechaVenta,
-          v.estado_venta              AS estadoVenta,
-          v.tipo_documento_tributario AS tipoDocumentoTributario,
-          v.numero_documento          AS numeroDocumento,
-          v.id_cliente                AS idCliente,
-          cl.razon_social_o_nombre    AS cliente,
-          v.id_moneda                 AS idMoneda,
-          v.total_bruto_bob           AS totalBrutoBob,
-          v.descuento_total_bob       AS descuentoTotalBob,
-          v.total_neto_bob            AS totalNetoBob,
-          v.metodo_de_pago            AS metodoDePago,
-          v.condicion_de_pago         AS condicionDePago,
-          v.interes_credito           AS interesCredito,
-          v.fecha_vencimiento_credito AS fechaVencimientoCredito,
-          v.id_almacen_despacho       AS idAlmacenDespacho,
-          v.observaciones             AS observaciones
-        FROM ventas v
-        LEFT JOIN clientes cl ON cl.id_cliente = v.id_cliente
-        WHERE v.id_venta = :id
-        """, nativeQuery = true)
-    VentaHeaderProjection header(@Param("id") Long id);
 }
@@ -3,9 +3,10 @@ package com.soyanga.soyangabackend.seguridad;
 import org.springframework.security.access.prepost.PreAuthorize;
 import java.lang.annotation.*;
 
+/** {valor} se sustituye por el atributo (ver AnnotationTemplateExpressionDefaults en SecurityConfig). */
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("@perms.tiene(authentication, #valor + ':ver')")
+@PreAuthorize("@perms.tiene(authentication, '{valor}:ver')")
 public @interface RequiereVer {
     String valor();
 }
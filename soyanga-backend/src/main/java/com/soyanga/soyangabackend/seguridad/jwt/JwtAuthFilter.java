@@ -1,5 +1,6 @@
 package com.soyanga.soyangabackend.seguridad.jwt;
 
+import com.soyanga.soyangabackend.servicio.metricas.MetricasOperacion;
 import com.soyanga.soyangabackend.servicio.seguridad.UsuarioDetallesService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -26,6 +27,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UsuarioDetallesService userDetailsService;
+    private final MetricasOperacion metricas;
 
     private static final AntPathMatcher PATHS = new AntPathMatcher();
     private static final List<String> PUBLIC_PATHS = List.of(
@@ -47,40 +49,50 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         return false;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
             throws ServletException, IOException {
 
+        // Solo se mide la autenticación (no el resto de la cadena)
+        var sample = metricas.inicioFiltroJwt();
+        String resultado = "error";
+        try {
+            resultado = autenticar(req);
+        } finally {
+            metricas.finFiltroJwt(sample, resultado);
+        }
+
+        chain.doFilter(req, res);
+    }
+
+    /** Arma el contexto de seguridad si hay un Bearer válido; devuelve cómo terminó (tag de la métrica). */
+    @SuppressWarnings("unchecked")
+    private String autenticar(HttpServletRequest req) {
+
         // Si ya hay Authentication, continúa
         Authentication already = SecurityContextHolder.getContext().getAuthentication();
         if (already != null) {
-            chain.doFilter(req, res);
-            return;
+            return "ya_autenticado";
         }
 
         final String authHeader = req.getHeader(HttpHeaders.AUTHORIZATION);
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            chain.doFilter(req, res);
-            return;
+            return "sin_token";
         }
 
         final String token = authHeader.substring(7).trim();
         String username;
         try {
             if (jwtService.isExpired(token)) { // si tienes isValid que chequea exp+subject, puedes usarlo
-                chain.doFilter(req, res);
-                return;
+                return "expirado";
             }
             username = jwtService.extractUsername(token);
         } catch (Exception e) {
-            chain.doFilter(req, res);
-            return;
+            return "invalido";
         }
 
         if (username == null || username.isBlank()) {
-            chain.doFilter(req, res);
-            return;
+            return "invalido";
         }
 
         // 1) Intentar autoridades desde el claim "auth"
@@ -90,6 +102,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         } catch (Exception ignored) { /* no hay claim o formato distinto */ }
 
         List<SimpleGrantedAuthority> authorities = null;
+        String origen = "claim";
         if (authList != null && !authList.isEmpty()) {
             authorities = authList.stream()
                     .filter(Objects::nonNull)
@@ -105,13 +118,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             authorities = userDetails.getAuthorities().stream()
                     .map(a -> new SimpleGrantedAuthority(a.getAuthority()))
                     .collect(Collectors.toList());
+            origen = "bd";
         }
 
         // Autenticar contexto
         var authToken = new UsernamePasswordAuthenticationToken(username, null, authorities);
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
         SecurityContextHolder.getContext().setAuthentication(authToken);
-
-        chain.doFilter(req, res);
+        return "autenticado_" + origen;
     }
 }
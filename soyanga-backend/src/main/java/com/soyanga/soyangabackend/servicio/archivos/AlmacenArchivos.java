@@ -0,0 +1,55 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Backend de almacenamiento de archivos subidos (disco local o S3 compatible).
+ * <p>
+ * Las claves son rutas relativas con '/' ({@code cas/ab/abcd….png}). {@link StorageService} las
+ * arma a partir del SHA-256 del contenido, así que un objeto nunca cambia una vez escrito: se
+ * escribe sólo si falta y su URL puede cachearse indefinidamente. Los objetos sin referencias los
+ * borra {@link LimpiezaArchivosJob}.
+ */
+public interface AlmacenArchivos {
+
+    /**
+     * Copia {@code archivo} a {@code clave} si todavía no existe; true si escribió. Si ya existía
+     * renueva su fecha de modificación: la limpieza de huérfanos respeta un período de gracia desde
+     * esa fecha, que cubre la transacción que va a referenciarlo.
+     */
+    boolean guardarSiFalta(String clave, Path archivo, String contentType) throws IOException;
+
+    boolean existe(String clave) throws IOException;
+
+    /** Lanza {@link java.nio.file.NoSuchFileException} si la clave no existe. */
+    InputStream abrir(String clave) throws IOException;
+
+    /**
+     * Borra {@code clave} sólo si su fecha de modificación sigue siendo anterior a {@code limite}:
+     * un {@link #guardarSiFalta} que la reutilizó después de listarla la renueva y la salva.
+     * true si la borró.
+     */
+    boolean borrarSiAnterior(String clave, Instant limite) throws IOException;
+
+    /** Recorre los objetos bajo {@code prefijo}. */
+    void listar(String prefijo, Consumer<Objeto> visitante) throws IOException;
+
+    /** URL con la que el frontend pide el objeto. */
+    String urlPublica(String clave);
+
+    /** Inversa de {@link #urlPublica}; null si la URL no es de este almacén. */
+    default String claveDeUrl(String url) {
+        String prefijo = urlPublica("");
+        if (url == null || !url.startsWith(prefijo)) return null;
+        String clave = url.substring(prefijo.length());
+        if (clave.isEmpty() || clave.startsWith("/") || clave.contains("\\") || clave.contains("..")) return null;
+        return clave;
+    }
+
+    record Objeto(String clave, long tamanio, Instant modificado) {
+    }
+}
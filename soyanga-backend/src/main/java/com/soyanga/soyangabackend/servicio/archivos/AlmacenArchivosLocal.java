@@ -0,0 +1,124 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Almacén en disco bajo {@code app.upload.dir}; ArchivosLocalServlet lo sirve en {@code /uploads/*}.
+ * Escribe a un temporal y lo mueve atómicamente: nunca se ve un archivo a medias.
+ */
+public class AlmacenArchivosLocal implements AlmacenArchivos {
+
+    /** Los temporales nacen 0600 y la copia conserva el modo: se publican legibles para el servidor web */
+    private static final Set<PosixFilePermission> LECTURA_PUBLICA = PosixFilePermissions.fromString("rw-r--r--");
+
+    private final Path raiz;
+
+    public AlmacenArchivosLocal(Path raiz) {
+        this.raiz = raiz.toAbsolutePath().normalize();
+    }
+
+    public Path raiz() {
+        return raiz;
+    }
+
+    /** Ruta en disco de una clave (no sale de la raíz). */
+    public Path ruta(String clave) {
+        Path p = raiz.resolve(clave).normalize();
+        if (!p.startsWith(raiz)) throw new IllegalArgumentException("Clave inválida: " + clave);
+        return p;
+    }
+
+    @Override
+    public boolean guardarSiFalta(String clave, Path archivo, String contentType) throws IOException {
+        Path destino = ruta(clave);
+        if (Files.exists(destino)) {
+            Files.setLastModifiedTime(destino, FileTime.from(Instant.now()));
+            return false;
+        }
+        Files.createDirectories(destino.getParent());
+        Path tmp = Files.createTempFile(destino.getParent(), ".subida-", ".tmp");
+        try {
+            Files.copy(archivo, tmp, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.getFileStore(tmp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(tmp, LECTURA_PUBLICA);
+            }
+            // Sin REPLACE_EXISTING: si otro hilo/nodo escribió el mismo contenido, gana el primero
+            Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public boolean existe(String clave) {
+        return Files.isRegularFile(ruta(clave));
+    }
+
+    @Override
+    public InputStream abrir(String clave) throws IOException {
+        return Files.newInputStream(ruta(clave));
+    }
+
+    /**
+     * Aparta el archivo con un rename atómico y recién entonces mira su fecha: desde ese momento
+     * guardarSiFalta ya no lo encuentra (escribe su propia copia), y si lo renovó antes la fecha
+     * nueva se ve aquí y el archivo vuelve a su lugar.
+     */
+    @Override
+    public boolean borrarSiAnterior(String clave, Instant limite) throws IOException {
+        Path destino = ruta(clave);
+        Path apartado = destino.resolveSibling(".borrando-" + UUID.randomUUID());
+        try {
+            Files.move(destino, apartado, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (Files.getLastModifiedTime(apartado).toInstant().isBefore(limite)) {
+            Files.delete(apartado);
+            return true;
+        }
+        try {
+            Files.move(apartado, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(apartado); // ya hay otra copia del mismo contenido
+        }
+        return false;
+    }
+
+    @Override
+    public void listar(String prefijo, Consumer<Objeto> visitante) throws IOException {
+        Path dir = ruta(prefijo);
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) s.filter(Files::isRegularFile)::iterator) {
+                String nombre = p.getFileName().toString();
+                if (nombre.startsWith(".subida-") || nombre.startsWith(".borrando-")) continue;
+                visitante.accept(new Objeto(raiz.relativize(p).toString().replace('\\', '/'),
+                        Files.size(p), Files.getLastModifiedTime(p).toInstant()));
+            }
+        }
+    }
+
+    @Override
+    public String urlPublica(String clave) {
+        return "/uploads/" + clave;
+    }
+}
@@ -0,0 +1,127 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Almacén en un bucket S3 compatible (AWS S3, MinIO, ...), compartido por todos los nodos.
+ * <p>
+ * Los objetos se suben con {@code Cache-Control: immutable} (la clave deriva del contenido). Si
+ * hay {@code urlPublica} (bucket público o CDN) el frontend los pide ahí; si no, se sirven a través
+ * del backend en {@code /uploads/**}.
+ */
+public class AlmacenArchivosS3 implements AlmacenArchivos {
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String urlPublica;
+
+    /** {@code urlPublica} sin '/' final; vacía = servir por el backend. */
+    public AlmacenArchivosS3(S3Client s3, String bucket, String urlPublica) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.urlPublica = (urlPublica == null || urlPublica.isBlank())
+                ? "/uploads"
+                : urlPublica.replaceAll("/+$", "");
+    }
+
+    @Override
+    public boolean guardarSiFalta(String clave, Path archivo, String contentType) throws IOException {
+        try {
+            if (existe(clave)) {
+                // Copiarlo sobre sí mismo es la forma S3 de renovar LastModified
+                s3.copyObject(b -> b.sourceBucket(bucket).sourceKey(clave)
+                        .destinationBucket(bucket).destinationKey(clave)
+                        .metadataDirective(MetadataDirective.REPLACE)
+                        .contentType(contentType)
+                        .cacheControl(CACHE_CONTROL));
+                return false;
+            }
+            s3.putObject(b -> b.bucket(bucket).key(clave)
+                            .contentType(contentType)
+                            .cacheControl(CACHE_CONTROL),
+                    RequestBody.fromFile(archivo));
+            return true;
+        } catch (SdkException e) {
+            throw new IOException("No se pudo subir " + clave + " a S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean existe(String clave) throws IOException {
+        try {
+            s3.headObject(b -> b.bucket(bucket).key(clave));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return false;
+            throw new IOException("No se pudo consultar " + clave + " en S3: " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("No se pudo consultar " + clave + " en S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream abrir(String clave) throws IOException {
+        try {
+            return s3.getObject(b -> b.bucket(bucket).key(clave));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(clave);
+        } catch (SdkException e) {
+            throw new IOException("No se pudo leer " + clave + " de S3: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Relee LastModified justo antes de borrar (la renovación de guardarSiFalta lo cambia). S3 no
+     * ofrece un DELETE condicional por fecha, así que queda sólo el margen entre ambas llamadas.
+     */
+    @Override
+    public boolean borrarSiAnterior(String clave, Instant limite) throws IOException {
+        try {
+            var head = s3.headObject(b -> b.bucket(bucket).key(clave));
+            if (!head.lastModified().isBefore(limite)) return false;
+            s3.deleteObject(b -> b.bucket(bucket).key(clave));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return false;
+            throw new IOException("No se pudo borrar " + clave + " de S3: " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("No se pudo borrar " + clave + " de S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void listar(String prefijo, Consumer<Objeto> visitante) throws IOException {
+        try {
+            s3.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(prefijo))
+                    .contents().stream()
+                    // Marcadores de "carpeta" (consolas, MinIO/s3proxy sobre disco): no son archivos
+                    .filter(o -> !o.key().endsWith("/"))
+                    .forEach(o -> visitante.accept(new Objeto(o.key(), o.size(), o.lastModified())));
+        } catch (SdkException e) {
+            throw new IOException("No se pudo listar " + prefijo + " en S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String urlPublica(String clave) {
+        return urlPublica + "/" + clave;
+    }
+}
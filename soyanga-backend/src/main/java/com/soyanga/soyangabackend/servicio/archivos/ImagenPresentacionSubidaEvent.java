@@ -0,0 +1,5 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+/** Se publica al guardar una imagen de presentación; tras el commit se generan sus variantes. */
+public record ImagenPresentacionSubidaEvent(Long idPresentacion, String imagenUrl) {
+}
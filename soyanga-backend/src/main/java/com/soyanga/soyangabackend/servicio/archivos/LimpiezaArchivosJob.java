@@ -0,0 +1,29 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: borra del almacén los archivos que ya no referencia ninguna presentación. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.almacenamiento.limpieza.enabled", havingValue = "true", matchIfMissing = true)
+public class LimpiezaArchivosJob {
+
+    private final StorageService storage;
+
+    @Scheduled(cron = "${app.almacenamiento.limpieza.cron:0 0 4 * * *}")
+    public void ejecutar() {
+        try {
+            int borrados = storage.limpiarHuerfanos();
+            if (borrados > 0) {
+                log.info("[Archivos] huérfanos borrados={}", borrados);
+            }
+        } catch (Exception ex) {
+            log.error("[Archivos] Falló la limpieza de huérfanos: {}", ex.getMessage(), ex);
+        }
+    }
+}
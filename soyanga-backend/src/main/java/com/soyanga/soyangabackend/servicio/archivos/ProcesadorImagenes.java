@@ -0,0 +1,368 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import com.soyanga.soyangabackend.servicio.archivos.VariantesImagen.Variante;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Genera las variantes de la imagen de una presentación: miniatura, tarjeta y completa, cada una
+ * en WebP (si hay codificador ImageIO para WebP) y JPEG, junto al original en el
+ * {@link AlmacenArchivos} ({@code cas/ab/abcd…_240w.webp}).
+ * <p>
+ * Corre en un pool propio tras el commit de la subida, así el request no paga la decodificación ni
+ * la compresión. Al terminar registra anchos y formatos en la presentación, sólo si su
+ * {@code imagen_url} sigue siendo la procesada. Si otra presentación ya tiene la misma imagen
+ * procesada, se copian sus anchos sin regenerar nada. Al arrancar se migran al almacén las
+ * imágenes del esquema anterior y se encolan las que todavía no tienen variantes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcesadorImagenes {
+
+    private static final String SQL_MARCAR = """
+            UPDATE presentaciones_de_productos
+               SET imagen_anchos = ?::integer[], imagen_formatos = ?::text[]
+             WHERE id_presentacion = ? AND imagen_url = ?
+            """;
+
+    private static final String SQL_YA_PROCESADA = """
+            SELECT imagen_anchos, imagen_formatos
+              FROM presentaciones_de_productos
+             WHERE imagen_url = ? AND imagen_anchos IS NOT NULL
+             LIMIT 1
+            """;
+
+    private final StorageService storage;
+    private final AlmacenArchivos almacen;
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry registry;
+
+    @Value("${app.imagenes.anchos.miniatura:240}")
+    private int anchoMiniatura;
+
+    @Value("${app.imagenes.anchos.tarjeta:480}")
+    private int anchoTarjeta;
+
+    @Value("${app.imagenes.anchos.completa:1200}")
+    private int anchoCompleta;
+
+    @Value("${app.imagenes.calidad-jpeg:0.82}")
+    private float calidadJpeg;
+
+    @Value("${app.imagenes.calidad-webp:0.80}")
+    private float calidadWebp;
+
+    /** Tope de píxeles del original (se valida antes de decodificar: evita bombas de descompresión) */
+    @Value("${app.imagenes.max-pixeles:40000000}")
+    private long maxPixeles;
+
+    @Value("${app.imagenes.hilos:1}")
+    private int hilos;
+
+    @Value("${app.imagenes.regenerar-al-arrancar:true}")
+    private boolean regenerarAlArrancar;
+
+    private ExecutorService ejecutor;
+    private List<String> formatos;
+
+    @PostConstruct
+    void iniciar() {
+        // Registra los plugins del classpath de la app (el lector/escritor WebP) aunque ImageIO ya se haya inicializado
+        ImageIO.scanForPlugins();
+        formatos = ImageIO.getImageWritersByFormatName("webp").hasNext()
+                ? List.of(VariantesImagen.WEBP, VariantesImagen.JPEG)
+                : List.of(VariantesImagen.JPEG);
+        if (!formatos.contains(VariantesImagen.WEBP)) {
+            log.warn("[Imagenes] No hay codificador WebP para ImageIO en esta plataforma; sólo se generan variantes JPEG");
+        }
+        ejecutor = Executors.newFixedThreadPool(Math.max(1, hilos),
+                Thread.ofPlatform().name("imagenes-", 1).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void cerrar() {
+        ejecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onImagenSubida(ImagenPresentacionSubidaEvent e) {
+        programar(e.idPresentacion(), e.imagenUrl());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        if (!regenerarAlArrancar) return;
+        ejecutor.execute(() -> {
+            migrarLegado();
+            encolarPendientes();
+        });
+    }
+
+    /** Imágenes subidas antes del almacén direccionado por contenido ({@code /uploads/presentaciones/{id}/...}). */
+    void migrarLegado() {
+        List<Object[]> legado = jdbc.query("""
+                SELECT id_presentacion, imagen_url
+                  FROM presentaciones_de_productos
+                 WHERE imagen_url LIKE '/uploads/presentaciones/%'
+                """, (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)});
+        int migradas = 0;
+        for (Object[] p : legado) {
+            Long id = (Long) p[0];
+            String url = (String) p[1];
+            try {
+                String nueva = storage.migrarLegado(id, url);
+                if (nueva == null) continue;
+                migradas += jdbc.update("""
+                        UPDATE presentaciones_de_productos
+                           SET imagen_url = ?, imagen_anchos = NULL, imagen_formatos = NULL
+                         WHERE id_presentacion = ? AND imagen_url = ?
+                        """, nueva, id, url);
+            } catch (Exception ex) {
+                log.warn("[Imagenes] Presentación {}: no se pudo migrar '{}': {}", id, url, ex.getMessage());
+            }
+        }
+        if (migradas > 0) log.info("[Imagenes] {} imágenes migradas al almacén por contenido", migradas);
+    }
+
+    private void encolarPendientes() {
+        List<Object[]> pendientes = jdbc.query("""
+                SELECT id_presentacion, imagen_url
+                  FROM presentaciones_de_productos
+                 WHERE imagen_url IS NOT NULL AND imagen_anchos IS NULL
+                """, (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)});
+        if (pendientes.isEmpty()) return;
+        log.info("[Imagenes] {} imágenes sin variantes; se generan en segundo plano", pendientes.size());
+        pendientes.forEach(p -> programar((Long) p[0], (String) p[1]));
+    }
+
+    void programar(Long idPresentacion, String imagenUrl) {
+        ejecutor.execute(() -> procesar(idPresentacion, imagenUrl));
+    }
+
+    void procesar(Long idPresentacion, String imagenUrl) {
+        Timer.Sample muestra = Timer.start(registry);
+        String resultado = "ok";
+        Path trabajo = null;
+        try {
+            String clave = almacen.claveDeUrl(imagenUrl);
+            if (clave == null) {
+                resultado = "externa";
+                log.warn("[Imagenes] Presentación {}: '{}' no está en el almacén, no se generan variantes",
+                        idPresentacion, imagenUrl);
+                return;
+            }
+
+            Integer[] anchos;
+            String[] fmts;
+            List<Object[]> previa = jdbc.query(SQL_YA_PROCESADA,
+                    (rs, i) -> new Object[]{rs.getArray(1).getArray(), rs.getArray(2).getArray()}, imagenUrl);
+            if (!previa.isEmpty()) {
+                // Misma imagen (mismo hash) ya procesada para otra presentación
+                resultado = "reutilizada";
+                anchos = (Integer[]) previa.get(0)[0];
+                fmts = (String[]) previa.get(0)[1];
+            } else {
+                trabajo = Files.createTempDirectory("variantes-");
+                Path original = trabajo.resolve("original");
+                try (InputStream in = almacen.abrir(clave)) {
+                    Files.copy(in, original);
+                }
+                anchos = generar(original, trabajo, VariantesImagen.base(clave));
+                fmts = formatos.toArray(String[]::new);
+            }
+
+            int n = jdbc.update(SQL_MARCAR, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("integer", anchos));
+                ps.setArray(2, ps.getConnection().createArrayOf("text", fmts));
+                ps.setLong(3, idPresentacion);
+                ps.setString(4, imagenUrl);
+            });
+            // 0 filas: la imagen se reemplazó o quitó mientras se procesaba (la limpieza borra lo que sobre)
+            if (n == 0) resultado = "obsoleta";
+        } catch (Exception ex) {
+            resultado = "error";
+            log.warn("[Imagenes] Presentación {}: no se pudieron generar variantes de '{}': {}",
+                    idPresentacion, imagenUrl, ex.getMessage());
+        } finally {
+            borrarTrabajo(trabajo);
+            muestra.stop(Timer.builder("soyanga.imagenes.variantes")
+                    .description("Generación de variantes de una imagen de presentación")
+                    .tag("resultado", resultado)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Codifica las variantes en {@code trabajo}, las sube al almacén como {@code claveBase_{ancho}w.fmt}
+     * y devuelve el ancho real de cada una (orden de {@link Variante}).
+     */
+    Integer[] generar(Path original, Path trabajo, String claveBase) throws IOException {
+        BufferedImage img = normalizar(leer(original));
+
+        int[] objetivo = {anchoMiniatura, anchoTarjeta, anchoCompleta};
+        Variante[] vs = Variante.values();
+        Integer[] anchos = new Integer[vs.length];
+        // De la más grande a la más chica: cada una se reduce desde la anterior
+        BufferedImage fuente = img;
+        for (int i = vs.length - 1; i >= 0; i--) {
+            fuente = reducir(fuente, Math.min(objetivo[i], img.getWidth()));
+            anchos[i] = fuente.getWidth();
+            for (String f : formatos) {
+                Path archivo = trabajo.resolve(anchos[i] + "." + f);
+                if (!Files.exists(archivo)) {
+                    escribir(VariantesImagen.WEBP.equals(f) ? fuente : aRgb(fuente), f, archivo);
+                }
+                almacen.guardarSiFalta(VariantesImagen.nombre(claveBase, anchos[i], f), archivo,
+                        VariantesImagen.WEBP.equals(f) ? "image/webp" : "image/jpeg");
+            }
+        }
+        return anchos;
+    }
+
+    private BufferedImage leer(Path archivo) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(archivo.toFile())) {
+            Iterator<ImageReader> lectores = in == null ? null : ImageIO.getImageReaders(in);
+            if (lectores == null || !lectores.hasNext()) {
+                throw new IOException("Formato de imagen no soportado");
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(in, true, true);
+                long pixeles = (long) lector.getWidth(0) * lector.getHeight(0);
+                if (pixeles > maxPixeles) {
+                    throw new IOException("Imagen demasiado grande (" + lector.getWidth(0) + "x" + lector.getHeight(0) + ")");
+                }
+                return lector.read(0);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /** RGB, o ARGB si la imagen tiene transparencia (WebP la conserva). */
+    private static BufferedImage normalizar(BufferedImage img) {
+        int tipo = tipoTrabajo(img);
+        if (img.getType() == tipo) return img;
+        BufferedImage n = new BufferedImage(img.getWidth(), img.getHeight(), tipo);
+        Graphics2D g = n.createGraphics();
+        try {
+            g.drawImage(img, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return n;
+    }
+
+    private static int tipoTrabajo(BufferedImage img) {
+        return img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    /** JPEG no admite transparencia: se aplana sobre blanco (el fondo del catálogo). */
+    private static BufferedImage aRgb(BufferedImage img) {
+        if (img.getType() == BufferedImage.TYPE_INT_RGB) return img;
+        BufferedImage rgb = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, img.getWidth(), img.getHeight());
+            g.drawImage(img, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Reduce a {@code ancho} manteniendo la proporción. Baja a la mitad mientras se pueda y termina
+     * con un paso bicúbico: un solo paso grande con bilineal pierde detalle y genera aliasing.
+     */
+    static BufferedImage reducir(BufferedImage img, int ancho) {
+        BufferedImage actual = img;
+        while (actual.getWidth() > ancho) {
+            int w = Math.max(ancho, actual.getWidth() / 2);
+            int h = Math.max(1, (int) Math.round((double) img.getHeight() * w / img.getWidth()));
+            BufferedImage sig = new BufferedImage(w, h, tipoTrabajo(img));
+            Graphics2D g = sig.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, w == ancho
+                        ? RenderingHints.VALUE_INTERPOLATION_BICUBIC
+                        : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            actual = sig;
+        }
+        return actual;
+    }
+
+    private void escribir(BufferedImage img, String formato, Path destino) throws IOException {
+        boolean webp = VariantesImagen.WEBP.equals(formato);
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName(webp ? "webp" : "jpeg").next();
+        ImageWriteParam param = escritor.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            String[] tipos = param.getCompressionTypes();
+            if (webp && tipos != null && Arrays.asList(tipos).contains("Lossy")) {
+                param.setCompressionType("Lossy");
+            } else if (param.getCompressionType() == null && tipos != null && tipos.length > 0) {
+                param.setCompressionType(tipos[0]);
+            }
+            param.setCompressionQuality(webp ? calidadWebp : calidadJpeg);
+        }
+        if (!webp && param.canWriteProgressive()) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(destino.toFile())) {
+            escritor.setOutput(out);
+            escritor.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            escritor.dispose();
+        }
+    }
+
+    private static void borrarTrabajo(Path trabajo) {
+        if (trabajo == null) return;
+        try (Stream<Path> s = Files.list(trabajo)) {
+            for (Path p : (Iterable<Path>) s::iterator) Files.deleteIfExists(p);
+            Files.deleteIfExists(trabajo);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -1,28 +1,58 @@
 package com.soyanga.soyangabackend.servicio.archivos;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
-import java.util.Locale;
-import java.util.Optional;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Archivos subidos, direccionados por contenido sobre un {@link AlmacenArchivos}.
+ * <p>
+ * La clave de un archivo es su SHA-256 ({@code cas/ab/abcd….ext}): subir dos veces la misma
+ * imagen (o la misma en dos presentaciones) guarda un solo objeto, y la URL no cambia nunca de
+ * contenido. Reemplazar o quitar una imagen no borra nada en el momento (el objeto puede estar
+ * referenciado por otra presentación); {@link #limpiarHuerfanos} borra luego lo que quedó sin uso.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class StorageService {
 
+    static final String PREFIJO_CAS = "cas/";
+
+    private final AlmacenArchivos almacen;
+    private final JdbcTemplate jdbc;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.almacenamiento.limpieza.gracia-horas:24}")
+    private long graciaHoras;
+
     private static final long MAX_BYTES = 10L * 1024 * 1024; // 10MB
 
+    /** Formatos sin compresión propia: se guarda además una variante .gz (JPEG/PNG/WebP ya vienen comprimidos) */
+    private static final Set<String> COMPRIMIBLES = Set.of("image/svg+xml", "image/bmp", "image/x-icon");
+
     /**
-     * Guarda la imagen de una presentación con nombre versionado (imagen_{ts}.ext)
-     * y devuelve la URL pública servida por Spring bajo /uploads/**.
+     * Guarda la imagen de una presentación bajo su hash de contenido y devuelve la URL pública
+     * (inmutable: apta para el caché largo de /uploads/**).
      */
-    public String savePresentacionImage(Long idPresentacion, MultipartFile file) throws IOException {
+    public String savePresentacionImage(MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("Archivo vacío");
         }
@@ -39,6 +69,7 @@ public class StorageService {
                 .filter(n -> n.contains("."))
                 .map(n -> n.substring(n.lastIndexOf('.') + 1))
                 .map(s -> s.toLowerCase(Locale.ROOT))
+                .filter(s -> s.matches("[a-z0-9]{1,5}"))
                 .orElseGet(() -> {
                     if (ctype.endsWith("png")) return "png";
                     if (ctype.endsWith("jpeg") || ctype.endsWith("jpg")) return "jpg";
@@ -47,48 +78,137 @@ public class StorageService {
                     return "jpg";
                 });
 
-        // 2) Directorio destino
-        Path dir = Path.of(uploadDir, "presentaciones", String.valueOf(idPresentacion))
+        // 2) Copia local calculando el hash al vuelo; 3) al almacén sólo si el contenido es nuevo
+        try (InputStream in = file.getInputStream()) {
+            return guardar(in, ext, ctype);
+        }
+    }
+
+    /**
+     * Mueve al almacén una imagen del esquema anterior ({@code /uploads/presentaciones/{id}/imagen_{ts}.ext},
+     * en el disco local) y devuelve su nueva URL; null si la URL no es de ese esquema o el archivo no está.
+     */
+    public String migrarLegado(Long idPresentacion, String url) throws IOException {
+        String prefijo = "/uploads/presentaciones/" + idPresentacion + "/";
+        if (url == null || !url.startsWith(prefijo)) return null;
+        String nombre = url.substring(prefijo.length());
+        if (nombre.isEmpty() || nombre.contains("/") || nombre.contains("\\") || nombre.contains("..")) return null;
+
+        Path archivo = Path.of(uploadDir, "presentaciones", String.valueOf(idPresentacion), nombre)
                 .toAbsolutePath().normalize();
-        Files.createDirectories(dir);
-
-        // 3) Limpiar versiones anteriores imagen_* (si existen)
-        try (var s = Files.list(dir)) {
-            s.forEach(p -> {
-                String name = p.getFileName().toString().toLowerCase(Locale.ROOT);
-                if (name.startsWith("imagen_")) {
-                    try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+        if (!Files.isRegularFile(archivo)) return null;
+
+        String ext = nombre.contains(".") ? nombre.substring(nombre.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT) : "jpg";
+        String ctype = Optional.ofNullable(Files.probeContentType(archivo)).orElse("image/" + ext);
+        try (InputStream in = Files.newInputStream(archivo)) {
+            return guardar(in, ext, ctype);
+        }
+    }
+
+    /**
+     * Borra los objetos de {@code cas/} cuyo hash no referencia ninguna presentación (ni como
+     * original ni como variante) y que no se tocaron en las últimas {@code gracia-horas}: la gracia
+     * cubre subidas cuya transacción todavía no confirmó. Antes de cada borrado vuelve a mirar la BD
+     * y la fecha del objeto: una subida que lo reutilizó después del listado lo renovó. Devuelve
+     * cuántos borró.
+     */
+    public int limpiarHuerfanos() throws IOException {
+        Set<String> referenciados = new HashSet<>();
+        jdbc.query("SELECT DISTINCT imagen_url FROM presentaciones_de_productos WHERE imagen_url IS NOT NULL",
+                rs -> {
+                    String clave = almacen.claveDeUrl(rs.getString(1));
+                    if (clave != null) referenciados.add(hashDeClave(clave));
+                });
+
+        Instant limite = Instant.now().minus(Duration.ofHours(graciaHoras));
+        List<String> huerfanos = new ArrayList<>();
+        almacen.listar(PREFIJO_CAS, o -> {
+            if (o.modificado().isBefore(limite) && !referenciados.contains(hashDeClave(o.clave()))) {
+                huerfanos.add(o.clave());
+            }
+        });
+
+        int borrados = 0;
+        for (String clave : huerfanos) {
+            try {
+                if (!referenciado(hashDeClave(clave)) && almacen.borrarSiAnterior(clave, limite)) {
+                    borrados++;
                 }
-            });
+            } catch (IOException e) {
+                log.warn("[Archivos] No se pudo borrar {}: {}", clave, e.getMessage());
+            }
         }
+        return borrados;
+    }
 
-        // 4) Nombre versionado y escritura atómica
-        String filename = "imagen_" + System.currentTimeMillis() + "." + ext;
-        Path tmp = dir.resolve(filename + ".tmp");
-        Path target = dir.resolve(filename);
+    private boolean referenciado(String hash) {
+        List<String> urls = jdbc.queryForList(
+                "SELECT imagen_url FROM presentaciones_de_productos WHERE imagen_url LIKE ?",
+                String.class, "%" + hash + "%");
+        return urls.stream()
+                .map(almacen::claveDeUrl)
+                .anyMatch(c -> c != null && hash.equals(hashDeClave(c)));
+    }
 
-        try (InputStream in = file.getInputStream()) {
-            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+    private String guardar(InputStream contenido, String ext, String contentType) throws IOException {
+        Path tmp = Files.createTempFile("subida-", "." + ext);
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(contenido, sha256)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String clave = claveContenido(HexFormat.of().formatHex(sha256.digest()), ext);
+            if (almacen.guardarSiFalta(clave, tmp, contentType) && COMPRIMIBLES.contains(contentType)) {
+                guardarGzip(clave, tmp, contentType);
+            }
+            return almacen.urlPublica(clave);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
-        // move atómico
-        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-        // 5) URL pública
-        return "/uploads/presentaciones/" + idPresentacion + "/" + filename;
+    /** Variante {@code .gz} junto al original, para que /uploads la sirva precomprimida. */
+    private void guardarGzip(String clave, Path original, String contentType) {
+        Path gz = null;
+        try {
+            gz = Files.createTempFile("subida-", ".gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+                Files.copy(original, out);
+            }
+            // Sólo si efectivamente achica
+            if (Files.size(gz) < Files.size(original)) {
+                almacen.guardarSiFalta(clave + ".gz", gz, contentType);
+            }
+        } catch (IOException e) {
+            log.warn("[Archivos] No se pudo generar {}.gz: {}", clave, e.getMessage());
+        } finally {
+            try {
+                if (gz != null) Files.deleteIfExists(gz);
+            } catch (IOException ignored) {
+            }
+        }
     }
 
-    public void deletePresentacionImage(Long idPresentacion) throws IOException {
-        Path dir = Path.of(uploadDir, "presentaciones", String.valueOf(idPresentacion))
-                .toAbsolutePath().normalize();
-        if (!Files.exists(dir)) return;
+    static String claveContenido(String sha256Hex, String ext) {
+        return PREFIJO_CAS + sha256Hex.substring(0, 2) + "/" + sha256Hex + "." + ext;
+    }
 
-        try (var s = Files.list(dir)) {
-            s.forEach(p -> {
-                String name = p.getFileName().toString().toLowerCase(Locale.ROOT);
-                if (name.startsWith("imagen_")) {
-                    try { Files.deleteIfExists(p); } catch (IOException ignored) {}
-                }
-            });
+    /** {@code cas/ab/abcd_240w.webp} → {@code abcd}: el original y sus variantes comparten hash. */
+    public static String hashDeClave(String clave) {
+        String nombre = clave.substring(clave.lastIndexOf('/') + 1);
+        int fin = nombre.length();
+        int guion = nombre.indexOf('_');
+        int punto = nombre.indexOf('.');
+        if (guion >= 0) fin = Math.min(fin, guion);
+        if (punto >= 0) fin = Math.min(fin, punto);
+        return nombre.substring(0, fin);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
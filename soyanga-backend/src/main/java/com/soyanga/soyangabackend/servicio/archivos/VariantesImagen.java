@@ -0,0 +1,60 @@
+package com.soyanga.soyangabackend.servicio.archivos;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * URLs de las variantes de una imagen de presentación.
+ * <p>
+ * Las variantes comparten el nombre base del original (su SHA-256) y llevan el ancho en el
+ * nombre: {@code cas/ab/abcd….png} → {@code cas/ab/abcd…_240w.webp}. Así son tan inmutables como
+ * el original: cambiar los anchos configurados produce otros nombres. Los anchos reales se guardan
+ * en BD (una imagen chica no se agranda) para armar el {@code srcset}.
+ */
+public record VariantesImagen(String base, List<Integer> anchos, List<String> formatos) {
+
+    /** Orden de {@code imagen_anchos}. */
+    public enum Variante { MINIATURA, TARJETA, COMPLETA }
+
+    public static final String WEBP = "webp";
+    public static final String JPEG = "jpg";
+
+    /** null si no hay imagen o si las variantes todavía no se generaron. */
+    public static VariantesImagen de(String imagenUrl, Integer[] anchos, String[] formatos) {
+        if (imagenUrl == null || anchos == null || formatos == null
+                || anchos.length != Variante.values().length || formatos.length == 0) {
+            return null;
+        }
+        return new VariantesImagen(base(imagenUrl), List.of(anchos), List.of(formatos));
+    }
+
+    /** Nombre (o URL, o clave) sin extensión: {@code .../abcd.png} → {@code .../abcd}. */
+    static String base(String nombre) {
+        int barra = nombre.lastIndexOf('/');
+        int punto = nombre.lastIndexOf('.');
+        return punto > barra ? nombre.substring(0, punto) : nombre;
+    }
+
+    static String nombre(String base, int ancho, String formato) {
+        return base + "_" + ancho + "w." + formato;
+    }
+
+    public String url(Variante v, String formato) {
+        return formatos.contains(formato) ? nombre(base, anchos.get(v.ordinal()), formato) : null;
+    }
+
+    /** Miniatura en JPEG (universal) o, si no se generó, en el primer formato disponible. */
+    public String miniaturaUrl() {
+        String jpg = url(Variante.MINIATURA, JPEG);
+        return jpg != null ? jpg : url(Variante.MINIATURA, formatos.get(0));
+    }
+
+    /** {@code "url 240w, url 480w, ..."}; variantes de igual ancho se listan una sola vez. */
+    public String srcset(String formato) {
+        if (!formatos.contains(formato)) return null;
+        return new LinkedHashSet<>(anchos).stream()
+                .map(a -> nombre(base, a, formato) + " " + a + "w")
+                .collect(Collectors.joining(", "));
+    }
+}
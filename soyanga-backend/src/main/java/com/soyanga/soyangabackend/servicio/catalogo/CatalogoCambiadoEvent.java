@@ -0,0 +1,29 @@
+package com.soyanga.soyangabackend.servicio.catalogo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Se publica al cambiar datos que alimentan el lookup de presentaciones (presentación, códigos de
+ * barras, precio, producto o unidad). Los cachés releen las presentaciones afectadas tras el commit.
+ */
+public record CatalogoCambiadoEvent(Alcance alcance, Collection<Long> ids) {
+
+    public enum Alcance { PRESENTACION, PRODUCTO, UNIDAD }
+
+    public static CatalogoCambiadoEvent presentacion(Long idPresentacion) {
+        return new CatalogoCambiadoEvent(Alcance.PRESENTACION, List.of(idPresentacion));
+    }
+
+    public static CatalogoCambiadoEvent presentaciones(Collection<Long> idsPresentacion) {
+        return new CatalogoCambiadoEvent(Alcance.PRESENTACION, List.copyOf(idsPresentacion));
+    }
+
+    public static CatalogoCambiadoEvent producto(Long idProducto) {
+        return new CatalogoCambiadoEvent(Alcance.PRODUCTO, List.of(idProducto));
+    }
+
+    public static CatalogoCambiadoEvent unidad(Long idUnidad) {
+        return new CatalogoCambiadoEvent(Alcance.UNIDAD, List.of(idUnidad));
+    }
+}
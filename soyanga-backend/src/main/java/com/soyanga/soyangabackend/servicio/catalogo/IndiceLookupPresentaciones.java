@@ -0,0 +1,257 @@
+package com.soyanga.soyangabackend.servicio.catalogo;
+
+import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupDTO;
+import com.soyanga.soyangabackend.servicio.precios.PreciosActivadosEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Índice en memoria para el lookup de caja: SKU y código de barras → {@link PresentacionLookupDTO}
+ * (inmutable, compartido).
+ * <p>
+ * Se carga completo al arrancar (2 consultas) y se refresca por presentación cuando confirma un
+ * {@link CatalogoCambiadoEvent} o un {@link PreciosActivadosEvent}. Una relectura periódica recoge
+ * cambios hechos desde otros nodos; los cambios locales que entran durante la relectura se
+ * reaplican sobre el índice nuevo antes de publicarlo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceLookupPresentaciones {
+
+    /** Precio vigente = último histórico ya iniciado (idx_precio_hist_inicio_desc) */
+    private static final String SQL_PRESENTACIONES = """
+            SELECT p.id_presentacion, p.codigo_sku, p.id_producto, pr.nombre_producto,
+                   p.id_unidad, u.simbolo_unidad, p.contenido_por_unidad,
+                   h.precio_venta_bob, h.fecha_inicio_vigencia
+            FROM presentaciones_de_productos p
+            LEFT JOIN productos pr ON pr.id_producto = p.id_producto
+            LEFT JOIN unidades_de_medida u ON u.id_unidad = p.id_unidad
+            LEFT JOIN LATERAL (
+                SELECT x.precio_venta_bob, x.fecha_inicio_vigencia
+                FROM precios_de_venta_historicos x
+                WHERE x.id_presentacion = p.id_presentacion
+                  AND x.fecha_inicio_vigencia <= now()
+                ORDER BY x.fecha_inicio_vigencia DESC
+                LIMIT 1
+            ) h ON TRUE
+            """;
+
+    private static final String SQL_CODIGOS = """
+            SELECT c.id_presentacion, c.codigo_barras
+            FROM codigos_de_barras c
+            """;
+
+    private static final String ORDEN_CODIGOS = " ORDER BY c.id_codigo_barras";
+
+    private final JdbcTemplate jdbc;
+
+    private final AtomicReference<Indice> indice = new AtomicReference<>();
+
+    /** Ids cambiados mientras corre una relectura completa (null = no hay relectura en curso) */
+    private volatile Set<Long> cambiosDuranteRecarga;
+
+    private static final class Indice {
+        final ConcurrentHashMap<Long, PresentacionLookupDTO> porId = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Long> porSku = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Long> porBarras = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, List<String>> barrasDe = new ConcurrentHashMap<>();
+    }
+
+    /* ===================== consultas ===================== */
+
+    public Optional<PresentacionLookupDTO> porSku(String sku) {
+        var ix = actual();
+        var id = ix.porSku.get(sku);
+        return id == null ? Optional.empty() : Optional.ofNullable(ix.porId.get(id));
+    }
+
+    public Optional<PresentacionLookupDTO> porCodigoBarras(String codigo) {
+        var ix = actual();
+        var id = ix.porBarras.get(codigo);
+        return id == null ? Optional.empty() : Optional.ofNullable(ix.porId.get(id));
+    }
+
+    public Optional<PresentacionLookupDTO> porId(Long idPresentacion) {
+        return Optional.ofNullable(actual().porId.get(idPresentacion));
+    }
+
+    public int tamanio() {
+        return actual().porId.size();
+    }
+
+    private Indice actual() {
+        var ix = indice.get();
+        if (ix == null) {
+            var cargado = leerTodo();
+            ix = indice.compareAndExchange(null, cargado);
+            if (ix == null) ix = cargado;
+        }
+        return ix;
+    }
+
+    /* ===================== actualización ===================== */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        try {
+            var ix = leerTodo();
+            indice.set(ix);
+            log.info("[LookupPresentaciones] Índice cargado: {} presentaciones, {} códigos de barras",
+                    ix.porId.size(), ix.porBarras.size());
+        } catch (Exception ex) {
+            log.warn("[LookupPresentaciones] No se pudo cargar el índice: {}", ex.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarCatalogo(CatalogoCambiadoEvent ev) {
+        try {
+            switch (ev.alcance()) {
+                case PRESENTACION -> refrescar(ev.ids());
+                case PRODUCTO -> refrescarDonde("p.id_producto", ev.ids());
+                case UNIDAD -> refrescarDonde("p.id_unidad", ev.ids());
+            }
+        } catch (Exception ex) {
+            log.warn("[LookupPresentaciones] No se pudo refrescar {} {}: {}", ev.alcance(), ev.ids(), ex.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alActivarPrecios(PreciosActivadosEvent ev) {
+        try {
+            refrescar(ev.idsPresentacion());
+        } catch (Exception ex) {
+            log.warn("[LookupPresentaciones] No se pudo refrescar precios activados: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalogo.lookup.refresco-ms:600000}",
+            initialDelayString = "${app.catalogo.lookup.refresco-ms:600000}")
+    public void recargar() {
+        Set<Long> cambios = ConcurrentHashMap.newKeySet();
+        cambiosDuranteRecarga = cambios;
+        try {
+            var nuevo = leerTodo();
+            indice.set(nuevo);
+            if (!cambios.isEmpty()) {
+                aplicar(nuevo, "p.id_presentacion", List.copyOf(cambios));
+            }
+        } catch (Exception ex) {
+            log.warn("[LookupPresentaciones] No se pudo recargar el índice: {}", ex.getMessage());
+        } finally {
+            cambiosDuranteRecarga = null;
+        }
+    }
+
+    /** Relee las presentaciones indicadas (las que ya no existen salen del índice). */
+    public void refrescar(Collection<Long> idsPresentacion) {
+        refrescarDonde("p.id_presentacion", idsPresentacion);
+    }
+
+    private void refrescarDonde(String columna, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        var ix = indice.get();
+        if (ix == null) return; // aún no cargado: la primera consulta lee todo
+
+        var tocados = aplicar(ix, columna, ids);
+        var cambios = cambiosDuranteRecarga;
+        if (cambios != null) cambios.addAll(tocados);
+    }
+
+    /** Aplica al índice las filas actuales; devuelve los ids de presentación tocados. */
+    private Set<Long> aplicar(Indice ix, String columna, Collection<Long> ids) {
+        Long[] arr = ids.toArray(Long[]::new);
+        String where = " WHERE " + columna + " = ANY (?::bigint[])";
+
+        List<PresentacionLookupDTO> filas = jdbc.query(con -> {
+            var ps = con.prepareStatement(SQL_PRESENTACIONES + where);
+            ps.setArray(1, con.createArrayOf("bigint", arr));
+            return ps;
+        }, (rs, i) -> fila(rs));
+
+        Set<Long> tocados = new HashSet<>();
+        filas.forEach(d -> tocados.add(d.getIdPresentacion()));
+        if (columna.equals("p.id_presentacion")) {
+            tocados.addAll(ids); // incluye las eliminadas
+        }
+        if (tocados.isEmpty()) return tocados;
+
+        Long[] idsTocados = tocados.toArray(Long[]::new);
+        Map<Long, List<String>> codigos = new HashMap<>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(SQL_CODIGOS + " WHERE c.id_presentacion = ANY (?::bigint[])" + ORDEN_CODIGOS);
+            ps.setArray(1, con.createArrayOf("bigint", idsTocados));
+            return ps;
+        }, rs -> {
+            codigos.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getString(2));
+        });
+
+        // 1) Quita lo anterior (solo las claves que apuntan a estas presentaciones)
+        for (Long id : tocados) {
+            var previa = ix.porId.remove(id);
+            if (previa != null && previa.getCodigoSku() != null) ix.porSku.remove(previa.getCodigoSku(), id);
+            var barras = ix.barrasDe.remove(id);
+            if (barras != null) barras.forEach(c -> ix.porBarras.remove(c, id));
+        }
+
+        // 2) Publica lo nuevo
+        for (var d : filas) {
+            ix.porId.put(d.getIdPresentacion(), d);
+            if (d.getCodigoSku() != null) ix.porSku.put(d.getCodigoSku(), d.getIdPresentacion());
+        }
+        codigos.forEach((id, lista) -> {
+            if (!ix.porId.containsKey(id)) return;
+            ix.barrasDe.put(id, List.copyOf(lista));
+            lista.forEach(c -> ix.porBarras.putIfAbsent(c, id));
+        });
+        return tocados;
+    }
+
+    private Indice leerTodo() {
+        var ix = new Indice();
+        jdbc.query(SQL_PRESENTACIONES, rs -> {
+            var d = fila(rs);
+            ix.porId.put(d.getIdPresentacion(), d);
+            if (d.getCodigoSku() != null) ix.porSku.put(d.getCodigoSku(), d.getIdPresentacion());
+        });
+
+        Map<Long, List<String>> codigos = new HashMap<>();
+        jdbc.query(SQL_CODIGOS + ORDEN_CODIGOS, rs -> {
+            long id = rs.getLong(1);
+            String c = rs.getString(2);
+            codigos.computeIfAbsent(id, k -> new ArrayList<>()).add(c);
+            ix.porBarras.putIfAbsent(c, id); // repetido: gana el primero registrado
+        });
+        codigos.forEach((id, lista) -> ix.barrasDe.put(id, List.copyOf(lista)));
+        return ix;
+    }
+
+    private static PresentacionLookupDTO fila(ResultSet rs) throws SQLException {
+        var inicio = rs.getTimestamp(9);
+        return PresentacionLookupDTO.builder()
+                .idPresentacion(rs.getLong(1))
+                .codigoSku(rs.getString(2))
+                .idProducto(rs.getLong(3))
+                .nombreProducto(rs.getString(4))
+                .idUnidad(rs.getLong(5))
+                .simboloUnidad(rs.getString(6))
+                .contenidoPorUnidad(rs.getBigDecimal(7))
+                .precioVigenteBob(rs.getBigDecimal(8))
+                .precioVigenteInicio(inicio != null ? inicio.toLocalDateTime() : null)
+                .build();
+    }
+}
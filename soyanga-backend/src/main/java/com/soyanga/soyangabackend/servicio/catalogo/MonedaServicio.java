@@ -5,6 +5,9 @@ import com.soyanga.soyangabackend.dominio.TipoDeCambio;
 import com.soyanga.soyangabackend.dto.catalogo.*;
 import com.soyanga.soyangabackend.repositorio.catalogo.MonedaRepositorio;
 import com.soyanga.soyangabackend.repositorio.catalogo.TipoDeCambioRepositorio;
+import com.soyanga.soyangabackend.servicio.finanzas.LineaTiempoTipoCambio;
+import com.soyanga.soyangabackend.servicio.finanzas.TipoCambioGuardadoEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -23,10 +26,15 @@ public class MonedaServicio {
 
     private final MonedaRepositorio repo;
     private final TipoDeCambioRepositorio tcRepo;
+    private final LineaTiempoTipoCambio lineaTc;
+    private final ApplicationEventPublisher events;
 
-    public MonedaServicio(MonedaRepositorio repo, TipoDeCambioRepositorio tcRepo) {
+    public MonedaServicio(MonedaRepositorio repo, TipoDeCambioRepositorio tcRepo,
+                          LineaTiempoTipoCambio lineaTc, ApplicationEventPublisher events) {
         this.repo = repo;
         this.tcRepo = tcRepo;
+        this.lineaTc = lineaTc;
+        this.events = events;
     }
 
     // ------------ QUERIES ------------
@@ -131,7 +139,7 @@ public class MonedaServicio {
                 return t;
             });
             tc.setTasaCambio(dto.tasaCambioRespectoLocal());
-            tcRepo.save(tc);
+            events.publishEvent(TipoCambioGuardadoEvent.de(tcRepo.save(tc)));
         }
 
         return toDTO(saved);
@@ -204,7 +212,7 @@ public class MonedaServicio {
                 return t;
             });
             tc.setTasaCambio(dto.tasaCambioRespectoLocal());
-            tcRepo.save(tc);
+            events.publishEvent(TipoCambioGuardadoEvent.de(tcRepo.save(tc)));
         }
 
         return toDTO(saved);
@@ -254,23 +262,17 @@ public class MonedaServicio {
         );
     }
 
-    // MONEDA -> LOCAL; si no hay, LOCAL -> MONEDA (1/tasa)
+    // MONEDA -> LOCAL; si no hay, LOCAL -> MONEDA (1/tasa). Desde la línea de tiempo en memoria.
     private BigDecimal tasaRespectoALocal(Long monedaId, Long localId, LocalDate hasta) {
         if (localId == null || monedaId == null) return null;
 
-        var directa = tcRepo
-                .findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
-                        monedaId, localId, hasta
-                )
-                .map(TipoDeCambio::getTasaCambio)
+        var directa = lineaTc.vigente(monedaId, localId, hasta)
+                .map(LineaTiempoTipoCambio.Punto::tasaCambio)
                 .orElse(null);
         if (directa != null) return directa;
 
-        return tcRepo
-                .findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
-                        localId, monedaId, hasta
-                )
-                .map(tc -> BigDecimal.ONE.divide(tc.getTasaCambio(), 6, RoundingMode.HALF_UP))
+        return lineaTc.vigente(localId, monedaId, hasta)
+                .map(tc -> BigDecimal.ONE.divide(tc.tasaCambio(), 6, RoundingMode.HALF_UP))
                 .orElse(null);
     }
 }
@@ -3,53 +3,151 @@ package com.soyanga.soyangabackend.servicio.catalogo;
 import com.soyanga.soyangabackend.dominio.CodigoBarras;
 import com.soyanga.soyangabackend.dominio.PresentacionProducto;
 import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupDTO;
+import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupLoteDTO;
+import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupLoteRespuestaDTO;
 import com.soyanga.soyangabackend.repositorio.catalogo.CodigoBarrasRepositorio;
 import com.soyanga.soyangabackend.repositorio.catalogo.PresentacionProductoRepositorio;
-import com.soyanga.soyangabackend.repositorio.catalogo.ProductoRepositorio;
-import com.soyanga.soyangabackend.repositorio.catalogo.UnidadMedidaRepositorio;
-import com.soyanga.soyangabackend.servicio.precios.PrecioHistoricoServicio;
+import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Lookup de caja (SKU / código de barras) servido desde {@link IndiceLookupPresentaciones}.
+ * Si el código no está en memoria (alta hecha desde otro nodo) se resuelve en BD y se
+ * incorpora al índice.
+ */
 @Service
 @RequiredArgsConstructor
 public class PresentacionLookupServicio {
 
     private final PresentacionProductoRepositorio presentacionRepo;
     private final CodigoBarrasRepositorio codigoRepo;
-    private final ProductoRepositorio productoRepo;
-    private final UnidadMedidaRepositorio unidadRepo;
-    private final PrecioHistoricoServicio precioSrv;
+    private final ExistenciaLoteRepositorio existenciaRepo;
+    private final IndiceLookupPresentaciones indice;
 
     public PresentacionLookupDTO porSku(String sku) {
-        var p = presentacionRepo.findByCodigoSku(sku.trim())
-                .orElseThrow(() -> new IllegalArgumentException("SKU no encontrado"));
-        return buildDTO(p);
+        var s = sku.trim();
+        return indice.porSku(s).orElseGet(() -> {
+            var p = presentacionRepo.findByCodigoSku(s)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU no encontrado"));
+            return cargar(p.getIdPresentacion());
+        });
     }
 
     public PresentacionLookupDTO porCodigoBarras(String barcode) {
-        CodigoBarras cb = codigoRepo.findFirstByCodigoBarras(barcode.trim())
-                .orElseThrow(() -> new IllegalArgumentException("Código de barras no encontrado"));
-        var p = presentacionRepo.findById(cb.getIdPresentacion())
-                .orElseThrow(() -> new IllegalArgumentException("Presentación no encontrada"));
-        return buildDTO(p);
+        var c = barcode.trim();
+        return indice.porCodigoBarras(c).orElseGet(() -> {
+            CodigoBarras cb = codigoRepo.findFirstByCodigoBarras(c)
+                    .orElseThrow(() -> new IllegalArgumentException("Código de barras no encontrado"));
+            return cargar(cb.getIdPresentacion());
+        });
     }
 
-    private PresentacionLookupDTO buildDTO(PresentacionProducto p) {
-        var prod = productoRepo.findById(p.getIdProducto()).orElse(null);
-        var uni = unidadRepo.findById(p.getIdUnidad()).orElse(null);
-        var vigente = precioSrv.vigente(p.getIdPresentacion());
-
-        return PresentacionLookupDTO.builder()
-                .idPresentacion(p.getIdPresentacion())
-                .codigoSku(p.getCodigoSku())
-                .idProducto(p.getIdProducto())
-                .nombreProducto(prod != null ? prod.getNombreProducto() : null)
-                .idUnidad(p.getIdUnidad())
-                .simboloUnidad(uni != null ? uni.getSimboloUnidad() : null)
-                .contenidoPorUnidad(p.getContenidoPorUnidad())
-                .precioVigenteBob(vigente != null ? vigente.getPrecioVentaBob() : null)
-                .precioVigenteInicio(vigente != null ? vigente.getFechaInicioVigencia() : null)
+    /**
+     * Lookup en lote: cada código se busca como SKU y, si no, como código de barras. Primero en
+     * memoria; los que falten se resuelven con dos consultas IN y se incorporan al índice.
+     * El stock (opcional) sale de una sola consulta agrupada por presentación.
+     */
+    public PresentacionLookupLoteRespuestaDTO porCodigos(PresentacionLookupLoteDTO req) {
+        List<String> codigos = req.getCodigos().stream()
+                .map(c -> c == null ? "" : c.trim())
+                .toList();
+
+        Map<String, Coincidencia> hallados = new HashMap<>();
+        Set<String> faltantes = new LinkedHashSet<>();
+        for (String c : codigos) {
+            if (c.isEmpty() || hallados.containsKey(c)) continue;
+            var porSku = indice.porSku(c);
+            if (porSku.isPresent()) {
+                hallados.put(c, new Coincidencia("SKU", porSku.get()));
+                continue;
+            }
+            var porBarras = indice.porCodigoBarras(c);
+            if (porBarras.isPresent()) {
+                hallados.put(c, new Coincidencia("CODIGO_BARRAS", porBarras.get()));
+            } else {
+                faltantes.add(c);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            resolverEnBd(faltantes, hallados);
+        }
+
+        Map<Long, ExistenciaLoteRepositorio.StockPresentacionRow> stock = Map.of();
+        if (req.getIdAlmacen() != null && !hallados.isEmpty()) {
+            var ids = hallados.values().stream().map(h -> h.dto().getIdPresentacion()).distinct().toList();
+            stock = new HashMap<>();
+            for (var r : existenciaRepo.stockPorPresentaciones(req.getIdAlmacen(), ids)) {
+                stock.put(r.getIdPresentacion(), r);
+            }
+        }
+
+        List<PresentacionLookupLoteRespuestaDTO.Resultado> resultados = new ArrayList<>(codigos.size());
+        List<String> noEncontrados = new ArrayList<>();
+        for (String c : codigos) {
+            var h = hallados.get(c);
+            if (h == null) {
+                noEncontrados.add(c);
+                resultados.add(PresentacionLookupLoteRespuestaDTO.Resultado.builder()
+                        .codigo(c).encontrado(false).build());
+                continue;
+            }
+            var r = PresentacionLookupLoteRespuestaDTO.Resultado.builder()
+                    .codigo(c)
+                    .encontrado(true)
+                    .coincidencia(h.tipo())
+                    .presentacion(h.dto());
+            if (req.getIdAlmacen() != null) {
+                var s = stock.get(h.dto().getIdPresentacion());
+                r.stockDisponible(s != null ? s.getDisponible() : BigDecimal.ZERO)
+                        .stockReservado(s != null ? s.getReservado() : BigDecimal.ZERO);
+            }
+            resultados.add(r.build());
+        }
+
+        return PresentacionLookupLoteRespuestaDTO.builder()
+                .idAlmacen(req.getIdAlmacen())
+                .total(resultados.size())
+                .encontrados(resultados.size() - noEncontrados.size())
+                .noEncontrados(noEncontrados)
+                .resultados(resultados)
                 .build();
     }
+
+    /** Faltantes del índice: SKU IN (...), luego código de barras IN (...) con lo que quede. */
+    private void resolverEnBd(Set<String> faltantes, Map<String, Coincidencia> hallados) {
+        Map<String, Long> idPorCodigo = new HashMap<>();
+        Map<String, String> tipo = new HashMap<>();
+
+        for (PresentacionProducto p : presentacionRepo.findByCodigoSkuIn(faltantes)) {
+            idPorCodigo.put(p.getCodigoSku(), p.getIdPresentacion());
+            tipo.put(p.getCodigoSku(), "SKU");
+        }
+        var restantes = faltantes.stream().filter(c -> !idPorCodigo.containsKey(c)).toList();
+        if (!restantes.isEmpty()) {
+            for (CodigoBarras cb : codigoRepo.findByCodigoBarrasInOrderByIdCodigoBarras(restantes)) {
+                if (idPorCodigo.putIfAbsent(cb.getCodigoBarras(), cb.getIdPresentacion()) == null) {
+                    tipo.put(cb.getCodigoBarras(), "CODIGO_BARRAS");
+                }
+            }
+        }
+        if (idPorCodigo.isEmpty()) return;
+
+        indice.refrescar(new HashSet<>(idPorCodigo.values()));
+        idPorCodigo.forEach((c, id) -> indice.porId(id)
+                .ifPresent(dto -> hallados.put(c, new Coincidencia(tipo.get(c), dto))));
+    }
+
+    private record Coincidencia(String tipo, PresentacionLookupDTO dto) {
+    }
+
+    private PresentacionLookupDTO cargar(Long idPresentacion) {
+        indice.refrescar(List.of(idPresentacion));
+        return indice.porId(idPresentacion)
+                .orElseThrow(() -> new IllegalArgumentException("Presentación no encontrada"));
+    }
 }
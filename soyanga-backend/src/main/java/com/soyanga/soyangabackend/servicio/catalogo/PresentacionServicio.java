@@ -5,9 +5,12 @@ import com.soyanga.soyangabackend.dominio.PresentacionProducto;
 import com.soyanga.soyangabackend.dto.catalogo.*;
 import com.soyanga.soyangabackend.repositorio.catalogo.CodigoBarrasRepositorio;
 import com.soyanga.soyangabackend.repositorio.catalogo.PresentacionProductoRepositorio;
+import com.soyanga.soyangabackend.servicio.archivos.ImagenPresentacionSubidaEvent;
 import com.soyanga.soyangabackend.servicio.archivos.StorageService;
+import com.soyanga.soyangabackend.servicio.archivos.VariantesImagen;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
@@ -23,6 +26,7 @@ public class PresentacionServicio {
     private final PresentacionProductoRepositorio presentacionRepo;
     private final CodigoBarrasRepositorio codigoRepo;
     private final StorageService storage;
+    private final ApplicationEventPublisher events;
 
     public Page<PresentacionDTO> buscar(Long idProducto, String q, Boolean estadoActivo, Pageable pageable) {
         String pattern = (q == null || q.isBlank()) ? null : "%" + q.trim().toUpperCase() + "%";
@@ -58,6 +62,7 @@ public class PresentacionServicio {
                 .build();
 
         p = presentacionRepo.save(p);
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(p.getIdPresentacion()));
         return toDTO(p);
     }
 
@@ -85,6 +90,7 @@ public class PresentacionServicio {
         if (dto.getEstadoActivo() != null)         p.setEstadoActivo(dto.getEstadoActivo());
 
         p = presentacionRepo.save(p);
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(id));
         return toDTO(p);
     }
 
@@ -94,6 +100,7 @@ public class PresentacionServicio {
                 .orElseThrow(() -> new IllegalArgumentException("Presentación no encontrada: " + id));
         p.setEstadoActivo(false);
         presentacionRepo.save(p);
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(id));
     }
 
     // --- Códigos de barras ---
@@ -111,6 +118,7 @@ public class PresentacionServicio {
                 .descripcion(dto.getDescripcion())
                 .build();
         cb = codigoRepo.save(cb);
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(idPresentacion));
         return toCodigoDTO(cb);
     }
 
@@ -122,6 +130,7 @@ public class PresentacionServicio {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Código de barras no pertenece a la presentación"));
         codigoRepo.deleteById(match.getIdCodigoBarras());
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(idPresentacion));
     }
 
     // ====== IMAGEN PRESENTACIÓN ======
@@ -137,9 +146,15 @@ public class PresentacionServicio {
                 .orElseThrow(() -> new EntityNotFoundException("Presentación no encontrada: " + idPresentacion));
 
         try {
-            String url = storage.savePresentacionImage(idPresentacion, file);
-            p.setImagenUrl(url);
-            p = presentacionRepo.save(p);
+            String url = storage.savePresentacionImage(file);
+            if (!url.equals(p.getImagenUrl())) {
+                p.setImagenUrl(url);
+                p.setImagenAnchos(null);
+                p.setImagenFormatos(null);
+                p = presentacionRepo.save(p);
+                // Las variantes (miniatura/tarjeta/completa) se generan en segundo plano tras el commit
+                events.publishEvent(new ImagenPresentacionSubidaEvent(idPresentacion, url));
+            }
             return toDTO(p);
         } catch (DataIntegrityViolationException dive) {
             // típico: columna muy corta para la URL
@@ -154,15 +169,16 @@ public class PresentacionServicio {
     public void eliminarImagen(Long idPresentacion) {
         var p = presentacionRepo.findById(idPresentacion)
                 .orElseThrow(() -> new EntityNotFoundException("Presentación no encontrada: " + idPresentacion));
-        try {
-            storage.deletePresentacionImage(idPresentacion);
-        } catch (Exception ignored) {}
+        // El archivo queda en el almacén (puede usarlo otra presentación); lo borra la limpieza de huérfanos
         p.setImagenUrl(null);
+        p.setImagenAnchos(null);
+        p.setImagenFormatos(null);
         presentacionRepo.save(p);
     }
 
     // --- Mapeos ---
     private PresentacionDTO toDTO(PresentacionProducto p) {
+        var v = VariantesImagen.de(p.getImagenUrl(), p.getImagenAnchos(), p.getImagenFormatos());
         return PresentacionDTO.builder()
                 .idPresentacion(p.getIdPresentacion())
                 .idProducto(p.getIdProducto())
@@ -174,6 +190,9 @@ public class PresentacionServicio {
                 .precioVentaBob(p.getPrecioVentaBob())
                 .estadoActivo(p.getEstadoActivo())
                 .imagenUrl(p.getImagenUrl())
+                .imagenMiniaturaUrl(v != null ? v.miniaturaUrl() : null)
+                .imagenSrcsetWebp(v != null ? v.srcset(VariantesImagen.WEBP) : null)
+                .imagenSrcsetJpeg(v != null ? v.srcset(VariantesImagen.JPEG) : null)
                 .build();
     }
 
@@ -8,6 +8,7 @@ import com.soyanga.soyangabackend.repositorio.catalogo.ProductoRepositorio;
 import com.soyanga.soyangabackend.repositorio.catalogo.PresentacionProductoRepositorio; // 👈 se mantiene
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ public class ProductoServicio {
 
     private final ProductoRepositorio productoRepositorio;
     private final PresentacionProductoRepositorio presentacionRepositorio; // 👈 inyectado
+    private final ApplicationEventPublisher events;
 
     // Construye el patrón "%q%" en minúsculas y lo pasa como :pat
     public Page<ProductoDTO> buscar(String q, Long idCategoria, boolean soloActivos, Pageable pageable) {
@@ -76,6 +78,7 @@ public class ProductoServicio {
             p.setEstadoActivo(dto.getEstadoActivo());
 
         p = productoRepositorio.save(p);
+        events.publishEvent(CatalogoCambiadoEvent.producto(id));
         return toDTO(p);
     }
 
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.Locale;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UnidadServicio {
 
     private final UnidadMedidaRepositorio repo;
+    private final ApplicationEventPublisher events;
 
     public Page<UnidadDTO> buscar(String q, Pageable pageable) {
         // MISMO patrón que Categorías: patrón ya armado y en lower
@@ -51,7 +53,9 @@ public class UnidadServicio {
             u.setSimboloUnidad(dto.getSimboloUnidad().trim());
         if (dto.getFactorConversionBase() != null)
             u.setFactorConversionBase(dto.getFactorConversionBase());
-        return toDTO(repo.save(u));
+        var guardada = repo.save(u);
+        events.publishEvent(CatalogoCambiadoEvent.unidad(id));
+        return toDTO(guardada);
     }
 
     @Transactional
@@ -8,6 +8,7 @@ import com.soyanga.soyangabackend.dto.cobros.PagoAplicarRespuestaDTO;
 import com.soyanga.soyangabackend.repositorio.cobros.CuentaPorCobrarRepositorio;
 import com.soyanga.soyangabackend.repositorio.cobros.PagoRecibidoRepositorio;
 import com.soyanga.soyangabackend.repositorio.cobros.AplicacionPagoRepositorio;
+import com.soyanga.soyangabackend.servicio.metricas.Medido;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +25,7 @@ public class PagoAplicacionServicio {
     private final CuentaPorCobrarRepositorio cxcRepo;
     private final AplicacionPagoRepositorio aplRepo;
 
+    @Medido("pago.aplicar")
     @Transactional
     public PagoAplicarRespuestaDTO aplicar(Long idPago, PagoAplicarDTO dto) {
         var pago = pagoRepo.findById(idPago)
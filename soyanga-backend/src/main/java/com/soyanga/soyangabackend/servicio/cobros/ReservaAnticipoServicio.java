@@ -6,7 +6,9 @@ import com.soyanga.soyangabackend.repositorio.cobros.AnticipoDetalleRepositorio;
 import com.soyanga.soyangabackend.repositorio.cobros.AnticipoRepositorio;
 import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio;
 import com.soyanga.soyangabackend.repositorio.inventario.MovimientoInventarioRepositorio;
+import com.soyanga.soyangabackend.servicio.metricas.Medido;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +26,10 @@ public class ReservaAnticipoServicio {
     private final ExistenciaLoteRepositorio existenciaRepo;
     private final MovimientoInventarioRepositorio movRepo;
 
+    /** Retención por defecto de las reservas (horas) cuando el anticipo no define la suya */
+    @Value("${app.anticipos.reserva.horas-vigencia:72}")
+    private long horasVigenciaReserva;
+
     // ===================== CREAR ANTICIPO =====================
     @Transactional
     public Map<String, Object> crearAnticipo(AnticipoCrearDTO dto) {
@@ -33,6 +39,7 @@ public class ReservaAnticipoServicio {
                 .montoBob(dto.getMontoBob())
                 .estadoAnticipo(Anticipo.EstadoAnticipo.registrado)
                 .observaciones(dto.getObservaciones())
+                .horasReserva(dto.getHorasReserva())
                 .build();
         anti = anticipoRepo.save(anti);
 
@@ -46,6 +53,7 @@ public class ReservaAnticipoServicio {
     }
 
     // ===================== RESERVAR (legacy firma) =====================
+    @Medido("anticipo.reservar")
     @Transactional
     public ReservaAnticipoRespuestaDTO reservar(Long idAnticipo, ReservaAnticipoDTO dto) {
         // Comportamiento previo: NO permite sin stock
@@ -53,9 +61,10 @@ public class ReservaAnticipoServicio {
     }
 
     // ===================== RESERVAR (permite pedir > stock) =====================
+    @Medido("anticipo.reservar")
     @Transactional
     public ReservaAnticipoRespuestaDTO reservar(Long idAnticipo, ReservaAnticipoDTO dto, boolean permitirSinStock) {
-        var anticipo = anticipoRepo.findById(idAnticipo)
+        var anticipo = anticipoRepo.lockById(idAnticipo)
                 .orElseThrow(() -> new IllegalArgumentException("Anticipo no encontrado: " + idAnticipo));
 
         if (anticipo.getEstadoAnticipo() == Anticipo.EstadoAnticipo.anulado) {
@@ -164,6 +173,14 @@ public class ReservaAnticipoServicio {
                 itemsProcesados++;
             }
 
+            // 5) Reinicia el plazo de retención si se bloqueó stock
+            boolean huboReserva = resultados.stream()
+                    .anyMatch(r -> r.getCantidadProcesada() != null && r.getCantidadProcesada().signum() > 0);
+            if (huboReserva) {
+                anticipo.setReservaVenceEn(LocalDateTime.now().plusHours(horasRetencion(anticipo)));
+                anticipoRepo.save(anticipo);
+            }
+
             resp.setItemsProcesados(itemsProcesados);
             resp.setResultados(resultados);
             return resp;
@@ -177,7 +194,7 @@ public class ReservaAnticipoServicio {
     // ===================== LIBERAR PARCIAL =====================
     @Transactional
     public ReservaAnticipoRespuestaDTO liberar(Long idAnticipo, LiberarReservaAnticipoDTO dto) {
-        var anticipo = anticipoRepo.findById(idAnticipo)
+        var anticipo = anticipoRepo.lockById(idAnticipo)
                 .orElseThrow(() -> new IllegalArgumentException("Anticipo no encontrado: " + idAnticipo));
         if (anticipo.getEstadoAnticipo() == Anticipo.EstadoAnticipo.anulado) {
             throw new IllegalArgumentException("El anticipo está anulado");
@@ -264,7 +281,7 @@ public class ReservaAnticipoServicio {
     // ===================== LIBERAR TODO =====================
     @Transactional
     public Map<String, Object> liberarTodo(Long idAnticipo) {
-        var anti = anticipoRepo.findById(idAnticipo)
+        var anti = anticipoRepo.lockById(idAnticipo)
                 .orElseThrow(() -> new IllegalArgumentException("Anticipo no encontrado: " + idAnticipo));
 
         var reservas = movRepo.reservasDeAnticipo(idAnticipo);
@@ -310,6 +327,7 @@ public class ReservaAnticipoServicio {
         if (!dets.isEmpty()) anticipoDetRepo.saveAll(dets);
 
         anti.setEstadoAnticipo(Anticipo.EstadoAnticipo.registrado);
+        anti.setReservaVenceEn(null);
         anticipoRepo.save(anti);
 
         return Map.of(
@@ -319,6 +337,29 @@ public class ReservaAnticipoServicio {
         );
     }
 
+    // ===================== VIGENCIA DE RESERVA =====================
+    /** Cambia el periodo de retención del anticipo (null = por defecto) y recalcula el vencimiento si hay reservas vivas. */
+    @Transactional
+    public Map<String, Object> configurarVigencia(Long idAnticipo, Integer horas) {
+        if (horas != null && horas <= 0) {
+            throw new IllegalArgumentException("horas debe ser > 0");
+        }
+        var anti = anticipoRepo.findById(idAnticipo)
+                .orElseThrow(() -> new IllegalArgumentException("Anticipo no encontrado: " + idAnticipo));
+
+        anti.setHorasReserva(horas);
+        if (nz(anticipoDetRepo.totalReservado(idAnticipo)).signum() > 0) {
+            anti.setReservaVenceEn(LocalDateTime.now().plusHours(horasRetencion(anti)));
+        }
+        anticipoRepo.save(anti);
+
+        var out = new LinkedHashMap<String, Object>();
+        out.put("idAnticipo", idAnticipo);
+        out.put("horasReserva", anti.getHorasReserva());
+        out.put("reservaVenceEn", anti.getReservaVenceEn());
+        return out;
+    }
+
     // ===================== CONSULTAS =====================
     @Transactional(readOnly = true)
     public ReservaAnticipoRespuestaDTO reservasVigentes(Long idAnticipo) {
@@ -434,6 +475,11 @@ public class ReservaAnticipoServicio {
     }
 
     // ===================== helpers =====================
+    private long horasRetencion(Anticipo anticipo) {
+        Integer propias = anticipo.getHorasReserva();
+        return (propias != null && propias > 0) ? propias : horasVigenciaReserva;
+    }
+
     private static BigDecimal nz(BigDecimal v) {
         return v == null ? BigDecimal.ZERO : v;
     }
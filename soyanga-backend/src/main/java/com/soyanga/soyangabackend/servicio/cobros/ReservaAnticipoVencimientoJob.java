@@ -0,0 +1,31 @@
+package com.soyanga.soyangabackend.servicio.cobros;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: libera periódicamente las reservas de anticipo vencidas. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.anticipos.reserva.expiracion.enabled", havingValue = "true", matchIfMissing = true)
+public class ReservaAnticipoVencimientoJob {
+
+    private final ReservaAnticipoVencimientoServicio servicio;
+
+    @Scheduled(cron = "${app.anticipos.reserva.expiracion.cron:0 */15 * * * *}")
+    public void ejecutar() {
+        try {
+            var r = servicio.liberarVencidas();
+            if (r.getAnticiposProcesados() > 0) {
+                log.info("[ReservasVencidas] anticipos={} lotes={} movimientos={} unidadesLiberadas={} bloques={} ({} ms)",
+                        r.getAnticiposProcesados(), r.getLotesLiberados(), r.getMovimientosRegistrados(),
+                        r.getUnidadesLiberadas(), r.getBloques(), r.getDuracionMs());
+            }
+        } catch (Exception ex) {
+            log.error("[ReservasVencidas] Falló la liberación de reservas vencidas: {}", ex.getMessage(), ex);
+        }
+    }
+}
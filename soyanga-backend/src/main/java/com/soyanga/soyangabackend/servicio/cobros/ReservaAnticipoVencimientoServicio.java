@@ -0,0 +1,205 @@
+package com.soyanga.soyangabackend.servicio.cobros;
+
+import com.soyanga.soyangabackend.dominio.MovimientoInventario;
+import com.soyanga.soyangabackend.dto.cobros.LiberacionReservasVencidasDTO;
+import com.soyanga.soyangabackend.repositorio.cobros.AnticipoDetalleRepositorio;
+import com.soyanga.soyangabackend.repositorio.cobros.AnticipoRepositorio;
+import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio;
+import com.soyanga.soyangabackend.repositorio.inventario.MovimientoInventarioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Libera las reservas de anticipo cuyo plazo de retención venció.
+ * <p>
+ * Trabaja por bloques de anticipos, cada uno en su propia transacción:
+ * bloquea los anticipos (SKIP LOCKED), bloquea las existencias en orden (almacén, lote)
+ * y escribe existencias/kárdex con JDBC batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservaAnticipoVencimientoServicio {
+
+    private static final String SQL_EXISTENCIA = """
+            UPDATE existencias_por_lote
+               SET cantidad_reservada = cantidad_reservada - ?,
+                   cantidad_disponible = cantidad_disponible + ?,
+                   fecha_ultima_actualizacion = ?
+             WHERE id_existencia_lote = ?
+            """;
+
+    private static final String SQL_MOVIMIENTO = """
+            INSERT INTO movimientos_de_inventario
+                (fecha_movimiento, tipo_movimiento, id_almacen_origen, id_almacen_destino,
+                 id_lote, cantidad, referencia_modulo, id_referencia, observaciones)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final AnticipoRepositorio anticipoRepo;
+    private final AnticipoDetalleRepositorio anticipoDetRepo;
+    private final ExistenciaLoteRepositorio existenciaRepo;
+    private final MovimientoInventarioRepositorio movRepo;
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager txManager;
+
+    /** Anticipos por bloque (una transacción por bloque) */
+    @Value("${app.anticipos.reserva.expiracion.tamanio-bloque:100}")
+    private int tamanioBloque;
+
+    /** Tope de bloques por corrida (evita corridas eternas si entra trabajo nuevo) */
+    @Value("${app.anticipos.reserva.expiracion.max-bloques:50}")
+    private int maxBloques;
+
+    /** Filas por lote JDBC */
+    @Value("${app.anticipos.reserva.expiracion.jdbc-batch:200}")
+    private int jdbcBatch;
+
+    public LiberacionReservasVencidasDTO liberarVencidas() {
+        return liberarVencidas(LocalDateTime.now());
+    }
+
+    public LiberacionReservasVencidasDTO liberarVencidas(LocalDateTime corte) {
+        long t0 = System.currentTimeMillis();
+        var tx = new TransactionTemplate(txManager);
+
+        int bloques = 0, anticipos = 0, lotes = 0, movimientos = 0;
+        BigDecimal unidades = BigDecimal.ZERO;
+
+        while (bloques < Math.max(1, maxBloques)) {
+            Bloque b = tx.execute(status -> liberarBloque(corte));
+            if (b == null || b.anticipos() == 0) break;
+
+            bloques++;
+            anticipos += b.anticipos();
+            lotes += b.lotes();
+            movimientos += b.movimientos();
+            unidades = unidades.add(b.unidades());
+
+            if (b.anticipos() < tamanioBloque) break; // no quedan más vencidos
+        }
+
+        return LiberacionReservasVencidasDTO.builder()
+                .corte(corte)
+                .bloques(bloques)
+                .anticiposProcesados(anticipos)
+                .lotesLiberados(lotes)
+                .movimientosRegistrados(movimientos)
+                .unidadesLiberadas(unidades)
+                .duracionMs(System.currentTimeMillis() - t0)
+                .build();
+    }
+
+    /** Un bloque: se ejecuta dentro de la transacción abierta por {@link #liberarVencidas(LocalDateTime)}. */
+    private Bloque liberarBloque(LocalDateTime corte) {
+        List<Long> ids = anticipoRepo.lockReservasVencidas(corte, Math.max(1, tamanioBloque));
+        if (ids.isEmpty()) return Bloque.VACIO;
+
+        // 1) Tope por (anticipo, almacén, presentación) según anticipos_detalle
+        Map<String, BigDecimal> topes = new HashMap<>();
+        for (var d : anticipoDetRepo.findByIdAnticipoInAndCantidadReservadaGreaterThan(ids, BigDecimal.ZERO)) {
+            topes.merge(key(d.getIdAnticipo(), d.getIdAlmacen(), d.getIdPresentacion()),
+                    d.getCantidadReservada(), BigDecimal::add);
+        }
+
+        // 2) Bloqueo de existencias en orden (almacén, lote) → sin deadlocks con otros bloques/ventas
+        Map<String, Saldo> saldos = new LinkedHashMap<>();
+        for (var e : existenciaRepo.lockReservadasDeAnticipos(ids)) {
+            saldos.put(key(e.getIdAlmacen(), e.getIdLote()),
+                    new Saldo(e.getIdExistenciaLote(), nz(e.getCantidadReservada())));
+        }
+
+        // 3) Reparto: min(neto del kárdex, tope del detalle, reservada actual del lote)
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Object[]> movs = new ArrayList<>();
+        BigDecimal unidades = BigDecimal.ZERO;
+
+        for (var r : movRepo.reservasNetasPorAnticipos(ids)) {
+            Saldo s = saldos.get(key(r.getIdAlmacen(), r.getIdLote()));
+            if (s == null) continue;
+
+            String kt = key(r.getIdAnticipo(), r.getIdAlmacen(), r.getIdPresentacion());
+            BigDecimal tope = topes.getOrDefault(kt, BigDecimal.ZERO);
+            BigDecimal liberar = nz(r.getCantidad()).min(tope).min(s.restante);
+            if (liberar.signum() <= 0) continue;
+
+            s.restante = s.restante.subtract(liberar);
+            s.liberado = s.liberado.add(liberar);
+            topes.put(kt, tope.subtract(liberar));
+            unidades = unidades.add(liberar);
+
+            movs.add(new Object[]{
+                    r.getIdAlmacen(), r.getIdLote(), liberar, r.getIdAnticipo()
+            });
+        }
+
+        // 4) Escrituras en JDBC batch (existencias en el mismo orden del bloqueo)
+        List<Saldo> tocados = saldos.values().stream().filter(s -> s.liberado.signum() > 0).toList();
+        Timestamp ts = Timestamp.valueOf(ahora);
+
+        jdbc.batchUpdate(SQL_EXISTENCIA, tocados, jdbcBatch, (ps, s) -> {
+            ps.setBigDecimal(1, s.liberado);
+            ps.setBigDecimal(2, s.liberado);
+            ps.setTimestamp(3, ts);
+            ps.setLong(4, s.idExistencia);
+        });
+
+        jdbc.batchUpdate(SQL_MOVIMIENTO, movs, jdbcBatch, (ps, m) -> {
+            ps.setTimestamp(1, ts);
+            ps.setString(2, MovimientoInventario.TipoMovimiento.liberacion_reserva.name());
+            ps.setLong(3, (Long) m[0]);
+            ps.setNull(4, Types.BIGINT);
+            ps.setLong(5, (Long) m[1]);
+            ps.setBigDecimal(6, (BigDecimal) m[2]);
+            ps.setString(7, "anticipo");
+            ps.setLong(8, (Long) m[3]);
+            ps.setString(9, "Vencimiento de reserva anticipo " + m[3]);
+        });
+
+        // 5) Cierra las reservas del bloque (aunque el kárdex no tuviera saldo: evita reprocesarlas)
+        anticipoDetRepo.clearReservadoPorAnticipos(ids);
+        anticipoRepo.limpiarVencimientoReserva(ids);
+
+        log.debug("[ReservasVencidas] bloque anticipos={} lotes={} movimientos={} unidades={}",
+                ids.size(), tocados.size(), movs.size(), unidades);
+        return new Bloque(ids.size(), tocados.size(), movs.size(), unidades);
+    }
+
+    /* ===================== helpers ===================== */
+
+    private record Bloque(int anticipos, int lotes, int movimientos, BigDecimal unidades) {
+        static final Bloque VACIO = new Bloque(0, 0, 0, BigDecimal.ZERO);
+    }
+
+    private static final class Saldo {
+        final Long idExistencia;
+        BigDecimal restante;
+        BigDecimal liberado = BigDecimal.ZERO;
+
+        Saldo(Long idExistencia, BigDecimal restante) {
+            this.idExistencia = idExistencia;
+            this.restante = restante;
+        }
+    }
+
+    private static String key(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object p : parts) sb.append(p).append('|');
+        return sb.toString();
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+}
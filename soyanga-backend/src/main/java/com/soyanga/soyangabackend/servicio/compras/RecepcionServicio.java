@@ -5,6 +5,7 @@ import com.soyanga.soyangabackend.dto.compras.*;
 import com.soyanga.soyangabackend.repositorio.catalogo.PresentacionProductoRepositorio;
 import com.soyanga.soyangabackend.repositorio.compras.*;
 import com.soyanga.soyangabackend.repositorio.inventario.*;
+import com.soyanga.soyangabackend.servicio.metricas.Medido;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +30,7 @@ public class RecepcionServicio {
         private final ExistenciaLoteRepositorio existenciaRepo;
         private final MovimientoInventarioRepositorio movRepo;
 
+        @Medido("recepcion.registrar")
         @Transactional
         public RecepcionRespuestaDTO registrar(RecepcionCrearDTO dto) {
                 var compra = compraRepo.findById(dto.getIdCompra())
@@ -0,0 +1,129 @@
+package com.soyanga.soyangabackend.servicio.correo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Acceso a correos_salientes (outbox).
+ * <p>
+ * {@link #encolar} exige una transacción en curso: el correo se confirma o se descarta junto con lo
+ * que lo originó. El resto lo usa {@link DespachoCorreos}, en autocommit: cada toma es un único
+ * UPDATE ... FOR UPDATE SKIP LOCKED, así varios nodos pueden despachar sin pisarse.
+ */
+@Component
+@RequiredArgsConstructor
+public class BandejaSalidaCorreo {
+
+    /** Errores más largos se recortan (columna VARCHAR(1000)) */
+    private static final int MAX_ERROR = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    /** Correo a encolar. {@code expira} null = sin vencimiento. */
+    public record Nuevo(String tipo, String destinatario, String remitente, String responderA,
+                        String asunto, String cuerpo, Instant expira) {
+    }
+
+    /** Correo tomado por el despachador ({@code intentos} ya incluye el actual). */
+    public record PorEnviar(long id, String tipo, String destinatario, String remitente, String responderA,
+                            String asunto, String cuerpo, int intentos) {
+    }
+
+    /** Resultado de un intento fallido: se reprograma o, si {@code definitivo}, pasa a 'fallido'. */
+    public record Fallo(long id, boolean definitivo, Instant proximoIntento, String error) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long encolar(Nuevo c) {
+        Long id = jdbc.queryForObject("""
+                INSERT INTO correos_salientes
+                    (tipo, destinatario, remitente, responder_a, asunto, cuerpo, fecha_expiracion)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                RETURNING id_correo
+                """, Long.class,
+                c.tipo(), c.destinatario(), vacioANull(c.remitente()), vacioANull(c.responderA()),
+                c.asunto(), c.cuerpo(), c.expira() == null ? null : Timestamp.from(c.expira()));
+        events.publishEvent(new CorreoEncoladoEvent(id));
+        return id;
+    }
+
+    /**
+     * Marca como fallidos los correos vencidos sin enviar y toma hasta {@code max} para enviar,
+     * reservándolos {@code reservaSeg} segundos (si el nodo muere, vuelven a tomarse al vencer).
+     */
+    List<PorEnviar> tomar(int max, long reservaSeg) {
+        jdbc.update("""
+                UPDATE correos_salientes
+                SET estado = 'fallido', cuerpo = NULL, ultimo_error = 'Vencido sin enviar'
+                WHERE estado IN ('pendiente', 'enviando')
+                  AND fecha_expiracion < NOW()
+                """);
+        return jdbc.query("""
+                UPDATE correos_salientes c
+                SET estado = 'enviando',
+                    intentos = c.intentos + 1,
+                    proximo_intento = NOW() + make_interval(secs => ?)
+                WHERE c.id_correo IN (
+                    SELECT id_correo FROM correos_salientes
+                    WHERE estado IN ('pendiente', 'enviando')
+                      AND proximo_intento <= NOW()
+                    ORDER BY proximo_intento
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING c.id_correo, c.tipo, c.destinatario, c.remitente, c.responder_a,
+                          c.asunto, c.cuerpo, c.intentos
+                """,
+                (rs, i) -> new PorEnviar(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7), rs.getInt(8)),
+                reservaSeg, max);
+    }
+
+    void marcarEnviados(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        jdbc.update(con -> {
+            var ps = con.prepareStatement("""
+                    UPDATE correos_salientes
+                    SET estado = 'enviado', fecha_envio = NOW(), cuerpo = NULL, ultimo_error = NULL
+                    WHERE id_correo = ANY (?::bigint[])
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray(Long[]::new)));
+            return ps;
+        });
+    }
+
+    void registrarFallos(List<Fallo> fallos) {
+        if (fallos.isEmpty()) return;
+        jdbc.batchUpdate("""
+                UPDATE correos_salientes
+                SET estado = CASE WHEN ? THEN 'fallido' ELSE 'pendiente' END,
+                    cuerpo = CASE WHEN ? THEN NULL ELSE cuerpo END,
+                    proximo_intento = ?,
+                    ultimo_error = ?
+                WHERE id_correo = ?
+                """, fallos, fallos.size(), (ps, f) -> {
+            ps.setBoolean(1, f.definitivo());
+            ps.setBoolean(2, f.definitivo());
+            ps.setTimestamp(3, Timestamp.from(f.proximoIntento()));
+            ps.setString(4, recortar(f.error()));
+            ps.setLong(5, f.id());
+        });
+    }
+
+    private static String recortar(String s) {
+        if (s == null) return null;
+        return s.length() <= MAX_ERROR ? s : s.substring(0, MAX_ERROR);
+    }
+
+    private static String vacioANull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
@@ -0,0 +1,8 @@
+package com.soyanga.soyangabackend.servicio.correo;
+
+/**
+ * Se publica al encolar un correo en la bandeja de salida. Tras el commit despierta al
+ * despachador para no esperar a su próxima ronda programada.
+ */
+public record CorreoEncoladoEvent(long idCorreo) {
+}
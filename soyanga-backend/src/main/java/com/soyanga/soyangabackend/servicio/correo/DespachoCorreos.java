@@ -0,0 +1,183 @@
+package com.soyanga.soyangabackend.servicio.correo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Despachador de la bandeja de salida ({@link BandejaSalidaCorreo}).
+ * <p>
+ * Cada ronda toma lotes de correos listos, los envía por una sola conexión SMTP y registra el
+ * resultado: enviados, reprogramados con backoff exponencial (con jitter) o, al agotar
+ * {@code max-intentos}, en estado 'fallido'. Corre tras cada commit que encola un correo y además
+ * periódicamente (reintentos y reservas vencidas de nodos caídos). La entrega es "al menos una
+ * vez": si la reserva vence en medio de un envío lento, otro despacho puede repetirlo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.mail.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class DespachoCorreos {
+
+    static final String ENVIOS = "soyanga.correo.envios";
+
+    private final BandejaSalidaCorreo bandeja;
+    private final EnvioCorreo envio;
+    private final MeterRegistry registry;
+
+    @Value("${app.mail.outbox.tamanio-lote:20}")
+    private int tamanioLote;
+
+    /** Lotes por ronda (acota lo que una ronda puede durar) */
+    @Value("${app.mail.outbox.max-lotes-por-ronda:10}")
+    private int maxLotes;
+
+    @Value("${app.mail.outbox.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${app.mail.outbox.backoff-inicial-s:30}")
+    private long backoffInicialSeg;
+
+    @Value("${app.mail.outbox.backoff-max-s:1800}")
+    private long backoffMaxSeg;
+
+    /** Reserva de un lote tomado; debe cubrir el peor caso de SMTP (3 timeouts × lote) */
+    @Value("${app.mail.outbox.reserva-s:300}")
+    private long reservaSeg;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final AtomicBoolean otraRonda = new AtomicBoolean();
+    private ExecutorService ejecutor;
+
+    @PostConstruct
+    void iniciar() {
+        ejecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("correo-despacho").daemon(true).factory());
+    }
+
+    @PreDestroy
+    void cerrar() {
+        ejecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCorreoEncolado(CorreoEncoladoEvent e) {
+        ejecutor.execute(this::ronda);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.intervalo-ms:30000}",
+            initialDelayString = "${app.mail.outbox.intervalo-ms:30000}")
+    public void ejecutar() {
+        ronda();
+    }
+
+    /** Una ronda a la vez por nodo; si llega un aviso durante la ronda, se repite al terminar. */
+    void ronda() {
+        otraRonda.set(true);
+        while (otraRonda.get() && enCurso.compareAndSet(false, true)) {
+            try {
+                otraRonda.set(false);
+                despachar();
+            } catch (Exception ex) {
+                log.error("[Correo] Falló la ronda de despacho: {}", ex.getMessage(), ex);
+            } finally {
+                enCurso.set(false);
+            }
+        }
+    }
+
+    int despachar() {
+        int total = 0;
+        for (int i = 0; i < maxLotes; i++) {
+            List<BandejaSalidaCorreo.PorEnviar> lote = bandeja.tomar(tamanioLote, reservaSeg);
+            if (lote.isEmpty()) break;
+            total += lote.size();
+            enviarLote(lote);
+            if (lote.size() < tamanioLote) break;
+        }
+        return total;
+    }
+
+    private void enviarLote(List<BandejaSalidaCorreo.PorEnviar> lote) {
+        List<SimpleMailMessage> mensajes = lote.stream().map(DespachoCorreos::mensaje).toList();
+        var fallidos = envio.enviarLote(mensajes);
+
+        List<Long> enviados = new ArrayList<>();
+        List<BandejaSalidaCorreo.Fallo> fallos = new ArrayList<>();
+        Instant ahora = Instant.now();
+        for (int i = 0; i < lote.size(); i++) {
+            var c = lote.get(i);
+            Exception ex = fallidos.get(mensajes.get(i));
+            if (ex == null) {
+                enviados.add(c.id());
+                continue;
+            }
+            boolean definitivo = c.intentos() >= maxIntentos;
+            fallos.add(new BandejaSalidaCorreo.Fallo(c.id(), definitivo,
+                    ahora.plus(espera(c.intentos(), backoffInicialSeg, backoffMaxSeg)), ex.getMessage()));
+            if (definitivo) {
+                log.error("[Correo] id={} tipo={} a {} descartado tras {} intentos: {}",
+                        c.id(), c.tipo(), ocultar(c.destinatario()), c.intentos(), ex.getMessage());
+            } else {
+                log.warn("[Correo] id={} intento {} falló, se reintenta: {}", c.id(), c.intentos(), ex.getMessage());
+            }
+        }
+
+        bandeja.marcarEnviados(enviados);
+        bandeja.registrarFallos(fallos);
+        contar("enviado", enviados.size());
+        contar("reintento", fallos.stream().filter(f -> !f.definitivo()).count());
+        contar("fallido", fallos.stream().filter(BandejaSalidaCorreo.Fallo::definitivo).count());
+    }
+
+    /** inicial × 2^(intentos-1), tope {@code maxSeg}, ±20% de jitter para no reintentar en manada. */
+    static Duration espera(int intentos, long inicialSeg, long maxSeg) {
+        long base = Math.min(maxSeg, inicialSeg << Math.min(20, Math.max(0, intentos - 1)));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis(Math.round(base * 1000 * jitter));
+    }
+
+    private static SimpleMailMessage mensaje(BandejaSalidaCorreo.PorEnviar c) {
+        SimpleMailMessage m = new SimpleMailMessage();
+        m.setTo(c.destinatario());
+        if (c.remitente() != null) m.setFrom(c.remitente());
+        if (c.responderA() != null) m.setReplyTo(c.responderA());
+        m.setSubject(c.asunto());
+        m.setText(c.cuerpo());
+        return m;
+    }
+
+    private void contar(String resultado, long n) {
+        if (n == 0) return;
+        Counter.builder(ENVIOS)
+                .description("Correos de la bandeja de salida por resultado")
+                .tag("resultado", resultado)
+                .register(registry)
+                .increment(n);
+    }
+
+    private static String ocultar(String email) {
+        if (email == null) return "(null)";
+        int i = email.indexOf('@');
+        if (i <= 1) return "***" + email.substring(Math.max(i, 0));
+        return email.charAt(0) + "***" + email.substring(i);
+    }
+}
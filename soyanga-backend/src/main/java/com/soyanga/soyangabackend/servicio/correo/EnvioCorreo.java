@@ -0,0 +1,90 @@
+package com.soyanga.soyangabackend.servicio.correo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Envío SMTP apto para hilos virtuales.
+ * <p>
+ * Jakarta Mail (SMTPTransport) hace la E/S del socket dentro de métodos {@code synchronized}: en
+ * Java 21 un hilo virtual que bloquea ahí queda "pinned" y retiene su carrier hasta el timeout
+ * SMTP. Desde un hilo virtual el envío se delega a un pool chico de hilos de plataforma y se
+ * espera el resultado (esperar un Future sí libera el carrier). Desde hilos de plataforma se
+ * envía directo, como antes.
+ */
+@Component
+@RequiredArgsConstructor
+public class EnvioCorreo {
+
+    private final JavaMailSender mailSender;
+
+    /** Envíos SMTP simultáneos desde hilos virtuales */
+    @Value("${app.mail.hilos-envio:2}")
+    private int hilosEnvio;
+
+    private ExecutorService ejecutor;
+
+    @PostConstruct
+    void iniciar() {
+        ejecutor = Executors.newFixedThreadPool(Math.max(1, hilosEnvio),
+                Thread.ofPlatform().name("correo-", 1).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    /**
+     * Envía un lote por una sola conexión SMTP. Devuelve los mensajes que fallaron con su causa
+     * (vacío si todos salieron); un fallo de conexión o autenticación los marca a todos.
+     */
+    public Map<SimpleMailMessage, Exception> enviarLote(List<SimpleMailMessage> lote) {
+        if (lote.isEmpty()) return Map.of();
+        Map<SimpleMailMessage, Exception> fallidos = new IdentityHashMap<>();
+        try {
+            enPlataforma(() -> mailSender.send(lote.toArray(SimpleMailMessage[]::new)));
+        } catch (MailSendException ex) {
+            ex.getFailedMessages().forEach((m, e) -> {
+                if (m instanceof SimpleMailMessage sm) fallidos.put(sm, e);
+            });
+            if (fallidos.isEmpty()) lote.forEach(m -> fallidos.put(m, ex));
+        } catch (MailException ex) {
+            lote.forEach(m -> fallidos.put(m, ex));
+        }
+        return fallidos;
+    }
+
+    private void enPlataforma(Runnable envio) {
+        if (!Thread.currentThread().isVirtual()) {
+            envio.run();
+            return;
+        }
+        Future<?> f = ejecutor.submit(envio);
+        try {
+            f.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MailException me) throw me;
+            throw new MailSendException("Falló el envío de correo", e.getCause());
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Envío de correo interrumpido", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.soyanga.soyangabackend.servicio.diagnostico;
+
+import com.soyanga.soyangabackend.dto.diagnostico.DiagnosticoSqlDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diagnóstico de acceso a datos por endpoint: sentencias JDBC emitidas por Hibernate,
+ * entidades cargadas y sentencias lentas.
+ * <p>
+ * Los ganchos de Hibernate ({@link GanchosHibernate}) los instancia Hibernate, no Spring: por eso
+ * reportan por métodos estáticos sobre un ThreadLocal. La petición en curso la abre y cierra
+ * {@link DiagnosticoSqlInterceptor}; fuera de una petición (jobs) solo se registran las lentas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiagnosticoSql {
+
+    static final String SENTENCIAS_POR_PETICION = "soyanga.sql.sentencias";
+
+    private static final String FUERA_DE_PETICION = "(fuera de petición)";
+    private static final int MAX_LARGO_SQL = 2000;
+
+    private static final ThreadLocal<Medicion> ACTUAL = new ThreadLocal<>();
+    private static final ThreadLocal<String> ULTIMA_SQL = new ThreadLocal<>();
+
+    /** Instancia viva para los ganchos estáticos (null hasta que arranca el contexto) */
+    private static volatile DiagnosticoSql instancia;
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry registry;
+
+    /** Umbral de sentencia lenta */
+    @Value("${app.diagnostico.sql.lento-ms:200}")
+    private long lentoMs;
+
+    /** Sentencias por petición a partir de las cuales se avisa en el log (posible N+1) */
+    @Value("${app.diagnostico.sql.max-sentencias-por-peticion:50}")
+    private int maxSentenciasPorPeticion;
+
+    /** Sentencias lentas que se conservan (las más recientes) */
+    @Value("${app.diagnostico.sql.lentas-max:200}")
+    private int lentasMax;
+
+    private final ConcurrentHashMap<String, Acumulado> porEndpoint = new ConcurrentHashMap<>();
+    private final ArrayDeque<DiagnosticoSqlDTO.SentenciaLenta> lentas = new ArrayDeque<>();
+    private volatile LocalDateTime desde = LocalDateTime.now();
+
+    /** Lo medido en una petición (un hilo). */
+    static final class Medicion {
+        final String endpoint;
+        int sentencias;
+        int cargas;
+        long nanosSql;
+        Map<String, Integer> cargasPorEntidad;
+
+        Medicion(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static final class Acumulado {
+        final LongAdder peticiones = new LongAdder();
+        final LongAdder sentencias = new LongAdder();
+        final LongAdder cargas = new LongAdder();
+        final LongAdder nanosSql = new LongAdder();
+        final LongAdder excedidas = new LongAdder();
+        final LongAccumulator maxSentencias = new LongAccumulator(Long::max, 0);
+        final LongAccumulator maxCargas = new LongAccumulator(Long::max, 0);
+        final ConcurrentHashMap<String, LongAdder> cargasPorEntidad = new ConcurrentHashMap<>();
+    }
+
+    @PostConstruct
+    void publicar() {
+        instancia = this;
+    }
+
+    /* ===================== petición ===================== */
+
+    void iniciar(String endpoint) {
+        ACTUAL.set(new Medicion(endpoint));
+    }
+
+    void terminar() {
+        var m = ACTUAL.get();
+        ACTUAL.remove();
+        ULTIMA_SQL.remove();
+        if (m == null) return;
+
+        var a = porEndpoint.computeIfAbsent(m.endpoint, k -> new Acumulado());
+        a.peticiones.increment();
+        a.sentencias.add(m.sentencias);
+        a.cargas.add(m.cargas);
+        a.nanosSql.add(m.nanosSql);
+        a.maxSentencias.accumulate(m.sentencias);
+        a.maxCargas.accumulate(m.cargas);
+        if (m.cargasPorEntidad != null) {
+            m.cargasPorEntidad.forEach((e, n) ->
+                    a.cargasPorEntidad.computeIfAbsent(e, k -> new LongAdder()).add(n));
+        }
+
+        DistributionSummary.builder(SENTENCIAS_POR_PETICION)
+                .description("Sentencias JDBC emitidas por Hibernate en una petición")
+                .tag("endpoint", m.endpoint)
+                .register(registry)
+                .record(m.sentencias);
+
+        if (maxSentenciasPorPeticion > 0 && m.sentencias >= maxSentenciasPorPeticion) {
+            a.excedidas.increment();
+            log.warn("[DiagnosticoSql] {} emitió {} sentencias y cargó {} entidades en una petición {}",
+                    m.endpoint, m.sentencias, m.cargas, m.cargasPorEntidad);
+        }
+    }
+
+    /* ===================== ganchos (hilo de la sentencia) ===================== */
+
+    static void sentenciaPreparada(String sql) {
+        ULTIMA_SQL.set(sql);
+    }
+
+    static void sentenciaEjecutada(long nanos) {
+        var m = ACTUAL.get();
+        if (m != null) {
+            m.sentencias++;
+            m.nanosSql += nanos;
+        }
+        var d = instancia;
+        if (d != null && nanos >= TimeUnit.MILLISECONDS.toNanos(d.lentoMs)) {
+            d.registrarLenta(m != null ? m.endpoint : FUERA_DE_PETICION, ULTIMA_SQL.get(), nanos);
+        }
+    }
+
+    static void entidadCargada(String entidad) {
+        var m = ACTUAL.get();
+        if (m == null) return;
+        m.cargas++;
+        if (m.cargasPorEntidad == null) m.cargasPorEntidad = new HashMap<>();
+        m.cargasPorEntidad.merge(entidad, 1, Integer::sum);
+    }
+
+    private void registrarLenta(String endpoint, String sql, long nanos) {
+        if (sql != null && sql.length() > MAX_LARGO_SQL) sql = sql.substring(0, MAX_LARGO_SQL) + "…";
+        var s = DiagnosticoSqlDTO.SentenciaLenta.builder()
+                .fecha(LocalDateTime.now())
+                .endpoint(endpoint)
+                .duracionMs(TimeUnit.NANOSECONDS.toMillis(nanos))
+                .sql(sql)
+                .build();
+        synchronized (lentas) {
+            lentas.addFirst(s);
+            while (lentas.size() > Math.max(1, lentasMax)) lentas.removeLast();
+        }
+    }
+
+    /* ===================== lectura ===================== */
+
+    public DiagnosticoSqlDTO resumen() {
+        List<DiagnosticoSqlDTO.Endpoint> endpoints = new ArrayList<>();
+        porEndpoint.forEach((k, a) -> {
+            long peticiones = a.peticiones.sum();
+            long sentencias = a.sentencias.sum();
+            Map<String, Long> entidades = new TreeMap<>();
+            a.cargasPorEntidad.forEach((e, n) -> entidades.put(e, n.sum()));
+            endpoints.add(DiagnosticoSqlDTO.Endpoint.builder()
+                    .endpoint(k)
+                    .peticiones(peticiones)
+                    .sentencias(sentencias)
+                    .sentenciasPromedio(peticiones == 0 ? 0 : (double) sentencias / peticiones)
+                    .maxSentencias(a.maxSentencias.get())
+                    .entidadesCargadas(a.cargas.sum())
+                    .maxEntidadesCargadas(a.maxCargas.get())
+                    .tiempoSqlMs(TimeUnit.NANOSECONDS.toMillis(a.nanosSql.sum()))
+                    .peticionesExcedidas(a.excedidas.sum())
+                    .cargasPorEntidad(entidades)
+                    .build());
+        });
+        endpoints.sort(Comparator.comparingDouble(DiagnosticoSqlDTO.Endpoint::getSentenciasPromedio).reversed());
+
+        List<DiagnosticoSqlDTO.SentenciaLenta> copiaLentas;
+        synchronized (lentas) {
+            copiaLentas = new ArrayList<>(lentas);
+        }
+
+        return DiagnosticoSqlDTO.builder()
+                .desde(desde)
+                .lentoMs(lentoMs)
+                .maxSentenciasPorPeticion(maxSentenciasPorPeticion)
+                .hibernate(hibernate())
+                .endpoints(endpoints)
+                .sentenciasLentas(copiaLentas)
+                .build();
+    }
+
+    public void reiniciar() {
+        porEndpoint.clear();
+        synchronized (lentas) {
+            lentas.clear();
+        }
+        emf.unwrap(SessionFactory.class).getStatistics().clear();
+        desde = LocalDateTime.now();
+    }
+
+    private DiagnosticoSqlDTO.Hibernate hibernate() {
+        var st = emf.unwrap(SessionFactory.class).getStatistics();
+        return DiagnosticoSqlDTO.Hibernate.builder()
+                .habilitadas(st.isStatisticsEnabled())
+                .sesionesAbiertas(st.getSessionOpenCount())
+                .transacciones(st.getTransactionCount())
+                .sentenciasPreparadas(st.getPrepareStatementCount())
+                .consultasEjecutadas(st.getQueryExecutionCount())
+                .consultaMasLentaMs(st.getQueryExecutionMaxTime())
+                .consultaMasLenta(st.getQueryExecutionMaxTimeQueryString())
+                .entidadesCargadas(st.getEntityLoadCount())
+                .entidadesObtenidas(st.getEntityFetchCount())
+                .coleccionesCargadas(st.getCollectionLoadCount())
+                .coleccionesObtenidas(st.getCollectionFetchCount())
+                .flushes(st.getFlushCount())
+                .consultasLentas(new TreeMap<>(st.getSlowQueries()))
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.soyanga.soyangabackend.servicio.diagnostico;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Abre y cierra la medición de {@link DiagnosticoSql} por petición. El endpoint se etiqueta con el
+ * patrón de la ruta (no la URL concreta) para que los ids no disparen la cardinalidad.
+ */
+@RequiredArgsConstructor
+public class DiagnosticoSqlInterceptor implements AsyncHandlerInterceptor {
+
+    private final DiagnosticoSql diagnostico;
+
+    @Override
+    public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+        Object patron = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        diagnostico.iniciar(req.getMethod() + " " + (patron != null ? patron : "(sin mapeo)"));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+        diagnostico.terminar();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest req, HttpServletResponse res, Object handler) {
+        diagnostico.terminar(); // el resto corre en otro hilo: se cierra lo medido hasta aquí
+    }
+}
@@ -0,0 +1,91 @@
+package com.soyanga.soyangabackend.servicio.diagnostico;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.List;
+
+/**
+ * Ganchos que Hibernate instancia por su cuenta y que alimentan a {@link DiagnosticoSql}.
+ * Se registran en {@code DiagnosticoSqlConfig}.
+ */
+public final class GanchosHibernate {
+
+    private GanchosHibernate() {
+    }
+
+    /** Recuerda la última SQL preparada en el hilo (para asociarla al tiempo de ejecución). */
+    public static class Inspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            DiagnosticoSql.sentenciaPreparada(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Mide cada ejecución JDBC. Hibernate crea una instancia por sesión
+     * ({@code hibernate.session.events.auto}), que usa un solo hilo a la vez.
+     */
+    public static class EventosSesion implements SessionEventListener {
+        private long inicio;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            DiagnosticoSql.sentenciaEjecutada(System.nanoTime() - inicio);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            DiagnosticoSql.sentenciaEjecutada(System.nanoTime() - inicio);
+        }
+    }
+
+    /** Cuenta entidades materializadas (POST_LOAD) por tipo. */
+    public static class CargaEntidades implements Integrator, IntegratorProvider {
+
+        @Override
+        public List<Integrator> getIntegrators() {
+            return List.of(this);
+        }
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .requireService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) CargaEntidades::alCargar);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        private static void alCargar(PostLoadEvent ev) {
+            var persister = ev.getPersister();
+            DiagnosticoSql.entidadCargada(persister != null
+                    ? persister.getEntityName().substring(persister.getEntityName().lastIndexOf('.') + 1)
+                    : ev.getEntity().getClass().getSimpleName());
+        }
+    }
+}
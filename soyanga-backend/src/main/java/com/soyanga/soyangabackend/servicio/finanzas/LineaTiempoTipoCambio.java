@@ -0,0 +1,175 @@
+package com.soyanga.soyangabackend.servicio.finanzas;
+
+import com.soyanga.soyangabackend.dominio.TipoDeCambio;
+import com.soyanga.soyangabackend.repositorio.catalogo.TipoDeCambioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tipos de cambio en memoria: por cada par (origen, destino) una línea de tiempo ordenada por
+ * fecha_vigencia, con búsqueda "piso" (último vigente &lt;= fecha) por búsqueda binaria.
+ * <p>
+ * El mapa de líneas es una foto inmutable que se reemplaza atómicamente: al arrancar, cuando
+ * confirma un {@link TipoCambioGuardadoEvent} (copia solo la línea del par) y en el refresco
+ * periódico (cambios hechos desde otros nodos). Las consultas no tocan la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LineaTiempoTipoCambio {
+
+    private final TipoDeCambioRepositorio repo;
+
+    private final AtomicReference<Map<Par, Linea>> lineas = new AtomicReference<>();
+
+    /** Un punto de la línea: tasa vigente desde fechaVigencia hasta el siguiente punto. */
+    public record Punto(Long idTipoCambio, Long idMonedaOrigen, Long idMonedaDestino,
+                        LocalDate fechaVigencia, BigDecimal tasaCambio) {
+    }
+
+    private record Par(Long origen, Long destino) {
+    }
+
+    /** Puntos ordenados por fecha ascendente, sin fechas repetidas. */
+    private record Linea(Punto[] puntos) {
+
+        Punto piso(LocalDate fecha) {
+            int lo = 0, hi = puntos.length - 1, hallado = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (puntos[mid].fechaVigencia().isAfter(fecha)) {
+                    hi = mid - 1;
+                } else {
+                    hallado = mid;
+                    lo = mid + 1;
+                }
+            }
+            return hallado < 0 ? null : puntos[hallado];
+        }
+
+        /** Copia con el punto insertado (o reemplazando el de la misma fecha). */
+        Linea con(Punto p) {
+            int i = Arrays.binarySearch(puntos, p, POR_FECHA);
+            Punto[] nuevos;
+            if (i >= 0) {
+                nuevos = puntos.clone();
+                nuevos[i] = p;
+            } else {
+                int ins = -i - 1;
+                nuevos = new Punto[puntos.length + 1];
+                System.arraycopy(puntos, 0, nuevos, 0, ins);
+                nuevos[ins] = p;
+                System.arraycopy(puntos, ins, nuevos, ins + 1, puntos.length - ins);
+            }
+            return new Linea(nuevos);
+        }
+    }
+
+    private static final Comparator<Punto> POR_FECHA = Comparator.comparing(Punto::fechaVigencia);
+
+    /* ===================== consultas ===================== */
+
+    /** Último tipo de cambio del par con fecha_vigencia &lt;= fecha (null = hoy). */
+    public Optional<Punto> vigente(Long idOrigen, Long idDestino, LocalDate fecha) {
+        if (idOrigen == null || idDestino == null) return Optional.empty();
+        Linea l = snapshot().get(new Par(idOrigen, idDestino));
+        if (l == null) return Optional.empty();
+        return Optional.ofNullable(l.piso(fecha != null ? fecha : LocalDate.now()));
+    }
+
+    public int pares() {
+        return snapshot().size();
+    }
+
+    private Map<Par, Linea> snapshot() {
+        var m = lineas.get();
+        if (m == null) {
+            var cargado = leerTodo();
+            m = lineas.compareAndExchange(null, cargado);
+            if (m == null) m = cargado;
+        }
+        return m;
+    }
+
+    /* ===================== actualización ===================== */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        try {
+            var m = leerTodo();
+            lineas.set(m);
+            log.info("[TipoCambio] Línea de tiempo cargada: {} pares", m.size());
+        } catch (Exception ex) {
+            log.warn("[TipoCambio] No se pudo cargar la línea de tiempo: {}", ex.getMessage());
+        }
+    }
+
+    /** Alta/modificación local: se aplica solo si la transacción que guardó confirmó. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alGuardar(TipoCambioGuardadoEvent ev) {
+        var p = new Punto(ev.idTipoCambio(), ev.idMonedaOrigen(), ev.idMonedaDestino(),
+                ev.fechaVigencia(), ev.tasaCambio());
+        var par = new Par(ev.idMonedaOrigen(), ev.idMonedaDestino());
+
+        lineas.updateAndGet(prev -> {
+            if (prev == null) return null; // aún no cargado: la primera consulta lee todo de la BD
+            var copia = new HashMap<>(prev);
+            var l = copia.get(par);
+            copia.put(par, l == null ? new Linea(new Punto[]{p}) : l.con(p));
+            return Map.copyOf(copia);
+        });
+    }
+
+    /**
+     * Relectura completa (tabla pequeña). Si mientras tanto entró un cambio local, no pisa la
+     * foto: la siguiente vuelta lo recoge.
+     */
+    @Scheduled(fixedDelayString = "${app.finanzas.tipos-cambio.refresco-ms:300000}",
+            initialDelayString = "${app.finanzas.tipos-cambio.refresco-ms:300000}")
+    public void refrescar() {
+        try {
+            var antes = lineas.get();
+            var nuevo = leerTodo();
+            if (!lineas.compareAndSet(antes, nuevo)) {
+                log.debug("[TipoCambio] Refresco descartado por un cambio concurrente");
+            }
+        } catch (Exception ex) {
+            log.warn("[TipoCambio] No se pudo refrescar la línea de tiempo: {}", ex.getMessage());
+        }
+    }
+
+    private Map<Par, Linea> leerTodo() {
+        List<TipoDeCambio> filas = repo.findAll(
+                Sort.by("idMonedaOrigen", "idMonedaDestino", "fechaVigencia", "idTipoCambio"));
+
+        Map<Par, List<Punto>> porPar = new HashMap<>();
+        for (var t : filas) {
+            var lista = porPar.computeIfAbsent(new Par(t.getIdMonedaOrigen(), t.getIdMonedaDestino()),
+                    k -> new ArrayList<>());
+            var p = new Punto(t.getIdTipoCambio(), t.getIdMonedaOrigen(), t.getIdMonedaDestino(),
+                    t.getFechaVigencia(), t.getTasaCambio());
+            // Misma fecha repetida: gana la de mayor id (la última guardada)
+            if (!lista.isEmpty() && lista.get(lista.size() - 1).fechaVigencia().equals(p.fechaVigencia())) {
+                lista.set(lista.size() - 1, p);
+            } else {
+                lista.add(p);
+            }
+        }
+
+        Map<Par, Linea> m = new HashMap<>(porPar.size() * 2);
+        porPar.forEach((par, lista) -> m.put(par, new Linea(lista.toArray(Punto[]::new))));
+        return Map.copyOf(m);
+    }
+}
@@ -0,0 +1,16 @@
+package com.soyanga.soyangabackend.servicio.finanzas;
+
+import com.soyanga.soyangabackend.dominio.TipoDeCambio;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Se publica al guardar un tipo de cambio; la línea de tiempo en memoria lo aplica tras el commit. */
+public record TipoCambioGuardadoEvent(Long idTipoCambio, Long idMonedaOrigen, Long idMonedaDestino,
+                                      LocalDate fechaVigencia, BigDecimal tasaCambio) {
+
+    public static TipoCambioGuardadoEvent de(TipoDeCambio t) {
+        return new TipoCambioGuardadoEvent(t.getIdTipoCambio(), t.getIdMonedaOrigen(), t.getIdMonedaDestino(),
+                t.getFechaVigencia(), t.getTasaCambio());
+    }
+}
@@ -7,23 +7,27 @@ import com.soyanga.soyangabackend.repositorio.catalogo.TipoDeCambioRepositorio;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class TipoCambioServicio {
 
     private final TipoDeCambioRepositorio repo;
+    private final LineaTiempoTipoCambio linea;
+    private final ApplicationEventPublisher events;
 
+    // Vigente desde la línea de tiempo en memoria (sin consulta a BD)
     public TipoCambioRespuestaDTO vigente(Long idOrigen, Long idDestino, LocalDate fecha) {
-        var f = (fecha != null) ? fecha : LocalDate.now();
-        var opt = repo.findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
-                idOrigen, idDestino, f);
-        return opt.map(this::toDTO).orElse(null);
+        return linea.vigente(idOrigen, idDestino, fecha).map(this::toDTO).orElse(null);
     }
 
     public TipoCambioRespuestaDTO crear(TipoCambioCrearDTO dto) {
@@ -42,6 +46,7 @@ public class TipoCambioServicio {
                 .tasaCambio(dto.getTasaCambio())
                 .build();
         t = repo.save(t);
+        events.publishEvent(TipoCambioGuardadoEvent.de(t));
         return toDTO(t);
     }
 
@@ -58,21 +63,73 @@ public class TipoCambioServicio {
 
     // NUEVO: conversión usando vigente de hoy
     public ConversionDTO convertir(Long idOrigen, Long idDestino, java.math.BigDecimal monto) {
-        var hoy = LocalDate.now();
-        var tOpt = repo.findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
-                idOrigen, idDestino, hoy);
-        var t = tOpt.orElseThrow(() -> new IllegalArgumentException("No hay tipo de cambio vigente para ese par"));
-        var destino = monto.multiply(t.getTasaCambio());
+        var t = linea.vigente(idOrigen, idDestino, LocalDate.now())
+                .orElseThrow(() -> new IllegalArgumentException("No hay tipo de cambio vigente para ese par"));
+        var destino = monto.multiply(t.tasaCambio());
 
         return ConversionDTO.builder()
                 .idMonedaOrigen(idOrigen)
                 .idMonedaDestino(idDestino)
                 .montoOrigen(monto)
-                .tasaUsada(t.getTasaCambio())
+                .tasaUsada(t.tasaCambio())
                 .montoDestino(destino)
                 .build();
     }
 
+    /**
+     * Conversión en lote: cada (origen, destino, fecha) distinto se resuelve una sola vez contra
+     * la línea de tiempo en memoria. Los items sin tasa vuelven con error (no corta el lote).
+     */
+    public ConversionLoteRespuestaDTO convertirLote(ConversionLoteDTO req) {
+        var hoy = LocalDate.now();
+        var tasas = new HashMap<ClaveTasa, Optional<LineaTiempoTipoCambio.Punto>>();
+        var resultados = new ArrayList<ConversionLoteRespuestaDTO.Resultado>(req.getItems().size());
+        int convertidos = 0;
+
+        for (int i = 0; i < req.getItems().size(); i++) {
+            var it = req.getItems().get(i);
+            var fecha = it.getFecha() != null ? it.getFecha() : hoy;
+            var r = ConversionLoteRespuestaDTO.Resultado.builder()
+                    .indice(i)
+                    .idMonedaOrigen(it.getIdMonedaOrigen())
+                    .idMonedaDestino(it.getIdMonedaDestino())
+                    .fecha(fecha)
+                    .montoOrigen(it.getMonto());
+
+            if (it.getIdMonedaOrigen().equals(it.getIdMonedaDestino())) {
+                resultados.add(r.tasaUsada(BigDecimal.ONE).montoDestino(it.getMonto()).build());
+                convertidos++;
+                continue;
+            }
+
+            var punto = tasas.computeIfAbsent(
+                    new ClaveTasa(it.getIdMonedaOrigen(), it.getIdMonedaDestino(), fecha),
+                    k -> linea.vigente(k.origen(), k.destino(), k.fecha()));
+
+            if (punto.isPresent()) {
+                var t = punto.get();
+                resultados.add(r.idTipoCambio(t.idTipoCambio())
+                        .fechaVigenciaTasa(t.fechaVigencia())
+                        .tasaUsada(t.tasaCambio())
+                        .montoDestino(it.getMonto().multiply(t.tasaCambio()))
+                        .build());
+                convertidos++;
+            } else {
+                resultados.add(r.error("No hay tipo de cambio vigente para ese par en " + fecha).build());
+            }
+        }
+
+        return ConversionLoteRespuestaDTO.builder()
+                .total(resultados.size())
+                .convertidos(convertidos)
+                .sinTasa(resultados.size() - convertidos)
+                .resultados(resultados)
+                .build();
+    }
+
+    private record ClaveTasa(Long origen, Long destino, LocalDate fecha) {
+    }
+
     private TipoCambioRespuestaDTO toDTO(TipoDeCambio t) {
         boolean vigente = !t.getFechaVigencia().isAfter(LocalDate.now());
         return TipoCambioRespuestaDTO.builder()
@@ -85,6 +142,17 @@ public class TipoCambioServicio {
                 .build();
     }
 
+    private TipoCambioRespuestaDTO toDTO(LineaTiempoTipoCambio.Punto p) {
+        return TipoCambioRespuestaDTO.builder()
+                .idTipoCambio(p.idTipoCambio())
+                .idMonedaOrigen(p.idMonedaOrigen())
+                .idMonedaDestino(p.idMonedaDestino())
+                .fechaVigencia(p.fechaVigencia())
+                .tasaCambio(p.tasaCambio())
+                .vigente(!p.fechaVigencia().isAfter(LocalDate.now()))
+                .build();
+    }
+
     @Transactional
     public TipoDeCambio crearSiNoExiste(Long idOrigen, Long idDestino, LocalDate fecha, BigDecimal tasa) {
         return repo.findByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigencia(idOrigen, idDestino, fecha)
@@ -94,7 +162,9 @@ public class TipoCambioServicio {
                     tc.setIdMonedaDestino(idDestino);
                     tc.setFechaVigencia(fecha);
                     tc.setTasaCambio(tasa);
-                    return repo.save(tc);
+                    tc = repo.save(tc);
+                    events.publishEvent(TipoCambioGuardadoEvent.de(tc));
+                    return tc;
                 });
     }
 }
\ No newline at end of file
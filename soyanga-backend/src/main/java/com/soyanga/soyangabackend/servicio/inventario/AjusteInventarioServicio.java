@@ -12,11 +12,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class AjusteInventarioServicio {
 
+        /** Motivo de los ajustes que solo corrigen el kárdex (ver {@link #conciliarKardex}) */
+        public static final String MOTIVO_CONCILIACION = "CONCILIACION_KARDEX";
+
         private final ExistenciaLoteRepositorio existenciaRepo;
         private final MovimientoInventarioRepositorio movRepo;
         private final AjusteInventarioRepositorio ajusteRepo;
@@ -36,6 +40,80 @@ public class AjusteInventarioServicio {
                 return registrarYAplicar(dto, AjusteInventario.Tipo.EGRESO);
         }
 
+        /**
+         * Ajuste de conciliación: registra en el kárdex la diferencia (disponible + reservada) - saldo
+         * del kárdex del par, SIN tocar existencias. Un ajuste normal movería las dos cosas a la vez y
+         * la diferencia seguiría igual. Con el lock de la existencia tomado el saldo no cambia mientras
+         * se calcula. Devuelve null si ya no hay diferencia; requestId repetido = el ajuste ya hecho.
+         */
+        @Transactional
+        public AjusteRespuestaDTO conciliarKardex(Long idAlmacen, Long idLote, UUID requestId, String observaciones) {
+                var existente = ajusteRepo.findByRequestId(requestId);
+                if (existente.isPresent()) {
+                        var aj = existente.get();
+                        var mov = (aj.getIdMovimiento() != null) ? movRepo.findById(aj.getIdMovimiento()).orElse(null)
+                                        : null;
+                        return mapRespuestaFrom(aj, mov, null, null);
+                }
+
+                var ahora = LocalDateTime.now();
+                var exOpt = existenciaRepo.lockByAlmacenAndIdLote(idAlmacen, idLote);
+                BigDecimal stock = exOpt
+                                .map(ex -> ex.getCantidadDisponible().add(ex.getCantidadReservada()))
+                                .orElse(BigDecimal.ZERO);
+                BigDecimal saldo = movRepo.saldoKardex(idAlmacen, idLote);
+                BigDecimal diferencia = stock.subtract(saldo);
+                if (diferencia.signum() == 0) {
+                        return null;
+                }
+
+                var tipo = diferencia.signum() > 0 ? AjusteInventario.Tipo.INGRESO : AjusteInventario.Tipo.EGRESO;
+                var ajuste = ajusteRepo.save(AjusteInventario.builder()
+                                .tipo(tipo)
+                                .idAlmacen(idAlmacen)
+                                .idLote(idLote)
+                                .cantidad(diferencia.abs())
+                                .motivo(MOTIVO_CONCILIACION)
+                                .observaciones(observaciones)
+                                .estado(AjusteInventario.Estado.APLICADO)
+                                .creadoPor(currentUserId())
+                                .creadoEn(ahora)
+                                .aplicadoEn(ahora)
+                                .requestId(requestId)
+                                .build());
+
+                var mov = movRepo.save(MovimientoInventario.builder()
+                                .fechaMovimiento(ahora)
+                                .tipoMovimiento(MovimientoInventario.TipoMovimiento.ajuste)
+                                .idAlmacenOrigen(tipo == AjusteInventario.Tipo.EGRESO ? idAlmacen : null)
+                                .idAlmacenDestino(tipo == AjusteInventario.Tipo.INGRESO ? idAlmacen : null)
+                                .idLote(idLote)
+                                .cantidad(diferencia)
+                                .referenciaModulo("ajuste")
+                                .idReferencia(ajuste.getIdAjuste())
+                                .observaciones((observaciones != null ? observaciones + " | " : "")
+                                                + "Conciliación kárdex (sin impacto en existencias)"
+                                                + " | kardex=" + saldo + " | existencias=" + stock)
+                                .build());
+
+                ajuste.setIdMovimiento(mov.getIdMovimiento());
+                ajusteRepo.save(ajuste);
+
+                auditoriaServicio.registrar(Auditoria.builder()
+                                .fechaEvento(ahora)
+                                .idUsuario(currentUserId())
+                                .moduloAfectado("inventario.ajustes")
+                                .accion("conciliar_kardex")
+                                .idRegistroAfectado(ajuste.getIdAjuste())
+                                .detalle("Conciliación almacén=" + idAlmacen + ", lote=" + idLote
+                                                + ", kardex=" + saldo + ", existencias=" + stock
+                                                + ", diferencia=" + diferencia)
+                                .build());
+
+                // anterior/nueva = saldo del kárdex antes y después
+                return mapRespuestaFrom(ajuste, mov, saldo, stock);
+        }
+
         private AjusteRespuestaDTO registrarYAplicar(AjusteCrearDTO dto, AjusteInventario.Tipo tipo) {
 
                 // idempotencia
@@ -4,19 +4,53 @@ import com.soyanga.soyangabackend.dominio.Auditoria;
 import com.soyanga.soyangabackend.dto.seguridad.AuditoriaListadoProjection;
 import com.soyanga.soyangabackend.repositorio.inventario.AuditoriaRepositorio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
 import java.time.LocalDateTime;
+import java.util.Set;
 
+/**
+ * Registro y consulta de auditorías.
+ * <p>
+ * Por defecto ({@code app.auditoria.modo=async}) el evento se entrega a {@link EscritorAuditoria}
+ * recién tras el commit de la transacción que lo origina (si hace rollback no se audita, igual que
+ * antes) y se escribe por lotes fuera de ella. Los módulos o acciones listados en
+ * {@code app.auditoria.sincronas} ({@code modulo} o {@code modulo:accion}), o todo con
+ * {@code modo=sync}, se insertan dentro de la misma transacción: si la auditoría falla, la
+ * operación también.
+ */
 @Service
 @RequiredArgsConstructor
 public class AuditoriaServicio {
     private final AuditoriaRepositorio auditoriaRepo;
+    private final EscritorAuditoria escritor;
+
+    @Value("${app.auditoria.modo:async}")
+    private String modo;
+
+    @Value("${app.auditoria.sincronas:}")
+    private Set<String> sincronas;
 
     public void registrar(Auditoria a) {
         if (a.getFechaEvento() == null)
             a.setFechaEvento(LocalDateTime.now());
-        auditoriaRepo.save(a);
+
+        if (esSincrona(a)) {
+            escritor.insertar(a);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    escritor.encolar(a);
+                }
+            });
+        } else {
+            escritor.encolar(a);
+        }
     }
 
     public Page<AuditoriaListadoProjection> listar(
@@ -24,4 +58,10 @@ public class AuditoriaServicio {
             String desde, String hasta, String q, Pageable pageable) {
         return auditoriaRepo.listar(usuarioId, modulo, accion, desde, hasta, q, pageable);
     }
+
+    private boolean esSincrona(Auditoria a) {
+        return "sync".equalsIgnoreCase(modo)
+                || sincronas.contains(a.getModuloAfectado())
+                || sincronas.contains(a.getModuloAfectado() + ":" + a.getAccion());
+    }
 }
@@ -0,0 +1,35 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: conciliación nocturna del kárdex contra existencias (por defecto solo informa). */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventario.conciliacion.enabled", havingValue = "true", matchIfMissing = true)
+public class ConciliacionKardexJob {
+
+    private final ConciliacionKardexServicio servicio;
+
+    @Value("${app.inventario.conciliacion.corregir:false}")
+    private boolean corregir;
+
+    // En el hilo coordinador de la conciliación: una corrida larga no frena el resto de los @Scheduled
+    @Scheduled(cron = "${app.inventario.conciliacion.cron:0 30 4 * * *}")
+    public void ejecutar() {
+        try {
+            var r = servicio.lanzar(corregir, "job");
+            log.info("[Conciliacion] #{} iniciada (corregir={})", r.getIdConciliacion(), corregir);
+        } catch (ConciliacionKardexServicio.NoDisponibleException ex) {
+            // Con varios nodos el cron dispara en todos y solo uno la abre; el resto lo ve aquí
+            log.info("[Conciliacion] No se inicia: {}", ex.getMessage());
+        } catch (Exception ex) {
+            log.error("[Conciliacion] No se pudo iniciar la conciliación: {}", ex.getMessage(), ex);
+        }
+    }
+}
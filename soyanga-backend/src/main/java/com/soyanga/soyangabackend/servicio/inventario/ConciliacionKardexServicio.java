@@ -0,0 +1,376 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import com.soyanga.soyangabackend.dto.inventario.ConciliacionKardexDTO;
+import com.soyanga.soyangabackend.dto.inventario.DiscrepanciaKardexDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conciliación del kárdex contra existencias_por_lote (V20261019_09): el saldo de cada
+ * (almacén, lote) según v_kardex_efecto debe ser igual a disponible + reservada.
+ * <p>
+ * Recorre los lotes por rangos de id ({@code tamanio-bloque}) en {@code hilos} hilos. Cada bloque
+ * es UNA consulta: PostgreSQL suma los movimientos del rango por el índice de lote, los cruza con
+ * las existencias en la misma foto y devuelve solo los pares que no cuadran. A Java llegan las
+ * discrepancias, no los movimientos, así que la memoria no crece con el kárdex. La lectura es de
+ * solo lectura (con réplica, va a la réplica).
+ * <p>
+ * Con {@code corregir}, cada diferencia se registra en el kárdex con
+ * {@link AjusteInventarioServicio#conciliarKardex}, que la recalcula en la primaria con el lock de
+ * la existencia; el stock no cambia. Requiere el kárdex completo: si se archivan movimientos
+ * ({@code app.particiones.movimientos.retencion-meses} &gt; 0) la conciliación no corre.
+ * <p>
+ * Una sola corrida en curso en todo el cluster (índice único parcial): si otro nodo ya la lanzó,
+ * {@link #lanzar} responde con {@link NoDisponibleException} (409).
+ */
+@Slf4j
+@Service
+public class ConciliacionKardexServicio {
+
+    private static final String SQL_BLOQUE = """
+            WITH k AS (
+                SELECT id_almacen, id_lote, SUM(delta) AS saldo, COUNT(*) AS movimientos,
+                       MAX(fecha_movimiento) AS ultimo
+                FROM v_kardex_efecto
+                WHERE id_lote >= ? AND id_lote < ?
+                GROUP BY id_almacen, id_lote),
+            e AS (
+                SELECT id_almacen, id_lote, cantidad_disponible, cantidad_reservada
+                FROM existencias_por_lote
+                WHERE id_lote >= ? AND id_lote < ?),
+            j AS (
+                SELECT COALESCE(k.id_almacen, e.id_almacen)         AS id_almacen,
+                       COALESCE(k.id_lote, e.id_lote)               AS id_lote,
+                       COALESCE(k.saldo, 0)                         AS saldo,
+                       COALESCE(e.cantidad_disponible, 0)           AS disponible,
+                       COALESCE(e.cantidad_reservada, 0)            AS reservada,
+                       COALESCE(k.movimientos, 0)                   AS movimientos,
+                       k.ultimo
+                FROM k
+                FULL JOIN e ON e.id_almacen = k.id_almacen AND e.id_lote = k.id_lote),
+            t AS (
+                SELECT COUNT(*) AS pares, COALESCE(SUM(movimientos), 0) AS movimientos FROM j)
+            SELECT t.pares, t.movimientos,
+                   d.id_almacen, d.id_lote, d.saldo, d.disponible, d.reservada, d.movimientos, d.ultimo
+            FROM t
+            LEFT JOIN (
+                SELECT * FROM j
+                WHERE disponible + reservada <> saldo
+                  AND id_almacen IS NOT NULL) d ON TRUE
+            ORDER BY d.id_almacen, d.id_lote
+            """;
+
+    private static final String SQL_RESUMEN = """
+            SELECT id_conciliacion, inicio, fin, estado, corregir, origen, bloques, pares_revisados,
+                   movimientos_leidos, discrepancias, ajustes, error
+            FROM conciliaciones_kardex
+            """;
+
+    /** Errores más largos se recortan (columna VARCHAR(1000)) */
+    private static final int MAX_ERROR = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final AjusteInventarioServicio ajustes;
+    private final TransactionTemplate txLectura;
+
+    private final Counter discrepanciasHalladas;
+    private final Counter ajustesEmitidos;
+    private final AtomicInteger ultimasDiscrepancias = new AtomicInteger();
+    /** Corrida que está corriendo en este nodo (0 si ninguna) */
+    private final AtomicLong enCurso = new AtomicLong();
+
+    @Value("${app.inventario.conciliacion.hilos:4}")
+    private int hilos;
+
+    @Value("${app.inventario.conciliacion.tamanio-bloque:2000}")
+    private int tamanioBloque;
+
+    /** Una corrida 'en_curso' más vieja que esto se da por abandonada (el nodo murió) */
+    @Value("${app.inventario.conciliacion.abandono-h:6}")
+    private int abandonoHoras;
+
+    @Value("${app.particiones.movimientos.retencion-meses:0}")
+    private int retencionMovimientos;
+
+    private ExecutorService bloques;
+    private ExecutorService coordinador;
+
+    /** La conciliación no puede lanzarse ahora: ya hay una en curso o se archivan movimientos. */
+    public static class NoDisponibleException extends IllegalStateException {
+        public NoDisponibleException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    /** Bloque revisado: totales y discrepancias encontradas/corregidas. */
+    private record Resultado(long pares, long movimientos, int discrepancias, int ajustes) {
+    }
+
+    private record Discrepancia(long idAlmacen, long idLote, BigDecimal saldo, BigDecimal disponible,
+                                BigDecimal reservada, long movimientos, Timestamp ultimo) {
+    }
+
+    public ConciliacionKardexServicio(JdbcTemplate jdbc, AjusteInventarioServicio ajustes,
+                                      PlatformTransactionManager txManager, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.ajustes = ajustes;
+        this.txLectura = new TransactionTemplate(txManager);
+        this.txLectura.setReadOnly(true);
+        this.discrepanciasHalladas = Counter.builder("soyanga.inventario.conciliacion.discrepancias")
+                .description("Pares (almacén, lote) con existencias distintas del saldo del kárdex")
+                .register(registry);
+        this.ajustesEmitidos = Counter.builder("soyanga.inventario.conciliacion.ajustes")
+                .description("Ajustes de conciliación registrados en el kárdex")
+                .register(registry);
+        Gauge.builder("soyanga.inventario.conciliacion.ultima", ultimasDiscrepancias, AtomicInteger::get)
+                .description("Discrepancias de la última conciliación completada")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        bloques = Executors.newFixedThreadPool(Math.max(1, hilos),
+                Thread.ofPlatform().name("conciliacion-", 1).daemon(true).factory());
+        coordinador = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("conciliacion-coordinador").daemon(true).factory());
+    }
+
+    /**
+     * Al apagar, la corrida en curso se interrumpe: se marca fallida aquí (y no en el hilo
+     * interrumpido, que ya no puede tomar conexión) para no dejarla 'en_curso' hasta el abandono.
+     */
+    @PreDestroy
+    void cerrar() throws InterruptedException {
+        long id = enCurso.get();
+        coordinador.shutdownNow();
+        bloques.shutdownNow();
+        coordinador.awaitTermination(5, TimeUnit.SECONDS);
+        if (id != 0) {
+            int n = jdbc.update("""
+                    UPDATE conciliaciones_kardex SET estado = 'fallida', fin = NOW(), error = 'Interrumpida al apagar el nodo'
+                    WHERE id_conciliacion = ? AND estado = 'en_curso'
+                    """, id);
+            if (n > 0) log.warn("[Conciliacion] #{} interrumpida al apagar el nodo, marcada como fallida", id);
+        }
+    }
+
+    /** Registra la corrida y la corre en segundo plano; el resultado se consulta con {@link #obtener}. */
+    public ConciliacionKardexDTO lanzar(boolean corregir, String origen) {
+        long id = abrir(corregir, origen);
+        coordinador.execute(() -> correr(id, corregir));
+        return obtener(id);
+    }
+
+    public ConciliacionKardexDTO obtener(long idConciliacion) {
+        var lista = jdbc.query(SQL_RESUMEN + " WHERE id_conciliacion = ?", RESUMEN, idConciliacion);
+        if (lista.isEmpty()) throw new IllegalArgumentException("Conciliación no encontrada: " + idConciliacion);
+        return lista.get(0);
+    }
+
+    public List<ConciliacionKardexDTO> ultimas(int limite) {
+        return jdbc.query(SQL_RESUMEN + " ORDER BY id_conciliacion DESC LIMIT ?", RESUMEN,
+                Math.max(1, Math.min(limite, 200)));
+    }
+
+    /** Discrepancias de una corrida, las de mayor diferencia absoluta primero. */
+    public List<DiscrepanciaKardexDTO> discrepancias(long idConciliacion, Long idAlmacen, int limite) {
+        return jdbc.query("""
+                        SELECT id_almacen, id_lote, saldo_kardex, cantidad_disponible, cantidad_reservada,
+                               diferencia, movimientos, ultimo_movimiento, id_movimiento_ajuste
+                        FROM discrepancias_kardex
+                        WHERE id_conciliacion = ?
+                          AND (?::bigint IS NULL OR id_almacen = ?)
+                        ORDER BY ABS(diferencia) DESC, id_almacen, id_lote
+                        LIMIT ?
+                        """,
+                (rs, i) -> DiscrepanciaKardexDTO.builder()
+                        .idAlmacen(rs.getLong(1))
+                        .idLote(rs.getLong(2))
+                        .saldoKardex(rs.getBigDecimal(3))
+                        .cantidadDisponible(rs.getBigDecimal(4))
+                        .cantidadReservada(rs.getBigDecimal(5))
+                        .diferencia(rs.getBigDecimal(6))
+                        .movimientos(rs.getLong(7))
+                        .ultimoMovimiento(rs.getObject(8, LocalDateTime.class))
+                        .idMovimientoAjuste(rs.getObject(9, Long.class))
+                        .build(),
+                idConciliacion, idAlmacen, idAlmacen, Math.max(1, Math.min(limite, 5000)));
+    }
+
+    /* ===================== corrida ===================== */
+
+    private long abrir(boolean corregir, String origen) {
+        if (retencionMovimientos > 0) {
+            throw new NoDisponibleException("La conciliación necesita el kárdex completo y se archivan movimientos "
+                    + "de más de " + retencionMovimientos + " meses (app.particiones.movimientos.retencion-meses)");
+        }
+        int abandonadas = jdbc.update("""
+                UPDATE conciliaciones_kardex
+                SET estado = 'fallida', fin = NOW(), error = 'Abandonada (sin terminar tras ' || ? || ' h)'
+                WHERE estado = 'en_curso' AND inicio < NOW() - make_interval(hours => ?)
+                """, abandonoHoras, abandonoHoras);
+        if (abandonadas > 0) {
+            log.warn("[Conciliacion] {} corrida(s) en curso abandonada(s) marcadas como fallidas", abandonadas);
+        }
+        try {
+            Long id = jdbc.queryForObject("""
+                    INSERT INTO conciliaciones_kardex (corregir, origen) VALUES (?, ?)
+                    RETURNING id_conciliacion
+                    """, Long.class, corregir, origen);
+            return id;
+        } catch (DuplicateKeyException ex) {
+            throw new NoDisponibleException("Ya hay una conciliación de kárdex en curso");
+        }
+    }
+
+    private void correr(long id, boolean corregir) {
+        long inicio = System.nanoTime();
+        enCurso.set(id);
+        try {
+            Long maxLote = jdbc.queryForObject("SELECT COALESCE(MAX(id_lote), 0) FROM lotes", Long.class);
+            int tam = Math.max(1, tamanioBloque);
+
+            List<Future<Resultado>> pendientes = new ArrayList<>();
+            for (long desde = 1; desde <= maxLote; desde += tam) {
+                long d = desde, h = desde + tam;
+                pendientes.add(bloques.submit(() -> revisarBloque(id, d, h, corregir)));
+            }
+
+            long pares = 0, movimientos = 0;
+            int discrepancias = 0, ajustesHechos = 0;
+            try {
+                for (var f : pendientes) {
+                    var r = f.get();
+                    pares += r.pares();
+                    movimientos += r.movimientos();
+                    discrepancias += r.discrepancias();
+                    ajustesHechos += r.ajustes();
+                }
+            } catch (ExecutionException | InterruptedException ex) {
+                pendientes.forEach(f -> f.cancel(true));
+                if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+                throw ex instanceof ExecutionException ee && ee.getCause() instanceof Exception c ? c : ex;
+            }
+
+            jdbc.update("""
+                    UPDATE conciliaciones_kardex
+                    SET estado = 'completada', fin = NOW(), bloques = ?, pares_revisados = ?,
+                        movimientos_leidos = ?, discrepancias = ?, ajustes = ?
+                    WHERE id_conciliacion = ?
+                    """, pendientes.size(), pares, movimientos, discrepancias, ajustesHechos, id);
+            ultimasDiscrepancias.set(discrepancias);
+            if (discrepancias > ajustesHechos) {
+                log.warn("[Conciliacion] #{}: {} pares con existencias distintas del kárdex sin corregir",
+                        id, discrepancias - ajustesHechos);
+            }
+            log.info("[Conciliacion] #{} completada en {} ms: pares={}, movimientos={}, discrepancias={}, ajustes={}",
+                    id, (System.nanoTime() - inicio) / 1_000_000, pares, movimientos, discrepancias, ajustesHechos);
+        } catch (Exception ex) {
+            if (Thread.currentThread().isInterrupted()) return; // apagado: la marca cerrar()
+            log.error("[Conciliacion] #{} falló: {}", id, ex.getMessage(), ex);
+            jdbc.update("""
+                    UPDATE conciliaciones_kardex SET estado = 'fallida', fin = NOW(), error = ?
+                    WHERE id_conciliacion = ?
+                    """, recortar(String.valueOf(ex.getMessage())), id);
+        } finally {
+            enCurso.compareAndSet(id, 0);
+        }
+    }
+
+    /** Lotes [desde, hasta): consulta, guarda lo que no cuadra y, si se pidió, lo corrige. */
+    private Resultado revisarBloque(long idConciliacion, long desde, long hasta, boolean corregir) {
+        var encontradas = new ArrayList<Discrepancia>();
+        long[] totales = new long[2];
+        txLectura.executeWithoutResult(st -> jdbc.query(SQL_BLOQUE, (RowCallbackHandler) rs -> {
+            totales[0] = rs.getLong(1);
+            totales[1] = rs.getLong(2);
+            if (rs.getObject(3) != null) {
+                encontradas.add(new Discrepancia(rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5),
+                        rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getLong(8), rs.getTimestamp(9)));
+            }
+        }, desde, hasta, desde, hasta));
+        if (encontradas.isEmpty()) return new Resultado(totales[0], totales[1], 0, 0);
+
+        jdbc.batchUpdate("""
+                INSERT INTO discrepancias_kardex (id_conciliacion, id_almacen, id_lote, saldo_kardex,
+                    cantidad_disponible, cantidad_reservada, diferencia, movimientos, ultimo_movimiento)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, encontradas, encontradas.size(), (ps, d) -> {
+            ps.setLong(1, idConciliacion);
+            ps.setLong(2, d.idAlmacen());
+            ps.setLong(3, d.idLote());
+            ps.setBigDecimal(4, d.saldo());
+            ps.setBigDecimal(5, d.disponible());
+            ps.setBigDecimal(6, d.reservada());
+            ps.setBigDecimal(7, d.disponible().add(d.reservada()).subtract(d.saldo()));
+            ps.setLong(8, d.movimientos());
+            ps.setTimestamp(9, d.ultimo());
+        });
+        discrepanciasHalladas.increment(encontradas.size());
+
+        int corregidas = 0;
+        if (corregir) {
+            for (var d : encontradas) {
+                if (Thread.currentThread().isInterrupted()) break;
+                var requestId = UUID.nameUUIDFromBytes(("conciliacion-kardex:" + idConciliacion + ":"
+                        + d.idAlmacen() + ":" + d.idLote()).getBytes(StandardCharsets.UTF_8));
+                var aj = ajustes.conciliarKardex(d.idAlmacen(), d.idLote(), requestId,
+                        "Conciliación #" + idConciliacion);
+                if (aj == null) continue; // se corrigió sola entre la lectura y el lock
+                jdbc.update("""
+                        UPDATE discrepancias_kardex SET id_movimiento_ajuste = ?
+                        WHERE id_conciliacion = ? AND id_almacen = ? AND id_lote = ?
+                        """, aj.getIdMovimiento(), idConciliacion, d.idAlmacen(), d.idLote());
+                ajustesEmitidos.increment();
+                corregidas++;
+            }
+        }
+        return new Resultado(totales[0], totales[1], encontradas.size(), corregidas);
+    }
+
+    private static final RowMapper<ConciliacionKardexDTO> RESUMEN = (rs, i) -> ConciliacionKardexDTO.builder()
+            .idConciliacion(rs.getLong(1))
+            .inicio(rs.getObject(2, LocalDateTime.class))
+            .fin(rs.getObject(3, LocalDateTime.class))
+            .estado(rs.getString(4))
+            .corregir(rs.getBoolean(5))
+            .origen(rs.getString(6))
+            .bloques(rs.getInt(7))
+            .paresRevisados(rs.getLong(8))
+            .movimientosLeidos(rs.getLong(9))
+            .discrepancias(rs.getInt(10))
+            .ajustes(rs.getInt(11))
+            .error(rs.getString(12))
+            .build();
+
+    private static String recortar(String s) {
+        return s.length() <= MAX_ERROR ? s : s.substring(0, MAX_ERROR);
+    }
+}
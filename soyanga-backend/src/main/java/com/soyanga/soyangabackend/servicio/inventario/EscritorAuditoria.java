@@ -0,0 +1,189 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import com.soyanga.soyangabackend.dominio.Auditoria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de auditorías por lotes JDBC.
+ * <p>
+ * {@link #encolar} deja el evento en una cola acotada; un hilo propio la vacía en batches de hasta
+ * {@code lote} filas, o antes si pasaron {@code flush-ms} desde el primer evento pendiente. Con la
+ * cola llena el evento se inserta en el hilo que llama (presión hacia atrás en vez de perderlo), en
+ * una transacción propia: desde {@code afterCommit} la conexión de la transacción ya confirmada
+ * sigue ligada y sin autocommit, y un insert ahí no llegaría a confirmarse.
+ * {@link #insertar} es la escritura directa, que participa de la transacción en curso si la hay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EscritorAuditoria {
+
+    static final String EVENTOS = "soyanga.auditoria.eventos";
+
+    private static final String SQL_INSERT = """
+            INSERT INTO auditorias
+                (fecha_evento, id_usuario, modulo_afectado, accion, id_registro_afectado, detalle)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int REINTENTOS = 3;
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry registry;
+    private final PlatformTransactionManager txManager;
+
+    @Value("${app.auditoria.cola-capacidad:10000}")
+    private int capacidad;
+
+    @Value("${app.auditoria.lote:200}")
+    private int lote;
+
+    @Value("${app.auditoria.flush-ms:500}")
+    private long flushMs;
+
+    private BlockingQueue<Auditoria> cola;
+    private Thread hilo;
+    private volatile boolean activo;
+    private Timer tiempoLote;
+    private TransactionTemplate txDesborde;
+
+    @PostConstruct
+    void iniciar() {
+        cola = new ArrayBlockingQueue<>(Math.max(1, capacidad));
+        txDesborde = new TransactionTemplate(txManager);
+        txDesborde.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("soyanga.auditoria.cola", cola, BlockingQueue::size)
+                .description("Auditorías esperando escritura")
+                .register(registry);
+        tiempoLote = Timer.builder("soyanga.auditoria.lote")
+                .description("Escritura de un batch de auditorías")
+                .register(registry);
+
+        activo = true;
+        hilo = Thread.ofPlatform().name("auditoria-escritor").daemon(true).start(this::bucle);
+    }
+
+    /** Drena lo pendiente antes de cerrar el DataSource. */
+    @PreDestroy
+    void cerrar() throws InterruptedException {
+        activo = false;
+        hilo.interrupt();
+        hilo.join(TimeUnit.SECONDS.toMillis(10));
+        List<Auditoria> resto = new ArrayList<>();
+        cola.drainTo(resto);
+        if (!resto.isEmpty()) escribir(resto);
+    }
+
+    /** Encola para el escritor; si la cola está llena escribe en este hilo, en su propia transacción. */
+    public void encolar(Auditoria a) {
+        if (cola.offer(a)) {
+            contar("async");
+            return;
+        }
+        contar("desborde");
+        txDesborde.executeWithoutResult(st -> jdbc.update(SQL_INSERT, ps -> bind(ps, a)));
+    }
+
+    /** Inserción directa (en la transacción en curso, si la hay). */
+    public void insertar(Auditoria a) {
+        contar("sync");
+        jdbc.update(SQL_INSERT, ps -> bind(ps, a));
+    }
+
+    private void bucle() {
+        List<Auditoria> buffer = new ArrayList<>(lote);
+        while (activo) {
+            try {
+                // Espera el primer evento; luego junta hasta 'lote' o hasta que venza flush-ms
+                Auditoria primero = cola.poll(1, TimeUnit.SECONDS);
+                if (primero == null) continue;
+                buffer.add(primero);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+                while (buffer.size() < lote) {
+                    long resta = limite - System.nanoTime();
+                    if (resta <= 0) break;
+                    Auditoria a = cola.poll(resta, TimeUnit.NANOSECONDS);
+                    if (a == null) break;
+                    buffer.add(a);
+                    cola.drainTo(buffer, lote - buffer.size());
+                }
+                escribir(buffer);
+            } catch (InterruptedException e) {
+                if (!buffer.isEmpty()) escribir(buffer);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+
+    private void escribir(List<Auditoria> eventos) {
+        for (int intento = 1; ; intento++) {
+            try {
+                tiempoLote.record(() -> jdbc.batchUpdate(SQL_INSERT, eventos, eventos.size(), EscritorAuditoria::bind));
+                return;
+            } catch (Exception ex) {
+                if (intento >= REINTENTOS) {
+                    // Último recurso: que al menos quede en el log
+                    log.error("[Auditoria] Se descartan {} eventos tras {} intentos: {}", eventos.size(), intento, ex.getMessage());
+                    eventos.forEach(a -> log.error("[Auditoria] descartada fecha={} usuario={} modulo={} accion={} registro={} detalle={}",
+                            a.getFechaEvento(), a.getIdUsuario(), a.getModuloAfectado(), a.getAccion(),
+                            a.getIdRegistroAfectado(), a.getDetalle()));
+                    contar("descartada", eventos.size());
+                    return;
+                }
+                log.warn("[Auditoria] Falló el batch de {} eventos (intento {}): {}", eventos.size(), intento, ex.getMessage());
+                try {
+                    Thread.sleep(200L * intento);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Auditoria a) throws SQLException {
+        ps.setTimestamp(1, Timestamp.valueOf(a.getFechaEvento()));
+        if (a.getIdUsuario() != null) ps.setLong(2, a.getIdUsuario()); else ps.setNull(2, Types.BIGINT);
+        ps.setString(3, a.getModuloAfectado());
+        ps.setString(4, a.getAccion());
+        if (a.getIdRegistroAfectado() != null) ps.setLong(5, a.getIdRegistroAfectado()); else ps.setNull(5, Types.BIGINT);
+        ps.setString(6, a.getDetalle());
+    }
+
+    private void contar(String modo) {
+        contar(modo, 1);
+    }
+
+    private void contar(String modo, long n) {
+        Counter.builder(EVENTOS)
+                .description("Auditorías registradas por modo de escritura")
+                .tag("modo", modo)
+                .register(registry)
+                .increment(n);
+    }
+}
@@ -0,0 +1,27 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: suma en stock_por_presentacion los deltas que anotó el trigger de existencias. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventario.stock-agregado.enabled", havingValue = "true", matchIfMissing = true)
+public class StockPresentacionCompactacionJob {
+
+    private final StockPresentacionServicio servicio;
+
+    @Scheduled(fixedDelayString = "${app.inventario.stock-agregado.compactacion-ms:5000}")
+    public void ejecutar() {
+        try {
+            int pares = servicio.compactar();
+            if (pares > 0) log.debug("[StockAgregado] {} pares compactados", pares);
+        } catch (Exception ex) {
+            log.error("[StockAgregado] Falló la compactación de deltas: {}", ex.getMessage(), ex);
+        }
+    }
+}
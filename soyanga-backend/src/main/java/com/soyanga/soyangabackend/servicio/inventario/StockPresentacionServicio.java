@@ -0,0 +1,82 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import com.soyanga.soyangabackend.dto.inventario.StockPresentacionDTO;
+import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Stock por (almacén, presentación). El trigger de existencias_por_lote sólo anota deltas
+ * (V20261019_03); {@link #compactar()} los suma en stock_por_presentacion y las lecturas van a
+ * v_stock_por_presentacion, que incluye lo pendiente.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockPresentacionServicio {
+
+    public static final int MAX_PRESENTACIONES = 500;
+
+    /** Borra los deltas visibles y suma cada (almacén, presentación) en el agregado, en una sentencia */
+    private static final String SQL_COMPACTAR = """
+            WITH d AS (
+                DELETE FROM stock_por_presentacion_delta
+                RETURNING id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada)
+            INSERT INTO stock_por_presentacion AS s
+                (id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada, fecha_ultima_actualizacion)
+            SELECT id_almacen, id_presentacion, SUM(cantidad_disponible), SUM(cantidad_reservada), NOW()
+            FROM d
+            GROUP BY id_almacen, id_presentacion
+            ORDER BY id_almacen, id_presentacion
+            ON CONFLICT (id_almacen, id_presentacion) DO UPDATE
+                SET cantidad_disponible        = s.cantidad_disponible + EXCLUDED.cantidad_disponible,
+                    cantidad_reservada         = s.cantidad_reservada + EXCLUDED.cantidad_reservada,
+                    fecha_ultima_actualizacion = EXCLUDED.fecha_ultima_actualizacion
+            """;
+
+    private final ExistenciaLoteRepositorio existenciaRepo;
+    private final JdbcTemplate jdbc;
+
+    /**
+     * Lleva los deltas pendientes al agregado. Borrado y suma van en la misma transacción: una
+     * lectura de la vista ve los deltas o el agregado ya sumado, nunca ambos ni ninguno. Devuelve
+     * los pares actualizados (0 = nada pendiente u otro nodo compactando).
+     */
+    @Transactional
+    public int compactar() {
+        Boolean libre = jdbc.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('stock_por_presentacion'))", Boolean.class);
+        if (!Boolean.TRUE.equals(libre)) return 0;
+        return jdbc.update(SQL_COMPACTAR);
+    }
+
+    /** Stock de muchas presentaciones en un almacén, en el orden pedido (0 si no tiene existencias). */
+    @Transactional(readOnly = true)
+    public List<StockPresentacionDTO> porPresentaciones(Long idAlmacen, Collection<Long> idsPresentacion) {
+        if (idAlmacen == null) throw new IllegalArgumentException("idAlmacen es requerido");
+        var ids = new LinkedHashSet<>(idsPresentacion == null ? List.<Long>of() : idsPresentacion);
+        ids.remove(null);
+        if (ids.isEmpty()) return List.of();
+        if (ids.size() > MAX_PRESENTACIONES)
+            throw new IllegalArgumentException("Máximo " + MAX_PRESENTACIONES + " presentaciones por consulta");
+
+        Map<Long, ExistenciaLoteRepositorio.StockPresentacionRow> filas = new HashMap<>();
+        for (var r : existenciaRepo.stockPorPresentaciones(idAlmacen, ids)) {
+            filas.put(r.getIdPresentacion(), r);
+        }
+
+        return ids.stream().map(id -> {
+            var r = filas.get(id);
+            return StockPresentacionDTO.builder()
+                    .idAlmacen(idAlmacen)
+                    .idPresentacion(id)
+                    .disponible(r != null ? r.getDisponible() : BigDecimal.ZERO)
+                    .reservado(r != null ? r.getReservado() : BigDecimal.ZERO)
+                    .build();
+        }).toList();
+    }
+}
@@ -10,6 +10,7 @@ import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositor
 import com.soyanga.soyangabackend.repositorio.inventario.MovimientoInventarioRepositorio;
 import com.soyanga.soyangabackend.repositorio.inventario.TransferenciaDetalleRepositorio;
 import com.soyanga.soyangabackend.repositorio.inventario.TransferenciaRepositorio;
+import com.soyanga.soyangabackend.servicio.metricas.Medido;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -190,6 +191,7 @@ public class TransferenciaServicio {
          * ONE-STEP
          * ---------------------------
          */
+        @Medido("transferencia.transferir")
         @Transactional
         public TransferenciaRespuestaDTO transferirYCompletar(TransferenciaCrearDTO dto) {
                 validarCrear(dto);
@@ -221,6 +223,7 @@ public class TransferenciaServicio {
          * TWO-STEP
          * ---------------------------
          */
+        @Medido("transferencia.crear-pendiente")
         @Transactional
         public TransferenciaRespuestaDTO crearPendiente(TransferenciaCrearDTO dto) {
                 validarCrear(dto);
@@ -243,6 +246,7 @@ public class TransferenciaServicio {
                                 .build();
         }
 
+        @Medido("transferencia.salida")
         @Transactional
         public TransferenciaRespuestaDTO confirmarSalida(Long idTransferencia) {
                 var t = transferenciaRepo.findById(idTransferencia)
@@ -289,6 +293,7 @@ public class TransferenciaServicio {
                                 .build();
         }
 
+        @Medido("transferencia.ingreso")
         @Transactional
         public TransferenciaRespuestaDTO confirmarIngreso(Long idTransferencia) {
                 var t = transferenciaRepo.findById(idTransferencia)
@@ -333,6 +338,7 @@ public class TransferenciaServicio {
                                 .build();
         }
 
+        @Medido("transferencia.anular")
         @Transactional
         public TransferenciaRespuestaDTO anular(Long idTransferencia, String motivo) {
                 var tx = transferenciaRepo.findById(idTransferencia)
@@ -0,0 +1,34 @@
+package com.soyanga.soyangabackend.servicio.mantenimiento;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: crea las particiones mensuales futuras y archiva las vencidas. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.particiones.enabled", havingValue = "true", matchIfMissing = true)
+public class ParticionesJob {
+
+    private final ParticionesServicio servicio;
+
+    @Scheduled(cron = "${app.particiones.cron:0 30 3 * * *}")
+    public void ejecutar() {
+        try {
+            servicio.asegurarFuturas();
+        } catch (Exception ex) {
+            log.error("[Particiones] Falló la creación de particiones futuras: {}", ex.getMessage(), ex);
+        }
+        try {
+            var archivadas = servicio.archivarVencidas();
+            if (!archivadas.isEmpty()) {
+                log.info("[Particiones] archivadas={}", archivadas);
+            }
+        } catch (Exception ex) {
+            log.error("[Particiones] Falló el archivado de particiones: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.soyanga.soyangabackend.servicio.mantenimiento;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantenimiento de las tablas particionadas por mes (V20261019_06): crea por adelantado las
+ * particiones de los próximos meses y archiva las que superan la retención.
+ * <p>
+ * Archivar = DETACH PARTITION + mover la tabla al esquema {@code archivo}: deja de pesar en los
+ * índices, el vacuum y los planes de la tabla viva, pero los datos siguen en la base para
+ * exportarlos (pg_dump -t archivo.*) o borrarlos a mano. Cada partición se archiva en su propia
+ * transacción con lock_timeout, para no encolar escrituras detrás del DETACH.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParticionesServicio {
+
+    /** Tablas particionadas y su columna de partición. */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Tabla {
+        AUDITORIAS("auditorias", "fecha_evento"),
+        MOVIMIENTOS("movimientos_de_inventario", "fecha_movimiento");
+
+        private final String nombre;
+        private final String columna;
+    }
+
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager txManager;
+
+    @Value("${app.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    /** Meses completos que se conservan además del actual (0 = no se archiva) */
+    @Value("${app.particiones.auditorias.retencion-meses:24}")
+    private int retencionAuditorias;
+
+    @Value("${app.particiones.movimientos.retencion-meses:0}")
+    private int retencionMovimientos;
+
+    @Value("${app.particiones.esquema-archivo:archivo}")
+    private String esquemaArchivo;
+
+    @Value("${app.particiones.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    /** Al arrancar: si el job estuvo apagado, que igual existan los meses siguientes. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        try {
+            asegurarFuturas();
+        } catch (Exception ex) {
+            log.error("[Particiones] No se pudieron crear particiones futuras: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /** Crea las particiones del mes actual y de los {@code meses-adelante} siguientes. */
+    public int asegurarFuturas() {
+        int creadas = 0;
+        for (Tabla t : Tabla.values()) {
+            Integer n = jdbc.queryForObject("SELECT public.fn_asegurar_particiones(?, ?, ?)",
+                    Integer.class, t.getNombre(), t.getColumna(), mesesAdelante);
+            if (n != null && n > 0) {
+                log.info("[Particiones] {}: {} particiones nuevas", t.getNombre(), n);
+                creadas += n;
+            }
+        }
+        return creadas;
+    }
+
+    /** Desprende y mueve a {@code archivo} las particiones mensuales fuera de la retención. */
+    public List<String> archivarVencidas() {
+        List<String> archivadas = new ArrayList<>();
+        for (Tabla t : Tabla.values()) {
+            int retencion = t == Tabla.AUDITORIAS ? retencionAuditorias : retencionMovimientos;
+            if (retencion <= 0) continue;
+            for (String particion : vencidas(t, retencion)) {
+                archivar(t, particion);
+                archivadas.add(particion);
+            }
+        }
+        return archivadas;
+    }
+
+    /** Particiones _pYYYYMM cuyo mes terminó antes del inicio de la ventana de retención. */
+    private List<String> vencidas(Tabla t, int retencion) {
+        return jdbc.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE n.nspname = 'public'
+                  AND p.relname = ?
+                  AND c.relname ~ '_p[0-9]{6}$'
+                  AND to_date(right(c.relname, 6), 'YYYYMM')
+                        < date_trunc('month', NOW()) - make_interval(months => ?)
+                ORDER BY c.relname
+                """, String.class, t.getNombre(), retencion);
+    }
+
+    private void archivar(Tabla t, String particion) {
+        var tx = new TransactionTemplate(txManager);
+        tx.executeWithoutResult(s -> {
+            jdbc.execute("SET LOCAL lock_timeout = " + Math.max(1, lockTimeoutMs));
+            jdbc.execute("ALTER TABLE public." + id(t.getNombre()) + " DETACH PARTITION public." + id(particion));
+            jdbc.execute("ALTER TABLE public." + id(particion) + " SET SCHEMA " + id(esquemaArchivo));
+        });
+        log.info("[Particiones] {} archivada en {}.{}", particion, esquemaArchivo, particion);
+    }
+
+    /** Identificador entre comillas (los nombres vienen del catálogo o de la configuración). */
+    private static String id(String s) {
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
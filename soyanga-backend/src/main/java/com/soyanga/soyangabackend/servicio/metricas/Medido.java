@@ -0,0 +1,15 @@
+package com.soyanga.soyangabackend.servicio.metricas;
+
+import java.lang.annotation.*;
+
+/**
+ * Marca un caso de uso para medirlo con {@link MetricasOperacion}: tiempo total (incluido el
+ * commit), resultado, lotes tocados, espera de bloqueos y candidatos FEFO recorridos.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Medido {
+    /** Nombre de la operación (tag "operacion"), p. ej. "venta.crear" */
+    String value();
+}
@@ -0,0 +1,68 @@
+package com.soyanga.soyangabackend.servicio.metricas;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Aplica {@link MetricasOperacion}:
+ * <ul>
+ *   <li>métodos {@link Medido}: envuelve al interceptor transaccional, así el tiempo incluye el
+ *       commit;</li>
+ *   <li>ExistenciaLoteRepositorio.lock*: espera de bloqueo y lotes tocados;</li>
+ *   <li>ExistenciaLoteRepositorio FEFO: candidatos recorridos.</li>
+ * </ul>
+ * El orden debe quedar detrás de ExposeInvocationInterceptor (HIGHEST_PRECEDENCE + 1): si no, el
+ * enlace de {@code @annotation(medido)} falla en cada llamada.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class MetricasAspecto {
+
+    private final MetricasOperacion metricas;
+
+    @Around("@annotation(medido)")
+    public Object operacion(ProceedingJoinPoint pjp, Medido medido) throws Throwable {
+        var ctx = metricas.abrir(medido.value());
+        var sample = metricas.iniciar();
+        String resultado = "error";
+        try {
+            Object r = pjp.proceed();
+            resultado = "ok";
+            return r;
+        } finally {
+            metricas.cerrar(ctx, sample, resultado);
+        }
+    }
+
+    @Around("execution(* com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio.lock*(..))")
+    public Object bloqueo(ProceedingJoinPoint pjp) throws Throwable {
+        long t0 = System.nanoTime();
+        Object r = pjp.proceed();
+        metricas.esperaBloqueo(System.nanoTime() - t0, filas(r));
+        return r;
+    }
+
+    @Around("execution(* com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio.pickFefo(..))"
+            + " || execution(* com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositorio.fefo*(..))")
+    public Object fefo(ProceedingJoinPoint pjp) throws Throwable {
+        Object r = pjp.proceed();
+        metricas.candidatosFefo(filas(r));
+        return r;
+    }
+
+    private static int filas(Object r) {
+        if (r instanceof Collection<?> c) return c.size();
+        if (r instanceof Optional<?> o) return o.isPresent() ? 1 : 0;
+        return r == null ? 0 : 1;
+    }
+}
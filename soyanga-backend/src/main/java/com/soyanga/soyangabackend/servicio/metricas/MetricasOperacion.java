@@ -0,0 +1,127 @@
+package com.soyanga.soyangabackend.servicio.metricas;
+
+import io.micrometer.core.instrument.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de los caminos calientes (inventario, ventas, cobros).
+ * <p>
+ * La operación en curso ({@link Medido}) vive en un ThreadLocal para que las mediciones hechas
+ * desde los repositorios (bloqueos, FEFO) se etiqueten con ella sin pasarla por parámetro.
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricasOperacion {
+
+    static final String OPERACION = "soyanga.operacion";
+    static final String ESPERA_BLOQUEO = "soyanga.inventario.bloqueo.espera";
+    static final String LOTES_TOCADOS = "soyanga.inventario.lotes.tocados";
+    static final String FEFO_CANDIDATOS = "soyanga.inventario.fefo.candidatos";
+    static final String VENTA_LINEAS = "soyanga.venta.lineas";
+    static final String VENTA_REINTENTOS_NUMERO = "soyanga.venta.numero.reintentos";
+    static final String JWT_FILTRO = "soyanga.jwt.filtro";
+
+    private static final String SIN_OPERACION = "ninguna";
+
+    private final MeterRegistry registry;
+
+    private final ThreadLocal<Contexto> actual = new ThreadLocal<>();
+
+    /** Estado de una operación en curso (un hilo). */
+    static final class Contexto {
+        final String operacion;
+        final Contexto anterior;
+        int lotesTocados;
+
+        Contexto(String operacion, Contexto anterior) {
+            this.operacion = operacion;
+            this.anterior = anterior;
+        }
+    }
+
+    /* ===================== operación ===================== */
+
+    Contexto abrir(String operacion) {
+        var ctx = new Contexto(operacion, actual.get());
+        actual.set(ctx);
+        return ctx;
+    }
+
+    void cerrar(Contexto ctx, Timer.Sample sample, String resultado) {
+        sample.stop(Timer.builder(OPERACION)
+                .description("Duración de casos de uso (incluye commit)")
+                .tag("operacion", ctx.operacion)
+                .tag("resultado", resultado)
+                .register(registry));
+
+        DistributionSummary.builder(LOTES_TOCADOS)
+                .description("Existencias (almacén, lote) bloqueadas por operación")
+                .tag("operacion", ctx.operacion)
+                .register(registry)
+                .record(ctx.lotesTocados);
+
+        if (ctx.anterior != null) {
+            actual.set(ctx.anterior);
+        } else {
+            actual.remove();
+        }
+    }
+
+    Timer.Sample iniciar() {
+        return Timer.start(registry);
+    }
+
+    /* ===================== inventario ===================== */
+
+    void esperaBloqueo(long nanos, int filas) {
+        var ctx = actual.get();
+        if (ctx != null) ctx.lotesTocados += filas;
+        Timer.builder(ESPERA_BLOQUEO)
+                .description("Espera (y lectura) de bloqueos FOR UPDATE sobre existencias_por_lote")
+                .tag("operacion", ctx != null ? ctx.operacion : SIN_OPERACION)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void candidatosFefo(int n) {
+        var ctx = actual.get();
+        DistributionSummary.builder(FEFO_CANDIDATOS)
+                .description("Lotes candidatos FEFO leídos por consulta")
+                .tag("operacion", ctx != null ? ctx.operacion : SIN_OPERACION)
+                .register(registry)
+                .record(n);
+    }
+
+    /* ===================== ventas ===================== */
+
+    public void lineasVenta(int n) {
+        DistributionSummary.builder(VENTA_LINEAS)
+                .description("Líneas por venta")
+                .register(registry)
+                .record(n);
+    }
+
+    public void reintentoNumeroDocumento(String tipoDocumento) {
+        Counter.builder(VENTA_REINTENTOS_NUMERO)
+                .description("Reintentos por choque de número de documento")
+                .tag("tipo", tipoDocumento)
+                .register(registry)
+                .increment();
+    }
+
+    /* ===================== seguridad ===================== */
+
+    public Timer.Sample inicioFiltroJwt() {
+        return Timer.start(registry);
+    }
+
+    public void finFiltroJwt(Timer.Sample sample, String resultado) {
+        sample.stop(Timer.builder(JWT_FILTRO)
+                .description("Validación del JWT y armado del contexto de seguridad")
+                .tag("resultado", resultado)
+                .register(registry));
+    }
+}
@@ -0,0 +1,89 @@
+package com.soyanga.soyangabackend.servicio.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta hilos virtuales "pinned" (bloqueados dentro de un synchronized o de código nativo, sin
+ * liberar su carrier) con el evento JFR {@code jdk.VirtualThreadPinned}.
+ * <p>
+ * Cada ocurrencia por encima del umbral se registra en {@code soyanga.hilos.virtuales.pinning},
+ * etiquetada con el primer frame propio (o el del tope si no hay); la primera vez por sitio se
+ * loguea la pila para poder corregirlo.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MonitorPinning {
+
+    static final String PINNING = "soyanga.hilos.virtuales.pinning";
+
+    private static final String PAQUETE_PROPIO = "com.soyanga.";
+    private static final int MAX_SITIOS = 50;
+    private static final int FRAMES_LOG = 15;
+
+    private final MeterRegistry registry;
+    private final Duration umbral;
+
+    private final Set<String> sitiosVistos = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(umbral).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::registrar);
+        stream.startAsync();
+        log.info("[HilosVirtuales] Monitor de pinning activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    public void cerrar() {
+        if (stream != null) stream.close();
+    }
+
+    private void registrar(RecordedEvent e) {
+        List<RecordedFrame> frames = e.getStackTrace() == null ? List.of() : e.getStackTrace().getFrames();
+        String sitio = sitio(frames);
+
+        // Cardinalidad acotada: pasado el máximo, los sitios nuevos van a "otro"
+        boolean nuevo = !sitiosVistos.contains(sitio) && sitiosVistos.size() < MAX_SITIOS && sitiosVistos.add(sitio);
+        String etiqueta = sitiosVistos.contains(sitio) ? sitio : "otro";
+
+        Timer.builder(PINNING)
+                .description("Hilos virtuales bloqueados sin liberar su carrier")
+                .tag("sitio", etiqueta)
+                .register(registry)
+                .record(e.getDuration());
+
+        if (nuevo) {
+            log.warn("[HilosVirtuales] Pinning de {} ms en {}:\n{}", e.getDuration().toMillis(), sitio,
+                    frames.stream().limit(FRAMES_LOG).map(MonitorPinning::frame)
+                            .collect(Collectors.joining("\n\tat ", "\tat ", "")));
+        }
+    }
+
+    private static String sitio(List<RecordedFrame> frames) {
+        for (var f : frames) {
+            if (f.getMethod().getType().getName().startsWith(PAQUETE_PROPIO)) return corto(f);
+        }
+        return frames.isEmpty() ? "desconocido" : corto(frames.get(0));
+    }
+
+    private static String corto(RecordedFrame f) {
+        String clase = f.getMethod().getType().getName();
+        return clase.substring(clase.lastIndexOf('.') + 1) + "." + f.getMethod().getName();
+    }
+
+    private static String frame(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+    }
+}
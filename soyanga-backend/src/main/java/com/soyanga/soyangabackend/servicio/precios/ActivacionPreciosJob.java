@@ -0,0 +1,31 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: aplica a las presentaciones los precios programados que ya entraron en vigencia. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.precios.activacion.enabled", havingValue = "true", matchIfMissing = true)
+public class ActivacionPreciosJob {
+
+    private final ActivacionPreciosServicio servicio;
+
+    @Scheduled(cron = "${app.precios.activacion.cron:0 * * * * *}")
+    public void ejecutar() {
+        try {
+            var r = servicio.activarPendientes();
+            if (r.getPresentacionesActualizadas() > 0) {
+                log.info("[ActivacionPrecios] actualizadas={} revisadas={} bloques={} ventana=({}, {}] ({} ms)",
+                        r.getPresentacionesActualizadas(), r.getPresentacionesRevisadas(), r.getBloques(),
+                        r.getDesde(), r.getCorte(), r.getDuracionMs());
+            }
+        } catch (Exception ex) {
+            log.error("[ActivacionPrecios] Falló la activación de precios programados: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ActivacionPreciosDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lleva a presentaciones_de_productos.precio_venta_bob los precios programados (histórico con
+ * fecha_inicio_vigencia futura) cuando llega su fecha.
+ * <p>
+ * Barre por ventana (desde, corte] de inicio de vigencia y por bloques de presentaciones
+ * (keyset por id), una transacción por bloque. El precio efectivo de cada presentación es el
+ * último histórico iniciado a la fecha de corte (idx_precio_hist_inicio_desc). Tras cada
+ * commit se publica {@link PreciosActivadosEvent}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivacionPreciosServicio {
+
+    /** Presentaciones con algún precio que empezó dentro de la ventana (idx_precio_hist_inicio_presentacion) */
+    private static final String SQL_CANDIDATOS = """
+            SELECT DISTINCT h.id_presentacion
+            FROM precios_de_venta_historicos h
+            WHERE h.fecha_inicio_vigencia > ?
+              AND h.fecha_inicio_vigencia <= ?
+              AND h.id_presentacion > ?
+            ORDER BY h.id_presentacion
+            LIMIT ?
+            """;
+
+    /** Mismo orden de bloqueo que el recálculo masivo y los cambios manuales */
+    private static final String SQL_BLOQUEAR = """
+            SELECT p.id_presentacion
+            FROM presentaciones_de_productos p
+            WHERE p.id_presentacion = ANY (?::bigint[])
+            ORDER BY p.id_presentacion
+            FOR UPDATE
+            """;
+
+    private static final String SQL_ACTIVAR = """
+            UPDATE presentaciones_de_productos p
+               SET precio_venta_bob = v.precio_venta_bob
+              FROM unnest(?::bigint[]) AS c(id_presentacion)
+              CROSS JOIN LATERAL (
+                    SELECT h.precio_venta_bob
+                    FROM precios_de_venta_historicos h
+                    WHERE h.id_presentacion = c.id_presentacion
+                      AND h.fecha_inicio_vigencia <= ?
+                    ORDER BY h.fecha_inicio_vigencia DESC
+                    LIMIT 1
+              ) v
+             WHERE p.id_presentacion = c.id_presentacion
+               AND p.precio_venta_bob IS DISTINCT FROM v.precio_venta_bob
+            RETURNING p.id_presentacion
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager txManager;
+    private final ApplicationEventPublisher events;
+
+    /** Presentaciones por bloque (una transacción por bloque) */
+    @Value("${app.precios.activacion.tamanio-bloque:500}")
+    private int tamanioBloque;
+
+    /** Tope de bloques por corrida */
+    @Value("${app.precios.activacion.max-bloques:200}")
+    private int maxBloques;
+
+    /** Al arrancar, revisa los precios que empezaron en las últimas N horas (cubre caídas del nodo) */
+    @Value("${app.precios.activacion.ventana-inicial-horas:168}")
+    private long ventanaInicialHoras;
+
+    /** Fin de la última ventana barrida por completo */
+    private final AtomicReference<LocalDateTime> ultimoCorte = new AtomicReference<>();
+
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(txManager);
+        ultimoCorte.set(LocalDateTime.now().minusHours(Math.max(0, ventanaInicialHoras)));
+    }
+
+    /** Activa lo que entró en vigencia desde la última corrida completa. */
+    public ActivacionPreciosDTO activarPendientes() {
+        return activar(ultimoCorte.get(), LocalDateTime.now());
+    }
+
+    public ActivacionPreciosDTO activar(LocalDateTime desde, LocalDateTime corte) {
+        long t0 = System.currentTimeMillis();
+        int lim = Math.max(1, tamanioBloque);
+
+        int bloques = 0, revisadas = 0, actualizadas = 0;
+        long ultimoId = 0L;
+        boolean completo = false;
+
+        while (bloques < Math.max(1, maxBloques)) {
+            final long despuesDe = ultimoId;
+            Bloque b = tx.execute(status -> activarBloque(desde, corte, despuesDe, lim));
+            if (b == null || b.candidatos().isEmpty()) {
+                completo = true;
+                break;
+            }
+
+            bloques++;
+            revisadas += b.candidatos().size();
+            actualizadas += b.actualizadas().size();
+            ultimoId = b.candidatos().get(b.candidatos().size() - 1);
+
+            // Ya confirmado: los cachés pueden releer el precio
+            if (!b.actualizadas().isEmpty()) {
+                events.publishEvent(new PreciosActivadosEvent(b.actualizadas(), corte));
+            }
+
+            if (b.candidatos().size() < lim) {
+                completo = true;
+                break;
+            }
+        }
+
+        // Solo se avanza la marca si la ventana se barrió entera (si no, la próxima corrida la repite)
+        if (completo) {
+            ultimoCorte.accumulateAndGet(corte, (a, n) -> n.isAfter(a) ? n : a);
+        }
+
+        return ActivacionPreciosDTO.builder()
+                .desde(desde)
+                .corte(corte)
+                .bloques(bloques)
+                .presentacionesRevisadas(revisadas)
+                .presentacionesActualizadas(actualizadas)
+                .duracionMs(System.currentTimeMillis() - t0)
+                .build();
+    }
+
+    /** Un bloque: se ejecuta dentro de la transacción abierta por {@link #activar}. */
+    private Bloque activarBloque(LocalDateTime desde, LocalDateTime corte, long despuesDe, int lim) {
+        Timestamp tsCorte = Timestamp.valueOf(corte);
+        List<Long> candidatos = jdbc.queryForList(SQL_CANDIDATOS, Long.class,
+                Timestamp.valueOf(desde), tsCorte, despuesDe, lim);
+        if (candidatos.isEmpty()) return Bloque.VACIO;
+
+        Long[] ids = candidatos.toArray(Long[]::new);
+
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(SQL_BLOQUEAR);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        }, rs -> { });
+
+        List<Long> actualizadas = jdbc.query(con -> {
+            var ps = con.prepareStatement(SQL_ACTIVAR);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setTimestamp(2, tsCorte);
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+
+        log.debug("[ActivacionPrecios] bloque candidatos={} actualizadas={}", candidatos.size(), actualizadas.size());
+        return new Bloque(candidatos, actualizadas);
+    }
+
+    private record Bloque(List<Long> candidatos, List<Long> actualizadas) {
+        static final Bloque VACIO = new Bloque(List.of(), List.of());
+    }
+}
@@ -0,0 +1,8 @@
+// com.soyanga.soyangabackend.servicio.precios.ConfigRedondeoCambiadaEvent.java
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
+
+/** Se publica al guardar la configuración de redondeo; se aplica en memoria tras el commit. */
+public record ConfigRedondeoCambiadaEvent(ConfigRedondeoDTO config) {
+}
@@ -5,6 +5,7 @@ import com.soyanga.soyangabackend.dominio.ConfiguracionPrecios;
 import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
 import com.soyanga.soyangabackend.repositorio.precios.ConfiguracionPreciosRepositorio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
 public class ConfigRedondeoServicio {
 
     private final ConfiguracionPreciosRepositorio repo;
+    private final ApplicationEventPublisher eventos;
 
     public ConfigRedondeoDTO get() {
         var c = repo.unica();
@@ -46,6 +48,10 @@ public class ConfigRedondeoServicio {
         c.setActualizadoPor(usuario);
         c.setActualizadoEn(LocalDateTime.now());
         repo.save(c);
-        return get();
+
+        var actual = get();
+        // PoliticaRedondeo reemplaza su foto en memoria tras el commit
+        eventos.publishEvent(new ConfigRedondeoCambiadaEvent(actual));
+        return actual;
     }
 }
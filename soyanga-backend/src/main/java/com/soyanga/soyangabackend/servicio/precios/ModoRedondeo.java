@@ -0,0 +1,49 @@
+// com.soyanga.soyangabackend.servicio.precios.ModoRedondeo.java
+package com.soyanga.soyangabackend.servicio.precios;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+/** Modos de configuracion_precios.modo_redondeo, cada uno con su función ya compilada. */
+public enum ModoRedondeo {
+    ENTERO {
+        @Override
+        UnaryOperator<BigDecimal> compilar(BigDecimal multiplo, Integer decimales) {
+            return v -> v.setScale(0, RoundingMode.HALF_UP);
+        }
+    },
+    MULTIPLO {
+        @Override
+        UnaryOperator<BigDecimal> compilar(BigDecimal multiplo, Integer decimales) {
+            final BigDecimal m = (multiplo != null && multiplo.signum() > 0) ? multiplo : BigDecimal.ONE;
+            return v -> v.divide(m, 0, RoundingMode.HALF_UP).multiply(m);
+        }
+    },
+    DECIMALES {
+        @Override
+        UnaryOperator<BigDecimal> compilar(BigDecimal multiplo, Integer decimales) {
+            final int d = decimales != null ? decimales : 0;
+            return v -> v.setScale(d, RoundingMode.HALF_UP);
+        }
+    },
+    NINGUNO {
+        @Override
+        UnaryOperator<BigDecimal> compilar(BigDecimal multiplo, Integer decimales) {
+            return UnaryOperator.identity();
+        }
+    };
+
+    abstract UnaryOperator<BigDecimal> compilar(BigDecimal multiplo, Integer decimales);
+
+    /** Texto de BD → modo; null o desconocido = ENTERO (mismo criterio que antes). */
+    public static ModoRedondeo de(String modo) {
+        if (modo == null) return ENTERO;
+        try {
+            return valueOf(modo.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ENTERO;
+        }
+    }
+}
@@ -2,33 +2,85 @@
 package com.soyanga.soyangabackend.servicio.precios;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+/**
+ * Redondeo de precios con la configuración cacheada en memoria.
+ * <p>
+ * La regla vigente es una foto inmutable ({@link ReglaRedondeo}) que se reemplaza
+ * atómicamente cuando {@link ConfigRedondeoServicio#update} confirma, o cuando el
+ * refresco periódico detecta un cambio hecho desde otro nodo. El camino caliente
+ * (aplicar) no consulta la BD.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class PoliticaRedondeo {
 
     private final ConfigRedondeoServicio cfgSrv;
 
+    private final AtomicReference<ReglaRedondeo> regla = new AtomicReference<>();
+
     public BigDecimal aplicar(BigDecimal valor) {
         if (valor == null)
             return null;
-        var cfg = cfgSrv.get();
-        String modo = cfg.getModo() == null ? "ENTERO" : cfg.getModo();
-
-        return switch (modo) {
-            case "MULTIPLO" -> multiplo(valor, cfg.getMultiplo() != null ? cfg.getMultiplo() : BigDecimal.ONE);
-            case "DECIMALES" -> valor.setScale(
-                    cfg.getDecimales() != null ? cfg.getDecimales() : 0, RoundingMode.HALF_UP);
-            case "NINGUNO" -> valor;
-            default -> valor.setScale(0, RoundingMode.HALF_UP); // ENTERO
-        };
+        return actual().apply(valor);
+    }
+
+    /**
+     * Regla vigente (inmutable) para cálculos masivos: se toma una vez y se usa en
+     * todo el lote, aunque la configuración cambie a mitad de camino.
+     */
+    public UnaryOperator<BigDecimal> fijar() {
+        return actual();
+    }
+
+    public ReglaRedondeo actual() {
+        var r = regla.get();
+        if (r == null) {
+            var cargada = ReglaRedondeo.de(cfgSrv.get(), 1);
+            r = regla.compareAndExchange(null, cargada);
+            if (r == null) r = cargada;
+        }
+        return r;
+    }
+
+    public long version() {
+        return actual().getVersion();
+    }
+
+    /** Cambio local: se aplica solo si la transacción que guardó la config confirmó. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarConfig(ConfigRedondeoCambiadaEvent ev) {
+        var nueva = reemplazar(ev.config());
+        log.info("[Redondeo] Config aplicada en memoria: modo={} version={}", nueva.getModo(), nueva.getVersion());
+    }
+
+    /** Cambios hechos desde otros nodos: relee la fila y solo reemplaza si difiere. */
+    @Scheduled(fixedDelayString = "${app.precios.redondeo.refresco-ms:60000}",
+            initialDelayString = "${app.precios.redondeo.refresco-ms:60000}")
+    public void refrescar() {
+        try {
+            var cfg = cfgSrv.get();
+            var r = regla.get();
+            if (r != null && !r.mismaConfig(cfg)) {
+                var nueva = reemplazar(cfg);
+                log.info("[Redondeo] Config recargada: modo={} version={}", nueva.getModo(), nueva.getVersion());
+            }
+        } catch (Exception ex) {
+            log.warn("[Redondeo] No se pudo refrescar la config: {}", ex.getMessage());
+        }
     }
 
-    private BigDecimal multiplo(BigDecimal v, BigDecimal m) {
-        BigDecimal k = v.divide(m, 0, RoundingMode.HALF_UP);
-        return k.multiply(m);
+    private ReglaRedondeo reemplazar(com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO cfg) {
+        return regla.updateAndGet(prev -> ReglaRedondeo.de(cfg, prev == null ? 1 : prev.getVersion() + 1));
     }
 }
@@ -4,7 +4,9 @@ import com.soyanga.soyangabackend.dominio.PrecioVentaHistorico;
 import com.soyanga.soyangabackend.dto.precios.PrecioHistoricoDTO;
 import com.soyanga.soyangabackend.dto.precios.PrecioNuevoDTO;
 import com.soyanga.soyangabackend.repositorio.precios.PrecioVentaHistoricoRepositorio;
+import com.soyanga.soyangabackend.servicio.catalogo.CatalogoCambiadoEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,7 @@ public class PrecioHistoricoServicio {
 
     private final PrecioVentaHistoricoRepositorio precioRepo;
     private final PoliticaRedondeo redondeo;
+    private final ApplicationEventPublisher events;
 
     public Page<PrecioHistoricoDTO> listar(Long idPresentacion, Pageable pageable) {
         var page = precioRepo.findByIdPresentacionOrderByFechaInicioVigenciaDesc(idPresentacion, pageable);
@@ -66,6 +69,7 @@ public class PrecioHistoricoServicio {
                 .build();
 
         nuevo = precioRepo.save(nuevo);
+        events.publishEvent(CatalogoCambiadoEvent.presentacion(idPresentacion));
 
         return toDTO(nuevo);
     }
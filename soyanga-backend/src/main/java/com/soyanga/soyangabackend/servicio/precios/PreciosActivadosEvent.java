@@ -0,0 +1,12 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Se publica tras confirmar un bloque de precios programados que entraron en vigencia
+ * (presentaciones_de_productos.precio_venta_bob ya actualizado). Los cachés de catálogo/lookup
+ * deben invalidar estas presentaciones.
+ */
+public record PreciosActivadosEvent(List<Long> idsPresentacion, LocalDateTime corte) {
+}
@@ -0,0 +1,60 @@
+// com.soyanga.soyangabackend.servicio.precios.ReglaRedondeo.java
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Foto inmutable de la configuración de redondeo con su función precompilada.
+ * Segura entre hilos; {@code version} crece con cada cambio aplicado en memoria.
+ */
+public final class ReglaRedondeo implements UnaryOperator<BigDecimal> {
+
+    private final long version;
+    private final ModoRedondeo modo;
+    private final BigDecimal multiplo;
+    private final Integer decimales;
+    private final UnaryOperator<BigDecimal> funcion;
+
+    private ReglaRedondeo(long version, ModoRedondeo modo, BigDecimal multiplo, Integer decimales) {
+        this.version = version;
+        this.modo = modo;
+        this.multiplo = multiplo;
+        this.decimales = decimales;
+        this.funcion = modo.compilar(multiplo, decimales);
+    }
+
+    public static ReglaRedondeo de(ConfigRedondeoDTO cfg, long version) {
+        if (cfg == null) return new ReglaRedondeo(version, ModoRedondeo.ENTERO, null, null);
+        return new ReglaRedondeo(version, ModoRedondeo.de(cfg.getModo()), cfg.getMultiplo(), cfg.getDecimales());
+    }
+
+    @Override
+    public BigDecimal apply(BigDecimal valor) {
+        return valor == null ? null : funcion.apply(valor);
+    }
+
+    /** true si describe la misma configuración (ignora la versión). */
+    public boolean mismaConfig(ConfigRedondeoDTO cfg) {
+        var otra = de(cfg, version);
+        return modo == otra.modo
+                && cmp(multiplo, otra.multiplo)
+                && Objects.equals(decimales, otra.decimales);
+    }
+
+    public ConfigRedondeoDTO toDTO() {
+        return new ConfigRedondeoDTO(modo.name(), multiplo, decimales);
+    }
+
+    public long getVersion() { return version; }
+    public ModoRedondeo getModo() { return modo; }
+    public BigDecimal getMultiplo() { return multiplo; }
+    public Integer getDecimales() { return decimales; }
+
+    private static boolean cmp(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : (b != null && a.compareTo(b) == 0);
+    }
+}
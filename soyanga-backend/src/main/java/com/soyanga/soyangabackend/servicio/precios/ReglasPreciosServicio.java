@@ -2,34 +2,156 @@
 package com.soyanga.soyangabackend.servicio.precios;
 
 import com.soyanga.soyangabackend.dominio.PrecioVentaHistorico;
-import com.soyanga.soyangabackend.dominio.PresentacionProducto;
+import com.soyanga.soyangabackend.dominio.TipoDeCambio;
 import com.soyanga.soyangabackend.dto.precios.*;
 import com.soyanga.soyangabackend.repositorio.catalogo.PresentacionProductoRepositorio;
 import com.soyanga.soyangabackend.repositorio.catalogo.TipoDeCambioRepositorio;
 import com.soyanga.soyangabackend.repositorio.precios.PrecioVentaHistoricoRepositorio;
+import com.soyanga.soyangabackend.servicio.catalogo.CatalogoCambiadoEvent;
 
 import jakarta.annotation.Nullable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Service
 @RequiredArgsConstructor
 public class ReglasPreciosServicio {
 
+        private static final BigDecimal CIEN = new BigDecimal("100");
+
+        /* ===== Commit por conjuntos (una tabla temporal por bloque/transacción) ===== */
+
+        private static final String SQL_TMP_CREAR = """
+                        CREATE TEMP TABLE tmp_recalculo_precios (
+                            id_presentacion BIGINT PRIMARY KEY,
+                            nuevo_precio    NUMERIC(18,6) NOT NULL,
+                            precio_anterior NUMERIC(18,6)
+                        ) ON COMMIT DROP
+                        """;
+
+        private static final String SQL_TMP_INSERTAR = """
+                        INSERT INTO tmp_recalculo_precios (id_presentacion, nuevo_precio, precio_anterior)
+                        VALUES (?, ?, ?)
+                        """;
+
+        /** Bloquea las presentaciones del bloque en orden de id (sin deadlocks entre bloques/cambios manuales) */
+        private static final String SQL_BLOQUEAR = """
+                        SELECT p.id_presentacion
+                        FROM presentaciones_de_productos p
+                        JOIN tmp_recalculo_precios t ON t.id_presentacion = p.id_presentacion
+                        ORDER BY p.id_presentacion
+                        FOR UPDATE OF p
+                        """;
+
+        /** Descarta las que cambiaron (o se desactivaron) después del cálculo */
+        private static final String SQL_TMP_DESCARTAR = """
+                        DELETE FROM tmp_recalculo_precios t
+                        USING presentaciones_de_productos p
+                        WHERE p.id_presentacion = t.id_presentacion
+                          AND (p.precio_venta_bob IS DISTINCT FROM t.precio_anterior OR p.estado_activo = false)
+                        RETURNING t.id_presentacion
+                        """;
+
+        /* Mismos pasos que PrecioHistoricoServicio.crearNuevo, por conjuntos */
+
+        /** Quita los programados desde 'inicio' (se solaparían con el nuevo) */
+        private static final String SQL_BORRAR_FUTUROS = """
+                        DELETE FROM precios_de_venta_historicos h
+                         USING tmp_recalculo_precios t
+                         WHERE h.id_presentacion = t.id_presentacion
+                           AND h.fecha_inicio_vigencia >= ?
+                        """;
+
+        /** Recorta en 'inicio' el vigente EN 'inicio' (abierto o con fin posterior) */
+        private static final String SQL_CERRAR_VIGENTES = """
+                        UPDATE precios_de_venta_historicos h
+                           SET fecha_fin_vigencia = ?
+                          FROM tmp_recalculo_precios t
+                         WHERE h.id_presentacion = t.id_presentacion
+                           AND h.fecha_inicio_vigencia <= ?
+                           AND (h.fecha_fin_vigencia IS NULL OR h.fecha_fin_vigencia > ?)
+                        """;
+
+        /** Nuevo histórico abierto desde 'inicio' */
+        private static final String SQL_INSERTAR_HISTORICOS = """
+                        INSERT INTO precios_de_venta_historicos
+                            (id_presentacion, precio_venta_bob, fecha_inicio_vigencia, fecha_fin_vigencia, motivo_cambio)
+                        SELECT t.id_presentacion, t.nuevo_precio, ?, NULL, ?
+                        FROM tmp_recalculo_precios t
+                        """;
+
+        private static final String SQL_ACTUALIZAR_PRESENTACIONES = """
+                        UPDATE presentaciones_de_productos p
+                           SET precio_venta_bob = t.nuevo_precio
+                          FROM tmp_recalculo_precios t
+                         WHERE p.id_presentacion = t.id_presentacion
+                        """;
+
         private final PresentacionProductoRepositorio presentacionRepo;
         private final PrecioVentaHistoricoRepositorio historicoRepo;
         private final TipoDeCambioRepositorio tcRepo;
         private final PoliticaRedondeo redondeo;
+        private final JdbcTemplate jdbc;
+        private final PlatformTransactionManager txManager;
+        private final ApplicationEventPublisher events;
+
+        /** Presentaciones por bloque en la simulación */
+        @Value("${app.precios.simulacion.tamanio-bloque:500}")
+        private int tamanioBloque;
+
+        /** Hilos de cálculo de la simulación (0 = nº de CPUs) */
+        @Value("${app.precios.simulacion.hilos:0}")
+        private int hilos;
+
+        /** Presentaciones confirmadas por transacción en el recálculo real */
+        @Value("${app.precios.recalculo.tamanio-commit:1000}")
+        private int tamanioCommit;
+
+        private ForkJoinPool pool;
+        private TransactionTemplate txLectura;
+        private TransactionTemplate txEscritura;
+
+        @PostConstruct
+        void iniciarPool() {
+                int n = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+                pool = new ForkJoinPool(n);
+
+                txLectura = new TransactionTemplate(txManager);
+                txLectura.setReadOnly(true);
+                txEscritura = new TransactionTemplate(txManager);
+        }
+
+        @PreDestroy
+        void cerrarPool() {
+                pool.shutdown();
+        }
 
         // com.soyanga.soyangabackend.servicio.precios.ReglasPreciosServicio
 
-        @Transactional
+        /**
+         * Recalcula precios por TC. El cálculo es la misma simulación por streaming; si
+         * {@code simular=false}, los cambios se confirman por bloques en transacciones
+         * cortas (ver {@link #aplicarBloque}).
+         */
         public ResumenRecalculoDTO recalcularMasivo(
                         Long idMonedaOrigen,
                         Long idMonedaDestino,
@@ -37,75 +159,170 @@ public class ReglasPreciosServicio {
                         String motivo,
                         @Nullable LocalDate fechaReferencia) {
 
-                var fecha = (fechaReferencia != null) ? fechaReferencia : java.time.LocalDate.now();
+                var calculo = txLectura.execute(st -> {
+                        var tc = tasaVigente(idMonedaOrigen, idMonedaDestino, fechaReferencia);
+                        // Config de redondeo leída una sola vez para todo el recálculo
+                        return simularEnBloques(tc.getTasaCambio(), redondeo.fijar(), null);
+                });
+                if (simular || calculo.getItems().isEmpty()) {
+                        return calculo;
+                }
 
-                var tc = tcRepo
-                                .findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
-                                                idMonedaOrigen, idMonedaDestino, fecha)
-                                .orElseThrow(() -> new IllegalArgumentException(
-                                                "No hay tipo de cambio vigente para el par en la fecha " + fecha));
+                // Inicio de aplicación: ahora (este flujo no programa a futuro)
+                var inicio = LocalDateTime.now();
+                String motivoEf = motivo != null ? motivo : "Re-cálculo por TC (UI)";
+
+                int tam = Math.max(1, tamanioCommit);
+                List<ItemCambioDTO> items = calculo.getItems();
+                Set<Long> descartados = new HashSet<>();
+
+                for (int i = 0; i < items.size(); i += tam) {
+                        var bloque = items.subList(i, Math.min(i + tam, items.size()));
+                        List<Long> omitidos = txEscritura.execute(st -> aplicarBloque(bloque, inicio, motivoEf));
+                        descartados.addAll(omitidos);
+                        events.publishEvent(CatalogoCambiadoEvent.presentaciones(bloque.stream()
+                                        .map(ItemCambioDTO::getIdPresentacion)
+                                        .filter(id -> !omitidos.contains(id))
+                                        .toList()));
+                }
 
-                var activas = presentacionRepo.findActivas();
+                if (!descartados.isEmpty()) {
+                        // Cambiaron entre el cálculo y el commit: no se tocan (se informan como omitidos)
+                        calculo.setItems(items.stream()
+                                        .filter(it -> !descartados.contains(it.getIdPresentacion()))
+                                        .toList());
+                        calculo.setCambiados(calculo.getCambiados() - descartados.size());
+                        calculo.setOmitidos(calculo.getOmitidos() + descartados.size());
+                }
+                return calculo;
+        }
 
-                int cambiados = 0, iguales = 0, omitidos = 0;
-                List<ItemCambioDTO> items = new ArrayList<>();
+        /**
+         * Simulación por streaming: entrega un resumen parcial por bloque a {@code porBloque}
+         * (en orden) y devuelve los totales sin ítems.
+         */
+        @Transactional(readOnly = true)
+        public ResumenRecalculoDTO simularMasivo(
+                        Long idMonedaOrigen,
+                        Long idMonedaDestino,
+                        @Nullable LocalDate fechaReferencia,
+                        Consumer<ResumenRecalculoDTO> porBloque) {
 
-                // Inicio de aplicación: ahora (este flujo no programa a futuro)
-                var inicio = LocalDateTime.now();
+                var tc = tasaVigente(idMonedaOrigen, idMonedaDestino, fechaReferencia);
+                var total = simularEnBloques(tc.getTasaCambio(), redondeo.fijar(), Objects.requireNonNull(porBloque));
+                total.setFinalizado(true);
+                return total;
+        }
 
-                for (PresentacionProducto p : activas) {
-                        if (p.getCostoBaseUsd() == null || p.getCostoBaseUsd().signum() <= 0) {
-                                omitidos++;
-                                continue;
-                        }
+        /**
+         * Confirma un bloque con SQL por conjuntos sobre una tabla temporal:
+         * 1 DELETE de programados, 1 UPDATE que cierra vigentes, 1 INSERT ... SELECT de históricos y
+         * 1 UPDATE de presentaciones.
+         * Devuelve los ids descartados por haber cambiado desde el cálculo.
+         */
+        private List<Long> aplicarBloque(List<ItemCambioDTO> bloque, LocalDateTime inicio, String motivo) {
+                var ts = Timestamp.valueOf(inicio);
+
+                jdbc.execute(SQL_TMP_CREAR);
+                jdbc.batchUpdate(SQL_TMP_INSERTAR, bloque, bloque.size(), (ps, it) -> {
+                        ps.setLong(1, it.getIdPresentacion());
+                        ps.setBigDecimal(2, it.getNuevo());
+                        ps.setBigDecimal(3, it.getAnterior());
+                });
+
+                jdbc.query(SQL_BLOQUEAR, (RowCallbackHandler) rs -> { });
+                List<Long> descartados = jdbc.queryForList(SQL_TMP_DESCARTAR, Long.class);
+
+                jdbc.update(SQL_BORRAR_FUTUROS, ts);
+                jdbc.update(SQL_CERRAR_VIGENTES, ts, ts, ts);
+                jdbc.update(SQL_INSERTAR_HISTORICOS, ts, motivo);
+                jdbc.update(SQL_ACTUALIZAR_PRESENTACIONES);
+                return descartados;
+        }
 
-                        BigDecimal margenFactor = BigDecimal.ONE.add(
-                                        p.getMargenVentaPorcentaje().divide(new BigDecimal("100")));
+        /** Precio de venta = redondeo(costoUsd × tasa × (1 + margen/100)). Puro: seguro entre hilos. */
+        static BigDecimal precioCalculado(BigDecimal costoUsd, BigDecimal margenPct, BigDecimal tasa,
+                        UnaryOperator<BigDecimal> red) {
+                BigDecimal margen = margenPct == null ? BigDecimal.ZERO : margenPct;
+                BigDecimal margenFactor = BigDecimal.ONE.add(margen.divide(CIEN));
+                return red.apply(costoUsd.multiply(tasa).multiply(margenFactor));
+        }
 
-                        BigDecimal base = p.getCostoBaseUsd()
-                                        .multiply(tc.getTasaCambio())
-                                        .multiply(margenFactor);
+        /* ===================== Simulación ===================== */
 
-                        BigDecimal nuevo = redondeo.aplicar(base);
+        record FilaPrecio(Long id, String sku, BigDecimal costoUsd, BigDecimal margen, BigDecimal actual) {
+        }
 
-                        if (p.getPrecioVentaBob() != null && p.getPrecioVentaBob().compareTo(nuevo) == 0) {
-                                iguales++;
-                                continue; // idempotente
+        /**
+         * Lee las presentaciones activas en streaming y calcula cada bloque en el pool
+         * mientras se sigue leyendo. Los bloques se entregan en orden; como máximo hay
+         * (hilos × 2) bloques en vuelo para acotar memoria.
+         * Si {@code porBloque} es null, los ítems se acumulan en el resultado.
+         */
+        private ResumenRecalculoDTO simularEnBloques(BigDecimal tasa, UnaryOperator<BigDecimal> red,
+                        @Nullable Consumer<ResumenRecalculoDTO> porBloque) {
+
+                int tam = Math.max(1, tamanioBloque);
+                int maxEnVuelo = Math.max(2, pool.getParallelism() * 2);
+
+                var total = ResumenRecalculoDTO.builder().items(new ArrayList<>()).build();
+                Deque<CompletableFuture<ResumenRecalculoDTO>> enVuelo = new ArrayDeque<>();
+
+                try (var filas = presentacionRepo.streamActivasParaPrecio()) {
+                        var it = filas.iterator();
+                        List<FilaPrecio> buf = new ArrayList<>(tam);
+                        int nro = 0;
+
+                        while (it.hasNext()) {
+                                var r = it.next();
+                                buf.add(new FilaPrecio(r.getIdPresentacion(), r.getCodigoSku(), r.getCostoBaseUsd(),
+                                                r.getMargenVentaPorcentaje(), r.getPrecioVentaBob()));
+                                if (buf.size() == tam) {
+                                        enVuelo.addLast(enviar(++nro, buf, tasa, red));
+                                        buf = new ArrayList<>(tam);
+                                        while (enVuelo.size() >= maxEnVuelo) {
+                                                acumular(total, enVuelo.pollFirst().join(), porBloque);
+                                        }
+                                }
                         }
-
-                        if (!simular) {
-                                var pLock = presentacionRepo.lockById(p.getIdPresentacion()).orElseThrow();
-
-                                // ⬇️ cerrar vigente solo si realmente hay uno vigente HASTA AHORA (sin futuros)
-                                historicoRepo.lockVigenteHastaAhora(p.getIdPresentacion(), inicio)
-                                                .ifPresent(v -> {
-                                                        v.setFechaFinVigencia(inicio); // cierre en el borde (no
-                                                                                       // minusNanos)
-                                                        historicoRepo.save(v);
-                                                });
-
-                                var hist = PrecioVentaHistorico.builder()
-                                                .idPresentacion(p.getIdPresentacion())
-                                                .precioVentaBob(nuevo)
-                                                .fechaInicioVigencia(inicio)
-                                                .motivoCambio(motivo != null ? motivo : "Re-cálculo por TC (UI)")
-                                                .build();
-                                historicoRepo.save(hist);
-
-                                // ⬇️ como aplicamos “ahora”, sí reflejamos en la tabla de presentaciones
-                                pLock.setPrecioVentaBob(nuevo);
-                                presentacionRepo.save(pLock);
+                        if (!buf.isEmpty()) {
+                                enVuelo.addLast(enviar(++nro, buf, tasa, red));
+                        }
+                        while (!enVuelo.isEmpty()) {
+                                acumular(total, enVuelo.pollFirst().join(), porBloque);
                         }
+                } finally {
+                        enVuelo.forEach(f -> f.cancel(true));
+                }
+                return total;
+        }
+
+        private CompletableFuture<ResumenRecalculoDTO> enviar(int nro, List<FilaPrecio> filas, BigDecimal tasa,
+                        UnaryOperator<BigDecimal> red) {
+                return CompletableFuture.supplyAsync(() -> calcularBloque(nro, filas, tasa, red), pool);
+        }
+
+        static ResumenRecalculoDTO calcularBloque(int nro, List<FilaPrecio> filas, BigDecimal tasa,
+                        UnaryOperator<BigDecimal> red) {
+                int cambiados = 0, iguales = 0, omitidos = 0;
+                List<ItemCambioDTO> items = new ArrayList<>();
 
+                for (var f : filas) {
+                        if (f.costoUsd() == null || f.costoUsd().signum() <= 0) {
+                                omitidos++;
+                                continue;
+                        }
+                        BigDecimal nuevo = precioCalculado(f.costoUsd(), f.margen(), tasa, red);
+                        if (f.actual() != null && f.actual().compareTo(nuevo) == 0) {
+                                iguales++;
+                                continue;
+                        }
                         cambiados++;
-                        items.add(ItemCambioDTO.of(
-                                        p.getIdPresentacion(),
-                                        p.getCodigoSku(),
-                                        p.getPrecioVentaBob(),
-                                        nuevo));
+                        items.add(ItemCambioDTO.of(f.id(), f.sku(), f.actual(), nuevo));
                 }
 
                 return ResumenRecalculoDTO.builder()
+                                .bloque(nro)
                                 .cambiados(cambiados)
                                 .iguales(iguales)
                                 .omitidos(omitidos)
@@ -113,6 +330,28 @@ public class ReglasPreciosServicio {
                                 .build();
         }
 
+        private static void acumular(ResumenRecalculoDTO total, ResumenRecalculoDTO parcial,
+                        @Nullable Consumer<ResumenRecalculoDTO> porBloque) {
+                total.setCambiados(total.getCambiados() + parcial.getCambiados());
+                total.setIguales(total.getIguales() + parcial.getIguales());
+                total.setOmitidos(total.getOmitidos() + parcial.getOmitidos());
+                if (porBloque != null) {
+                        porBloque.accept(parcial);
+                } else {
+                        total.getItems().addAll(parcial.getItems());
+                }
+        }
+
+        private TipoDeCambio tasaVigente(Long idMonedaOrigen, Long idMonedaDestino, @Nullable LocalDate fechaReferencia) {
+                var fecha = (fechaReferencia != null) ? fechaReferencia : java.time.LocalDate.now();
+
+                return tcRepo
+                                .findTopByIdMonedaOrigenAndIdMonedaDestinoAndFechaVigenciaLessThanEqualOrderByFechaVigenciaDesc(
+                                                idMonedaOrigen, idMonedaDestino, fecha)
+                                .orElseThrow(() -> new IllegalArgumentException(
+                                                "No hay tipo de cambio vigente para el par en la fecha " + fecha));
+        }
+
         @Transactional
         public void cambioManual(Long idPresentacion, BigDecimal precioNuevo, String motivo, LocalDateTime inicio) {
                 var p = presentacionRepo.lockById(idPresentacion).orElseThrow();
@@ -141,6 +380,7 @@ public class ReglasPreciosServicio {
                                 .motivoCambio(motivo != null ? motivo : "Ajuste manual")
                                 .build();
                 historicoRepo.save(hist);
+                events.publishEvent(CatalogoCambiadoEvent.presentacion(idPresentacion));
 
                 // Refleja en presentaciones solo si entra en vigor ya
                 if (!inicioEf.isAfter(LocalDateTime.now())) {
@@ -176,6 +416,7 @@ public class ReglasPreciosServicio {
                 // Refleja en presentaciones (entra en vigor ahora)
                 p.setPrecioVentaBob(hist.getPrecioVentaBob());
                 presentacionRepo.save(p);
+                events.publishEvent(CatalogoCambiadoEvent.presentacion(p.getIdPresentacion()));
         }
 
 }
@@ -0,0 +1,134 @@
+package com.soyanga.soyangabackend.servicio.reportes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Acceso a hechos_ventas / ventas_diarias (V20261019_08).
+ * <p>
+ * {@link #registrarVenta} y {@link #anularVenta} exigen la transacción de la venta: el hecho se
+ * confirma o se descarta con ella. Ninguna toca ventas_diarias: sumar en la transacción de cada
+ * venta haría que todas las del mismo día compitan por las mismas filas del acumulado. Solo marcan
+ * el hecho como pendiente y {@link #acumularPendientes} recalcula después cada día afectado.
+ */
+@Component
+public class HechosVentas {
+
+    private static final String SQL_REGISTRAR = """
+            INSERT INTO hechos_ventas (
+                id_venta_detalle, id_venta, fecha, fecha_venta, id_sucursal, id_almacen, id_presentacion,
+                id_producto, id_cliente, cantidad, ingreso_bruto_bob, descuento_bob, ingreso_neto_bob,
+                costo_usd, costo_bob, anulada)
+            SELECT id_venta_detalle, id_venta, fecha, fecha_venta, id_sucursal, id_almacen, id_presentacion,
+                   id_producto, id_cliente, cantidad, ingreso_bruto_bob, descuento_bob, ingreso_neto_bob,
+                   costo_usd, costo_bob, anulada
+            FROM v_hechos_ventas_origen
+            WHERE id_venta = ?
+            ON CONFLICT (id_venta_detalle) DO NOTHING
+            """;
+
+    private static final String SQL_ACUMULAR = """
+            INSERT INTO ventas_diarias (
+                fecha, id_sucursal, id_almacen, id_presentacion, id_producto, id_cliente, ventas, cantidad,
+                ingreso_bruto_bob, descuento_bob, ingreso_neto_bob, ingreso_costeado_bob, costo_usd, costo_bob)
+            SELECT fecha, id_sucursal, id_almacen, id_presentacion, MIN(id_producto), id_cliente,
+                   COUNT(DISTINCT id_venta),
+                   SUM(cantidad),
+                   SUM(ingreso_bruto_bob),
+                   SUM(descuento_bob),
+                   SUM(ingreso_neto_bob),
+                   COALESCE(SUM(ingreso_neto_bob) FILTER (WHERE costo_bob IS NOT NULL), 0),
+                   COALESCE(SUM(costo_usd), 0),
+                   COALESCE(SUM(costo_bob), 0)
+            FROM hechos_ventas
+            WHERE fecha = ANY (?::date[])
+              AND NOT anulada
+            GROUP BY fecha, id_sucursal, id_almacen, id_presentacion, id_cliente
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txAcumulado;
+    private final Counter diasAcumulados;
+
+    public HechosVentas(JdbcTemplate jdbc, PlatformTransactionManager txManager, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        // REPEATABLE READ: si una anulación toca un hecho del día después de leerlo, el UPDATE final
+        // falla por serialización en vez de marcar como acumulado algo que no se sumó
+        this.txAcumulado = new TransactionTemplate(txManager);
+        this.txAcumulado.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.diasAcumulados = Counter.builder("soyanga.reportes.dias.acumulados")
+                .description("Días recalculados en ventas_diarias")
+                .register(registry);
+    }
+
+    /** Una fila por línea de la venta; la venta y sus líneas ya deben estar insertadas. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int registrarVenta(Long idVenta) {
+        return jdbc.update(SQL_REGISTRAR, idVenta);
+    }
+
+    /** Saca la venta de los acumulados (en la próxima ronda del job). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int anularVenta(Long idVenta) {
+        return jdbc.update("""
+                UPDATE hechos_ventas
+                SET anulada = TRUE, en_rollup = FALSE
+                WHERE id_venta = ? AND NOT anulada
+                """, idVenta);
+    }
+
+    /**
+     * Recalcula en una transacción hasta {@code maxDias} días con hechos pendientes: borra sus filas
+     * de ventas_diarias, las vuelve a sumar desde los hechos y marca esos hechos como acumulados.
+     * Devuelve los días recalculados (vacío = nada pendiente u otro nodo está acumulando).
+     */
+    public List<LocalDate> acumularPendientes(int maxDias) {
+        return txAcumulado.execute(st -> {
+            Boolean libre = jdbc.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext('ventas_diarias'))", Boolean.class);
+            if (!Boolean.TRUE.equals(libre)) return List.of();
+
+            List<LocalDate> dias = jdbc.query("""
+                    SELECT DISTINCT fecha FROM hechos_ventas
+                    WHERE NOT en_rollup
+                    ORDER BY fecha
+                    LIMIT ?
+                    """, (rs, i) -> rs.getObject(1, LocalDate.class), maxDias);
+            if (dias.isEmpty()) return dias;
+
+            Date[] fechas = dias.stream().map(Date::valueOf).toArray(Date[]::new);
+            jdbc.update(con -> {
+                var ps = con.prepareStatement("DELETE FROM ventas_diarias WHERE fecha = ANY (?::date[])");
+                ps.setArray(1, con.createArrayOf("date", fechas));
+                return ps;
+            });
+            jdbc.update(con -> {
+                var ps = con.prepareStatement(SQL_ACUMULAR);
+                ps.setArray(1, con.createArrayOf("date", fechas));
+                return ps;
+            });
+            // Solo lo visible en esta foto: lo confirmado después queda pendiente para la próxima ronda
+            jdbc.update(con -> {
+                var ps = con.prepareStatement("""
+                        UPDATE hechos_ventas SET en_rollup = TRUE
+                        WHERE fecha = ANY (?::date[]) AND NOT en_rollup
+                        """);
+                ps.setArray(1, con.createArrayOf("date", fechas));
+                return ps;
+            });
+            diasAcumulados.increment(dias.size());
+            return dias;
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.soyanga.soyangabackend.servicio.reportes;
+
+import com.soyanga.soyangabackend.dto.reportes.MargenProductoDTO;
+import com.soyanga.soyangabackend.dto.reportes.ProductoVendidoDTO;
+import com.soyanga.soyangabackend.dto.reportes.VentasSucursalDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reportes de ventas. Solo leen ventas_diarias (más los nombres del catálogo para las filas que
+ * se devuelven): las ventas de hoy aparecen cuando el job las acumula ({@code app.reportes.acumulado.intervalo-ms}).
+ */
+@Service
+@RequiredArgsConstructor
+public class ReporteVentasServicio {
+
+    private static final int MAX_LIMITE = 500;
+    private static final int MAX_DIAS = 3660;
+
+    private final JdbcTemplate jdbc;
+
+    @Transactional(readOnly = true)
+    public List<ProductoVendidoDTO> topProductos(LocalDate desde, LocalDate hasta, Long idSucursal,
+                                                 String orden, int limite) {
+        validarRango(desde, hasta);
+        String columna = switch (orden == null ? "ingreso" : orden.trim().toLowerCase()) {
+            case "ingreso" -> "ingreso_neto_bob";
+            case "cantidad" -> "cantidad";
+            default -> throw new IllegalArgumentException("orden inválido (ingreso | cantidad): " + orden);
+        };
+        // La columna sale del switch de arriba, nunca de la petición
+        String sql = """
+                WITH top AS (
+                    SELECT id_presentacion, SUM(ventas) AS ventas, SUM(cantidad) AS cantidad,
+                           SUM(ingreso_neto_bob) AS ingreso_neto_bob
+                    FROM ventas_diarias
+                    WHERE fecha BETWEEN ? AND ?
+                      AND (?::bigint IS NULL OR id_sucursal = ?)
+                    GROUP BY id_presentacion
+                    ORDER BY %1$s DESC, id_presentacion
+                    LIMIT ?)
+                SELECT t.id_presentacion, pp.codigo_sku, p.nombre_producto, t.ventas, t.cantidad, t.ingreso_neto_bob
+                FROM top t
+                JOIN presentaciones_de_productos pp ON pp.id_presentacion = t.id_presentacion
+                JOIN productos p ON p.id_producto = pp.id_producto
+                ORDER BY t.%1$s DESC, t.id_presentacion
+                """.formatted(columna);
+        return jdbc.query(sql, (rs, i) -> ProductoVendidoDTO.builder()
+                        .idPresentacion(rs.getLong(1))
+                        .sku(rs.getString(2))
+                        .producto(rs.getString(3))
+                        .ventas(rs.getInt(4))
+                        .cantidad(rs.getBigDecimal(5))
+                        .ingresoNetoBob(rs.getBigDecimal(6))
+                        .build(),
+                desde, hasta, idSucursal, idSucursal, limitar(limite));
+    }
+
+    @Transactional(readOnly = true)
+    public List<VentasSucursalDTO> porSucursal(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        return jdbc.query("""
+                        WITH s AS (
+                            SELECT id_sucursal, SUM(cantidad) AS cantidad, SUM(ingreso_bruto_bob) AS bruto,
+                                   SUM(descuento_bob) AS descuento, SUM(ingreso_neto_bob) AS neto,
+                                   SUM(ingreso_costeado_bob) AS costeado, SUM(costo_bob) AS costo
+                            FROM ventas_diarias
+                            WHERE fecha BETWEEN ? AND ?
+                            GROUP BY id_sucursal)
+                        SELECT s.id_sucursal, su.nombre_sucursal, s.cantidad, s.bruto, s.descuento, s.neto,
+                               s.costo, s.costeado - s.costo
+                        FROM s
+                        LEFT JOIN sucursales su ON su.id_sucursal = s.id_sucursal
+                        ORDER BY s.neto DESC
+                        """,
+                (rs, i) -> VentasSucursalDTO.builder()
+                        .idSucursal(rs.getObject(1, Long.class))
+                        .sucursal(rs.getString(2))
+                        .cantidad(rs.getBigDecimal(3))
+                        .ingresoBrutoBob(rs.getBigDecimal(4))
+                        .descuentoBob(rs.getBigDecimal(5))
+                        .ingresoNetoBob(rs.getBigDecimal(6))
+                        .costoBob(rs.getBigDecimal(7))
+                        .margenBob(rs.getBigDecimal(8))
+                        .build(),
+                desde, hasta);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MargenProductoDTO> margen(LocalDate desde, LocalDate hasta, Long idSucursal, int limite) {
+        validarRango(desde, hasta);
+        return jdbc.query("""
+                        WITH m AS (
+                            SELECT id_presentacion, SUM(cantidad) AS cantidad, SUM(ingreso_neto_bob) AS neto,
+                                   SUM(ingreso_costeado_bob) AS costeado, SUM(costo_usd) AS costo_usd,
+                                   SUM(costo_bob) AS costo_bob,
+                                   SUM(ingreso_costeado_bob) - SUM(costo_bob) AS margen
+                            FROM ventas_diarias
+                            WHERE fecha BETWEEN ? AND ?
+                              AND (?::bigint IS NULL OR id_sucursal = ?)
+                            GROUP BY id_presentacion
+                            ORDER BY margen DESC, id_presentacion
+                            LIMIT ?)
+                        SELECT m.id_presentacion, pp.codigo_sku, p.nombre_producto, m.cantidad, m.neto,
+                               m.costeado, m.costo_usd, m.costo_bob, m.margen
+                        FROM m
+                        JOIN presentaciones_de_productos pp ON pp.id_presentacion = m.id_presentacion
+                        JOIN productos p ON p.id_producto = pp.id_producto
+                        ORDER BY m.margen DESC, m.id_presentacion
+                        """,
+                (rs, i) -> {
+                    BigDecimal costeado = rs.getBigDecimal(6);
+                    BigDecimal margen = rs.getBigDecimal(9);
+                    return MargenProductoDTO.builder()
+                            .idPresentacion(rs.getLong(1))
+                            .sku(rs.getString(2))
+                            .producto(rs.getString(3))
+                            .cantidad(rs.getBigDecimal(4))
+                            .ingresoNetoBob(rs.getBigDecimal(5))
+                            .ingresoCosteadoBob(costeado)
+                            .costoUsd(rs.getBigDecimal(7))
+                            .costoBob(rs.getBigDecimal(8))
+                            .margenBob(margen)
+                            .margenPorcentaje(costeado.signum() == 0 ? null
+                                    : margen.multiply(BigDecimal.valueOf(100)).divide(costeado, 2, RoundingMode.HALF_UP))
+                            .build();
+                },
+                desde, hasta, idSucursal, idSucursal, limitar(limite));
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("desde no puede ser posterior a hasta");
+        }
+        if (desde.plusDays(MAX_DIAS).isBefore(hasta)) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAX_DIAS + " días");
+        }
+    }
+
+    private static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, MAX_LIMITE));
+    }
+}
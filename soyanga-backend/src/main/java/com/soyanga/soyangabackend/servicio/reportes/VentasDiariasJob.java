@@ -0,0 +1,46 @@
+package com.soyanga.soyangabackend.servicio.reportes;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Job: lleva a ventas_diarias los días con ventas nuevas o anuladas desde la ronda anterior. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.reportes.acumulado.enabled", havingValue = "true", matchIfMissing = true)
+public class VentasDiariasJob {
+
+    private final HechosVentas hechos;
+
+    @Value("${app.reportes.acumulado.dias-por-transaccion:31}")
+    private int diasPorTransaccion;
+
+    @Value("${app.reportes.acumulado.max-transacciones-por-ronda:50}")
+    private int maxTransacciones;
+
+    @Scheduled(initialDelayString = "${app.reportes.acumulado.intervalo-ms:60000}",
+            fixedDelayString = "${app.reportes.acumulado.intervalo-ms:60000}")
+    public void ejecutar() {
+        int dias = 0;
+        try {
+            for (int i = 0; i < maxTransacciones; i++) {
+                var hechas = hechos.acumularPendientes(Math.max(1, diasPorTransaccion));
+                if (hechas.isEmpty()) break;
+                dias += hechas.size();
+            }
+        } catch (ConcurrencyFailureException ex) {
+            // Una venta del mismo día se anuló mientras tanto: esos días siguen pendientes
+            log.debug("[Reportes] Acumulado interrumpido por una escritura concurrente: {}", ex.getMessage());
+        } catch (Exception ex) {
+            log.error("[Reportes] Falló el acumulado diario de ventas: {}", ex.getMessage(), ex);
+        }
+        if (dias > 0) {
+            log.info("[Reportes] ventas_diarias: {} días recalculados", dias);
+        }
+    }
+}
@@ -4,12 +4,10 @@ import com.soyanga.soyangabackend.dominio.Usuario;
 import com.soyanga.soyangabackend.dominio.seguridad.PasswordResetToken;
 import com.soyanga.soyangabackend.repositorio.seguridad.PasswordResetTokenRepositorio;
 import com.soyanga.soyangabackend.repositorio.seguridad.UsuarioRepositorio;
+import com.soyanga.soyangabackend.servicio.correo.BandejaSalidaCorreo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,7 +28,7 @@ public class PasswordResetServicio {
     private final PasswordResetTokenRepositorio tokenRepo;
     private final UsuarioRepositorio usuarioRepo;
     private final PasswordEncoder passwordEncoder;
-    private final JavaMailSender mailSender;
+    private final BandejaSalidaCorreo bandejaSalida;
 
     @Value("${app.frontend.base-url}")
     private String frontendBaseUrl;
@@ -53,7 +51,7 @@ public class PasswordResetServicio {
      * Genera y envía un nuevo token:
      * - Purga tokens viejos/expirados
      * - Invalida tokens activos previos (política: 1 activo por usuario)
-     * - Crea y envía el nuevo enlace
+     * - Crea el nuevo enlace y encola el correo en la misma transacción (lo envía DespachoCorreos)
      */
     @Transactional
     public void iniciarReset(Usuario u, Long solicitadoPorId) {
@@ -82,7 +80,7 @@ public class PasswordResetServicio {
                 .build();
         tokenRepo.save(t);
 
-        // 3) Construye URL y envía
+        // 3) Construye URL y encola el correo (vence junto con el token)
         String url = buildResetUrl(tokenPlano);
 
         if (devLogOnly) {
@@ -90,8 +88,8 @@ public class PasswordResetServicio {
             return; // en modo dev-log-only no enviamos correo real
         }
 
-        enviarEmail(u.getCorreoElectronico(), url);
-        log.info("[PasswordReset] Enviado enlace de reset a {}", ocultar(u.getCorreoElectronico()));
+        encolarEmail(u.getCorreoElectronico(), url, t.getExpiresAt());
+        log.info("[PasswordReset] Encolado enlace de reset para {}", ocultar(u.getCorreoElectronico()));
     }
 
     /**
@@ -143,33 +141,25 @@ public class PasswordResetServicio {
 
     /* ================= Helpers ================= */
 
-    private void enviarEmail(String para, String url) {
-        try {
-            SimpleMailMessage msg = new SimpleMailMessage();
-            msg.setTo(para);
-            // algunos SMTPs (Gmail) pueden forzar el 'From' al usuario autenticado
-            if (mailFrom != null && !mailFrom.isBlank()) {
-                msg.setFrom(mailFrom);
-            }
-            if (mailReplyTo != null && !mailReplyTo.isBlank()) {
-                msg.setReplyTo(mailReplyTo);
-            }
-            msg.setSubject("Restablecer contraseña");
-            msg.setText("""
-                    Hola,
-                    
-                    Recibimos una solicitud para restablecer tu contraseña.
-                    Haz clic en el siguiente enlace (expira en %d minutos):
-                    
-                    %s
-                    
-                    Si no fuiste tú, ignora este mensaje.
-                    """.formatted(expMin, url));
-            mailSender.send(msg);
-        } catch (MailException ex) {
-            log.error("[PasswordReset] Falló el envío de correo a {}: {}", para, ex.getMessage(), ex);
-            throw new IllegalStateException("No se pudo enviar el correo de restablecimiento", ex);
-        }
+    private void encolarEmail(String para, String url, Instant expira) {
+        // algunos SMTPs (Gmail) pueden forzar el 'From' al usuario autenticado
+        bandejaSalida.encolar(new BandejaSalidaCorreo.Nuevo(
+                "password_reset",
+                para,
+                mailFrom,
+                mailReplyTo,
+                "Restablecer contraseña",
+                """
+                        Hola,
+                        
+                        Recibimos una solicitud para restablecer tu contraseña.
+                        Haz clic en el siguiente enlace (expira en %d minutos):
+                        
+                        %s
+                        
+                        Si no fuiste tú, ignora este mensaje.
+                        """.formatted(expMin, url),
+                expira));
     }
 
     private String buildResetUrl(String tokenPlano) {
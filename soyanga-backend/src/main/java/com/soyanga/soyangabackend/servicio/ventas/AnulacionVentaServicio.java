@@ -8,7 +8,9 @@ import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositor
 import com.soyanga.soyangabackend.repositorio.inventario.MovimientoInventarioRepositorio;
 import com.soyanga.soyangabackend.repositorio.ventas.VentaDetalleLoteRepositorio;
 import com.soyanga.soyangabackend.repositorio.ventas.VentaRepositorio;
+import com.soyanga.soyangabackend.servicio.reportes.HechosVentas;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,8 @@ public class AnulacionVentaServicio {
     private final MovimientoInventarioRepositorio movRepo;
     private final CuentaPorCobrarRepositorio cxcRepo;
     private final AplicacionPagoRepositorio aplPagoRepo;
+    private final HechosVentas hechosVentas;
+    private final ApplicationEventPublisher events;
 
     @Transactional
     public Map<String, Object> anularVenta(Long idVenta, String motivo) {
@@ -94,6 +98,8 @@ public class AnulacionVentaServicio {
 
         // 5) Si existía CxC (crédito) y NO tiene aplicaciones, eliminarla
         cxcRepo.findByIdVenta(idVenta).ifPresent(cxcRepo::delete);
+        hechosVentas.anularVenta(idVenta);
+        events.publishEvent(new VentaAnuladaEvent(idVenta));
 
         // 6) Respuesta
         Map<String, Object> resp = new HashMap<>();
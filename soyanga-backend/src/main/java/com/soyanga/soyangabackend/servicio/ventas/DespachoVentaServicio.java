@@ -71,7 +71,7 @@ public class DespachoVentaServicio {
                 var ex = exOpt.orElseThrow(() -> new IllegalStateException("Existencia no encontrada para lote " + cand.getIdLote()));
 
                 // 1) Consumir RESERVA primero
-                BigDecimal usarReserva = ex.getCantidadReservada().min(restante);
+                BigDecimal usarReserva = VentaServicio.parteFefo(ex.getCantidadReservada(), restante);
                 if (usarReserva.signum() > 0) {
                     ex.setCantidadReservada(ex.getCantidadReservada().subtract(usarReserva));
                     existenciaRepo.save(ex);
@@ -106,7 +106,7 @@ public class DespachoVentaServicio {
                 if (restante.signum() == 0) break;
 
                 // 2) Consumir DISPONIBLE (si aún falta)
-                BigDecimal usarDisp = ex.getCantidadDisponible().min(restante);
+                BigDecimal usarDisp = VentaServicio.parteFefo(ex.getCantidadDisponible(), restante);
                 if (usarDisp.signum() > 0) {
                     ex.setCantidadDisponible(ex.getCantidadDisponible().subtract(usarDisp));
                     existenciaRepo.save(ex);
@@ -0,0 +1,5 @@
+package com.soyanga.soyangabackend.servicio.ventas;
+
+/** Se publica al anular una venta; tras el commit se descarta su lectura en caché. */
+public record VentaAnuladaEvent(Long idVenta) {
+}
@@ -1,75 +1,55 @@
 package com.soyanga.soyangabackend.servicio.ventas;
 
 import com.soyanga.soyangabackend.dto.ventas.VentaDetalleRespuestaDTO;
-import com.soyanga.soyangabackend.repositorio.cobros.AplicacionAnticipoRepositorio;
-import com.soyanga.soyangabackend.repositorio.cobros.AplicacionPagoRepositorio;
-import com.soyanga.soyangabackend.repositorio.cobros.CuentaPorCobrarRepositorio;
-import com.soyanga.soyangabackend.repositorio.ventas.*;
+import com.soyanga.soyangabackend.repositorio.ventas.VentaRepositorio;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class VentaConsultaServicio {
 
     private final VentaRepositorio ventaRepo;
-    private final VentaDetalleRepositorio vdRepo;
-    private final VentaDetalleLoteRepositorio vdlRepo;
-    private final CuentaPorCobrarRepositorio cxcRepo;
-    private final AplicacionPagoRepositorio aplPagoRepo;
-    private final AplicacionAnticipoRepositorio aplAntRepo;
+    private final VentaLecturaServicio lectura;
 
+    @Transactional(readOnly = true)
     public Page<VentaRepositorio.VentaListadoProjection> listar(
             String estado, Long clienteId, LocalDateTime desde, LocalDateTime hasta, Pageable pageable) {
         String est = (estado == null || estado.isBlank()) ? null : estado.trim();
         return ventaRepo.listar(est, clienteId, desde, hasta, pageable);
     }
 
+    @Transactional(readOnly = true)
     public VentaDetalleRespuestaDTO detalle(Long idVenta) {
-        var header = ventaRepo.header(idVenta);
-        if (header == null) throw new IllegalArgumentException("Venta no encontrada: " + idVenta);
+        var v = lectura.obtener(idVenta);
 
-        // ===== Items
-        var items = vdRepo.itemsDeVenta(idVenta);
-        var ids = items.stream().map(VentaDetalleRepositorio.VentaItemProjection::getIdVentaDetalle).toList();
-
-        Map<Long, List<VentaDetalleRespuestaDTO.Lote>> lotesPorItem = new HashMap<>();
-        if (!ids.isEmpty()) {
-            var lotes = vdlRepo.lotesDeItems(ids);
-            for (var l : lotes) {
-                lotesPorItem
-                        .computeIfAbsent(l.getIdVentaDetalle(), k -> new ArrayList<>())
-                        .add(VentaDetalleRespuestaDTO.Lote.builder()
-                                .idLote(l.getIdLote())
-                                .numeroLote(l.getNumeroLote())
-                                .cantidad(l.getCantidad())
-                                .build());
-            }
-        }
-
-        var itemsDTO = items.stream().map(it -> VentaDetalleRespuestaDTO.Item.builder()
-                .idVentaDetalle(it.getIdVentaDetalle())
-                .idPresentacion(it.getIdPresentacion())
-                .sku(it.getSku())
-                .producto(it.getProducto())
-                .cantidad(it.getCantidad())
-                .precioUnitarioBob(it.getPrecioUnitarioBob())
-                .descuentoPorcentaje(it.getDescuentoPorcentaje())
-                .descuentoMontoBob(it.getDescuentoMontoBob())
-                .subtotalBob(it.getSubtotalBob())
-                .lotes(lotesPorItem.getOrDefault(it.getIdVentaDetalle(), List.of()))
+        var itemsDTO = v.items().stream().map(it -> VentaDetalleRespuestaDTO.Item.builder()
+                .idVentaDetalle(it.idVentaDetalle())
+                .idPresentacion(it.idPresentacion())
+                .sku(it.sku())
+                .producto(it.producto())
+                .cantidad(it.cantidad())
+                .precioUnitarioBob(it.precioUnitarioBob())
+                .descuentoPorcentaje(it.descuentoPorcentaje())
+                .descuentoMontoBob(it.descuentoMontoBob())
+                .subtotalBob(it.subtotalBob())
+                .lotes(it.lotes().stream().map(l -> VentaDetalleRespuestaDTO.Lote.builder()
+                        .idLote(l.idLote())
+                        .numeroLote(l.numeroLote())
+                        .cantidad(l.cantidad())
+                        .build()).toList())
                 .build()
         ).toList();
 
         // ===== Interés (mostrar siempre para crédito; persiste aunque haya pagos)
-        BigDecimal interesPct = header.getInteresCredito() != null ? header.getInteresCredito() : BigDecimal.ZERO;
-        BigDecimal totalNeto = header.getTotalNetoBob() != null ? header.getTotalNetoBob() : BigDecimal.ZERO;
+        BigDecimal interesPct = v.interesCredito() != null ? v.interesCredito() : BigDecimal.ZERO;
+        BigDecimal totalNeto = v.totalNetoBob() != null ? v.totalNetoBob() : BigDecimal.ZERO;
         BigDecimal interesMonto = BigDecimal.ZERO;
         BigDecimal totalCobrar = totalNeto;
 
@@ -82,41 +62,37 @@ public class VentaConsultaServicio {
 
         // ===== CxC (si aplica)
         VentaDetalleRespuestaDTO.CxcInfo cxcInfo = null;
-        var cxcOpt = cxcRepo.findByIdVenta(idVenta);
-        if (cxcOpt.isPresent()) {
-            var cxc = cxcOpt.get();
-            var totalPagos = aplPagoRepo.totalAplicadoPorCxc(cxc.getIdCuentaCobrar());
-            var totalAnticipos = aplAntRepo.totalAplicadoPorVenta(idVenta);
-
+        if (v.cxc() != null) {
+            var cxc = v.cxc();
             cxcInfo = VentaDetalleRespuestaDTO.CxcInfo.builder()
-                    .idCuentaCobrar(cxc.getIdCuentaCobrar())
-                    .estadoCuenta(cxc.getEstadoCuenta().name())
-                    .montoPendienteBob(cxc.getMontoPendienteBob())
-                    .fechaEmision(cxc.getFechaEmision())
-                    .fechaVencimiento(cxc.getFechaVencimiento())
-                    .totalPagosAplicadosBob(totalPagos)
-                    .totalAnticiposAplicadosBob(totalAnticipos)
+                    .idCuentaCobrar(cxc.idCuentaCobrar())
+                    .estadoCuenta(cxc.estadoCuenta())
+                    .montoPendienteBob(cxc.montoPendienteBob())
+                    .fechaEmision(cxc.fechaEmision())
+                    .fechaVencimiento(cxc.fechaVencimiento())
+                    .totalPagosAplicadosBob(cxc.totalPagosAplicadosBob())
+                    .totalAnticiposAplicadosBob(v.totalAnticiposAplicadosBob())
                     .build();
         }
 
         // ===== Respuesta
         return VentaDetalleRespuestaDTO.builder()
-                .idVenta(header.getIdVenta())
-                .fechaVenta(header.getFechaVenta())
-                .estadoVenta(header.getEstadoVenta())
-                .tipoDocumentoTributario(header.getTipoDocumentoTributario())
-                .numeroDocumento(header.getNumeroDocumento())
-                .idCliente(header.getIdCliente())
-                .cliente(header.getCliente())
-                .idMoneda(header.getIdMoneda())
-                .totalBrutoBob(header.getTotalBrutoBob())
-                .descuentoTotalBob(header.getDescuentoTotalBob())
+                .idVenta(v.idVenta())
+                .fechaVenta(v.fechaVenta())
+                .estadoVenta(v.estadoVenta())
+                .tipoDocumentoTributario(v.tipoDocumentoTributario())
+                .numeroDocumento(v.numeroDocumento())
+                .idCliente(v.idCliente())
+                .cliente(v.cliente())
+                .idMoneda(v.idMoneda())
+                .totalBrutoBob(v.totalBrutoBob())
+                .descuentoTotalBob(v.descuentoTotalBob())
                 .totalNetoBob(totalNeto)
-                .metodoDePago(header.getMetodoDePago())
-                .condicionDePago(header.getCondicionDePago())
-                .fechaVencimientoCredito(header.getFechaVencimientoCredito())
-                .idAlmacenDespacho(header.getIdAlmacenDespacho())
-                .observaciones(header.getObservaciones())
+                .metodoDePago(v.metodoDePago())
+                .condicionDePago(v.condicionDePago())
+                .fechaVencimientoCredito(v.fechaVencimientoCredito())
+                .idAlmacenDespacho(v.idAlmacenDespacho())
+                .observaciones(v.observaciones())
                 .interesCreditoPct(interesPct)
                 .interesCreditoMonto(interesMonto)
                 .totalCobrarBob(totalCobrar)
@@ -0,0 +1,78 @@
+package com.soyanga.soyangabackend.servicio.ventas;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Modelo de lectura de una venta: cabecera, ítems con sus lotes, CxC y kárdex, tal como lo arma
+ * {@link VentaLecturaServicio} en una sola consulta. Lo consumen el detalle y la trazabilidad.
+ */
+public record VentaLectura(
+        Long idVenta,
+        LocalDateTime fechaVenta,
+        String estadoVenta,
+        String tipoDocumentoTributario,
+        String numeroDocumento,
+        Long idCliente,
+        String cliente,
+        Long idMoneda,
+        BigDecimal totalBrutoBob,
+        BigDecimal descuentoTotalBob,
+        BigDecimal totalNetoBob,
+        String metodoDePago,
+        String condicionDePago,
+        BigDecimal interesCredito,
+        LocalDate fechaVencimientoCredito,
+        Long idAlmacenDespacho,
+        String observaciones,
+        BigDecimal totalAnticiposAplicadosBob,
+        Cxc cxc,
+        List<Item> items,
+        List<Movimiento> movimientos) {
+
+    public record Cxc(
+            Long idCuentaCobrar,
+            String estadoCuenta,
+            BigDecimal montoPendienteBob,
+            LocalDate fechaEmision,
+            LocalDate fechaVencimiento,
+            BigDecimal totalPagosAplicadosBob) {
+    }
+
+    public record Item(
+            Long idVentaDetalle,
+            Long idPresentacion,
+            String sku,
+            String producto,
+            BigDecimal cantidad,
+            BigDecimal precioUnitarioBob,
+            BigDecimal descuentoPorcentaje,
+            BigDecimal descuentoMontoBob,
+            BigDecimal subtotalBob,
+            List<Lote> lotes) {
+    }
+
+    public record Lote(Long idLote, String numeroLote, BigDecimal cantidad) {
+    }
+
+    public record Movimiento(
+            Long idMovimiento,
+            LocalDateTime fechaMovimiento,
+            String tipoMovimiento,
+            Long idLote,
+            BigDecimal cantidad,
+            Long idAlmacenOrigen,
+            Long idAlmacenDestino) {
+    }
+
+    /**
+     * Ya no cambia salvo por una anulación (que la desaloja del caché): anulada, o despachada sin
+     * saldo por cobrar. Una CxC pendiente/parcial/vencida sigue moviéndose con los pagos.
+     */
+    boolean definitiva() {
+        if ("anulada".equals(estadoVenta)) return true;
+        return "despachada".equals(estadoVenta) && (cxc == null || "pagado".equals(cxc.estadoCuenta()));
+    }
+}
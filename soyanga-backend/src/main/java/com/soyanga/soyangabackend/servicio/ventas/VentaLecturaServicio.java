@@ -0,0 +1,208 @@
+package com.soyanga.soyangabackend.servicio.ventas;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lee una venta completa (cabecera, ítems, lotes, CxC y kárdex) en una sola consulta: PostgreSQL
+ * arma el documento con json_agg y aquí sólo se deserializa. Antes eran 5-6 idas y vueltas.
+ * <p>
+ * Las ventas que ya no cambian ({@link VentaLectura#definitiva()}) se guardan en un caché en
+ * memoria con vencimiento; una anulación las desaloja tras su commit. No abre transacción: usa la
+ * del llamador si la hay (con réplica de lectura, la de solo lectura va a la réplica).
+ * <p>
+ * Una lectura de la réplica puede ser anterior a una anulación ya desalojada: de ahí sólo se
+ * guardan las anuladas, que no vuelven atrás. El resto entra al caché desde lecturas en la primaria.
+ */
+@Service
+public class VentaLecturaServicio {
+
+    private static final String SQL = """
+            SELECT json_build_object(
+                     'idVenta',                 v.id_venta,
+                     'fechaVenta',              v.fecha_venta,
+                     'estadoVenta',             v.estado_venta,
+                     'tipoDocumentoTributario', v.tipo_documento_tributario,
+                     'numeroDocumento',         v.numero_documento,
+                     'idCliente',               v.id_cliente,
+                     'cliente',                 cl.razon_social_o_nombre,
+                     'idMoneda',                v.id_moneda,
+                     'totalBrutoBob',           v.total_bruto_bob,
+                     'descuentoTotalBob',       v.descuento_total_bob,
+                     'totalNetoBob',            v.total_neto_bob,
+                     'metodoDePago',            v.metodo_de_pago,
+                     'condicionDePago',         v.condicion_de_pago,
+                     'interesCredito',          v.interes_credito,
+                     'fechaVencimientoCredito', v.fecha_vencimiento_credito,
+                     'idAlmacenDespacho',       v.id_almacen_despacho,
+                     'observaciones',           v.observaciones,
+                     'totalAnticiposAplicadosBob', (
+                         SELECT COALESCE(SUM(a.monto_aplicado_bob), 0)
+                         FROM aplicaciones_de_anticipo a
+                         WHERE a.id_venta = v.id_venta),
+                     'cxc', (
+                         SELECT json_build_object(
+                                  'idCuentaCobrar',    c.id_cuenta_cobrar,
+                                  'estadoCuenta',      c.estado_cuenta,
+                                  'montoPendienteBob', c.monto_pendiente_bob,
+                                  'fechaEmision',      c.fecha_emision,
+                                  'fechaVencimiento',  c.fecha_vencimiento,
+                                  'totalPagosAplicadosBob', (
+                                      SELECT COALESCE(SUM(ap.monto_aplicado_bob), 0)
+                                      FROM aplicaciones_de_pago ap
+                                      WHERE ap.id_cuenta_cobrar = c.id_cuenta_cobrar))
+                         FROM cuentas_por_cobrar c
+                         WHERE c.id_venta = v.id_venta),
+                     'items', COALESCE((
+                         SELECT json_agg(json_build_object(
+                                  'idVentaDetalle',      vd.id_venta_detalle,
+                                  'idPresentacion',      vd.id_presentacion,
+                                  'sku',                 pp.codigo_sku,
+                                  'producto',            p.nombre_producto,
+                                  'cantidad',            vd.cantidad,
+                                  'precioUnitarioBob',   vd.precio_unitario_bob,
+                                  'descuentoPorcentaje', vd.descuento_porcentaje,
+                                  'descuentoMontoBob',   vd.descuento_monto_bob,
+                                  'subtotalBob',         vd.subtotal_bob,
+                                  'lotes', COALESCE((
+                                      SELECT json_agg(json_build_object(
+                                               'idLote',     vdl.id_lote,
+                                               'numeroLote', l.numero_lote,
+                                               'cantidad',   vdl.cantidad)
+                                             ORDER BY vdl.id_venta_detalle_lote)
+                                      FROM ventas_detalle_lotes vdl
+                                      JOIN lotes l ON l.id_lote = vdl.id_lote
+                                      WHERE vdl.id_venta_detalle = vd.id_venta_detalle), '[]'::json))
+                                ORDER BY vd.id_venta_detalle)
+                         FROM ventas_detalle vd
+                         JOIN presentaciones_de_productos pp ON pp.id_presentacion = vd.id_presentacion
+                         JOIN productos p ON p.id_producto = pp.id_producto
+                         WHERE vd.id_venta = v.id_venta), '[]'::json),
+                     'movimientos', COALESCE((
+                         SELECT json_agg(json_build_object(
+                                  'idMovimiento',     m.id_movimiento,
+                                  'fechaMovimiento',  m.fecha_movimiento,
+                                  'tipoMovimiento',   m.tipo_movimiento,
+                                  'idLote',           m.id_lote,
+                                  'cantidad',         m.cantidad,
+                                  'idAlmacenOrigen',  m.id_almacen_origen,
+                                  'idAlmacenDestino', m.id_almacen_destino)
+                                ORDER BY m.fecha_movimiento, m.id_movimiento)
+                         FROM movimientos_de_inventario m
+                         WHERE m.referencia_modulo = 'venta'
+                           AND m.id_referencia = v.id_venta), '[]'::json)
+                   )::text
+            FROM ventas v
+            LEFT JOIN clientes cl ON cl.id_cliente = v.id_cliente
+            WHERE v.id_venta = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    private final boolean cacheHabilitado;
+    private final boolean replicaHabilitada;
+    private final int maxEntradas;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Entrada> cache = new ConcurrentHashMap<>();
+    /** Sube con cada anulación confirmada: una lectura que empezó antes no queda en caché */
+    private final AtomicLong anulaciones = new AtomicLong();
+
+    private final Counter desdeCache;
+    private final Counter desdeBd;
+
+    private record Entrada(VentaLectura venta, long venceNanos) {
+    }
+
+    public VentaLecturaServicio(
+            JdbcTemplate jdbc,
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${app.ventas.lectura.cache.enabled:true}") boolean cacheHabilitado,
+            @Value("${app.ventas.lectura.cache.max-entradas:2000}") int maxEntradas,
+            @Value("${app.ventas.lectura.cache.ttl-s:600}") long ttlS,
+            @Value("${app.replica.enabled:false}") boolean replicaHabilitada) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.cacheHabilitado = cacheHabilitado;
+        this.replicaHabilitada = replicaHabilitada;
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = Duration.ofSeconds(ttlS).toNanos();
+        this.desdeCache = lecturas(registry, "cache");
+        this.desdeBd = lecturas(registry, "bd");
+    }
+
+    private static Counter lecturas(MeterRegistry registry, String origen) {
+        return Counter.builder("soyanga.ventas.lectura")
+                .description("Lecturas de venta completa (detalle/trazabilidad), por origen")
+                .tag("origen", origen)
+                .register(registry);
+    }
+
+    public VentaLectura obtener(Long idVenta) {
+        if (cacheHabilitado) {
+            var e = cache.get(idVenta);
+            if (e != null && e.venceNanos() - System.nanoTime() > 0) {
+                desdeCache.increment();
+                return e.venta();
+            }
+        }
+
+        long generacion = anulaciones.get();
+        String json = jdbc.query(SQL, rs -> rs.next() ? rs.getString(1) : null, idVenta);
+        if (json == null) throw new IllegalArgumentException("Venta no encontrada: " + idVenta);
+        desdeBd.increment();
+        VentaLectura venta = deserializar(json);
+
+        if (cacheHabilitado && venta.definitiva() && generacion == anulaciones.get()
+                && (!leidaDeReplica() || "anulada".equals(venta.estadoVenta()))) {
+            guardar(idVenta, venta, generacion);
+        }
+        return venta;
+    }
+
+    /** Tras el commit: si la transacción se revierte, la venta sigue como estaba. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alAnular(VentaAnuladaEvent ev) {
+        anulaciones.incrementAndGet();
+        cache.remove(ev.idVenta());
+    }
+
+    /** Transacción de solo lectura con réplica configurada: la conexión pudo salir de la réplica */
+    private boolean leidaDeReplica() {
+        return replicaHabilitada && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void guardar(Long idVenta, VentaLectura venta, long generacion) {
+        if (cache.size() >= maxEntradas) {
+            long ahora = System.nanoTime();
+            cache.values().removeIf(e -> e.venceNanos() - ahora <= 0);
+            if (cache.size() >= maxEntradas) return; // lleno de vigentes: esta queda fuera
+        }
+        var entrada = new Entrada(venta, System.nanoTime() + ttlNanos);
+        cache.put(idVenta, entrada);
+        // Una anulación entre la verificación y el put ya pasó su remove: se deshace aquí
+        if (generacion != anulaciones.get()) cache.remove(idVenta, entrada);
+    }
+
+    private VentaLectura deserializar(String json) {
+        try {
+            return objectMapper.readValue(json, VentaLectura.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Venta con formato inesperado: " + e.getOriginalMessage(), e);
+        }
+    }
+}
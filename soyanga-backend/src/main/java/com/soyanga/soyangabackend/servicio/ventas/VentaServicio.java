@@ -11,6 +11,9 @@ import com.soyanga.soyangabackend.repositorio.inventario.ExistenciaLoteRepositor
 import com.soyanga.soyangabackend.repositorio.inventario.MovimientoInventarioRepositorio;
 import com.soyanga.soyangabackend.repositorio.precios.ImpuestoRepositorio;
 import com.soyanga.soyangabackend.repositorio.ventas.*;
+import com.soyanga.soyangabackend.servicio.metricas.MetricasOperacion;
+import com.soyanga.soyangabackend.servicio.metricas.Medido;
+import com.soyanga.soyangabackend.servicio.reportes.HechosVentas;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
@@ -43,6 +46,8 @@ public class VentaServicio {
     private final PresentacionProductoRepositorio presentacionRepo;
 
     private final ImpuestoRepositorio impuestoRepo;
+    private final MetricasOperacion metricas;
+    private final HechosVentas hechosVentas;
 
     @PersistenceContext
     private EntityManager em;
@@ -53,6 +58,7 @@ public class VentaServicio {
     // false -> Al RESERVAR NO se descontó cantidad_disponible. En la VENTA: se baja reservada y disponible.
     // =========================================================================
     private static final boolean RESERVA_DESCUENTA_DISPONIBLE_AL_RESERVAR = true;
+    private static final BigDecimal CIEN = new BigDecimal("100");
 
     // ===================== helpers =====================
     private static <E extends Enum<E>> E parseEnumLower(Class<E> enumType, String value, String campo) {
@@ -66,6 +72,25 @@ public class VentaServicio {
         }
     }
 
+    /** Neto de una parte (lote) de la línea: bruto − (% sobre el bruto + monto fijo topado al bruto). */
+    static BigDecimal netoParte(BigDecimal cantidad, BigDecimal precioUnit, BigDecimal descPct, BigDecimal descMonto) {
+        BigDecimal brutoParte = cantidad.multiply(precioUnit);
+        BigDecimal descPartePct = brutoParte.multiply(descPct).divide(CIEN);
+        BigDecimal descParte = descPartePct.add(descMonto.min(brutoParte));
+        return brutoParte.subtract(descParte);
+    }
+
+    /** Descuento de la línea completa para los totales de la venta (% sobre el bruto + monto fijo). */
+    static BigDecimal descuentoLinea(BigDecimal cantidad, BigDecimal precioUnit, BigDecimal descPct, BigDecimal descMonto) {
+        return cantidad.multiply(precioUnit).multiply(descPct).divide(CIEN).add(descMonto);
+    }
+
+    /** Reparto FEFO de un lote: lo que se toma de {@code existencia} para cubrir {@code pendiente} (cero si no hay). */
+    static BigDecimal parteFefo(BigDecimal existencia, BigDecimal pendiente) {
+        if (existencia == null || existencia.signum() <= 0 || pendiente.signum() <= 0) return BigDecimal.ZERO;
+        return existencia.min(pendiente);
+    }
+
     private static String pad6(long n) {
         return String.format("%06d", n);
     }
@@ -96,7 +121,8 @@ public class VentaServicio {
     }
 
     // ====== Previsualizar el próximo número sin consumir la secuencia ======
-    @Transactional(readOnly = true)
+    // Sin readOnly: iría a la réplica, donde pg_sequences va por delante (el WAL registra las secuencias por bloques)
+    @Transactional
     public String peekProximoNumeroPorTipo(String tipoRaw) {
         var tipo = parseEnumLower(Venta.TipoDocumentoTributario.class, tipoRaw, "tipo");
         return peekProximoNumero(tipo);
@@ -120,6 +146,7 @@ public class VentaServicio {
     }
 
     // ===================== casos de uso =====================
+    @Medido("venta.crear")
     @Transactional
     public VentaRespuestaDTO crear(VentaCrearDTO dto) {
 
@@ -145,6 +172,7 @@ public class VentaServicio {
         var condicion = parseEnumLower(Venta.CondicionPago.class, dto.getCondicionDePago(),"condicionDePago");
 
         var estado = Venta.EstadoVenta.confirmada;
+        metricas.lineasVenta(dto.getItems() != null ? dto.getItems().size() : 0);
 
         // Interés (PORCENTAJE, opcional). Ej: 5 = 5%
         BigDecimal interesCreditoPct = dto.getInteresCredito() != null ? dto.getInteresCredito() : BigDecimal.ZERO;
@@ -268,10 +296,7 @@ public class VentaServicio {
                                     .build();
                             movRepo.save(mov);
 
-                            BigDecimal brutoParte = lc.getCantidad().multiply(precioUnit);
-                            BigDecimal descPartePct = brutoParte.multiply(descPct).divide(new BigDecimal("100"));
-                            BigDecimal descParte = descPartePct.add(descMonto.min(brutoParte));
-                            BigDecimal netoParte = brutoParte.subtract(descParte);
+                            BigDecimal netoParte = netoParte(lc.getCantidad(), precioUnit, descPct, descMonto);
 
                             det.setSubtotalBob(det.getSubtotalBob().add(netoParte));
 
@@ -298,10 +323,7 @@ public class VentaServicio {
                             var exLock = existenciaRepo.lockByAlmacenAndIdLote(ex.getIdAlmacen(), ex.getIdLote())
                                     .orElseThrow(() -> new IllegalStateException("Existencia desapareció durante la venta"));
 
-                            if (exLock.getCantidadDisponible() == null
-                                    || exLock.getCantidadDisponible().compareTo(BigDecimal.ZERO) <= 0) continue;
-
-                            var mover = exLock.getCantidadDisponible().min(porDespachar);
+                            var mover = parteFefo(exLock.getCantidadDisponible(), porDespachar);
                             if (mover.compareTo(BigDecimal.ZERO) <= 0) continue;
 
                             exLock.setCantidadDisponible(exLock.getCantidadDisponible().subtract(mover));
@@ -327,10 +349,7 @@ public class VentaServicio {
                                     .build();
                             movRepo.save(mov);
 
-                            BigDecimal brutoParte = mover.multiply(precioUnit);
-                            BigDecimal descPartePct = brutoParte.multiply(descPct).divide(new BigDecimal("100"));
-                            BigDecimal descParte = descPartePct.add(descMonto.min(brutoParte));
-                            BigDecimal netoParte = brutoParte.subtract(descParte);
+                            BigDecimal netoParte = netoParte(mover, precioUnit, descPct, descMonto);
 
                             det.setSubtotalBob(det.getSubtotalBob().add(netoParte));
 
@@ -357,9 +376,7 @@ public class VentaServicio {
                     ventaDetRepo.save(det);
 
                     totalBruto = totalBruto.add(it.getCantidad().multiply(precioUnit));
-                    BigDecimal descDet = it.getCantidad().multiply(precioUnit).multiply(descPct).divide(new BigDecimal("100"))
-                            .add(descMonto);
-                    totalDesc = totalDesc.add(descDet);
+                    totalDesc = totalDesc.add(descuentoLinea(it.getCantidad(), precioUnit, descPct, descMonto));
                 }
 
                 BigDecimal totalNeto = totalBruto.subtract(totalDesc);
@@ -400,6 +417,11 @@ public class VentaServicio {
                     cxcRepo.save(cxc);
                 }
 
+                // ===== Hechos para reportes (el acumulado diario lo hace VentasDiariasJob) =====
+                // Se leen con SQL: antes, llevar a la BD los subtotales que Hibernate aún tiene pendientes
+                em.flush();
+                hechosVentas.registrarVenta(venta.getIdVenta());
+
                 return VentaRespuestaDTO.builder()
                         .idVenta(venta.getIdVenta())
                         .totalBrutoBob(totalBruto)
@@ -413,6 +435,7 @@ public class VentaServicio {
 
             } catch (DataIntegrityViolationException ex) {
                 if (retries < 0) throw ex;
+                metricas.reintentoNumeroDocumento(tipoDoc.name());
             }
         }
 
@@ -471,5 +494,6 @@ public class VentaServicio {
 
         venta.setEstadoVenta(Venta.EstadoVenta.anulada);
         ventaRepo.save(venta);
+        hechosVentas.anularVenta(idVenta);
     }
 }
@@ -1,5 +1,6 @@
 package com.soyanga.soyangabackend.web.advice;
 
+import com.soyanga.soyangabackend.servicio.inventario.ConciliacionKardexServicio;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -193,6 +194,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    @ExceptionHandler(ConciliacionKardexServicio.NoDisponibleException.class)
+    public ResponseEntity<ApiError> handleConciliacionNoDisponible(IllegalStateException ex, HttpServletRequest req) {
+        var body = new ApiError(HttpStatus.CONFLICT, ex.getMessage(), req.getRequestURI(), null);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiError> handleJakartaConstraint(ConstraintViolationException ex, HttpServletRequest req) {
         Map<String, Object> errs = new LinkedHashMap<>();
@@ -0,0 +1,300 @@
+package com.soyanga.soyangabackend.web.archivos;
+
+import com.soyanga.soyangabackend.servicio.archivos.AlmacenArchivosLocal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve {@code /uploads/*} desde el almacén local, sin pasar por el DispatcherServlet.
+ * <ul>
+ *   <li>Cuerpo con sendfile de Tomcat (el kernel copia del archivo al socket, sin pasar por el
+ *   heap) desde {@code sendfile-min-bytes}; los archivos chicos, con {@link FileChannel#transferTo}.</li>
+ *   <li>Range de un solo tramo (206/416) con If-Range; varios tramos se responden completos.</li>
+ *   <li>Variantes precomprimidas {@code .br}/{@code .gz} junto al archivo, según Accept-Encoding.</li>
+ *   <li>ETag: el SHA-256 del nombre en {@code cas/} (sin leer el archivo); para archivos del
+ *   esquema anterior, uno débil de tamaño + fecha. If-None-Match responde 304 sólo con un stat.</li>
+ * </ul>
+ */
+public class ArchivosLocalServlet extends HttpServlet {
+
+    // Atributos de Tomcat para sendfile (los mismos que usa su DefaultServlet)
+    static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_DESDE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_HASTA = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern CAS = Pattern.compile("cas/[0-9a-f]{2}/([0-9a-f]{64})[^/]*");
+    private static final Pattern RANGO = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_LEGADO = "public, max-age=2592000";
+
+    private final AlmacenArchivosLocal almacen;
+    private final MeterRegistry registry;
+    private final long sendfileMinBytes;
+
+    public ArchivosLocalServlet(AlmacenArchivosLocal almacen, MeterRegistry registry, long sendfileMinBytes) {
+        this.almacen = almacen;
+        this.registry = registry;
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        servir(req, resp, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        servir(req, resp, false);
+    }
+
+    private void servir(HttpServletRequest req, HttpServletResponse resp, boolean conCuerpo) throws IOException {
+        String clave = req.getPathInfo() == null ? "" : req.getPathInfo().substring(1);
+        Path archivo = resolver(clave);
+        BasicFileAttributes attrs = archivo == null ? null : atributos(archivo);
+        if (attrs == null || !attrs.isRegularFile()) {
+            contar("404", "-");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Matcher cas = CAS.matcher(clave);
+        String hash = cas.matches() ? cas.group(1) : null;
+
+        // Representación: precomprimida si el cliente la acepta y existe junto al archivo
+        String codificacion = null;
+        Path cuerpo = archivo;
+        BasicFileAttributes attrsCuerpo = attrs;
+        boolean hayVariantes = false;
+        for (String[] c : new String[][]{{"br", ".br"}, {"gzip", ".gz"}}) {
+            Path p = archivo.resolveSibling(archivo.getFileName() + c[1]);
+            BasicFileAttributes a = atributos(p);
+            if (a == null || !a.isRegularFile()) continue;
+            hayVariantes = true;
+            if (codificacion == null && acepta(req.getHeader(HttpHeaders.ACCEPT_ENCODING), c[0])) {
+                codificacion = c[0];
+                cuerpo = p;
+                attrsCuerpo = a;
+            }
+        }
+
+        long largo = attrsCuerpo.size();
+        long modificado = attrs.lastModifiedTime().toMillis();
+        String etag = hash != null
+                ? "\"" + hash + (codificacion != null ? "-" + codificacion : "") + "\""
+                : "W/\"" + largo + "-" + modificado + (codificacion != null ? "-" + codificacion : "") + "\"";
+
+        resp.setHeader(HttpHeaders.ETAG, etag);
+        resp.setHeader(HttpHeaders.CACHE_CONTROL, hash != null ? CACHE_INMUTABLE : CACHE_LEGADO);
+        resp.setDateHeader(HttpHeaders.LAST_MODIFIED, modificado);
+        if (hayVariantes) resp.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Validación condicional: sólo con lo que ya se sabe por el stat, sin abrir el archivo
+        String inm = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (inm != null ? coincide(inm, etag) : noModificado(req, modificado)) {
+            contar("304", "-");
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.setContentType(tipo(req, clave));
+        if (codificacion != null) resp.setHeader(HttpHeaders.CONTENT_ENCODING, codificacion);
+        resp.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long desde = 0;
+        long hasta = largo; // exclusivo
+        String rango = req.getHeader(HttpHeaders.RANGE);
+        if (rango != null && rangoVigente(req.getHeader(HttpHeaders.IF_RANGE), etag, modificado)) {
+            long[] r = parsearRango(rango, largo);
+            if (r == null) {
+                contar("416", "-");
+                resp.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + largo);
+                resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (r.length == 2) {
+                desde = r[0];
+                hasta = r[1];
+                resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                resp.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + desde + "-" + (hasta - 1) + "/" + largo);
+            }
+        }
+
+        long cantidad = hasta - desde;
+        resp.setContentLengthLong(cantidad);
+        String estado = String.valueOf(resp.getStatus());
+        if (!conCuerpo || cantidad == 0) {
+            contar(estado, "-");
+            return;
+        }
+
+        if (cantidad >= sendfileMinBytes && Boolean.TRUE.equals(req.getAttribute(SENDFILE_SOPORTADO))) {
+            // Tomcat envía el tramo al terminar el request (sendfile del SO), sin copiar al heap
+            req.setAttribute(SENDFILE_ARCHIVO, cuerpo.toString());
+            req.setAttribute(SENDFILE_DESDE, desde);
+            req.setAttribute(SENDFILE_HASTA, hasta);
+            contar(estado, "sendfile");
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(cuerpo, StandardOpenOption.READ)) {
+            OutputStream out = resp.getOutputStream();
+            WritableByteChannel destino = Channels.newChannel(out);
+            long pos = desde;
+            while (pos < hasta) {
+                long n = canal.transferTo(pos, hasta - pos, destino);
+                if (n <= 0) break;
+                pos += n;
+            }
+        }
+        contar(estado, "canal");
+    }
+
+    /** Ruta dentro del almacén; null si la clave es inválida o apunta a un temporal de escritura. */
+    private Path resolver(String clave) {
+        if (clave.isEmpty() || clave.contains("\\") || clave.contains("/.") || clave.startsWith(".")) return null;
+        try {
+            return almacen.ruta(clave);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BasicFileAttributes atributos(Path p) {
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String tipo(HttpServletRequest req, String clave) {
+        String t = req.getServletContext().getMimeType(clave);
+        if (t != null) return t;
+        return MediaTypeFactory.getMediaType(clave).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    /** Accept-Encoding contiene {@code codificacion} (o *) con q > 0. */
+    static boolean acepta(String acceptEncoding, String codificacion) {
+        if (acceptEncoding == null) return false;
+        for (String parte : acceptEncoding.split(",")) {
+            String[] t = parte.trim().split(";");
+            String nombre = t[0].trim().toLowerCase(Locale.ROOT);
+            if (!nombre.equals(codificacion) && !nombre.equals("*")) continue;
+            double q = 1;
+            for (int i = 1; i < t.length; i++) {
+                String p = t[i].trim();
+                if (p.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(p.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+
+    /** If-None-Match con comparación débil (RFC 9110 §13.1.2). */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch.trim().equals("*")) return true;
+        String propio = sinDebil(etag);
+        for (String e : ifNoneMatch.split(",")) {
+            if (sinDebil(e.trim()).equals(propio)) return true;
+        }
+        return false;
+    }
+
+    private static String sinDebil(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean noModificado(HttpServletRequest req, long modificado) {
+        long ims;
+        try {
+            ims = req.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Resolución de segundos del encabezado HTTP
+        return ims >= 0 && modificado / 1000 <= ims / 1000;
+    }
+
+    /** If-Range: el rango vale sólo si el ETag (fuerte) o la fecha siguen siendo los mismos. */
+    private static boolean rangoVigente(String ifRange, String etag, long modificado) {
+        if (ifRange == null) return true;
+        String v = ifRange.trim();
+        if (v.startsWith("\"") || v.startsWith("W/")) {
+            return !etag.startsWith("W/") && v.equals(etag);
+        }
+        try {
+            long fecha = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return modificado / 1000 <= fecha / 1000;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * {@code [desde, hasta)} de un rango simple; arreglo vacío si el encabezado no es un rango que
+     * se atienda (varios tramos o sintaxis desconocida: se responde completo); null si no es satisfacible.
+     */
+    static long[] parsearRango(String rango, long largo) {
+        Matcher m = RANGO.matcher(rango.trim());
+        if (!m.matches()) return new long[0];
+        try {
+            String a = m.group(1);
+            String b = m.group(2);
+            long desde;
+            long hasta;
+            if (a.isEmpty()) {
+                if (b.isEmpty()) return new long[0];
+                long sufijo = Long.parseLong(b);
+                if (sufijo == 0) return null;
+                desde = Math.max(0, largo - sufijo);
+                hasta = largo;
+            } else {
+                desde = Long.parseLong(a);
+                hasta = b.isEmpty() ? largo : Math.min(largo, Long.parseLong(b) + 1);
+                if (!b.isEmpty() && Long.parseLong(b) < desde) return new long[0];
+            }
+            if (desde >= largo) return null;
+            return new long[]{desde, hasta};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private void contar(String estado, String envio) {
+        Counter.builder("soyanga.uploads.respuestas")
+                .description("Respuestas de /uploads por estado y forma de envío del cuerpo")
+                .tag("estado", estado)
+                .tag("envio", envio)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,62 @@
+package com.soyanga.soyangabackend.web.archivos;
+
+import com.soyanga.soyangabackend.servicio.archivos.AlmacenArchivosS3;
+import com.soyanga.soyangabackend.servicio.archivos.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Con almacenamiento S3 y sin {@code url-publica}, sirve {@code /uploads/**} desde el bucket
+ * (cualquier nodo responde cualquier archivo). ETag = hash de la clave; If-None-Match responde 304
+ * sin consultar el bucket. Para Range, precomprimidos y descarga directa conviene {@code url-publica}.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "s3")
+public class ArchivosS3Controlador {
+
+    // La clave deriva del contenido: nunca cambia
+    private static final CacheControl INMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final AlmacenArchivosS3 almacen;
+
+    @GetMapping("/uploads/**")
+    public ResponseEntity<InputStreamResource> servir(HttpServletRequest req) throws IOException {
+        String clave = almacen.claveDeUrl(req.getRequestURI().substring(req.getContextPath().length()));
+        if (clave == null) return ResponseEntity.notFound().build();
+
+        // El hash está en la clave: el 304 se decide sin pedir nada al bucket
+        String etag = "\"" + StorageService.hashDeClave(clave) + "\"";
+        String inm = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (inm != null && (inm.trim().equals("*") || inm.replace("W/", "").contains(etag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(INMUTABLE).build();
+        }
+
+        InputStream in;
+        try {
+            in = almacen.abrir(clave);
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(clave).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .eTag(etag)
+                .cacheControl(INMUTABLE)
+                .body(new InputStreamResource(in));
+    }
+}
@@ -56,9 +56,8 @@ public class CatalogoPublicoController {
             );
 
             // Imagen de portada: primera disponible en presentaciones
-            String imagen = pres.getContent().stream()
-                    .map(PresentacionDTO::getImagenUrl)
-                    .filter(Objects::nonNull)
+            PresentacionDTO portada = pres.getContent().stream()
+                    .filter(x -> x.getImagenUrl() != null)
                     .findFirst()
                     .orElse(null);
 
@@ -85,7 +84,12 @@ public class CatalogoPublicoController {
             dto.setPrincipioActivo(prod.getPrincipioActivo());
             dto.setRegistroSanitario(prod.getRegistroSanitario());
             dto.setCantidadPresentaciones((int) pres.getTotalElements());
-            dto.setImagenUrl(imagen);
+            if (portada != null) {
+                dto.setImagenUrl(portada.getImagenUrl());
+                dto.setImagenMiniaturaUrl(portada.getImagenMiniaturaUrl());
+                dto.setImagenSrcsetWebp(portada.getImagenSrcsetWebp());
+                dto.setImagenSrcsetJpeg(portada.getImagenSrcsetJpeg());
+            }
             return dto;
         }).collect(Collectors.toList());
 
@@ -144,6 +148,9 @@ public class CatalogoPublicoController {
             x.setContenidoPorUnidad(p.getContenidoPorUnidad());
             x.setPrecioVentaBob(p.getPrecioVentaBob()); // puede venir null
             x.setImagenUrl(p.getImagenUrl());
+            x.setImagenMiniaturaUrl(p.getImagenMiniaturaUrl());
+            x.setImagenSrcsetWebp(p.getImagenSrcsetWebp());
+            x.setImagenSrcsetJpeg(p.getImagenSrcsetJpeg());
 
             // Rellenar unidad (nombre y símbolo) desde servicio (con cache)
             if (p.getIdUnidad() != null) {
@@ -178,6 +185,9 @@ public class CatalogoPublicoController {
 
         private Integer cantidadPresentaciones;
         private String imagenUrl;
+        private String imagenMiniaturaUrl;
+        private String imagenSrcsetWebp;
+        private String imagenSrcsetJpeg;
     }
 
     @Data
@@ -204,6 +214,9 @@ public class CatalogoPublicoController {
         private java.math.BigDecimal contenidoPorUnidad;
         private java.math.BigDecimal precioVentaBob; // opcional
         private String imagenUrl;
+        private String imagenMiniaturaUrl;
+        private String imagenSrcsetWebp;
+        private String imagenSrcsetJpeg;
 
         // NUEVO
         private String unidadNombre;
@@ -1,6 +1,9 @@
 package com.soyanga.soyangabackend.web.catalogo;
 
 import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupDTO;
+import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupLoteDTO;
+import com.soyanga.soyangabackend.dto.catalogo.PresentacionLookupLoteRespuestaDTO;
+import jakarta.validation.Valid;
 import com.soyanga.soyangabackend.servicio.catalogo.PresentacionLookupServicio;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -20,4 +23,10 @@ public class PresentacionLookupControlador {
         if (barcode != null && !barcode.isBlank()) return servicio.porCodigoBarras(barcode);
         throw new IllegalArgumentException("Debe enviar 'sku' o 'barcode'");
     }
+
+    // POST /lookup/lote  { "codigos": ["GLI-1L", "789123..."], "idAlmacen": 1 }
+    @PostMapping("/lote")
+    public PresentacionLookupLoteRespuestaDTO lookupLote(@Valid @RequestBody PresentacionLookupLoteDTO req) {
+        return servicio.porCodigos(req);
+    }
 }
@@ -1,9 +1,11 @@
 package com.soyanga.soyangabackend.web.cobros;
 
+import com.soyanga.soyangabackend.dto.cobros.LiberacionReservasVencidasDTO;
 import com.soyanga.soyangabackend.dto.cobros.LiberarReservaAnticipoDTO;
 import com.soyanga.soyangabackend.dto.cobros.ReservaAnticipoDTO;
 import com.soyanga.soyangabackend.dto.cobros.ReservaAnticipoRespuestaDTO;
 import com.soyanga.soyangabackend.servicio.cobros.ReservaAnticipoServicio;
+import com.soyanga.soyangabackend.servicio.cobros.ReservaAnticipoVencimientoServicio;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +19,7 @@ import java.util.Map;
 public class AnticipoReservasControlador {
 
     private final ReservaAnticipoServicio servicio;
+    private final ReservaAnticipoVencimientoServicio vencimientoServicio;
 
     /** POST /api/v1/anticipos/{id}/reservas  -> Reservar (acepta pedir sin stock disponible) */
     @PostMapping("/{id}/reservas")
@@ -45,6 +48,19 @@ public class AnticipoReservasControlador {
         return servicio.liberarTodo(id);
     }
 
+    /** PATCH /api/v1/anticipos/{id}/reservas/vigencia?horas=48  -> Periodo de retención propio (sin horas = por defecto) */
+    @PatchMapping("/{id}/reservas/vigencia")
+    public Map<String, Object> configurarVigencia(@PathVariable Long id,
+                                                  @RequestParam(name = "horas", required = false) Integer horas) {
+        return servicio.configurarVigencia(id, horas);
+    }
+
+    /** POST /api/v1/anticipos/reservas/liberar-vencidas  -> Ejecuta ahora el job de vencimiento */
+    @PostMapping("/reservas/liberar-vencidas")
+    public LiberacionReservasVencidasDTO liberarVencidas() {
+        return vencimientoServicio.liberarVencidas();
+    }
+
     /** GET /api/v1/anticipos/{id}/reservas/detalle  -> Ver reservas vigentes (con lotes y FEFO) */
     @GetMapping("/{id}/reservas/detalle")
     public ReservaAnticipoRespuestaDTO verDetalle(@PathVariable Long id) {
@@ -0,0 +1,30 @@
+package com.soyanga.soyangabackend.web.diagnostico;
+
+import com.soyanga.soyangabackend.dto.diagnostico.DiagnosticoSqlDTO;
+import com.soyanga.soyangabackend.seguridad.RequiereVer;
+import com.soyanga.soyangabackend.servicio.diagnostico.DiagnosticoSql;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/diagnostico")
+@RequiredArgsConstructor
+@RequiereVer(valor = "diagnostico")
+public class DiagnosticoControlador {
+
+    private final DiagnosticoSql diagnosticoSql;
+
+    // Sentencias/entidades por endpoint, sentencias lentas y estadísticas de Hibernate
+    @GetMapping("/sql")
+    public DiagnosticoSqlDTO sql() {
+        return diagnosticoSql.resumen();
+    }
+
+    // Reinicia contadores (p.ej. antes de comparar una versión nueva)
+    @DeleteMapping("/sql")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reiniciarSql() {
+        diagnosticoSql.reiniciar();
+    }
+}
@@ -65,4 +65,10 @@ public class TipoCambioControlador {
             @RequestParam java.math.BigDecimal monto) {
         return servicio.convertir(idMonedaOrigen, idMonedaDestino, monto);
     }
+
+    /** Conversión de muchos montos en una llamada (mismo orden que los items). */
+    @PostMapping("/convertir/lote")
+    public ConversionLoteRespuestaDTO convertirLote(@Valid @RequestBody ConversionLoteDTO req) {
+        return servicio.convertirLote(req);
+    }
 }
@@ -0,0 +1,50 @@
+package com.soyanga.soyangabackend.web.inventario;
+
+import com.soyanga.soyangabackend.dto.inventario.ConciliacionKardexDTO;
+import com.soyanga.soyangabackend.dto.inventario.DiscrepanciaKardexDTO;
+import com.soyanga.soyangabackend.seguridad.RequiereVer;
+import com.soyanga.soyangabackend.servicio.inventario.ConciliacionKardexServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/inventario/conciliaciones")
+@RequiredArgsConstructor
+public class ConciliacionKardexControlador {
+
+    private final ConciliacionKardexServicio servicio;
+
+    // Corre en segundo plano: consultar GET /{id} hasta que deje de estar 'en_curso'
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("@perms.tiene(authentication, 'inventario:conciliar')")
+    public ConciliacionKardexDTO lanzar(@RequestParam(defaultValue = "false") boolean corregir) {
+        return servicio.lanzar(corregir, "manual");
+    }
+
+    @GetMapping
+    @RequiereVer(valor = "inventario")
+    public List<ConciliacionKardexDTO> ultimas(@RequestParam(defaultValue = "20") int limite) {
+        return servicio.ultimas(limite);
+    }
+
+    @GetMapping("/{id}")
+    @RequiereVer(valor = "inventario")
+    public ConciliacionKardexDTO obtener(@PathVariable Long id) {
+        return servicio.obtener(id);
+    }
+
+    @GetMapping("/{id}/discrepancias")
+    @RequiereVer(valor = "inventario")
+    public List<DiscrepanciaKardexDTO> discrepancias(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long idAlmacen,
+            @RequestParam(defaultValue = "200") int limite
+    ) {
+        return servicio.discrepancias(id, idAlmacen, limite);
+    }
+}
@@ -0,0 +1,23 @@
+package com.soyanga.soyangabackend.web.inventario;
+
+import com.soyanga.soyangabackend.dto.inventario.StockPresentacionDTO;
+import com.soyanga.soyangabackend.servicio.inventario.StockPresentacionServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/inventario/stock")
+@RequiredArgsConstructor
+public class StockPresentacionControlador {
+
+    private final StockPresentacionServicio servicio;
+
+    // /stock?idAlmacen=1&ids=10,11,12
+    @GetMapping
+    public List<StockPresentacionDTO> porPresentaciones(@RequestParam Long idAlmacen,
+                                                        @RequestParam List<Long> ids) {
+        return servicio.porPresentaciones(idAlmacen, ids);
+    }
+}
@@ -3,21 +3,38 @@ package com.soyanga.soyangabackend.web.precios;
 
 import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
 import com.soyanga.soyangabackend.servicio.precios.ConfigRedondeoServicio;
+import com.soyanga.soyangabackend.servicio.precios.PoliticaRedondeo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/precios/redondeo")
 @RequiredArgsConstructor
 public class ConfigRedondeoControlador {
 
     private final ConfigRedondeoServicio servicio;
+    private final PoliticaRedondeo politica;
 
     @GetMapping
     public ConfigRedondeoDTO get() {
         return servicio.get();
     }
 
+    /** Regla que usa el cálculo de precios en este nodo (en memoria) y su versión */
+    @GetMapping("/vigente")
+    public Map<String, Object> vigente() {
+        var r = politica.actual();
+        var out = new LinkedHashMap<String, Object>();
+        out.put("version", r.getVersion());
+        out.put("modo", r.getModo().name());
+        out.put("multiplo", r.getMultiplo());
+        out.put("decimales", r.getDecimales());
+        return out;
+    }
+
     @PutMapping
     public ConfigRedondeoDTO update(@RequestBody ConfigRedondeoDTO dto,
             @RequestHeader(value = "X-Usuario", required = false) String usuario) {
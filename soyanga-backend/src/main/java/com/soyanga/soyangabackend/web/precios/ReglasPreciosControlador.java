@@ -1,15 +1,21 @@
 // com.soyanga.soyangabackend.web.precios.ReglasPreciosControlador.java
 package com.soyanga.soyangabackend.web.precios;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.soyanga.soyangabackend.dto.precios.*;
 import com.soyanga.soyangabackend.servicio.precios.ReglasPreciosServicio;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 
 import org.springframework.data.domain.*;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/precios")
@@ -18,6 +24,8 @@ public class ReglasPreciosControlador {
 
     private final ReglasPreciosServicio servicio;
     private final com.soyanga.soyangabackend.servicio.precios.PrecioHistoricoServicio historicoSrv;
+    private final com.soyanga.soyangabackend.servicio.precios.ActivacionPreciosServicio activacionSrv;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/recalcular")
     public ResumenRecalculoDTO recalcular(
@@ -29,6 +37,38 @@ public class ReglasPreciosControlador {
         return servicio.recalcularMasivo(idMonedaOrigen, idMonedaDestino, simular, motivo, fechaVigencia);
     }
 
+    /**
+     * Simulación incremental (NDJSON): una línea ResumenRecalculoDTO por bloque calculado
+     * y una última línea con los totales (finalizado=true).
+     */
+    @PostMapping(value = "/recalcular/simulacion", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> simular(
+            @RequestParam Long idMonedaOrigen,
+            @RequestParam Long idMonedaDestino,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam(required = false, name = "fechaVigencia") LocalDate fechaVigencia) {
+        StreamingResponseBody body = out -> {
+            var total = servicio.simularMasivo(idMonedaOrigen, idMonedaDestino, fechaVigencia, parcial -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(parcial));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.write(objectMapper.writeValueAsBytes(total));
+            out.write('\n');
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /** Aplica ya los precios programados que entraron en vigencia (lo mismo que hace el job). */
+    @PostMapping("/activar-programados")
+    public ActivacionPreciosDTO activarProgramados() {
+        return activacionSrv.activarPendientes();
+    }
+
     @PostMapping("/presentaciones/{id}/manual")
     public void manual(@PathVariable Long id, @RequestBody PrecioNuevoDTO dto) {
         servicio.cambioManual(id, dto.getPrecioVentaBob(), dto.getMotivoCambio(), dto.getFechaInicioVigencia());
@@ -0,0 +1,54 @@
+package com.soyanga.soyangabackend.web.reportes;
+
+import com.soyanga.soyangabackend.dto.reportes.MargenProductoDTO;
+import com.soyanga.soyangabackend.dto.reportes.ProductoVendidoDTO;
+import com.soyanga.soyangabackend.dto.reportes.VentasSucursalDTO;
+import com.soyanga.soyangabackend.seguridad.RequiereVer;
+import com.soyanga.soyangabackend.servicio.reportes.ReporteVentasServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reportes/ventas")
+@RequiredArgsConstructor
+@RequiereVer(valor = "reportes")
+public class ReporteVentasControlador {
+
+    private final ReporteVentasServicio servicio;
+
+    // Sin fechas: los últimos 30 días (incluido hoy)
+    @GetMapping("/top-productos")
+    public List<ProductoVendidoDTO> topProductos(
+            @RequestParam(required = false) LocalDate desde,
+            @RequestParam(required = false) LocalDate hasta,
+            @RequestParam(required = false) Long idSucursal,
+            @RequestParam(defaultValue = "ingreso") String orden,
+            @RequestParam(defaultValue = "10") int limite
+    ) {
+        LocalDate h = hasta != null ? hasta : LocalDate.now();
+        return servicio.topProductos(desde != null ? desde : h.minusDays(29), h, idSucursal, orden, limite);
+    }
+
+    @GetMapping("/por-sucursal")
+    public List<VentasSucursalDTO> porSucursal(
+            @RequestParam(required = false) LocalDate desde,
+            @RequestParam(required = false) LocalDate hasta
+    ) {
+        LocalDate h = hasta != null ? hasta : LocalDate.now();
+        return servicio.porSucursal(desde != null ? desde : h.minusDays(29), h);
+    }
+
+    @GetMapping("/margen")
+    public List<MargenProductoDTO> margen(
+            @RequestParam(required = false) LocalDate desde,
+            @RequestParam(required = false) LocalDate hasta,
+            @RequestParam(required = false) Long idSucursal,
+            @RequestParam(defaultValue = "50") int limite
+    ) {
+        LocalDate h = hasta != null ? hasta : LocalDate.now();
+        return servicio.margen(desde != null ? desde : h.minusDays(29), h, idSucursal, limite);
+    }
+}
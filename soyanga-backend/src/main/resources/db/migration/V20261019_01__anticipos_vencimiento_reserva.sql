@@ -0,0 +1,42 @@
+-- Vencimiento de reservas de anticipo
+-- horas_reserva    : periodo de retención propio del anticipo (NULL => usa app.anticipos.reserva.horas-vigencia)
+-- reserva_vence_en : momento en que las reservas vigentes se liberan automáticamente
+
+ALTER TABLE public.anticipos
+    ADD COLUMN IF NOT EXISTS horas_reserva INT,
+    ADD COLUMN IF NOT EXISTS reserva_vence_en TIMESTAMP(6);
+
+ALTER TABLE public.anticipos
+    DROP CONSTRAINT IF EXISTS chk_anticipos_horas_reserva;
+
+ALTER TABLE public.anticipos
+    ADD CONSTRAINT chk_anticipos_horas_reserva
+        CHECK (horas_reserva IS NULL OR horas_reserva > 0);
+
+-- Backfill: anticipos con reservas vivas vencen 72 h después de su última reserva
+UPDATE public.anticipos a
+SET reserva_vence_en = r.ultima + INTERVAL '72 hours'
+FROM (
+    SELECT m.id_referencia AS id_anticipo, MAX(m.fecha_movimiento) AS ultima
+    FROM public.movimientos_de_inventario m
+    WHERE m.referencia_modulo = 'anticipo'
+      AND m.tipo_movimiento = 'reserva_anticipo'
+    GROUP BY m.id_referencia
+) r
+WHERE r.id_anticipo = a.id_anticipo
+  AND a.reserva_vence_en IS NULL
+  AND EXISTS (
+      SELECT 1 FROM public.anticipos_detalle d
+      WHERE d.id_anticipo = a.id_anticipo
+        AND d.cantidad_reservada > 0
+  );
+
+-- Índice parcial para el barrido del job (solo anticipos con vencimiento pendiente)
+CREATE INDEX IF NOT EXISTS idx_anticipos_reserva_vence_en
+    ON public.anticipos (reserva_vence_en, id_anticipo)
+    WHERE reserva_vence_en IS NOT NULL;
+
+-- V1 dejó un CHECK (cantidad_reservada > 0) que V21 no quitó: liberar una reserva (liberarTodo o el
+-- vencimiento) deja cantidad_reservada = 0 y lo violaba. chk_antdet_nonneg ya exige >= 0.
+ALTER TABLE public.anticipos_detalle
+    DROP CONSTRAINT IF EXISTS anticipos_detalle_cantidad_reservada_check;
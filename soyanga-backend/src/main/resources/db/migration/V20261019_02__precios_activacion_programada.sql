@@ -0,0 +1,7 @@
+-- Activación programada de precios futuros
+-- idx_precio_hist_inicio_desc (id_presentacion, fecha_inicio_vigencia DESC) resuelve el vigente de
+-- UNA presentación; el barrido del job filtra por rango de fecha_inicio_vigencia sobre TODAS, así que
+-- necesita un índice que empiece por la fecha.
+
+CREATE INDEX IF NOT EXISTS idx_precio_hist_inicio_presentacion
+    ON public.precios_de_venta_historicos (fecha_inicio_vigencia, id_presentacion);
@@ -0,0 +1,114 @@
+-- Stock agregado por (almacén, presentación)
+-- Un trigger sobre existencias_por_lote anota cada cambio como una fila nueva en
+-- stock_por_presentacion_delta, en la MISMA transacción que el cambio (JPA, JDBC batch o SQL
+-- nativo) y sin tocar cada servicio. Solo inserta: no bloquea ninguna fila compartida, así dos
+-- ventas de la misma presentación no se serializan ni se cruzan con el bloqueo FEFO por lote.
+-- StockPresentacionCompactacionJob suma los deltas en stock_por_presentacion; las lecturas usan
+-- v_stock_por_presentacion (agregado + deltas pendientes), siempre al día.
+
+CREATE TABLE IF NOT EXISTS public.stock_por_presentacion (
+    id_almacen                 BIGINT        NOT NULL REFERENCES almacenes(id_almacen) ON DELETE CASCADE,
+    id_presentacion            BIGINT        NOT NULL REFERENCES presentaciones_de_productos(id_presentacion) ON DELETE CASCADE,
+    cantidad_disponible        NUMERIC(18,3) NOT NULL DEFAULT 0,
+    cantidad_reservada         NUMERIC(18,3) NOT NULL DEFAULT 0,
+    fecha_ultima_actualizacion TIMESTAMP     NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id_almacen, id_presentacion)
+);
+
+CREATE TABLE IF NOT EXISTS public.stock_por_presentacion_delta (
+    id_delta            BIGSERIAL     PRIMARY KEY,
+    id_almacen          BIGINT        NOT NULL,
+    id_presentacion     BIGINT        NOT NULL,
+    cantidad_disponible NUMERIC(18,3) NOT NULL,
+    cantidad_reservada  NUMERIC(18,3) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_stock_por_presentacion_delta
+    ON public.stock_por_presentacion_delta (id_almacen, id_presentacion);
+
+-- Anota un delta para la presentación del lote (la presentación de un lote no cambia)
+CREATE OR REPLACE FUNCTION public.fn_stock_por_presentacion_sumar(
+    p_almacen BIGINT, p_lote BIGINT, p_disponible NUMERIC, p_reservada NUMERIC)
+RETURNS VOID AS $$
+BEGIN
+    IF COALESCE(p_disponible, 0) = 0 AND COALESCE(p_reservada, 0) = 0 THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO public.stock_por_presentacion_delta
+        (id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada)
+    SELECT p_almacen, l.id_presentacion, COALESCE(p_disponible, 0), COALESCE(p_reservada, 0)
+    FROM public.lotes l
+    WHERE l.id_lote = p_lote;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.trg_existencias_stock_por_presentacion()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND NEW.id_almacen = OLD.id_almacen
+       AND NEW.id_lote = OLD.id_lote THEN
+        -- Caso común: solo cambian cantidades (un único delta)
+        PERFORM public.fn_stock_por_presentacion_sumar(
+            NEW.id_almacen, NEW.id_lote,
+            NEW.cantidad_disponible - OLD.cantidad_disponible,
+            NEW.cantidad_reservada - OLD.cantidad_reservada);
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM public.fn_stock_por_presentacion_sumar(
+            OLD.id_almacen, OLD.id_lote, -OLD.cantidad_disponible, -OLD.cantidad_reservada);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM public.fn_stock_por_presentacion_sumar(
+            NEW.id_almacen, NEW.id_lote, NEW.cantidad_disponible, NEW.cantidad_reservada);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_existencias_stock_por_presentacion ON public.existencias_por_lote;
+
+CREATE TRIGGER trg_existencias_stock_por_presentacion
+    AFTER INSERT OR UPDATE OF id_almacen, id_lote, cantidad_disponible, cantidad_reservada OR DELETE
+    ON public.existencias_por_lote
+    FOR EACH ROW
+    EXECUTE FUNCTION public.trg_existencias_stock_por_presentacion();
+
+-- Lectura: agregado compactado + deltas todavía sin compactar. Un filtro por almacén/presentación
+-- baja a ambas ramas (son las columnas del GROUP BY).
+CREATE OR REPLACE VIEW public.v_stock_por_presentacion AS
+SELECT x.id_almacen,
+       x.id_presentacion,
+       SUM(x.cantidad_disponible) AS cantidad_disponible,
+       SUM(x.cantidad_reservada)  AS cantidad_reservada
+FROM (
+    SELECT id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada
+    FROM public.stock_por_presentacion
+    UNION ALL
+    SELECT id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada
+    FROM public.stock_por_presentacion_delta
+) x
+GROUP BY x.id_almacen, x.id_presentacion;
+
+-- Carga inicial
+INSERT INTO public.stock_por_presentacion
+    (id_almacen, id_presentacion, cantidad_disponible, cantidad_reservada, fecha_ultima_actualizacion)
+SELECT e.id_almacen, l.id_presentacion,
+       COALESCE(SUM(e.cantidad_disponible), 0),
+       COALESCE(SUM(e.cantidad_reservada), 0),
+       NOW()
+FROM public.existencias_por_lote e
+JOIN public.lotes l ON l.id_lote = e.id_lote
+GROUP BY e.id_almacen, l.id_presentacion
+ON CONFLICT (id_almacen, id_presentacion) DO UPDATE
+    SET cantidad_disponible = EXCLUDED.cantidad_disponible,
+        cantidad_reservada  = EXCLUDED.cantidad_reservada,
+        fecha_ultima_actualizacion = EXCLUDED.fecha_ultima_actualizacion;
+
+-- Lotes de una presentación: el listado de presentaciones por almacén busca sus datos de lote
+-- por presentación
+CREATE INDEX IF NOT EXISTS idx_lotes_presentacion
+    ON public.lotes (id_presentacion);
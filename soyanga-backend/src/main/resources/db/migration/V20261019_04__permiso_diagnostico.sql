@@ -0,0 +1,15 @@
+-- Permiso para el diagnóstico de acceso a datos (/api/v1/admin/diagnostico)
+INSERT INTO permisos (nombre_permiso, descripcion, estado_activo)
+VALUES ('diagnostico:ver', 'Ver diagnóstico SQL / Hibernate', TRUE)
+    ON CONFLICT (nombre_permiso)
+DO UPDATE SET
+    descripcion   = EXCLUDED.descripcion,
+           estado_activo = TRUE;
+
+-- ADMIN lo recibe como el resto
+INSERT INTO roles_permisos (id_rol, id_permiso)
+SELECT r.id_rol, p.id_permiso
+FROM roles r
+JOIN permisos p ON p.nombre_permiso = 'diagnostico:ver'
+WHERE UPPER(r.nombre_rol) = 'ADMIN'
+    ON CONFLICT (id_rol, id_permiso) DO NOTHING;
@@ -0,0 +1,35 @@
+-- Bandeja de salida de correos (patrón outbox)
+-- El correo se inserta en la MISMA transacción que lo origina (p. ej. el token de reset) y un
+-- despachador lo envía después, fuera de la transacción, con reintentos.
+-- estado            : pendiente | enviando | enviado | fallido (fallido = agotó reintentos, "dead letter")
+-- proximo_intento   : cuándo puede tomarse; en 'enviando' es el fin de la reserva del despachador
+-- fecha_expiracion  : pasada esta fecha ya no se envía (el enlace del correo venció)
+-- cuerpo            : se borra al llegar a un estado final (puede contener enlaces con token)
+
+CREATE TABLE IF NOT EXISTS public.correos_salientes (
+    id_correo         BIGSERIAL     PRIMARY KEY,
+    tipo              VARCHAR(40)   NOT NULL,
+    destinatario      VARCHAR(320)  NOT NULL,
+    remitente         VARCHAR(320),
+    responder_a       VARCHAR(320),
+    asunto            VARCHAR(255)  NOT NULL,
+    cuerpo            TEXT,
+    estado            VARCHAR(20)   NOT NULL DEFAULT 'pendiente',
+    intentos          INT           NOT NULL DEFAULT 0,
+    proximo_intento   TIMESTAMP(6)  NOT NULL DEFAULT NOW(),
+    fecha_expiracion  TIMESTAMP(6),
+    ultimo_error      VARCHAR(1000),
+    fecha_creacion    TIMESTAMP(6)  NOT NULL DEFAULT NOW(),
+    fecha_envio       TIMESTAMP(6),
+    CONSTRAINT chk_correos_salientes_estado
+        CHECK (estado IN ('pendiente', 'enviando', 'enviado', 'fallido'))
+);
+
+-- Solo las filas vivas: lo que el despachador escanea en cada ronda
+CREATE INDEX IF NOT EXISTS ix_correos_salientes_por_enviar
+    ON public.correos_salientes (proximo_intento)
+    WHERE estado IN ('pendiente', 'enviando');
+
+CREATE INDEX IF NOT EXISTS ix_correos_salientes_fallidos
+    ON public.correos_salientes (fecha_creacion)
+    WHERE estado = 'fallido';
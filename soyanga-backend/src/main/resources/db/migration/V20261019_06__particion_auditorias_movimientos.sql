@@ -0,0 +1,146 @@
+-- Particionado mensual por rango de fecha: auditorias (fecha_evento) y movimientos_de_inventario (fecha_movimiento)
+-- Particiones <tabla>_pYYYYMM + <tabla>_defecto (red de seguridad si falta un mes: nunca falla un INSERT).
+-- ParticionesServicio crea los meses siguientes a diario y archiva (DETACH + mover al esquema archivo)
+-- las que superan la retención. La PK pasa a (id, fecha): una tabla particionada exige la clave de partición.
+-- Los datos existentes se copian dentro de la migración.
+
+CREATE SCHEMA IF NOT EXISTS archivo;
+
+-- Crea (si falta) la partición del mes de p_mes. Si la partición por defecto ya recibió filas de
+-- ese mes, se mueven antes de adjuntarla (si no, el ATTACH falla).
+CREATE OR REPLACE FUNCTION public.fn_particion_mensual(p_tabla TEXT, p_columna TEXT, p_mes DATE)
+RETURNS TEXT AS $$
+DECLARE
+    v_desde  DATE := date_trunc('month', p_mes)::DATE;
+    v_hasta  DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::DATE;
+    v_nombre TEXT := p_tabla || '_p' || to_char(p_mes, 'YYYYMM');
+BEGIN
+    IF to_regclass('public.' || v_nombre) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('CREATE TABLE public.%I (LIKE public.%I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   v_nombre, p_tabla);
+
+    IF to_regclass('public.' || p_tabla || '_defecto') IS NOT NULL THEN
+        EXECUTE format('WITH m AS (DELETE FROM public.%I WHERE %I >= %L AND %I < %L RETURNING *) '
+                       || 'INSERT INTO public.%I SELECT * FROM m',
+                       p_tabla || '_defecto', p_columna, v_desde, p_columna, v_hasta, v_nombre);
+    END IF;
+
+    EXECUTE format('ALTER TABLE public.%I ATTACH PARTITION public.%I FOR VALUES FROM (%L) TO (%L)',
+                   p_tabla, v_nombre, v_desde, v_hasta);
+    RETURN v_nombre;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Asegura las particiones del mes actual y los p_meses_adelante siguientes; devuelve cuántas creó
+CREATE OR REPLACE FUNCTION public.fn_asegurar_particiones(p_tabla TEXT, p_columna TEXT, p_meses_adelante INT)
+RETURNS INT AS $$
+DECLARE
+    v_mes    DATE;
+    v_creadas INT := 0;
+BEGIN
+    FOR v_mes IN
+        SELECT generate_series(date_trunc('month', NOW()),
+                               date_trunc('month', NOW()) + make_interval(months => GREATEST(p_meses_adelante, 0)),
+                               INTERVAL '1 month')::DATE
+    LOOP
+        IF public.fn_particion_mensual(p_tabla, p_columna, v_mes) IS NOT NULL THEN
+            v_creadas := v_creadas + 1;
+        END IF;
+    END LOOP;
+    RETURN v_creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+/* ===================== movimientos_de_inventario ===================== */
+
+ALTER TABLE public.movimientos_de_inventario RENAME TO movimientos_de_inventario_legado;
+ALTER TABLE public.movimientos_de_inventario_legado
+    RENAME CONSTRAINT movimientos_de_inventario_pkey TO movimientos_de_inventario_legado_pkey;
+DROP INDEX IF EXISTS public.idx_movimientos_fecha;
+DROP INDEX IF EXISTS public.idx_movimientos_lote;
+DROP INDEX IF EXISTS public.idx_movimientos_referencia;
+
+CREATE TABLE public.movimientos_de_inventario (
+    id_movimiento      BIGINT        NOT NULL DEFAULT nextval('public.movimientos_de_inventario_id_movimiento_seq'),
+    fecha_movimiento   TIMESTAMP     NOT NULL DEFAULT NOW(),
+    tipo_movimiento    VARCHAR(30)   NOT NULL,
+    id_almacen_origen  BIGINT        REFERENCES almacenes(id_almacen) ON DELETE SET NULL,
+    id_almacen_destino BIGINT        REFERENCES almacenes(id_almacen) ON DELETE SET NULL,
+    id_lote            BIGINT        REFERENCES lotes(id_lote) ON DELETE SET NULL,
+    cantidad           NUMERIC(18,3) NOT NULL,
+    referencia_modulo  VARCHAR(30)   NOT NULL,
+    id_referencia      BIGINT        NOT NULL,
+    observaciones      TEXT,
+    CONSTRAINT movimientos_de_inventario_pkey PRIMARY KEY (id_movimiento, fecha_movimiento),
+    CONSTRAINT movimientos_de_inventario_tipo_movimiento_check CHECK (tipo_movimiento IN (
+        'ingreso_compra', 'salida_venta', 'reserva_anticipo', 'liberacion_reserva',
+        'transferencia_salida', 'transferencia_ingreso', 'ajuste'))
+) PARTITION BY RANGE (fecha_movimiento);
+
+ALTER SEQUENCE public.movimientos_de_inventario_id_movimiento_seq
+    OWNED BY public.movimientos_de_inventario.id_movimiento;
+
+CREATE INDEX idx_movimientos_fecha ON public.movimientos_de_inventario (fecha_movimiento);
+CREATE INDEX idx_movimientos_lote ON public.movimientos_de_inventario (id_lote);
+CREATE INDEX idx_movimientos_referencia ON public.movimientos_de_inventario (referencia_modulo, id_referencia);
+
+CREATE TABLE public.movimientos_de_inventario_defecto
+    PARTITION OF public.movimientos_de_inventario DEFAULT;
+
+SELECT public.fn_particion_mensual('movimientos_de_inventario', 'fecha_movimiento', m::DATE)
+FROM generate_series(
+        (SELECT date_trunc('month', COALESCE(MIN(fecha_movimiento), NOW())) FROM public.movimientos_de_inventario_legado),
+        date_trunc('month', NOW()),
+        INTERVAL '1 month') AS m;
+SELECT public.fn_asegurar_particiones('movimientos_de_inventario', 'fecha_movimiento', 3);
+
+INSERT INTO public.movimientos_de_inventario
+    (id_movimiento, fecha_movimiento, tipo_movimiento, id_almacen_origen, id_almacen_destino, id_lote,
+     cantidad, referencia_modulo, id_referencia, observaciones)
+SELECT id_movimiento, fecha_movimiento, tipo_movimiento, id_almacen_origen, id_almacen_destino, id_lote,
+       cantidad, referencia_modulo, id_referencia, observaciones
+FROM public.movimientos_de_inventario_legado;
+
+DROP TABLE public.movimientos_de_inventario_legado;
+
+/* ===================== auditorias ===================== */
+
+ALTER TABLE public.auditorias RENAME TO auditorias_legado;
+ALTER TABLE public.auditorias_legado RENAME CONSTRAINT auditorias_pkey TO auditorias_legado_pkey;
+DROP INDEX IF EXISTS public.idx_auditorias_fecha;
+DROP INDEX IF EXISTS public.idx_auditorias_usuario;
+
+CREATE TABLE public.auditorias (
+    id_auditoria         BIGINT    NOT NULL DEFAULT nextval('public.auditorias_id_auditoria_seq'),
+    fecha_evento         TIMESTAMP NOT NULL DEFAULT NOW(),
+    id_usuario           BIGINT    REFERENCES usuarios(id_usuario) ON DELETE SET NULL,
+    modulo_afectado      TEXT      NOT NULL,
+    accion               TEXT      NOT NULL,
+    id_registro_afectado BIGINT,
+    detalle              TEXT,
+    CONSTRAINT auditorias_pkey PRIMARY KEY (id_auditoria, fecha_evento)
+) PARTITION BY RANGE (fecha_evento);
+
+ALTER SEQUENCE public.auditorias_id_auditoria_seq OWNED BY public.auditorias.id_auditoria;
+
+CREATE INDEX idx_auditorias_fecha ON public.auditorias (fecha_evento);
+CREATE INDEX idx_auditorias_usuario ON public.auditorias (id_usuario);
+
+CREATE TABLE public.auditorias_defecto PARTITION OF public.auditorias DEFAULT;
+
+SELECT public.fn_particion_mensual('auditorias', 'fecha_evento', m::DATE)
+FROM generate_series(
+        (SELECT date_trunc('month', COALESCE(MIN(fecha_evento), NOW())) FROM public.auditorias_legado),
+        date_trunc('month', NOW()),
+        INTERVAL '1 month') AS m;
+SELECT public.fn_asegurar_particiones('auditorias', 'fecha_evento', 3);
+
+INSERT INTO public.auditorias
+    (id_auditoria, fecha_evento, id_usuario, modulo_afectado, accion, id_registro_afectado, detalle)
+SELECT id_auditoria, fecha_evento, id_usuario, modulo_afectado, accion, id_registro_afectado, detalle
+FROM public.auditorias_legado;
+
+DROP TABLE public.auditorias_legado;
@@ -0,0 +1,7 @@
+-- Variantes redimensionadas de la imagen de una presentación (miniatura, tarjeta, completa).
+-- Las genera ProcesadorImagenes en segundo plano junto al original; mientras son NULL el
+-- frontend usa imagen_url. imagen_anchos: ancho real de cada variante en ese orden
+-- (nunca mayor al original); imagen_formatos: codificaciones generadas ('webp', 'jpg').
+ALTER TABLE public.presentaciones_de_productos
+    ADD COLUMN IF NOT EXISTS imagen_anchos   INTEGER[],
+    ADD COLUMN IF NOT EXISTS imagen_formatos TEXT[];
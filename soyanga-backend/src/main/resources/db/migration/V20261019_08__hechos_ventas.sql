@@ -0,0 +1,124 @@
+-- Capa de reportes de ventas: tabla de hechos desnormalizada + acumulados diarios
+-- hechos_ventas   : una fila por línea de venta, con sucursal/almacén/producto/cliente ya resueltos
+--                   y el costo congelado al momento de la venta (costo_base_usd × TC USD -> moneda local
+--                   vigente en la fecha de venta). La escribe la transacción de la venta/anulación.
+-- ventas_diarias  : acumulado por (día, sucursal, almacén, presentación, cliente) sin las anuladas.
+--                   Lo recalcula un job por día a partir de los hechos pendientes (en_rollup = false);
+--                   los endpoints de /api/v1/reportes leen solo de aquí.
+-- costo_bob NULL  : no había TC para la fecha; esas líneas quedan fuera del margen (ingreso_costeado_bob).
+
+CREATE TABLE IF NOT EXISTS public.hechos_ventas (
+    id_venta_detalle   BIGINT         PRIMARY KEY,
+    id_venta           BIGINT         NOT NULL,
+    fecha              DATE           NOT NULL,
+    fecha_venta        TIMESTAMP(6)   NOT NULL,
+    id_sucursal        BIGINT,
+    id_almacen         BIGINT,
+    id_presentacion    BIGINT         NOT NULL,
+    id_producto        BIGINT         NOT NULL,
+    id_cliente         BIGINT,
+    cantidad           NUMERIC(18,6)  NOT NULL,
+    ingreso_bruto_bob  NUMERIC(18,6)  NOT NULL,
+    descuento_bob      NUMERIC(18,6)  NOT NULL,
+    ingreso_neto_bob   NUMERIC(18,6)  NOT NULL,
+    costo_usd          NUMERIC(18,6),
+    costo_bob          NUMERIC(18,6),
+    anulada            BOOLEAN        NOT NULL DEFAULT FALSE,
+    en_rollup          BOOLEAN        NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX IF NOT EXISTS ix_hechos_ventas_venta ON public.hechos_ventas (id_venta);
+
+-- Solo las filas que el job todavía no acumuló
+CREATE INDEX IF NOT EXISTS ix_hechos_ventas_pendientes
+    ON public.hechos_ventas (fecha)
+    WHERE NOT en_rollup;
+
+CREATE TABLE IF NOT EXISTS public.ventas_diarias (
+    fecha                 DATE           NOT NULL,
+    id_sucursal           BIGINT,
+    id_almacen            BIGINT,
+    id_presentacion       BIGINT         NOT NULL,
+    id_producto           BIGINT         NOT NULL,
+    id_cliente            BIGINT,
+    ventas                INT            NOT NULL,
+    cantidad              NUMERIC(18,6)  NOT NULL,
+    ingreso_bruto_bob     NUMERIC(18,6)  NOT NULL,
+    descuento_bob         NUMERIC(18,6)  NOT NULL,
+    ingreso_neto_bob      NUMERIC(18,6)  NOT NULL,
+    ingreso_costeado_bob  NUMERIC(18,6)  NOT NULL,
+    costo_usd             NUMERIC(18,6)  NOT NULL,
+    costo_bob             NUMERIC(18,6)  NOT NULL
+);
+
+-- Una fila por combinación; sucursal/almacén/cliente pueden ser NULL (índice por expresión, válido en PG 14)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ventas_diarias
+    ON public.ventas_diarias (fecha, COALESCE(id_sucursal, 0), COALESCE(id_almacen, 0), id_presentacion,
+                              COALESCE(id_cliente, 0));
+
+CREATE INDEX IF NOT EXISTS ix_ventas_diarias_sucursal ON public.ventas_diarias (id_sucursal, fecha);
+
+-- Origen de los hechos: lo usan este backfill y el alta de cada venta (mismo cálculo en ambos)
+CREATE OR REPLACE VIEW public.v_hechos_ventas_origen AS
+SELECT vd.id_venta_detalle,
+       v.id_venta,
+       v.fecha_venta::date                               AS fecha,
+       v.fecha_venta,
+       a.id_sucursal,
+       v.id_almacen_despacho                             AS id_almacen,
+       vd.id_presentacion,
+       pp.id_producto,
+       v.id_cliente,
+       vd.cantidad,
+       vd.cantidad * vd.precio_unitario_bob              AS ingreso_bruto_bob,
+       vd.cantidad * vd.precio_unitario_bob - vd.subtotal_bob AS descuento_bob,
+       vd.subtotal_bob                                   AS ingreso_neto_bob,
+       vd.cantidad * pp.costo_base_usd                   AS costo_usd,
+       vd.cantidad * pp.costo_base_usd * tc.tasa         AS costo_bob,
+       (v.estado_venta = 'anulada')                      AS anulada
+FROM ventas v
+JOIN ventas_detalle vd ON vd.id_venta = v.id_venta
+JOIN presentaciones_de_productos pp ON pp.id_presentacion = vd.id_presentacion
+LEFT JOIN almacenes a ON a.id_almacen = v.id_almacen_despacho
+-- USD -> local vigente en la fecha de venta; si solo está cargado local -> USD, su inversa
+LEFT JOIN LATERAL (
+    SELECT COALESCE(
+             (SELECT t.tasa_cambio
+              FROM tipos_de_cambio t
+              WHERE t.id_moneda_origen = usd.id_moneda AND t.id_moneda_destino = loc.id_moneda
+                AND t.fecha_vigencia <= v.fecha_venta::date
+              ORDER BY t.fecha_vigencia DESC LIMIT 1),
+             (SELECT 1 / NULLIF(t.tasa_cambio, 0)
+              FROM tipos_de_cambio t
+              WHERE t.id_moneda_origen = loc.id_moneda AND t.id_moneda_destino = usd.id_moneda
+                AND t.fecha_vigencia <= v.fecha_venta::date
+              ORDER BY t.fecha_vigencia DESC LIMIT 1)) AS tasa
+    FROM monedas usd, monedas loc
+    WHERE usd.codigo_moneda = 'USD' AND loc.es_moneda_local
+    LIMIT 1
+) tc ON TRUE;
+
+INSERT INTO public.hechos_ventas (
+    id_venta_detalle, id_venta, fecha, fecha_venta, id_sucursal, id_almacen, id_presentacion,
+    id_producto, id_cliente, cantidad, ingreso_bruto_bob, descuento_bob, ingreso_neto_bob,
+    costo_usd, costo_bob, anulada)
+SELECT id_venta_detalle, id_venta, fecha, fecha_venta, id_sucursal, id_almacen, id_presentacion,
+       id_producto, id_cliente, cantidad, ingreso_bruto_bob, descuento_bob, ingreso_neto_bob,
+       costo_usd, costo_bob, anulada
+FROM public.v_hechos_ventas_origen
+ON CONFLICT (id_venta_detalle) DO NOTHING;
+
+-- Permiso de los reportes (ADMIN lo recibe como el resto)
+INSERT INTO permisos (nombre_permiso, descripcion, estado_activo)
+VALUES ('reportes:ver', 'Ver reportes de ventas', TRUE)
+    ON CONFLICT (nombre_permiso)
+DO UPDATE SET
+    descripcion   = EXCLUDED.descripcion,
+           estado_activo = TRUE;
+
+INSERT INTO roles_permisos (id_rol, id_permiso)
+SELECT r.id_rol, p.id_permiso
+FROM roles r
+JOIN permisos p ON p.nombre_permiso = 'reportes:ver'
+WHERE UPPER(r.nombre_rol) = 'ADMIN'
+    ON CONFLICT (id_rol, id_permiso) DO NOTHING;
@@ -0,0 +1,79 @@
+-- Conciliación kárdex vs existencias_por_lote
+-- v_kardex_efecto        : efecto de cada movimiento sobre el stock físico (disponible + reservada) de
+--                          UN almacén. reserva_anticipo / liberacion_reserva solo pasan unidades entre
+--                          disponible y reservada: efecto 0. Las salidas se registran en positivo.
+-- conciliaciones_kardex  : una fila por corrida (job nocturno o manual); solo una 'en_curso' a la vez.
+-- discrepancias_kardex   : pares (almacén, lote) donde existencias - saldo del kárdex <> 0.
+--                          id_movimiento_ajuste = movimiento del ajuste de conciliación que registró la
+--                          diferencia en el kárdex (si se pidió corregir).
+
+CREATE OR REPLACE VIEW public.v_kardex_efecto AS
+SELECT m.id_movimiento,
+       m.fecha_movimiento,
+       m.id_lote,
+       CASE
+           WHEN m.tipo_movimiento IN ('ingreso_compra', 'transferencia_ingreso') THEN m.id_almacen_destino
+           WHEN m.tipo_movimiento IN ('salida_venta', 'transferencia_salida', 'reserva_anticipo', 'liberacion_reserva')
+               THEN m.id_almacen_origen
+           ELSE COALESCE(m.id_almacen_destino, m.id_almacen_origen) -- ajuste: cantidad con signo
+       END AS id_almacen,
+       CASE
+           WHEN m.tipo_movimiento IN ('salida_venta', 'transferencia_salida') THEN -m.cantidad
+           WHEN m.tipo_movimiento IN ('reserva_anticipo', 'liberacion_reserva') THEN 0
+           ELSE m.cantidad
+       END AS delta
+FROM movimientos_de_inventario m;
+
+CREATE TABLE IF NOT EXISTS public.conciliaciones_kardex (
+    id_conciliacion     BIGSERIAL      PRIMARY KEY,
+    inicio              TIMESTAMP(6)   NOT NULL DEFAULT NOW(),
+    fin                 TIMESTAMP(6),
+    estado              VARCHAR(20)    NOT NULL DEFAULT 'en_curso',
+    corregir            BOOLEAN        NOT NULL,
+    origen              VARCHAR(20)    NOT NULL,
+    bloques             INT            NOT NULL DEFAULT 0,
+    pares_revisados     BIGINT         NOT NULL DEFAULT 0,
+    movimientos_leidos  BIGINT         NOT NULL DEFAULT 0,
+    discrepancias       INT            NOT NULL DEFAULT 0,
+    ajustes             INT            NOT NULL DEFAULT 0,
+    error               VARCHAR(1000),
+    CONSTRAINT chk_conciliaciones_kardex_estado
+        CHECK (estado IN ('en_curso', 'completada', 'fallida'))
+);
+
+-- Una sola corrida en curso (entre todos los nodos)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_conciliaciones_kardex_en_curso
+    ON public.conciliaciones_kardex ((TRUE))
+    WHERE estado = 'en_curso';
+
+CREATE TABLE IF NOT EXISTS public.discrepancias_kardex (
+    id_discrepancia     BIGSERIAL      PRIMARY KEY,
+    id_conciliacion     BIGINT         NOT NULL REFERENCES public.conciliaciones_kardex (id_conciliacion) ON DELETE CASCADE,
+    id_almacen          BIGINT         NOT NULL,
+    id_lote             BIGINT         NOT NULL,
+    saldo_kardex        NUMERIC(18,3)  NOT NULL,
+    cantidad_disponible NUMERIC(18,3)  NOT NULL,
+    cantidad_reservada  NUMERIC(18,3)  NOT NULL,
+    diferencia          NUMERIC(18,3)  NOT NULL, -- (disponible + reservada) - saldo_kardex
+    movimientos         BIGINT         NOT NULL,
+    ultimo_movimiento   TIMESTAMP(6),
+    id_movimiento_ajuste BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS ix_discrepancias_kardex_conciliacion
+    ON public.discrepancias_kardex (id_conciliacion, id_almacen, id_lote);
+
+-- Permiso para lanzar la conciliación (ver el resultado usa inventario:ver); ADMIN lo recibe como el resto
+INSERT INTO permisos (nombre_permiso, descripcion, estado_activo)
+VALUES ('inventario:conciliar', 'Conciliar kárdex vs existencias', TRUE)
+    ON CONFLICT (nombre_permiso)
+DO UPDATE SET
+    descripcion   = EXCLUDED.descripcion,
+           estado_activo = TRUE;
+
+INSERT INTO roles_permisos (id_rol, id_permiso)
+SELECT r.id_rol, p.id_permiso
+FROM roles r
+JOIN permisos p ON p.nombre_permiso = 'inventario:conciliar'
+WHERE UPPER(r.nombre_rol) = 'ADMIN'
+    ON CONFLICT (id_rol, id_permiso) DO NOTHING;
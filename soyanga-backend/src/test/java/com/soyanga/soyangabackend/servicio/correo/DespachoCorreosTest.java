@@ -0,0 +1,112 @@
+package com.soyanga.soyangabackend.servicio.correo;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class DespachoCorreosTest {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private final BandejaSalidaCorreo bandeja = mock(BandejaSalidaCorreo.class);
+	private EnvioCorreo envio;
+
+	@AfterEach
+	void cerrar() {
+		if (envio != null) envio.cerrar();
+	}
+
+	private DespachoCorreos despacho(int puerto) {
+		var sender = new JavaMailSenderImpl();
+		sender.setHost("localhost");
+		sender.setPort(puerto);
+		envio = new EnvioCorreo(sender);
+		ReflectionTestUtils.setField(envio, "hilosEnvio", 1);
+		envio.iniciar();
+
+		var d = new DespachoCorreos(bandeja, envio, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(d, "tamanioLote", 20);
+		ReflectionTestUtils.setField(d, "maxLotes", 10);
+		ReflectionTestUtils.setField(d, "maxIntentos", 6);
+		ReflectionTestUtils.setField(d, "backoffInicialSeg", 30L);
+		ReflectionTestUtils.setField(d, "backoffMaxSeg", 1800L);
+		ReflectionTestUtils.setField(d, "reservaSeg", 300L);
+		return d;
+	}
+
+	private static BandejaSalidaCorreo.PorEnviar correo(long id, String para, int intentos) {
+		return new BandejaSalidaCorreo.PorEnviar(id, "password_reset", para, "no-reply@soyanga.test", null,
+				"Restablecer contraseña", "enlace " + id, intentos);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void enviaElLoteYLoMarcaEnviado() throws Exception {
+		when(bandeja.tomar(anyInt(), anyLong()))
+				.thenReturn(List.of(correo(1, "ana@soyanga.test", 1), correo(2, "luis@soyanga.test", 1)));
+
+		int tomados = despacho(smtp.getSmtp().getPort()).despachar();
+
+		assertThat(tomados).isEqualTo(2);
+		assertThat(smtp.getReceivedMessages()).hasSize(2);
+		assertThat(smtp.getReceivedMessages()[0].getSubject()).isEqualTo("Restablecer contraseña");
+		verify(bandeja).marcarEnviados(List.of(1L, 2L));
+		var fallos = ArgumentCaptor.forClass(List.class);
+		verify(bandeja).registrarFallos(fallos.capture());
+		assertThat(fallos.getValue()).isEmpty();
+		verify(bandeja, times(1)).tomar(anyInt(), anyLong()); // lote incompleto: no hay más
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void smtpCaidoReprogramaYAlAgotarIntentosQuedaFallido() throws Exception {
+		int puertoCerrado;
+		try (var s = new ServerSocket(0)) {
+			puertoCerrado = s.getLocalPort();
+		}
+		when(bandeja.tomar(anyInt(), anyLong()))
+				.thenReturn(List.of(correo(1, "ana@soyanga.test", 1), correo(2, "luis@soyanga.test", 6)));
+
+		Instant antes = Instant.now();
+		despacho(puertoCerrado).despachar();
+
+		verify(bandeja).marcarEnviados(List.of());
+		var captor = ArgumentCaptor.forClass(List.class);
+		verify(bandeja).registrarFallos(captor.capture());
+		List<BandejaSalidaCorreo.Fallo> fallos = captor.getValue();
+		assertThat(fallos).hasSize(2);
+
+		var reintento = fallos.get(0);
+		assertThat(reintento.definitivo()).isFalse();
+		assertThat(reintento.proximoIntento()).isBetween(antes.plusSeconds(24), Instant.now().plusSeconds(36));
+		assertThat(reintento.error()).isNotBlank();
+
+		assertThat(fallos.get(1).definitivo()).isTrue();
+	}
+
+	@Test
+	void esperaExponencialConTopeYJitter() {
+		for (int i = 0; i < 50; i++) {
+			assertThat(DespachoCorreos.espera(1, 30, 1800)).isBetween(Duration.ofSeconds(24), Duration.ofSeconds(36));
+			assertThat(DespachoCorreos.espera(3, 30, 1800)).isBetween(Duration.ofSeconds(96), Duration.ofSeconds(144));
+			assertThat(DespachoCorreos.espera(40, 30, 1800)).isBetween(Duration.ofSeconds(1440), Duration.ofSeconds(2160));
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.soyanga.soyangabackend.servicio.inventario;
+
+import com.soyanga.soyangabackend.dominio.Auditoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EscritorAuditoriaTest {
+
+	private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+	private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	/** Sin arrancar el hilo escritor: la cola sólo se llena */
+	private EscritorAuditoria escritor(int capacidad) {
+		var e = new EscritorAuditoria(jdbc, registry, txManager);
+		ReflectionTestUtils.setField(e, "capacidad", capacidad);
+		ReflectionTestUtils.invokeMethod(e, "iniciar");
+		ReflectionTestUtils.setField(e, "activo", false);
+		Thread hilo = (Thread) ReflectionTestUtils.getField(e, "hilo");
+		hilo.interrupt();
+		return e;
+	}
+
+	private static Auditoria evento(String accion) {
+		return Auditoria.builder()
+				.fechaEvento(LocalDateTime.now())
+				.idUsuario(1L)
+				.moduloAfectado("inventario")
+				.accion(accion)
+				.idRegistroAfectado(10L)
+				.detalle("{}")
+				.build();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void colaLlenaInsertaEnTransaccionPropiaYLaConfirma() throws Exception {
+		TransactionStatus status = new SimpleTransactionStatus(true);
+		when(txManager.getTransaction(any())).thenReturn(status);
+		var e = escritor(1);
+		((Thread) ReflectionTestUtils.getField(e, "hilo")).join(2000);
+		var cola = (BlockingQueue<Auditoria>) ReflectionTestUtils.getField(e, "cola");
+		cola.clear();
+
+		e.encolar(evento("encolada"));
+		e.encolar(evento("desborde"));
+
+		assertThat(cola).extracting(Auditoria::getAccion).containsExactly("encolada");
+
+		var def = ArgumentCaptor.forClass(TransactionDefinition.class);
+		InOrder orden = inOrder(txManager, jdbc);
+		orden.verify(txManager).getTransaction(def.capture());
+		orden.verify(jdbc).update(contains("INSERT INTO auditorias"), any(PreparedStatementSetter.class));
+		orden.verify(txManager).commit(status);
+		assertThat(def.getValue().getPropagationBehavior())
+				.isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		assertThat(registry.get(EscritorAuditoria.EVENTOS).tag("modo", "desborde").counter().count())
+				.isEqualTo(1.0);
+	}
+
+	@Test
+	void conLugarEnLaColaNoEscribeEnElHiloQueLlama() throws Exception {
+		var e = escritor(5);
+		((Thread) ReflectionTestUtils.getField(e, "hilo")).join(2000);
+
+		e.encolar(evento("a"));
+
+		verifyNoInteractions(jdbc, txManager);
+		assertThat((BlockingQueue<?>) ReflectionTestUtils.getField(e, "cola")).hasSize(1);
+	}
+}
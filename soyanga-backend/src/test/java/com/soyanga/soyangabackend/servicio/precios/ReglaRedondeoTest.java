@@ -0,0 +1,52 @@
+package com.soyanga.soyangabackend.servicio.precios;
+
+import com.soyanga.soyangabackend.dto.precios.ConfigRedondeoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReglaRedondeoTest {
+
+	private static BigDecimal bd(String s) {
+		return new BigDecimal(s);
+	}
+
+	@Test
+	void enteroRedondeaHalfUp() {
+		var r = ReglaRedondeo.de(new ConfigRedondeoDTO("ENTERO", null, null), 1);
+		assertThat(r.apply(bd("10.5"))).isEqualByComparingTo("11");
+		assertThat(r.apply(bd("10.49"))).isEqualByComparingTo("10");
+	}
+
+	@Test
+	void multiploRedondeaAlMultiploMasCercano() {
+		var r = ReglaRedondeo.de(new ConfigRedondeoDTO("MULTIPLO", bd("0.50"), null), 1);
+		assertThat(r.apply(bd("10.26"))).isEqualByComparingTo("10.50");
+		assertThat(r.apply(bd("10.24"))).isEqualByComparingTo("10.00");
+	}
+
+	@Test
+	void decimalesYNinguno() {
+		var dec = ReglaRedondeo.de(new ConfigRedondeoDTO("DECIMALES", null, 2), 1);
+		assertThat(dec.apply(bd("3.14159"))).isEqualTo(bd("3.14"));
+
+		var ninguno = ReglaRedondeo.de(new ConfigRedondeoDTO("NINGUNO", null, null), 1);
+		assertThat(ninguno.apply(bd("3.14159"))).isEqualTo(bd("3.14159"));
+	}
+
+	@Test
+	void modoDesconocidoONuloEsEntero() {
+		assertThat(ReglaRedondeo.de(new ConfigRedondeoDTO("raro", null, null), 1).getModo()).isEqualTo(ModoRedondeo.ENTERO);
+		assertThat(ReglaRedondeo.de(null, 1).apply(bd("2.5"))).isEqualByComparingTo("3");
+		assertThat(ReglaRedondeo.de(null, 1).apply(null)).isNull();
+	}
+
+	@Test
+	void mismaConfigIgnoraEscalaYVersion() {
+		var r = ReglaRedondeo.de(new ConfigRedondeoDTO("MULTIPLO", bd("0.5"), null), 7);
+		assertThat(r.mismaConfig(new ConfigRedondeoDTO("multiplo", bd("0.500000"), null))).isTrue();
+		assertThat(r.mismaConfig(new ConfigRedondeoDTO("MULTIPLO", bd("1"), null))).isFalse();
+	}
+}
@@ -0,0 +1,126 @@
+package com.soyanga.soyangabackend.web.archivos;
+
+import com.soyanga.soyangabackend.servicio.archivos.AlmacenArchivosLocal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchivosLocalServletTest {
+
+	/* ===================== Range ===================== */
+
+	@Test
+	void rangoSimpleEsFinExclusivoYSeRecortaAlLargo() {
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=0-9", 100)).containsExactly(0, 10);
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=90-", 100)).containsExactly(90, 100);
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=50-500", 100)).containsExactly(50, 100);
+		assertThat(ArchivosLocalServlet.parsearRango(" bytes=99-99 ", 100)).containsExactly(99, 100);
+	}
+
+	@Test
+	void rangoSufijoTomaLosUltimosBytes() {
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=-10", 100)).containsExactly(90, 100);
+		// sufijo mayor que el archivo: el archivo entero
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=-500", 100)).containsExactly(0, 100);
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=-0", 100)).isNull();
+	}
+
+	@Test
+	void rangoFueraDelArchivoNoEsSatisfacible() {
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=100-", 100)).isNull();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=200-300", 100)).isNull();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=0-", 0)).isNull();
+	}
+
+	@Test
+	void rangoMalFormadoSeIgnora() {
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=-", 100)).isEmpty();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=9-3", 100)).isEmpty();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=a-b", 100)).isEmpty();
+		assertThat(ArchivosLocalServlet.parsearRango("items=0-9", 100)).isEmpty();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=99999999999999999999-", 100)).isEmpty();
+	}
+
+	@Test
+	void variosTramosSeIgnoran() {
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=0-9,20-29", 100)).isEmpty();
+		assertThat(ArchivosLocalServlet.parsearRango("bytes=0-9, -5", 100)).isEmpty();
+	}
+
+	/* ===================== Accept-Encoding ===================== */
+
+	@Test
+	void aceptaPorNombreOComodinConQPositivo() {
+		assertThat(ArchivosLocalServlet.acepta("gzip, deflate, br", "br")).isTrue();
+		assertThat(ArchivosLocalServlet.acepta("GZIP;q=0.5", "gzip")).isTrue();
+		assertThat(ArchivosLocalServlet.acepta("*", "br")).isTrue();
+		assertThat(ArchivosLocalServlet.acepta("identity", "gzip")).isFalse();
+		assertThat(ArchivosLocalServlet.acepta(null, "gzip")).isFalse();
+	}
+
+	@Test
+	void qCeroOInvalidoRechaza() {
+		assertThat(ArchivosLocalServlet.acepta("br;q=0, gzip", "br")).isFalse();
+		assertThat(ArchivosLocalServlet.acepta("br;q=0.0", "br")).isFalse();
+		assertThat(ArchivosLocalServlet.acepta("br;q=x", "br")).isFalse();
+	}
+
+	/* ===================== If-None-Match ===================== */
+
+	@Test
+	void coincideConComparacionDebil() {
+		assertThat(ArchivosLocalServlet.coincide("\"abc\"", "\"abc\"")).isTrue();
+		assertThat(ArchivosLocalServlet.coincide("W/\"abc\"", "\"abc\"")).isTrue();
+		assertThat(ArchivosLocalServlet.coincide("\"10-20\"", "W/\"10-20\"")).isTrue();
+		assertThat(ArchivosLocalServlet.coincide("W/\"10-20\"", "W/\"10-20\"")).isTrue();
+		assertThat(ArchivosLocalServlet.coincide("\"abc\"", "\"abd\"")).isFalse();
+	}
+
+	@Test
+	void coincideConListasYComodin() {
+		assertThat(ArchivosLocalServlet.coincide("\"x\", W/\"abc\" ,\"y\"", "\"abc\"")).isTrue();
+		assertThat(ArchivosLocalServlet.coincide("\"x\",\"y\"", "\"abc\"")).isFalse();
+		assertThat(ArchivosLocalServlet.coincide(" * ", "\"abc\"")).isTrue();
+	}
+
+	/* ===================== Servlet ===================== */
+
+	@Test
+	void variosTramosRespondenElArchivoCompleto(@TempDir Path raiz) throws Exception {
+		Files.writeString(raiz.resolve("logo.txt"), "0123456789");
+		var servlet = new ArchivosLocalServlet(new AlmacenArchivosLocal(raiz), new SimpleMeterRegistry(), Long.MAX_VALUE);
+
+		var req = new MockHttpServletRequest("GET", "/uploads/logo.txt");
+		req.setPathInfo("/logo.txt");
+		req.addHeader("Range", "bytes=0-1,4-5");
+		var resp = new MockHttpServletResponse();
+		servlet.service(req, resp);
+
+		assertThat(resp.getStatus()).isEqualTo(200);
+		assertThat(resp.getHeader("Content-Range")).isNull();
+		assertThat(resp.getContentAsString()).isEqualTo("0123456789");
+	}
+
+	@Test
+	void rangoSimpleResponde206(@TempDir Path raiz) throws Exception {
+		Files.writeString(raiz.resolve("logo.txt"), "0123456789");
+		var servlet = new ArchivosLocalServlet(new AlmacenArchivosLocal(raiz), new SimpleMeterRegistry(), Long.MAX_VALUE);
+
+		var req = new MockHttpServletRequest("GET", "/uploads/logo.txt");
+		req.setPathInfo("/logo.txt");
+		req.addHeader("Range", "bytes=-3");
+		var resp = new MockHttpServletResponse();
+		servlet.service(req, resp);
+
+		assertThat(resp.getStatus()).isEqualTo(206);
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 7-9/10");
+		assertThat(resp.getContentAsString()).isEqualTo("789");
+	}
+}